@@ -65,6 +65,7 @@ cluster.reservation.name=
 
 parallelize=enabled
 forceLocalExecution=enabled
+scratch.dir=
 mutant.coverage=enabled
 block.attacker=enabled
 EOF
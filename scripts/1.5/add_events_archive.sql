@@ -0,0 +1,65 @@
+-- Indexes for polling events by game and event id, instead of by timestamp.
+-- Event_Status is included since every poll filters on it.
+ALTER TABLE `events`
+  ADD KEY `events_Game_ID_Event_ID_Event_Status` (`Game_ID`,`Event_ID`,`Event_Status`),
+  ADD KEY `events_Player_ID` (`Player_ID`);
+
+ALTER TABLE `event_chat`
+  ADD KEY `event_chat_Event_Id` (`Event_Id`);
+
+-- Archives for old events and their chat messages, filled daily by event_archive_events.
+DROP TABLE IF EXISTS `events_archive`;
+CREATE TABLE `events_archive` (
+  `Event_ID` int(11) NOT NULL,
+  `Game_ID` int(11) DEFAULT NULL,
+  `Player_ID` int(11) DEFAULT NULL,
+  `Event_Message` varchar(255) DEFAULT NULL,
+  `Event_Type` varchar(45) DEFAULT NULL,
+  `Event_Status` varchar(45) DEFAULT NULL,
+  `Timestamp` timestamp NULL DEFAULT NULL,
+  PRIMARY KEY (`Event_ID`),
+  KEY `events_archive_Game_ID` (`Game_ID`)
+);
+
+DROP TABLE IF EXISTS `event_chat_archive`;
+CREATE TABLE `event_chat_archive` (
+  `Id` int(11) NOT NULL,
+  `Event_Id` int(11) DEFAULT NULL,
+  `Message` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`Id`),
+  KEY `event_chat_archive_Event_Id` (`Event_Id`)
+);
+
+DROP PROCEDURE IF EXISTS proc_archive_events;
+
+DELIMITER $$
+CREATE PROCEDURE proc_archive_events(IN days INT)
+BEGIN
+  DECLARE cutoff TIMESTAMP DEFAULT DATE_SUB(NOW(), INTERVAL days DAY);
+  START TRANSACTION;
+  INSERT IGNORE INTO events_archive
+    SELECT e.*
+    FROM events e
+      LEFT JOIN games g ON g.ID = e.Game_ID
+    WHERE e.Timestamp < cutoff
+      AND (e.Event_Status = 'DELETED' OR g.State = 'FINISHED');
+  INSERT IGNORE INTO event_chat_archive
+    SELECT c.*
+    FROM event_chat c
+      INNER JOIN events_archive a ON a.Event_ID = c.Event_Id;
+  DELETE c
+    FROM event_chat c
+      INNER JOIN event_chat_archive a ON a.Id = c.Id;
+  DELETE e
+    FROM events e
+      INNER JOIN events_archive a ON a.Event_ID = e.Event_ID;
+  COMMIT;
+END$$
+DELIMITER ;
+
+DROP EVENT IF EXISTS event_archive_events;
+CREATE EVENT IF NOT EXISTS event_archive_events
+  ON SCHEDULE EVERY 1 DAY
+  ON COMPLETION PRESERVE
+DO
+  CALL proc_archive_events(30);
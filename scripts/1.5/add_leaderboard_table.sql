@@ -0,0 +1,115 @@
+-- Leaderboard table maintained by triggers on mutants and tests,
+-- replacing the aggregation over all submissions on every page view.
+DROP TABLE IF EXISTS `leaderboard`;
+CREATE TABLE `leaderboard` (
+  `User_ID` int(11) NOT NULL,
+  `NMutants` int(11) NOT NULL DEFAULT '0',
+  `AScore` int(11) NOT NULL DEFAULT '0',
+  `NTests` int(11) NOT NULL DEFAULT '0',
+  `DScore` int(11) NOT NULL DEFAULT '0',
+  `NKilled` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`User_ID`)
+);
+
+DELIMITER $$
+CREATE TRIGGER leaderboard_ins_mutants
+  AFTER INSERT ON `mutants`
+  FOR EACH ROW BEGIN
+  INSERT INTO leaderboard (User_ID, NMutants, AScore)
+    SELECT User_ID, 1, IFNULL(NEW.Points, 0) FROM players WHERE ID = NEW.Player_ID
+  ON DUPLICATE KEY UPDATE NMutants = NMutants + 1, AScore = AScore + IFNULL(NEW.Points, 0);
+END$$
+
+CREATE TRIGGER leaderboard_upd_mutants
+  AFTER UPDATE ON `mutants`
+  FOR EACH ROW BEGIN
+  IF NOT (NEW.Player_ID <=> OLD.Player_ID AND NEW.Points <=> OLD.Points) THEN
+    UPDATE leaderboard
+    SET NMutants = NMutants - 1, AScore = AScore - IFNULL(OLD.Points, 0)
+    WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+    INSERT INTO leaderboard (User_ID, NMutants, AScore)
+      SELECT User_ID, 1, IFNULL(NEW.Points, 0) FROM players WHERE ID = NEW.Player_ID
+    ON DUPLICATE KEY UPDATE NMutants = NMutants + 1, AScore = AScore + IFNULL(NEW.Points, 0);
+  END IF;
+END$$
+
+CREATE TRIGGER leaderboard_del_mutants
+  AFTER DELETE ON `mutants`
+  FOR EACH ROW BEGIN
+  UPDATE leaderboard
+  SET NMutants = NMutants - 1, AScore = AScore - IFNULL(OLD.Points, 0)
+  WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+END$$
+
+CREATE TRIGGER leaderboard_ins_tests
+  AFTER INSERT ON `tests`
+  FOR EACH ROW BEGIN
+  INSERT INTO leaderboard (User_ID, NTests, DScore, NKilled)
+    SELECT User_ID, 1, IFNULL(NEW.Points, 0), IFNULL(NEW.MutantsKilled, 0) FROM players WHERE ID = NEW.Player_ID
+  ON DUPLICATE KEY UPDATE NTests = NTests + 1, DScore = DScore + IFNULL(NEW.Points, 0),
+    NKilled = NKilled + IFNULL(NEW.MutantsKilled, 0);
+END$$
+
+CREATE TRIGGER leaderboard_upd_tests
+  AFTER UPDATE ON `tests`
+  FOR EACH ROW BEGIN
+  IF NOT (NEW.Player_ID <=> OLD.Player_ID AND NEW.Points <=> OLD.Points AND NEW.MutantsKilled <=> OLD.MutantsKilled) THEN
+    UPDATE leaderboard
+    SET NTests = NTests - 1, DScore = DScore - IFNULL(OLD.Points, 0), NKilled = NKilled - IFNULL(OLD.MutantsKilled, 0)
+    WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+    INSERT INTO leaderboard (User_ID, NTests, DScore, NKilled)
+      SELECT User_ID, 1, IFNULL(NEW.Points, 0), IFNULL(NEW.MutantsKilled, 0) FROM players WHERE ID = NEW.Player_ID
+    ON DUPLICATE KEY UPDATE NTests = NTests + 1, DScore = DScore + IFNULL(NEW.Points, 0),
+      NKilled = NKilled + IFNULL(NEW.MutantsKilled, 0);
+  END IF;
+END$$
+
+CREATE TRIGGER leaderboard_del_tests
+  AFTER DELETE ON `tests`
+  FOR EACH ROW BEGIN
+  UPDATE leaderboard
+  SET NTests = NTests - 1, DScore = DScore - IFNULL(OLD.Points, 0), NKilled = NKilled - IFNULL(OLD.MutantsKilled, 0)
+  WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+END$$
+DELIMITER ;
+
+CREATE OR REPLACE VIEW `view_leaderboard`
+  AS
+    SELECT
+      U.username                                AS username,
+      IFNULL(L.NMutants, 0)                     AS NMutants,
+      IFNULL(L.AScore, 0)                       AS AScore,
+      IFNULL(L.NTests, 0)                       AS NTests,
+      IFNULL(L.DScore, 0)                       AS DScore,
+      IFNULL(L.NKilled, 0)                      AS NKilled,
+      IFNULL(L.AScore, 0) + IFNULL(L.DScore, 0) AS TotalScore
+    FROM view_valid_users U
+      LEFT JOIN leaderboard L ON U.User_ID = L.User_ID;
+
+--
+-- Recomputes the leaderboard table from all mutants and tests,
+-- e.g. to repair it after submissions were modified with the triggers disabled.
+--
+
+DROP PROCEDURE IF EXISTS proc_rebuild_leaderboard;
+
+DELIMITER $$
+CREATE PROCEDURE proc_rebuild_leaderboard()
+BEGIN
+  START TRANSACTION;
+  DELETE FROM leaderboard;
+  INSERT INTO leaderboard (User_ID, NMutants, AScore, NTests, DScore, NKilled)
+    SELECT
+      A.user_id,
+      A.NMutants,
+      IFNULL(A.AScore, 0),
+      D.NTests,
+      IFNULL(D.DScore, 0),
+      IFNULL(D.NKilled, 0)
+    FROM view_attackers A JOIN view_defenders D ON A.user_id = D.user_id;
+  COMMIT;
+END$$
+DELIMITER ;
+
+-- Fill the table with the existing submissions
+CALL proc_rebuild_leaderboard();
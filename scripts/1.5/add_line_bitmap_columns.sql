@@ -0,0 +1,33 @@
+-- Binary encoded line numbers, see org.codedefenders.util.LineBitmaps.
+-- The comma separated columns are kept and still written, rows without
+-- bitmaps are read from them.
+ALTER TABLE mutants
+  ADD COLUMN MutatedLines_Bitmap blob;
+
+ALTER TABLE tests
+  ADD COLUMN Lines_Covered_Bitmap blob,
+  ADD COLUMN Lines_Uncovered_Bitmap blob;
+
+-- Views on mutants.* and tests.* must be recreated to include the new columns
+CREATE OR REPLACE VIEW `view_mutants_with_user` AS
+SELECT mutants.*, users.*
+FROM mutants
+       LEFT JOIN players ON players.ID = mutants.Player_ID
+       LEFT JOIN users ON players.User_ID = users.User_ID;
+
+CREATE OR REPLACE VIEW `view_valid_mutants` AS
+SELECT *
+FROM view_mutants_with_user
+WHERE ClassFile IS NOT NULL;
+
+CREATE OR REPLACE VIEW `view_valid_tests` AS
+SELECT *
+FROM tests
+WHERE tests.ClassFile IS NOT NULL
+  AND EXISTS(
+    SELECT *
+    FROM targetexecutions ex
+    WHERE ex.Test_ID = tests.Test_ID
+      AND ex.Target = 'TEST_ORIGINAL'
+      AND ex.Status = 'SUCCESS'
+  );
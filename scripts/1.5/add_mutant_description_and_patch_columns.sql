@@ -0,0 +1,15 @@
+ALTER TABLE mutants
+  ADD COLUMN MutationDescription text,
+  ADD COLUMN Patch mediumtext;
+
+-- Views on mutants.* must be recreated to include the new columns
+CREATE OR REPLACE VIEW `view_mutants_with_user` AS
+SELECT mutants.*, users.*
+FROM mutants
+       LEFT JOIN players ON players.ID = mutants.Player_ID
+       LEFT JOIN users ON players.User_ID = users.User_ID;
+
+CREATE OR REPLACE VIEW `view_valid_mutants` AS
+SELECT *
+FROM view_mutants_with_user
+WHERE ClassFile IS NOT NULL;
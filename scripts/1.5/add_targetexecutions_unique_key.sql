@@ -0,0 +1,13 @@
+-- Only one execution is stored per test, mutant and target, so concurrent
+-- executions of the same pair are stored once. Duplicates are removed first,
+-- keeping the oldest execution of each pair.
+DELETE newer
+FROM targetexecutions AS newer
+  INNER JOIN targetexecutions AS older
+    ON older.Test_ID = newer.Test_ID
+    AND older.Mutant_ID = newer.Mutant_ID
+    AND older.Target = newer.Target
+    AND older.TargetExecution_ID < newer.TargetExecution_ID;
+
+ALTER TABLE `targetexecutions`
+  ADD UNIQUE KEY `targetexecutions_Test_ID_Mutant_ID_Target` (`Test_ID`,`Mutant_ID`,`Target`);
@@ -20,6 +20,7 @@ package org.codedefenders.database;
 
 import org.codedefenders.game.GameLevel;
 import org.codedefenders.game.GameState;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.leaderboard.Entry;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
@@ -34,6 +35,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +43,12 @@ public class AdminDAO {
 
     public static final String TIMESTAMP_NEVER = "never";
     private static final Logger logger = LoggerFactory.getLogger(AdminDAO.class);
+
+    /**
+     * Caches system settings by name. The short time to live picks up changes made directly in the database.
+     */
+    private static final EntityCache<AdminSystemSettings.SETTING_NAME, AdminSystemSettings.SettingsDTO> settingsCache =
+            new EntityCache<>("System settings", 100, 1, TimeUnit.MINUTES);
     private static final String UNASSIGNED_USERS_QUERY =
             "SELECT DISTINCT\n" +
                     "  users.*\n" +
@@ -332,31 +340,15 @@ public class AdminDAO {
     public static Entry getScore(int userID) throws UncheckedSQLException, SQLMappingException {
         String query = String.join("\n",
                 "SELECT",
-                "  U.username                            AS username,",
-                "  IFNULL(NMutants, 0)                   AS NMutants,",
-                "  IFNULL(AScore, 0)                     AS AScore,",
-                "  IFNULL(NTests, 0)                     AS NTests,",
-                "  IFNULL(DScore, 0)                     AS DScore,",
-                "  IFNULL(NKilled, 0)                    AS NKilled,",
-                "  IFNULL(AScore, 0) + IFNULL(DScore, 0) AS TotalScore",
-                "FROM users U LEFT JOIN",
-                "  (SELECT",
-                "     PA.user_id,",
-                "     count(M.Mutant_ID) AS NMutants,",
-                "     sum(M.Points)      AS AScore",
-                "   FROM players PA LEFT JOIN mutants M ON PA.id = M.Player_ID",
-                "   GROUP BY PA.user_id)",
-                "    AS Attacker ON U.user_id = Attacker.user_id",
-                "  LEFT JOIN",
-                "  (SELECT",
-                "     PD.user_id,",
-                "     count(T.Test_ID)     AS NTests,",
-                "     sum(T.Points)        AS DScore,",
-                "     sum(T.MutantsKilled) AS NKilled",
-                "   FROM players PD LEFT JOIN tests T ON PD.id = T.Player_ID",
-                "   GROUP BY PD.user_id)",
-                "    AS Defender ON U.user_id = Defender.user_id",
-                "WHERE U.user_id = ?;");
+                "  U.username                                AS username,",
+                "  IFNULL(L.NMutants, 0)                     AS NMutants,",
+                "  IFNULL(L.AScore, 0)                       AS AScore,",
+                "  IFNULL(L.NTests, 0)                       AS NTests,",
+                "  IFNULL(L.DScore, 0)                       AS DScore,",
+                "  IFNULL(L.NKilled, 0)                      AS NKilled,",
+                "  IFNULL(L.AScore, 0) + IFNULL(L.DScore, 0) AS TotalScore",
+                "FROM users U LEFT JOIN leaderboard L ON U.User_ID = L.User_ID",
+                "WHERE U.User_ID = ?;");
         return DB.executeQueryReturnValue(query, DatabaseAccess::entryFromRS, DatabaseValue.of(userID));
     }
 
@@ -490,17 +482,23 @@ public class AdminDAO {
 
     public static boolean deletePlayerTest(int pid) {
         String query = "DELETE FROM tests WHERE Player_ID =?;";
-        return DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        GameVersions.bumpAll();
+        return deleted;
     }
 
     public static boolean deletePlayerMutants(int pid) {
         String query = "DELETE FROM mutants WHERE Player_ID =?;";
-        return DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        GameVersions.bumpAll();
+        return deleted;
     }
 
     public static boolean deleteDefenderEquivalences(int pid) {
         String query = "DELETE FROM equivalences WHERE Defender_ID =?;";
-        return DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        GameVersions.bumpAll();
+        return deleted;
     }
 
     public static boolean deleteAttackerEquivalences(int pid) {
@@ -509,12 +507,19 @@ public class AdminDAO {
                 "WHERE Mutant_ID IN (SELECT Mutant_ID",
                 "                    FROM mutants",
                 "                    WHERE Player_ID = ?);");
-        return DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        GameVersions.bumpAll();
+        return deleted;
     }
 
     public static boolean deletePlayer(int pid) {
         String query = "DELETE FROM players WHERE ID =?;";
-        return DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(pid));
+        UserDAO.invalidatePlayer(pid);
+        GameVersions.bumpAll();
+        MultiplayerGameDAO.invalidateGameSummaries();
+        DuelGameDAO.invalidateDuelGames();
+        return deleted;
     }
 
     public static boolean deleteTestTargetExecutions(int tid) {
@@ -739,12 +744,16 @@ public class AdminDAO {
                 DatabaseValue.of(password),
                 DatabaseValue.of(uid)
         };
-        return DB.executeUpdateQuery(query, values);
+        final boolean updated = DB.executeUpdateQuery(query, values);
+        UserDAO.invalidateUser(uid);
+        return updated;
     }
 
     public static boolean deleteUser(int userId) {
         String query = "DELETE FROM users WHERE User_ID = ?;";
-        return DB.executeUpdateQuery(query, DatabaseValue.of(userId));
+        final boolean deleted = DB.executeUpdateQuery(query, DatabaseValue.of(userId));
+        UserDAO.invalidateUser(userId);
+        return deleted;
         // this does not work as foreign keys are not deleted (recommended: update w/ ON DELETE CASCADE)
     }
 
@@ -772,7 +781,27 @@ public class AdminDAO {
                 "SET " + valueToSet + " = ?",
                 "WHERE name = ?;");
 
-        return DB.executeUpdateQuery(query, value, DatabaseValue.of(setting.getName().name()));
+        final boolean updated = DB.executeUpdateQuery(query, value, DatabaseValue.of(setting.getName().name()));
+        settingsCache.invalidate(setting.getName());
+        return updated;
+    }
+
+    private static AdminSystemSettings.SettingsDTO copyOf(AdminSystemSettings.SettingsDTO setting) {
+        if (setting == null) {
+            return null;
+        }
+        switch (setting.getType()) {
+            case STRING_VALUE:
+                return new AdminSystemSettings.SettingsDTO(setting.getName(), setting.getStringValue());
+            case INT_VALUE:
+                return new AdminSystemSettings.SettingsDTO(setting.getName(), setting.getIntValue());
+            case BOOL_VALUE:
+                return new AdminSystemSettings.SettingsDTO(setting.getName(), setting.getBoolValue());
+            case FLOAT_VALUE:
+                return new AdminSystemSettings.SettingsDTO(setting.getName(), setting.getFloatValue());
+            default:
+                return null;
+        }
     }
 
     private static AdminSystemSettings.SettingsDTO settingFromRS(ResultSet rs) throws SQLException {
@@ -785,6 +814,8 @@ public class AdminDAO {
                 return new AdminSystemSettings.SettingsDTO(name,rs.getInt(settingType.name()));
             case BOOL_VALUE:
                 return new AdminSystemSettings.SettingsDTO(name,rs.getBoolean(settingType.name()));
+            case FLOAT_VALUE:
+                return new AdminSystemSettings.SettingsDTO(name,rs.getFloat(settingType.name()));
             default:
                 return null;
         }
@@ -831,8 +862,10 @@ public class AdminDAO {
 
     public static AdminSystemSettings.SettingsDTO getSystemSetting(AdminSystemSettings.SETTING_NAME name)
             throws UncheckedSQLException, SQLMappingException {
-        String query = "SELECT * FROM settings WHERE settings.name = ?;";
-        return DB.executeQueryReturnValue(query, AdminDAO::settingFromRS, DatabaseValue.of(name.name()));
+        return copyOf(settingsCache.get(name, settingName -> {
+            String query = "SELECT * FROM settings WHERE settings.name = ?;";
+            return DB.executeQueryReturnValue(query, AdminDAO::settingFromRS, DatabaseValue.of(settingName.name()));
+        }));
     }
 
     // TODO this is just used to initialize the connection pool, we should probably make more specific methods for that
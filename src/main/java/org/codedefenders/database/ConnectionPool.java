@@ -25,19 +25,31 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.naming.NamingException;
 
 /**
  * This class manages database connection by collecting connections in a pool which can be queried.
  * Queried connections have to be released to the pool again, otherwise the pool is leaking.
- *
- * Available connections are handled in a {@link Queue}.
- *
+ * <p>
+ * Idle connections are kept in a lock-free {@link ConcurrentLinkedDeque}. The number of borrowed
+ * connections is bounded by a {@link Semaphore}, so borrowing and releasing connections does not
+ * synchronize on the pool. Idle connections are validated periodically using {@link Connection#isValid(int)}.
+ * Connections which were idle for longer than {@link #VALIDATION_IDLE_THRESHOLD} are validated again when they
+ * are borrowed, since the database may have closed them in the meantime. The periodic task
+ * also logs connections, which are borrowed for longer than {@link #LEAK_DETECTION_THRESHOLD}.
+ * <p>
  * The connection pool limits the number of instances to one. The instance can
  * get retrieved using {@link #instance()}.
  */
@@ -49,17 +61,68 @@ public final class ConnectionPool {
     private static final int MAX_RETRIES = 5;
     private static final long RETRY_TIMEOUT = 5000;
 
-    private List<Connection> connections;
-    private Queue<Connection> availableConnections;
+    /**
+     * Interval in which idle connections are validated and borrowed connections are checked for leaks.
+     */
+    private static final long MAINTENANCE_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * Number of seconds the validation of a single idle connection may take.
+     */
+    private static final int VALIDATION_TIMEOUT = 2;
+    /**
+     * Amount of time after which an idle connection is validated before it is borrowed.
+     */
+    private static final long VALIDATION_IDLE_THRESHOLD = TimeUnit.SECONDS.toMillis(10);
+    /**
+     * Amount of time after which a borrowed connection, which is not released, is reported as leaked.
+     */
+    private static final long LEAK_DETECTION_THRESHOLD = TimeUnit.SECONDS.toMillis(60);
+    /**
+     * Number of recent waiting times kept to compute percentiles.
+     */
+    private static final int WAIT_TIME_SAMPLES = 1024;
+
+    /**
+     * Idle connections. Recently released connections are borrowed first.
+     */
+    private final ConcurrentLinkedDeque<Connection> availableConnections = new ConcurrentLinkedDeque<>();
+    /**
+     * Times at which the idle connections were added to {@link #availableConnections}.
+     */
+    private final Map<Connection, Long> idleSince = new ConcurrentHashMap<>();
+    /**
+     * Borrowed connections with information on who borrowed them.
+     */
+    private final Map<Connection, Lease> borrowedConnections = new ConcurrentHashMap<>();
+    /**
+     * Permits for borrowing a connection. There are as many permits as connections not currently borrowed.
+     */
+    private final ResizableSemaphore permits = new ResizableSemaphore();
+    /**
+     * Number of open connections, idle or borrowed.
+     */
+    private final AtomicInteger openConnections = new AtomicInteger();
+    /**
+     * Prepared statement caches of the open connections.
+     */
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLongArray waitTimes = new AtomicLongArray(WAIT_TIME_SAMPLES);
+
+    private ScheduledExecutorService maintenance;
+
     /**
      * Amount of time a thread waits to be notified of newly available connections.
      */
-    private long waitingTime = TimeUnit.SECONDS.toMillis(5);
+    private volatile long waitingTime = TimeUnit.SECONDS.toMillis(5);
 
     /**
      * Number of constantly open connections.
      */
-    private int nbConnections = 20;
+    private volatile int nbConnections = 20;
 
     /**
      * @return the connection pool. There should always only be one instance.
@@ -76,7 +139,7 @@ public final class ConnectionPool {
     }
 
     /**
-     * Initializes the connections list and queue of available connections.
+     * Opens the initial connections and starts the maintenance task.
      */
     private void init() {
         for (int i = 1; i <= MAX_RETRIES; i++) {
@@ -103,146 +166,301 @@ public final class ConnectionPool {
             }
         }
 
-        Connection newConnection;
-        availableConnections = new LinkedList<>();
-        connections = new ArrayList<>();
-
         try {
             for (int i = 0; i < nbConnections; ++i) {
-                newConnection = refreshConnection();
-                connections.add(newConnection);
-                availableConnections.add(connections.get(i));
+                availableConnections.add(idle(openConnection()));
             }
         } catch (SQLException e) {
             logger.error("SQL exception while opening connections.", e);
             closeDBConnections();
             throw new UncheckedSQLException(e);
         }
+        permits.release(nbConnections);
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "ConnectionPool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL, MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
+
         logger.info("ConnectionPool initialized with " + nbConnections + " connections.");
     }
 
     /**
-     * Closes all data base connections in the queue.
+     * Closes all data base connections, idle and borrowed ones.
      */
     public void closeDBConnections() {
         logger.info("Closing ConnectionPool connections...");
-        // Needed to avoid ConcurrentModificationException when iterating
-        // and removing
-        List<Connection> closedConnections = new ArrayList<>();
-        try {
-            for (Connection connection : connections) {
-                connection.close();
-                availableConnections.remove(connection);
-                closedConnections.add(connection);
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        Connection connection;
+        while ((connection = availableConnections.pollFirst()) != null) {
+            closeConnection(connection);
+        }
+        for (Connection borrowed : borrowedConnections.keySet()) {
+            if (borrowedConnections.remove(borrowed) != null) {
+                closeConnection(borrowed);
             }
-
-        } catch (SQLException e) {
-            logger.warn("SQL exception while closing connections.", e);
-            // otherwise ignored
-        } finally {
-            connections.removeAll(closedConnections);
         }
         logger.info("Closed ConnectionPool connections successfully.");
         INSTANCE = null;
     }
 
     /**
-     * Returns an unused connection from the queue. Tries to refreshConnection connections
-     * once if they do not work.
+     * Returns an unused connection from the pool. Waits up to the configured
+     * waiting time for a connection to be released, if all connections are borrowed.
+     * <p>
+     * Closed connections are replaced. Connections which were idle for longer than
+     * {@link #VALIDATION_IDLE_THRESHOLD} are validated and replaced if they are invalid.
      *
-     * @return a free connection or null if none is available.
+     * @return a free connection.
      * @throws NoMoreConnectionsException if there are no free connections
      */
-    synchronized Connection getDBConnection() throws NoMoreConnectionsException {
-        Connection returnConn;
-        if (availableConnections.peek() != null) {
-            returnConn = availableConnections.poll();
-        } else {
-            try {
-                wait(waitingTime);
-            } catch (InterruptedException e) {
-                logger.warn("The DB thread was interrupted while waiting for a connection.");
-                throw new Error();
-            }
-            if (availableConnections.peek() == null) {
+    Connection getDBConnection() throws NoMoreConnectionsException {
+        final long startTime = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(waitingTime, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
                 logger.warn("Threw NoMoreConnectionsException.");
                 throw new NoMoreConnectionsException("No connections available.");
             }
-            returnConn = availableConnections.poll();
+        } catch (InterruptedException e) {
+            logger.warn("The DB thread was interrupted while waiting for a connection.");
+            Thread.currentThread().interrupt();
+            throw new NoMoreConnectionsException("Interrupted while waiting for a connection.");
         }
+        recordWaitTime(System.nanoTime() - startTime);
+
+        Connection connection = availableConnections.pollFirst();
         try {
-            returnConn.createStatement().execute("SELECT 1;");
-        } catch (SQLException e) {
-            logger.info("Refreshing SQL connection: " + returnConn + ".");
-            try {
-                returnConn = refreshConnection();
-                if (returnConn.isClosed() || !returnConn.createStatement().execute("SELECT 1;")) {
-                    logger.error("Connection could not be refreshed.");
-                    throw new NoMoreConnectionsException("No connections available. Refreshed connection is closed or failed to execute statement");
+            if (connection != null) {
+                final Long idleStart = idleSince.remove(connection);
+                final boolean longIdle = idleStart == null
+                        || System.currentTimeMillis() - idleStart > VALIDATION_IDLE_THRESHOLD;
+                if (connection.isClosed() || (longIdle && !isValid(connection))) {
+                    logger.info("Replacing invalid SQL connection: " + connection + ".");
+                    closeConnection(connection);
+                    connection = null;
                 }
-                logger.info("SQL connection {} refreshed successfully.", returnConn);
-            } catch (SQLException e1) {
-                logger.error("SQL exception while refreshing connection: " + returnConn + ".", e1);
-                throw new NoMoreConnectionsException("No connections available.");
             }
-
+            if (connection == null) {
+                connection = openConnection();
+            }
+        } catch (SQLException | UncheckedSQLException e) {
+            logger.error("SQL exception while opening connection.", e);
+            permits.release();
+            throw new NoMoreConnectionsException("No connections available.");
         }
-        return returnConn;
+
+        borrowedConnections.put(connection, new Lease());
+        return connection;
     }
 
-    private Connection refreshConnection() throws SQLException {
+    /**
+     * Opens a new connection, which counts towards the open connections of the pool.
+     */
+    private Connection openConnection() throws SQLException {
         try {
-            return DatabaseConnection.getConnection();
+            final Connection connection = DatabaseConnection.getConnection();
+            openConnections.incrementAndGet();
+            statementCaches.put(connection, new StatementCache(connection));
+            return connection;
         } catch (NamingException e) {
             logger.warn("JDBC Driver not found.", e);
             throw new UncheckedSQLException("Could not update database connection.");
         }
     }
 
+    /**
+     * Closes a connection of the pool.
+     */
+    private void closeConnection(Connection connection) {
+        openConnections.decrementAndGet();
+        idleSince.remove(connection);
+        final StatementCache statementCache = statementCaches.remove(connection);
+        if (statementCache != null) {
+            statementCache.close();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("SQL exception while closing connection.", e);
+            // otherwise ignored
+        }
+    }
+
+    /**
+     * Returns the prepared statement cache of a connection of the pool.
+     *
+     * @param connection a connection, which was borrowed from the pool.
+     * @return the statement cache of the connection, or {@code null} if the connection is not part of the pool.
+     */
+    StatementCache getStatementCache(Connection connection) {
+        return statementCaches.get(connection);
+    }
+
     /**
      * Releases a previously gotten connection so it is usable for other objects
      * again.
+     * <p>
+     * If the pool was shrunk while the connection was borrowed, the connection is closed instead.
      *
      * @param connection to be released.
      */
-    synchronized void releaseDBConnection(Connection connection) {
-        if (connection != null) {
-            availableConnections.add(connection);
-            notifyAll();
+    void releaseDBConnection(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        final Lease lease = borrowedConnections.remove(connection);
+        if (lease == null) {
+            logger.warn("Released connection {}, which is not borrowed from the pool.", connection);
+            return;
         }
+        if (lease.leaked) {
+            logger.info("Leaked connection was released after {} ms.", System.currentTimeMillis() - lease.borrowedAt);
+        }
+        if (openConnections.get() > nbConnections) {
+            closeConnection(connection);
+        } else {
+            availableConnections.offerFirst(idle(connection));
+        }
+        permits.release();
     }
 
-    public void updateSize(int newSize) {
-        if (newSize < nbConnections) {
-            for (int i = newSize; i < nbConnections; i++) {
-                Connection conn = connections.get(i);
-                availableConnections.remove(conn);
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    logger.error("Failed to remove database connection from the pool.", e);
-                }
+    /**
+     * Changes the number of connections of the pool.
+     * <p>
+     * When growing the pool, new connections are opened right away. When shrinking the pool,
+     * idle connections are closed right away, borrowed connections once they are released.
+     *
+     * @param newSize the new number of connections.
+     */
+    public synchronized void updateSize(int newSize) {
+        if (newSize < 1) {
+            logger.warn("Ignoring invalid connection pool size {}.", newSize);
+            return;
+        }
+        final int oldSize = nbConnections;
+        nbConnections = newSize;
+        if (newSize < oldSize) {
+            permits.reducePermits(oldSize - newSize);
+            Connection connection;
+            while (openConnections.get() > newSize && (connection = availableConnections.pollLast()) != null) {
+                closeConnection(connection);
             }
-            nbConnections = newSize;
-            connections = connections.subList(0, nbConnections);
-        } else if (newSize > nbConnections) {
-            for (int i = nbConnections; i < newSize; i++) {
+        } else if (newSize > oldSize) {
+            for (int i = oldSize; i < newSize; i++) {
                 try {
-                    Connection newConnection = refreshConnection();
-                    connections.add(newConnection);
-                    availableConnections.add(connections.get(i));
+                    availableConnections.offerLast(idle(openConnection()));
                 } catch (SQLException e) {
+                    // The connection is opened once it is borrowed.
                     logger.error("Failed to add database connection to the pool.", e);
                 }
             }
-            nbConnections = newSize;
+            permits.release(newSize - oldSize);
         }
+        logger.info("Resized ConnectionPool from {} to {} connections.", oldSize, newSize);
     }
 
     public void updateWaitingTime(int newWaitingTime) {
         waitingTime = newWaitingTime;
     }
 
+    /**
+     * Validates idle connections and replaces invalid ones. Also reports
+     * connections, which are borrowed for too long.
+     */
+    private void maintain() {
+        try {
+            // Connections are taken out of the deque one by one, so they cannot be borrowed while they are validated
+            for (Connection connection : new ArrayList<>(availableConnections)) {
+                if (!availableConnections.removeFirstOccurrence(connection)) {
+                    // borrowed in the meantime
+                    continue;
+                }
+                if (isValid(connection)) {
+                    availableConnections.offerLast(idle(connection));
+                    continue;
+                }
+                logger.info("Refreshing SQL connection: " + connection + ".");
+                closeConnection(connection);
+                try {
+                    availableConnections.offerLast(idle(openConnection()));
+                } catch (SQLException e) {
+                    // The connection is opened once it is borrowed.
+                    logger.error("SQL exception while refreshing connection.", e);
+                }
+            }
+
+            final long now = System.currentTimeMillis();
+            for (Lease lease : borrowedConnections.values()) {
+                if (!lease.leaked && now - lease.borrowedAt > LEAK_DETECTION_THRESHOLD) {
+                    lease.leaked = true;
+                    leakCount.incrementAndGet();
+                    logger.warn("Connection borrowed by thread {} was not released for {} ms. Possible connection leak.",
+                            lease.threadName, now - lease.borrowedAt, lease.stackTrace);
+                }
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("ConnectionPool metrics: {}", getMetrics());
+            }
+        } catch (RuntimeException e) {
+            // Otherwise, the scheduled task would not be executed again.
+            logger.error("Exception during connection pool maintenance.", e);
+        }
+    }
+
+    /**
+     * Records the given connection as idle from now on.
+     *
+     * @return the given connection.
+     */
+    private Connection idle(Connection connection) {
+        idleSince.put(connection, System.currentTimeMillis());
+        return connection;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordWaitTime(long nanos) {
+        final long count = borrowCount.getAndIncrement();
+        waitTimes.set((int) (count % WAIT_TIME_SAMPLES), nanos);
+    }
+
+    /**
+     * @return a snapshot of the current state of the pool.
+     */
+    public Metrics getMetrics() {
+        final int samples = (int) Math.min(borrowCount.get(), WAIT_TIME_SAMPLES);
+        final long[] sortedWaitTimes = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            sortedWaitTimes[i] = waitTimes.get(i);
+        }
+        Arrays.sort(sortedWaitTimes);
+
+        return new Metrics(nbConnections, borrowedConnections.size(), availableConnections.size(),
+                borrowCount.get(), timeoutCount.get(), leakCount.get(),
+                percentile(sortedWaitTimes, 50), percentile(sortedWaitTimes, 95), percentile(sortedWaitTimes, 99),
+                StatementCache.getHits(), StatementCache.getMisses(), StatementCache.getEvictions());
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
     /**
      * This does not close the given {@link Connection}.
      */
@@ -265,6 +483,137 @@ public final class ConnectionPool {
         return nbConnections;
     }
 
+    /**
+     * Information on a borrowed connection, used to detect connection leaks.
+     */
+    private class Lease {
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String threadName = Thread.currentThread().getName();
+        /**
+         * Only recorded with debug logging, since creating the stack trace for every borrowed connection is expensive.
+         */
+        private final Throwable stackTrace = logger.isDebugEnabled() ? new Throwable("Connection borrowed here") : null;
+        private volatile boolean leaked = false;
+    }
+
+    /**
+     * {@link Semaphore}, which allows to reduce the number of permits.
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 6812451382975128350L;
+
+        ResizableSemaphore() {
+            super(0);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * Snapshot of the state of the connection pool. Waiting times are given in milliseconds
+     * and computed over the most recently borrowed connections.
+     */
+    public static class Metrics {
+        private final int size;
+        private final int active;
+        private final int idle;
+        private final long borrowed;
+        private final long timeouts;
+        private final long leaks;
+        private final double waitTimeMedian;
+        private final double waitTime95thPercentile;
+        private final double waitTime99thPercentile;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        Metrics(int size, int active, int idle, long borrowed, long timeouts, long leaks,
+                double waitTimeMedian, double waitTime95thPercentile, double waitTime99thPercentile,
+                long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.size = size;
+            this.active = active;
+            this.idle = idle;
+            this.borrowed = borrowed;
+            this.timeouts = timeouts;
+            this.leaks = leaks;
+            this.waitTimeMedian = waitTimeMedian;
+            this.waitTime95thPercentile = waitTime95thPercentile;
+            this.waitTime99thPercentile = waitTime99thPercentile;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getLeaks() {
+            return leaks;
+        }
+
+        public double getWaitTimeMedian() {
+            return waitTimeMedian;
+        }
+
+        public double getWaitTime95thPercentile() {
+            return waitTime95thPercentile;
+        }
+
+        public double getWaitTime99thPercentile() {
+            return waitTime99thPercentile;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        public long getStatementCacheEvictions() {
+            return statementCacheEvictions;
+        }
+
+        /**
+         * @return the ratio of prepared statements served from a statement cache, between {@code 0} and {@code 1}.
+         */
+        public double getStatementCacheHitRate() {
+            final long total = statementCacheHits + statementCacheMisses;
+            return total == 0 ? 0 : (double) statementCacheHits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d, active=%d, idle=%d, borrowed=%d, timeouts=%d, leaks=%d, "
+                            + "wait time p50=%.2fms p95=%.2fms p99=%.2fms, "
+                            + "statement cache hits=%d misses=%d evictions=%d",
+                    size, active, idle, borrowed, timeouts, leaks,
+                    waitTimeMedian, waitTime95thPercentile, waitTime99thPercentile,
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+        }
+    }
+
     /**
      * Exception to be thrown by <code>ConnectionPool</code> and caught in calling
      * objects if it has no more available connections upon request.
@@ -25,22 +25,32 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class DB {
     private static ConnectionPool connPool = ConnectionPool.instance();
     private static final Logger logger = LoggerFactory.getLogger(DB.class);
 
-    public synchronized static Connection getConnection() {
+    public static Connection getConnection() {
         return connPool.getDBConnection();
     }
 
+    /**
+     * Releases a statement and the connection it was created for. Statements
+     * cached for the connection are kept open and only reset.
+     *
+     * @param conn the connection, which is released to the connection pool.
+     * @param stmt the statement, which is closed or reset.
+     */
     public static void cleanup(Connection conn, PreparedStatement stmt) {
         try {
             if (stmt != null) {
-                stmt.close();
+                final StatementCache statementCache = getStatementCache(conn);
+                if (statementCache == null || !statementCache.release(stmt)) {
+                    stmt.close();
+                }
             }
         } catch (SQLException se) {
             logger.error("SQL exception while closing statement!", se);
@@ -48,10 +58,28 @@ public class DB {
         connPool.releaseDBConnection(conn);
     }
 
+    /**
+     * Creates a prepared statement for the given query and sets its parameters.
+     * <p>
+     * For connections of the connection pool, statements are cached by their query, so
+     * frequently used queries are not prepared again. Generated keys are only requested for
+     * {@code INSERT} statements.
+     *
+     * @param conn   the connection the statement is created for.
+     * @param query  the query.
+     * @param values the parameters for the query.
+     * @return a prepared statement with the given parameters set.
+     * @throws UncheckedSQLException if the statement could not be created.
+     */
     public static PreparedStatement createPreparedStatement(Connection conn, String query, DatabaseValue... values) {
         PreparedStatement stmt = null;
         try {
-            stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            final StatementCache statementCache = getStatementCache(conn);
+            if (statementCache != null) {
+                stmt = statementCache.prepare(query);
+            } else {
+                stmt = StatementCache.prepareStatement(conn, query);
+            }
             int count = 1;
             for (DatabaseValue value : values) {
                 final DatabaseValue.Type type = value.getType();
@@ -67,6 +95,9 @@ public class DB {
                     case TIMESTAMP:
                         stmt.setObject(count++, value.getValue(), type.typeValue);
                         break;
+                    case BYTES:
+                        stmt.setBytes(count++, (byte[]) value.getValue());
+                        break;
                     default:
                         final IllegalArgumentException e =
                                 new IllegalArgumentException("Unknown database value type: " + type);
@@ -82,6 +113,13 @@ public class DB {
         return stmt;
     }
 
+    private static StatementCache getStatementCache(Connection conn) {
+        if (connPool == null || conn == null) {
+            return null;
+        }
+        return connPool.getStatementCache(conn);
+    }
+
     public static boolean executeUpdate(PreparedStatement stmt, Connection conn) {
         try {
             return stmt.executeUpdate() > 0;
@@ -103,9 +141,10 @@ public class DB {
     public static int executeUpdateGetKeys(PreparedStatement stmt, Connection conn) {
         try {
             if (stmt.executeUpdate() > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -123,6 +162,20 @@ public class DB {
         return executeUpdateGetKeys(stmt, conn);
     }
 
+    /**
+     * Returns the given number of comma separated parameter placeholders,
+     * e.g. {@code ?,?,?}, for {@code IN (...)} clauses of batch queries.
+     *
+     * @param count the number of placeholders, must be positive.
+     * @return the placeholders.
+     */
+    static String placeholders(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of placeholders must be positive: " + count);
+        }
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
     /**
      * Provides a way to extract the query result from a {@link ResultSet} entry.
      * The implementation must not advance the {@link ResultSet}. It can return {@code null} to skip an entry.
@@ -26,6 +26,7 @@ import org.codedefenders.game.leaderboard.Entry;
 import org.codedefenders.game.singleplayer.AiPlayer;
 import org.codedefenders.game.singleplayer.SinglePlayerGame;
 import org.codedefenders.model.Event;
+import org.codedefenders.model.EventBuffers;
 import org.codedefenders.model.EventStatus;
 import org.codedefenders.model.EventType;
 import org.codedefenders.model.User;
@@ -39,7 +40,6 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * This class handles database logic for functionality which has not
@@ -98,29 +98,43 @@ public class DatabaseAccess {
                 DatabaseValue.of(gameId),
                 DatabaseValue.of(playerId)};
         DB.executeUpdateQuery(query, values);
+        EventBuffers.invalidateAll();
+        GameVersions.bump(gameId);
     }
 
-    public static List<Event> getNewEventsForGame(int gameId, long time, Role role) {
+    /**
+     * Retrieves the game events which were created after the event with the given identifier.
+     * Event identifiers are increasing, so clients can poll with the largest identifier they
+     * have received so far as a cursor, and no event is delivered twice.
+     *
+     * @param gameId the identifier of the game.
+     * @param lastEventId the identifier of the last received event, or {@code 0} for all events.
+     * @param role the role of the requesting player, used to filter chat messages of the other team.
+     * @return the new game events, ordered by their identifiers.
+     */
+    public static List<Event> getNewEventsForGame(int gameId, int lastEventId, Role role) {
         String query = String.join("\n",
-                "SELECT *",
-                        "FROM events",
-                        "LEFT JOIN event_messages AS em",
-                        "  ON events.Event_Type = em.Event_Type ",
-                        "LEFT JOIN event_chat AS ec",
-                        "  ON events.Event_Id = ec.Event_Id",
-                        "WHERE Game_ID=?",
-                        "  AND Event_Status=? ",
-                        "  AND Timestamp >= FROM_UNIXTIME(?)");
+                "SELECT events.Event_ID, events.Game_ID, events.Player_ID, events.Event_Type,",
+                "       events.Event_Status, events.Timestamp, em.Message, ec.Message",
+                "FROM events",
+                "LEFT JOIN event_messages AS em",
+                "  ON events.Event_Type = em.Event_Type ",
+                "LEFT JOIN event_chat AS ec",
+                "  ON events.Event_Id = ec.Event_Id",
+                "WHERE events.Game_ID=?",
+                "  AND events.Event_ID > ?",
+                "  AND events.Event_Status=? ");
         if (role.equals(Role.ATTACKER)) {
             query += " AND events.Event_Type!='DEFENDER_MESSAGE'";
         } else if (role.equals(Role.DEFENDER)) {
             query += " AND events.Event_Type!='ATTACKER_MESSAGE'";
         }
+        query += "\nORDER BY events.Event_ID;";
 
         DatabaseValue[] values = new DatabaseValue[]{
                 DatabaseValue.of(gameId),
-                DatabaseValue.of(EventStatus.GAME.toString()),
-                DatabaseValue.of(time)};
+                DatabaseValue.of(lastEventId),
+                DatabaseValue.of(EventStatus.GAME.toString())};
 
         return DB.executeQueryReturnList(query, DatabaseAccess::getEvents, values);
     }
@@ -157,6 +171,22 @@ public class DatabaseAccess {
         return DB.executeQueryReturnList(query, DatabaseAccess::getEventsWithMessage, values);
     }
 
+    /**
+     * Retrieves the message templates of all event types from the {@code event_messages} table.
+     *
+     * @return a mapping from event type names to message templates.
+     */
+    public static Map<String, String> getEventMessages() {
+        String query = "SELECT Event_Type, Message FROM event_messages;";
+        final List<String[]> rows = DB.executeQueryReturnList(query,
+                rs -> new String[]{rs.getString("Event_Type"), rs.getString("Message")});
+        final Map<String, String> messages = new HashMap<>();
+        for (String[] row : rows) {
+            messages.put(row[0], row[1]);
+        }
+        return messages;
+    }
+
     public static List<Event> getEventsForUser(int userId) {
         String query = String.join("\n",
                 "SELECT *",
@@ -358,6 +388,9 @@ public class DatabaseAccess {
         Connection conn = DB.getConnection();
         PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
         DB.executeUpdate(stmt, conn);
+        bumpGameVersionForPlayer(playerId);
+        MultiplayerGameDAO.invalidateGameSummaries();
+        DuelGameDAO.invalidateDuelGames();
     }
 
     public static boolean getPlayerIsActive(int playerId) {
@@ -523,11 +556,12 @@ public class DatabaseAccess {
 		return getUserFromDB(stmt, conn);
 	}
 
+	/**
+	 * Uses the cached {@link UserDAO#getUserForPlayer(int)}. For multiple players,
+	 * use {@link UserDAO#getUsersForPlayers(int[])} instead.
+	 */
 	public static User getUserFromPlayer(int playerId) {
-		String query = "SELECT * FROM users AS u " + "LEFT JOIN players AS p ON p.User_ID=u.User_ID " + "WHERE p.ID=?;";
-		Connection conn = DB.getConnection();
-		PreparedStatement stmt = DB.createPreparedStatement(conn, query, DatabaseValue.of(playerId));
-		return getUserFromDB(stmt, conn);
+		return UserDAO.getUserForPlayer(playerId);
 	}
 
 	public static User getUserForKey(String keyName, int id) {
@@ -955,6 +989,20 @@ public class DatabaseAccess {
                 DatabaseValue.of(player)
         };
         DB.executeUpdateQuery(query, values);
+        bumpGameVersionForPlayer(player);
+    }
+
+    /**
+     * Increases the {@link GameVersions version} of the game the given player plays in.
+     */
+    private static void bumpGameVersionForPlayer(int playerId) {
+        String query = "SELECT Game_ID FROM players WHERE ID=?;";
+        final Integer gameId = DB.executeQueryReturnValue(query, rs -> rs.getInt("Game_ID"), DatabaseValue.of(playerId));
+        if (gameId != null) {
+            GameVersions.bump(gameId);
+        } else {
+            GameVersions.bumpAll();
+        }
     }
 
     public static int getEquivalentDefenderId(Mutant m) {
@@ -963,12 +1011,53 @@ public class DatabaseAccess {
         return Optional.ofNullable(id).orElse(-1);
     }
 
+    /**
+     * Returns the identifiers of the defenders who claimed the mutants of the given game as equivalent.
+     * If a mutant was claimed more than once, the first claim is returned.
+     *
+     * @param gameId the identifier of the game.
+     * @return a mapping from mutant identifiers to the player identifiers of the claiming defenders.
+     */
+    public static Map<Integer, Integer> getEquivalencesForGame(int gameId) {
+        String query = String.join("\n",
+                "SELECT e.Mutant_ID, e.Defender_ID",
+                "FROM equivalences e",
+                "INNER JOIN mutants m ON m.Mutant_ID = e.Mutant_ID",
+                "WHERE m.Game_ID = ?",
+                "ORDER BY e.ID;");
+        final List<int[]> rows = DB.executeQueryReturnList(query,
+                rs -> new int[]{rs.getInt("Mutant_ID"), rs.getInt("Defender_ID")}, DatabaseValue.of(gameId));
+        final Map<Integer, Integer> defenderIds = new HashMap<>();
+        for (int[] row : rows) {
+            defenderIds.putIfAbsent(row[0], row[1]);
+        }
+        return defenderIds;
+    }
+
     public static int getPlayerPoints(int playerId) {
         String query = "SELECT Points FROM players WHERE ID=?;";
         final Integer points = DB.executeQueryReturnValue(query, rs -> rs.getInt("Points"), DatabaseValue.of(playerId));
         return Optional.ofNullable(points).orElse(0);
     }
 
+    /**
+     * Returns the points of all players of the given game, which are not tied to a mutant or test,
+     * e.g. points for won equivalence duels.
+     *
+     * @param gameId the identifier of the game.
+     * @return a mapping from player identifiers to their points.
+     */
+    public static Map<Integer, Integer> getPlayerPointsForGame(int gameId) {
+        String query = "SELECT ID, Points FROM players WHERE Game_ID=?;";
+        final List<int[]> rows = DB.executeQueryReturnList(query,
+                rs -> new int[]{rs.getInt("ID"), rs.getInt("Points")}, DatabaseValue.of(gameId));
+        final Map<Integer, Integer> points = new HashMap<>();
+        for (int[] row : rows) {
+            points.put(row[0], row[1]);
+        }
+        return points;
+    }
+
     public static boolean insertEquivalence(Mutant mutant, int defender) {
         String query = String.join("\n",
                 "INSERT INTO equivalences (Mutant_ID, Defender_ID, Mutant_Points)",
@@ -979,7 +1068,9 @@ public class DatabaseAccess {
                 DatabaseValue.of(defender),
                 DatabaseValue.of(mutant.getScore())
         };
-        return DB.executeUpdateQuery(query, values);
+        final boolean inserted = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(mutant.getGameId());
+        return inserted;
     }
 
     public static boolean setAiTestAsUsed(int testNumber, AbstractGame g) {
@@ -1229,20 +1320,11 @@ public class DatabaseAccess {
 			// Load the MultiplayerGame Data with the provided ID.
 			ResultSet rs = stmt.executeQuery();
 			while (rs.next()) {
-				String linesCovered = rs.getString("Lines_Covered");
-				String linesUncovered = rs.getString("Lines_Uncovered");
-				List<Integer> covered = new ArrayList<>();
-				List<Integer> uncovered = new ArrayList<>();
-				if (linesCovered != null && !linesCovered.isEmpty()) {
-					covered.addAll(Arrays.stream(linesCovered.split(",")).map(Integer::parseInt).collect(Collectors.toList()));
-				}
-				if (linesUncovered != null && !linesUncovered.isEmpty()) {
-					uncovered.addAll(Arrays.stream(linesUncovered.split(",")).map(Integer::parseInt).collect(Collectors.toList()));
-				}
 				Test newTest = new Test(rs.getInt("Test_ID"), rs.getInt("Class_ID"), rs.getInt("Game_ID"),
 						rs.getString("JavaFile"), rs.getString("ClassFile"),
 						rs.getInt("RoundCreated"), rs.getInt("MutantsKilled"), rs.getInt("Player_ID"),
-						covered, uncovered, rs.getInt("Points"));
+						Collections.emptyList(), Collections.emptyList(), rs.getInt("Points"));
+				newTest.setLineCoverage(TestDAO.lineCoverageFromRS(rs));
 				newTest.setScore(rs.getInt("Points"));
 				newTest.setTimestamp(rs.getTimestamp("Timestamp"));
 				testList.add(newTest);
@@ -1307,15 +1389,40 @@ public class DatabaseAccess {
         return p;
     }
 
+    /**
+     * Returns the leaderboard entries of all valid users. The scores are read from the
+     * {@code leaderboard} table, which is kept up to date by database triggers on
+     * inserted, updated and deleted mutants and tests.
+     *
+     * @see #rebuildLeaderboard()
+     */
     public static List<Entry> getLeaderboard() {
-        String query = String.join("\n",
-                "SELECT U.username AS username, IFNULL(NMutants,0) AS NMutants, IFNULL(AScore,0) AS AScore, IFNULL(NTests,0) AS NTests, IFNULL(DScore,0) AS DScore, IFNULL(NKilled,0) AS NKilled, IFNULL(AScore,0)+IFNULL(DScore,0) AS TotalScore",
-                "FROM view_valid_users U",
-                "LEFT JOIN (SELECT PA.user_id, count(M.Mutant_ID) AS NMutants, sum(M.Points) AS AScore FROM players PA LEFT JOIN mutants M ON PA.id = M.Player_ID GROUP BY PA.user_id) AS Attacker ON U.user_id = Attacker.user_id",
-                "LEFT JOIN (SELECT PD.user_id, count(T.Test_ID) AS NTests, sum(T.Points) AS DScore, sum(T.MutantsKilled) AS NKilled FROM players PD LEFT JOIN tests T ON PD.id = T.Player_ID GROUP BY PD.user_id) AS Defender ON U.user_id = Defender.user_id");
+        String query = "SELECT * FROM view_leaderboard;";
         return DB.executeQueryReturnList(query, DatabaseAccess::entryFromRS);
     }
 
+    /**
+     * Recomputes the {@code leaderboard} table from all stored mutants and tests in one transaction.
+     * Only required to repair the table, e.g. after submissions were modified while the
+     * triggers maintaining it were not installed.
+     *
+     * @return {@code true} if the leaderboard was rebuilt, {@code false} otherwise.
+     */
+    public static boolean rebuildLeaderboard() {
+        String query = "CALL proc_rebuild_leaderboard();";
+        Connection conn = DB.getConnection();
+        PreparedStatement stmt = DB.createPreparedStatement(conn, query);
+        try {
+            stmt.execute();
+            return true;
+        } catch (SQLException e) {
+            logger.error("SQLException while rebuilding the leaderboard", e);
+            return false;
+        } finally {
+            DB.cleanup(conn, stmt);
+        }
+    }
+
     public static int getKillingTestIdForMutant(int mutantId) {
         String query = String.join("\n",
                 "SELECT *",
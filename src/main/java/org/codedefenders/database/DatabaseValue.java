@@ -94,6 +94,17 @@ public class DatabaseValue<T> {
         return new DatabaseValue<>(value);
     }
 
+    /**
+     * Creates a typed {@link DatabaseValue} for a given byte array, stored as binary data.
+     * The given byte array can be {@code null}.
+     *
+     * @param value the given value as a byte array, can be {@code null}.
+     * @return a database value for a given byte array.
+     */
+    public static DatabaseValue<byte[]> of(byte[] value) {
+        return new DatabaseValue<>(value);
+    }
+
     private Type type;
     private T value;
 
@@ -125,7 +136,8 @@ public class DatabaseValue<T> {
         FLOAT(Types.FLOAT, Float.class),
         STRING(Types.VARCHAR, String.class),
         TIMESTAMP(Types.TIMESTAMP, Timestamp.class),
-        BOOLEAN(Types.BOOLEAN, Boolean.class);
+        BOOLEAN(Types.BOOLEAN, Boolean.class),
+        BYTES(Types.VARBINARY, byte[].class);
 
         int typeValue;
         Class<?> clazz;
@@ -152,6 +164,8 @@ public class DatabaseValue<T> {
                 return TIMESTAMP;
             } else if (BOOLEAN.clazz == clazz) {
                 return BOOLEAN;
+            } else if (BYTES.clazz == clazz) {
+                return BYTES;
             } else {
                 throw new IllegalArgumentException("Tried to create database value for class " + clazz.getName() +
                         ", which is not supported!");
@@ -21,13 +21,17 @@ package org.codedefenders.database;
 import org.codedefenders.game.GameLevel;
 import org.codedefenders.game.GameMode;
 import org.codedefenders.game.GameState;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.duel.DuelGame;
 import org.codedefenders.game.singleplayer.SinglePlayerGame;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.codedefenders.database.DB.RSMapper;
 
@@ -39,6 +43,28 @@ import static org.codedefenders.database.DB.RSMapper;
  */
 public class DuelGameDAO {
 
+    /**
+     * Caches all not finished duel games, which are shared by the game lists of all users, like the battleground
+     * game summaries of {@link MultiplayerGameDAO}. The games are invalidated whenever a game is created or updated
+     * or a player joins or leaves a game, and additionally expire after a minute.
+     */
+    private static final EntityCache<Integer, List<ListedDuelGame>> unfinishedGamesCache =
+            new EntityCache<>("Unfinished duel games", 1, 1, TimeUnit.MINUTES);
+    private static final int UNFINISHED_GAMES_KEY = 0;
+
+    /**
+     * A cached duel game together with its creator, which {@link #duelGameFromRS(ResultSet)} does not read.
+     */
+    private static class ListedDuelGame {
+        private final int creatorId;
+        private final DuelGame game;
+
+        private ListedDuelGame(int creatorId, DuelGame game) {
+            this.creatorId = creatorId;
+            this.game = game;
+        }
+    }
+
     /**
      * Constructs a {@link DuelGame} from a {@link ResultSet} entry.
      *
@@ -104,6 +130,7 @@ public class DuelGameDAO {
                 DatabaseValue.of(game.isAIDummyGame())
         };
         final int result = DB.executeUpdateQueryGetKeys(query, values);
+        invalidateDuelGames();
         if (result != -1) {
             return result;
         } else {
@@ -161,7 +188,10 @@ public class DuelGameDAO {
                         DatabaseValue.of(id)
                 };
         }
-        return DB.executeUpdateQuery(query, values);
+        final boolean updated = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(id);
+        invalidateDuelGames();
+        return updated;
     }
 
     /**
@@ -197,65 +227,67 @@ public class DuelGameDAO {
 
     /**
      * Returns a list of active {@link DuelGame DuelGames}, which were created or
-     * played by a given user.
+     * played by a given user. The games are filtered from the cached not finished duel games,
+     * so they must not be modified.
      *
      * @param userId the identifier of the user.
      * @return a list of active duel games for the given user.
      */
     public static List<DuelGame> getDuelGamesForUser(int userId) {
-        String query = String.join("\n",
-                "SELECT games.*,",
-                "       IFNULL(att.User_ID,0) AS Attacker_ID,",
-                "       IFNULL(def.User_ID,0) AS Defender_ID",
-                "FROM games",
-                "LEFT JOIN players AS att",
-                "    ON games.ID = att.Game_ID",
-                "    AND att.Role = 'ATTACKER'",
-                "    AND att.Active = TRUE",
-                "LEFT JOIN players AS def",
-                "    ON games.ID = def.Game_ID",
-                "    AND def.Role='DEFENDER'",
-                "    AND def.Active = TRUE",
-                "WHERE games.Mode = 'DUEL'",
-                "  AND games.State != 'FINISHED'",
-                "  AND (games.Creator_ID = ?",
-                "    OR IFNULL(att.User_ID,0) = ?",
-                "    OR IFNULL(def.User_ID,0) = ?);"
-        );
-        DatabaseValue[] values = new DatabaseValue[]{
-                DatabaseValue.of(userId),
-                DatabaseValue.of(userId),
-                DatabaseValue.of(userId)
-        };
-        return DB.executeQueryReturnList(query, DuelGameDAO::duelGameFromRS, values);
+        return getUnfinishedDuelGames().stream()
+                .filter(listed -> listed.creatorId == userId
+                        || listed.game.getAttackerId() == userId
+                        || listed.game.getDefenderId() == userId)
+                .map(listed -> listed.game)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Retrieves a list of all joinable {@link DuelGame DuelGames}.
+     * Retrieves a list of all joinable {@link DuelGame DuelGames}. The games are filtered from
+     * the cached not finished duel games, so they must not be modified.
      *
      * @return a list of joinable {@link DuelGame DuelGames}, empty if none are found.
      */
     public static List<DuelGame> getOpenDuelGames() {
-        String query = String.join("\n",
-                "SELECT games.*,",
-                "       IFNULL(att.User_ID,0) AS Attacker_ID,",
-                "       IFNULL(def.User_ID,0) AS Defender_ID",
-                "FROM games",
-                "LEFT JOIN players AS att",
-                "    ON games.ID=att.Game_ID",
-                "    AND att.Role='ATTACKER'",
-                "    AND att.Active=TRUE",
-                "LEFT JOIN players AS def",
-                "    ON games.ID=def.Game_ID",
-                "    AND def.Role='DEFENDER'",
-                "    AND def.Active=TRUE",
-                "WHERE games.Mode = ?",
-                "  AND games.State = ?;"
-        );
-        DatabaseValue[] values = new DatabaseValue[]{
-                DatabaseValue.of(GameMode.DUEL.name()),
-                DatabaseValue.of(GameState.CREATED.name())
-        };
-        return DB.executeQueryReturnList(query, DuelGameDAO::duelGameFromRS, values);
+        return getUnfinishedDuelGames().stream()
+                .filter(listed -> listed.game.getState() == GameState.CREATED)
+                .map(listed -> listed.game)
+                .collect(Collectors.toList());
+    }
+
+    private static List<ListedDuelGame> getUnfinishedDuelGames() {
+        return unfinishedGamesCache.get(UNFINISHED_GAMES_KEY, key -> {
+            String query = String.join("\n",
+                    "SELECT games.*,",
+                    "       IFNULL(att.User_ID,0) AS Attacker_ID,",
+                    "       IFNULL(def.User_ID,0) AS Defender_ID",
+                    "FROM games",
+                    "LEFT JOIN players AS att",
+                    "    ON games.ID = att.Game_ID",
+                    "    AND att.Role = 'ATTACKER'",
+                    "    AND att.Active = TRUE",
+                    "LEFT JOIN players AS def",
+                    "    ON games.ID = def.Game_ID",
+                    "    AND def.Role='DEFENDER'",
+                    "    AND def.Active = TRUE",
+                    "WHERE games.Mode = ?",
+                    "  AND games.State != ?",
+                    "ORDER BY games.ID;"
+            );
+            DatabaseValue[] values = new DatabaseValue[]{
+                    DatabaseValue.of(GameMode.DUEL.name()),
+                    DatabaseValue.of(GameState.FINISHED.name())
+            };
+            return Collections.unmodifiableList(DB.executeQueryReturnList(query,
+                    rs -> new ListedDuelGame(rs.getInt("Creator_ID"), duelGameFromRS(rs)), values));
+        });
+    }
+
+    /**
+     * Removes the cached duel games. Must be called whenever a game is created or updated
+     * or a player joins or leaves a game.
+     */
+    public static void invalidateDuelGames() {
+        unfinishedGamesCache.invalidateAll();
     }
 }
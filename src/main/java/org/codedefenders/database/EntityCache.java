@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A bounded read-through cache used by the DAOs for rows which are read often,
+ * but rarely or never change, e.g. users, classes or system settings.
+ * <p>
+ * Entries are evicted in least recently used order once {@code maxSize} is reached and
+ * are reloaded once they are older than the time to live. DAO methods which modify cached
+ * rows must call {@link #invalidate(Object)} or {@link #invalidateAll()}.
+ * <p>
+ * Every invalidation increments the version of the cache. A value loaded concurrently
+ * with an invalidation is returned to its caller, but not stored, so a stale row
+ * read before the update cannot overwrite the invalidation.
+ * <p>
+ * {@code null} values, i.e. rows which were not found, are never cached.
+ *
+ * @param <K> the key type, usually an identifier.
+ * @param <V> the cached value type.
+ */
+public class EntityCache<K, V> {
+    private static final List<EntityCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxSize;
+    private final long timeToLiveMillis;
+
+    private final Map<K, Entry<V>> entries;
+    private long version = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates a new cache and registers it for {@link #getCaches()}.
+     *
+     * @param name       a human readable name, used for displaying metrics.
+     * @param maxSize    the maximum number of cached entries.
+     * @param timeToLive the time an entry is valid after it was loaded.
+     * @param unit       the unit of {@code timeToLive}.
+     */
+    public EntityCache(String name, int maxSize, long timeToLive, TimeUnit unit) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = unit.toMillis(timeToLive);
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        caches.add(this);
+    }
+
+    /**
+     * Returns the cached value for the given key. If no valid value is cached,
+     * the value is loaded with the given loader and cached.
+     *
+     * @param key    the key of the value.
+     * @param loader loads the value from the database, may return {@code null}.
+     * @return the cached or loaded value, or {@code null} if the loader returned {@code null}.
+     */
+    public V get(K key, Function<K, V> loader) {
+        final long loadVersion;
+        synchronized (this) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expiresAt) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+            loadVersion = version;
+        }
+
+        misses.incrementAndGet();
+        final V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (version == loadVersion) {
+                    entries.put(key, new Entry<>(value, System.currentTimeMillis() + timeToLiveMillis));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value for the given key without loading it.
+     *
+     * @param key the key of the value.
+     * @return the cached value, or {@code null} if no valid value is cached.
+     */
+    public V getIfPresent(K key) {
+        synchronized (this) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the given value, e.g. a value which was computed outside of a loader.
+     *
+     * @param key   the key of the value.
+     * @param value the value, {@code null} values are ignored.
+     */
+    public void put(K key, V value) {
+        if (value != null) {
+            synchronized (this) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + timeToLiveMillis));
+            }
+        }
+    }
+
+    /**
+     * Removes the value for the given key, if present.
+     */
+    public synchronized void invalidate(K key) {
+        version++;
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public synchronized void invalidateAll() {
+        version++;
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, between {@code 0} and {@code 1}.
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return all created caches, in order of creation.
+     */
+    public static List<EntityCache<?, ?>> getCaches() {
+        return Collections.unmodifiableList(new ArrayList<>(caches));
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.codedefenders.database;
 
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots;
 import org.codedefenders.servlets.FeedbackManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,7 +63,10 @@ public class FeedbackDAO {
 
         String query = bob.toString();
         DatabaseValue[] values = allValuesList.toArray(new DatabaseValue[0]);
-        return DB.executeUpdateQuery(query, values);
+        final boolean stored = DB.executeUpdateQuery(query, values);
+        // The page of a finished game shows the feedback and is cached with the game's snapshot
+        FinishedGameSnapshots.invalidate(gameId);
+        return stored;
     }
 
     public static List<Integer> getFeedbackValues(int gameId, int userId) {
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.codedefenders.database.DB.RSMapper;
 
@@ -41,6 +42,19 @@ import static org.codedefenders.database.DB.RSMapper;
 public class GameClassDAO {
     private static final Logger logger = LoggerFactory.getLogger(GameClassDAO.class);
 
+    /**
+     * Caches classes by their identifier. Classes are not modified after upload, so cached
+     * instances are shared, which also shares their code analysis.
+     */
+    private static final EntityCache<Integer, GameClass> classCache =
+            new EntityCache<>("Classes", 1000, 30, TimeUnit.MINUTES);
+
+    /**
+     * Caches the class identifier of games. The class of a game never changes.
+     */
+    private static final EntityCache<Integer, Integer> gameClassIdCache =
+            new EntityCache<>("Game to class mappings", 10000, 30, TimeUnit.MINUTES);
+
     /**
      * Constructs a game class from a {@link ResultSet} entry.
      *
@@ -67,9 +81,10 @@ public class GameClassDAO {
      * @return a {@link GameClass} instance, or {@code null}.
      */
     public static GameClass getClassForId(int classId) {
-        String query = "SELECT * FROM classes WHERE Class_ID = ?;";
-
-        return DB.executeQueryReturnValue(query, GameClassDAO::gameClassFromRS, DatabaseValue.of(classId));
+        return classCache.get(classId, id -> {
+            String query = "SELECT * FROM classes WHERE Class_ID = ?;";
+            return DB.executeQueryReturnValue(query, GameClassDAO::gameClassFromRS, DatabaseValue.of(id));
+        });
     }
 
     /**
@@ -79,14 +94,11 @@ public class GameClassDAO {
      * @return a {@link GameClass} instance, or {@code null}.
      */
     public static GameClass getClassForGameId(int gameId) {
-        String query = String.join("\n",
-                "SELECT classes.*",
-                "FROM classes",
-                "INNER JOIN games",
-                "  ON classes.Class_ID = games.Class_ID",
-                "WHERE games.ID=?;"
-        );
-        return DB.executeQueryReturnValue(query, GameClassDAO::gameClassFromRS, DatabaseValue.of(gameId));
+        final Integer classId = gameClassIdCache.get(gameId, id -> {
+            String query = "SELECT Class_ID FROM games WHERE ID = ?;";
+            return DB.executeQueryReturnValue(query, rs -> rs.getInt("Class_ID"), DatabaseValue.of(id));
+        });
+        return classId == null ? null : getClassForId(classId);
     }
 
     /**
@@ -257,8 +269,9 @@ public class GameClassDAO {
     public static boolean removeClassForId(Integer id) {
         String query = "DELETE FROM classes WHERE Class_ID = ?;";
 
-        return DB.executeUpdateQuery(query, DatabaseValue.of(id));
-
+        final boolean removed = DB.executeUpdateQuery(query, DatabaseValue.of(id));
+        classCache.invalidate(id);
+        return removed;
     }
 
     /**
@@ -281,6 +294,8 @@ public class GameClassDAO {
         String query = bob.toString();
         DatabaseValue[] values = classes.stream().map(DatabaseValue::of).toArray(DatabaseValue[]::new);
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean removed = DB.executeUpdateQuery(query, values);
+        classes.forEach(classCache::invalidate);
+        return removed;
     }
 }
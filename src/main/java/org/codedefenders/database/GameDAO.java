@@ -19,6 +19,7 @@
 package org.codedefenders.database;
 
 import org.codedefenders.game.AbstractGame;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.duel.DuelGame;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
@@ -59,7 +60,11 @@ public class GameDAO {
                 DatabaseValue.of(role.toString())
         };
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean added = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(gameId);
+        MultiplayerGameDAO.invalidateGameSummaries();
+        DuelGameDAO.invalidateDuelGames();
+        return added;
     }
 
     /**
@@ -118,7 +123,11 @@ public class GameDAO {
                 DatabaseValue.of(userId)
         };
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean removed = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(gameId);
+        MultiplayerGameDAO.invalidateGameSummaries();
+        DuelGameDAO.invalidateDuelGames();
+        return removed;
     }
 
     public static Integer getCurrentRound(int gameId) {
@@ -21,14 +21,24 @@ package org.codedefenders.database;
 import org.codedefenders.game.GameLevel;
 import org.codedefenders.game.GameMode;
 import org.codedefenders.game.GameState;
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.game.Role;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
+import org.codedefenders.game.multiplayer.MultiplayerGameSummary;
 import org.codedefenders.game.singleplayer.AiPlayer;
+import org.codedefenders.model.User;
 import org.codedefenders.validation.code.CodeValidatorLevel;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.codedefenders.database.DB.RSMapper;
 
@@ -40,6 +50,16 @@ import static org.codedefenders.database.DB.RSMapper;
  */
 public class MultiplayerGameDAO {
 
+    /**
+     * Caches the summaries of all not finished battleground games, which are shared by the game lists of all users.
+     * The summaries are invalidated whenever a game is created or updated or a player joins or leaves a game.
+     * They additionally expire after a minute, because the database event {@code proc_multiplayer_task}
+     * finishes games.
+     */
+    private static final EntityCache<Integer, List<MultiplayerGameSummary>> summaryCache =
+            new EntityCache<>("Battleground game summaries", 1, 1, TimeUnit.MINUTES);
+    private static final int SUMMARY_KEY = 0;
+
     /**
      * Constructs a {@link MultiplayerGame} from a {@link ResultSet} entry.
      *
@@ -182,6 +202,7 @@ public class MultiplayerGameDAO {
 
         final int result = DB.executeUpdateQueryGetKeys(query, values);
         if (result != -1) {
+            invalidateGameSummaries();
             return result;
         } else {
             throw new UncheckedSQLException("Could not store multiplayer game to database.");
@@ -232,7 +253,11 @@ public class MultiplayerGameDAO {
                 DatabaseValue.of(game.isSimulationGame()),
                 DatabaseValue.of(id)};
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean updated = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(id);
+        FinishedGameSnapshots.invalidate(id);
+        invalidateGameSummaries();
+        return updated;
     }
 
     /**
@@ -272,6 +297,92 @@ public class MultiplayerGameDAO {
         return DB.executeQueryReturnList(query, MultiplayerGameDAO::multiplayerGameFromRS, values);
     }
 
+    /**
+     * Returns the summaries of all battleground games, which are not finished yet.
+     * The summaries are cached and shared, see {@link MultiplayerGameSummary}.
+     *
+     * @return a list of {@link MultiplayerGameSummary MultiplayerGameSummaries} ordered by game identifier,
+     * empty if none are found.
+     */
+    public static List<MultiplayerGameSummary> getUnfinishedMultiplayerGameSummaries() {
+        return summaryCache.get(SUMMARY_KEY, key -> {
+            String playersQuery = String.join("\n",
+                    "SELECT p.Game_ID, p.User_ID, p.Role",
+                    "FROM players AS p",
+                    "INNER JOIN view_battleground_games AS g",
+                    "  ON g.ID = p.Game_ID",
+                    "WHERE p.Active = TRUE",
+                    "  AND g.State != ?;");
+            final List<PlayerRole> playerRoles = DB.executeQueryReturnList(playersQuery,
+                    rs -> new PlayerRole(rs.getInt("Game_ID"), rs.getInt("User_ID"), Role.valueOrNull(rs.getString("Role"))),
+                    DatabaseValue.of(GameState.FINISHED.name()));
+            final Map<Integer, Map<Integer, Role>> players = new HashMap<>();
+            for (PlayerRole playerRole : playerRoles) {
+                if (playerRole.role != null) {
+                    players.computeIfAbsent(playerRole.gameId, id -> new HashMap<>()).put(playerRole.userId, playerRole.role);
+                }
+            }
+
+            String gamesQuery = String.join("\n",
+                    "SELECT *",
+                    "FROM view_battleground_games",
+                    "WHERE State != ?",
+                    "ORDER BY ID;");
+            return Collections.unmodifiableList(DB.executeQueryReturnList(gamesQuery, rs -> {
+                final int id = rs.getInt("ID");
+                return new MultiplayerGameSummary(id,
+                        rs.getInt("Class_ID"),
+                        rs.getInt("Creator_ID"),
+                        GameState.valueOf(rs.getString("State")),
+                        GameLevel.valueOf(rs.getString("Level")),
+                        rs.getTimestamp("Start_Time").getTime(),
+                        rs.getTimestamp("Finish_Time").getTime(),
+                        rs.getInt("Attackers_Needed"),
+                        rs.getInt("Defenders_Needed"),
+                        rs.getInt("Attackers_Limit"),
+                        rs.getInt("Defenders_Limit"),
+                        rs.getBoolean("RequiresValidation"),
+                        players.getOrDefault(id, Collections.emptyMap()));
+            }, DatabaseValue.of(GameState.FINISHED.name())));
+        });
+    }
+
+    /**
+     * Returns the summaries of the not finished battleground games, which are created or played by a given user,
+     * like {@link #getMultiplayerGamesForUser(int)}. The games are filtered from the cached summaries.
+     *
+     * @param userId the user identifier the games are retrieved for.
+     * @return a list of {@link MultiplayerGameSummary MultiplayerGameSummaries}, empty if none are found.
+     */
+    public static List<MultiplayerGameSummary> getMultiplayerGameSummariesForUser(int userId) {
+        return getUnfinishedMultiplayerGameSummaries().stream()
+                .filter(game -> game.getRole(userId) != Role.NONE)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the summaries of the battleground games, which are joinable for a given user,
+     * like {@link #getOpenMultiplayerGamesForUser(int)}. The games are filtered from the cached summaries.
+     *
+     * @param userId the user identifier the games are retrieved for.
+     * @return a list of {@link MultiplayerGameSummary MultiplayerGameSummaries}, empty if none are found.
+     */
+    public static List<MultiplayerGameSummary> getOpenMultiplayerGameSummariesForUser(int userId) {
+        final User user = UserDAO.getUserById(userId);
+        final boolean validated = user != null && user.isValidated();
+        return getUnfinishedMultiplayerGameSummaries().stream()
+                .filter(game -> game.isOpenFor(userId, validated))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes the cached game summaries. Must be called whenever a game is created or updated
+     * or a player joins or leaves a game.
+     */
+    public static void invalidateGameSummaries() {
+        summaryCache.invalidateAll();
+    }
+
     /**
      * Retrieves a list of all {@link MultiplayerGame MultiplayerGames} which are joinable for a given user identifier.
      *
@@ -389,4 +500,16 @@ public class MultiplayerGameDAO {
         };
         return DB.executeQueryReturnList(query, MultiplayerGameDAO::multiplayerGameFromRS, values);
     }
+
+    private static class PlayerRole {
+        private final int gameId;
+        private final int userId;
+        private final Role role;
+
+        private PlayerRole(int gameId, int userId, Role role) {
+            this.gameId = gameId;
+            this.userId = userId;
+            this.role = role;
+        }
+    }
 }
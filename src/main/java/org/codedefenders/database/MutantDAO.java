@@ -21,17 +21,19 @@ package org.codedefenders.database;
 import org.apache.commons.lang.StringUtils;
 import org.codedefenders.database.DB.RSMapper;
 import org.codedefenders.game.GameClass;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Mutant;
 import org.codedefenders.game.Mutant.Equivalence;
+import org.codedefenders.util.BitSetList;
+import org.codedefenders.util.LineBitmaps;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This class handles the database logic for mutants.
@@ -69,14 +71,30 @@ public class MutantDAO {
         Mutant mutant = new Mutant(mutantId, classId, gameId, javaFile, classFile, alive, equiv, roundCreated,
                 roundKilled, playerId, md5);
         mutant.setScore(points);
-        // since mutated lines can be null
-        final String mutatedLines = rs.getString("MutatedLines");
-        if (mutatedLines != null && !mutatedLines.isEmpty()) {
-            List<Integer> mutatedLinesList = Stream.of(mutatedLines.split(","))
-                    .map(Integer::parseInt)
-                    .collect(Collectors.toList());
+        // mutated lines are stored binary since 1.5, older mutants only have the comma separated lines,
+        // which can also be null
+        byte[] mutatedLinesBitmap = null;
+        try {
+            mutatedLinesBitmap = rs.getBytes("MutatedLines_Bitmap");
+        } catch (SQLException e) { /* Bitmap column cannot be retrieved from query. */ }
+        if (mutatedLinesBitmap != null) {
             // force write
-            mutant.setLines(mutatedLinesList);
+            mutant.setLines(BitSetList.of(LineBitmaps.decode(mutatedLinesBitmap)));
+        } else {
+            final String mutatedLines = rs.getString("MutatedLines");
+            if (mutatedLines != null && !mutatedLines.isEmpty()) {
+                // force write
+                mutant.setLines(LineBitmaps.parseLegacy(mutatedLines));
+            }
+        }
+        // description and patch are null for mutants submitted before they were stored
+        final String description = rs.getString("MutationDescription");
+        if (description != null) {
+            mutant.setHTMLReadout(splitDescription(description));
+        }
+        final String patch = rs.getString("Patch");
+        if (patch != null) {
+            mutant.setPatchString(patch);
         }
         try {
             String username = rs.getString("Username");
@@ -88,6 +106,33 @@ public class MutantDAO {
         return mutant;
     }
 
+    /**
+     * Joins the lines of a mutant description for storing it. Each line of a
+     * description ends with a line break, so the lines are simply concatenated.
+     *
+     * @param description the lines of the description, each ending with a line break.
+     * @return the description to store.
+     * @see #splitDescription(String)
+     */
+    public static String joinDescription(List<String> description) {
+        return String.join("", description);
+    }
+
+    /**
+     * Splits a stored mutant description into its lines.
+     *
+     * @param description the stored description.
+     * @return the lines of the description, each ending with a line break.
+     * @see #joinDescription(List)
+     * @see Mutant#getHTMLReadout()
+     */
+    public static List<String> splitDescription(String description) {
+        if (description.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(description.split("(?<=\n)")));
+    }
+
     /**
      * Returns the {@link Mutant} for the given mutant id.
      */
@@ -207,10 +252,13 @@ public class MutantDAO {
         int score = mutant.getScore();
         String md5 = mutant.getMd5();
         String mutatedLinesString = StringUtils.join(mutant.getLines(), ",");
+        byte[] mutatedLinesBitmap = LineBitmaps.encode(mutant.getLines());
+        String description = joinDescription(mutant.getHTMLReadout());
+        String patch = mutant.getPatchString();
 
         String query = String.join("\n",
-                "INSERT INTO mutants (JavaFile, ClassFile, Game_ID, Timestamp, RoundCreated, Equivalent, Alive, Player_ID, Points, MD5, Class_ID, MutatedLines)",
-                " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);"
+                "INSERT INTO mutants (JavaFile, ClassFile, Game_ID, Timestamp, RoundCreated, Equivalent, Alive, Player_ID, Points, MD5, Class_ID, MutatedLines, MutatedLines_Bitmap, MutationDescription, Patch)",
+                " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);"
         );
         DatabaseValue[] values = new DatabaseValue[]{
                 DatabaseValue.of(javaFile),
@@ -224,11 +272,15 @@ public class MutantDAO {
                 DatabaseValue.of(score),
                 DatabaseValue.of(md5),
                 DatabaseValue.of(classId),
-                DatabaseValue.of(mutatedLinesString)
+                DatabaseValue.of(mutatedLinesString),
+                DatabaseValue.of(mutatedLinesBitmap),
+                DatabaseValue.of(description),
+                DatabaseValue.of(patch)
         };
 
         final int result = DB.executeUpdateQueryGetKeys(query, values);
         if (result != -1) {
+            GameVersions.bump(gameId);
             return result;
         } else {
             throw new Exception("Could not store mutant to database.");
@@ -269,7 +321,9 @@ public class MutantDAO {
                 DatabaseValue.of(id),
                 DatabaseValue.of(id)
         };
-        return DB.executeUpdateQuery(query, values);
+        final boolean removed = DB.executeUpdateQuery(query, values);
+        GameVersions.bumpAll();
+        return removed;
     }
 
     /**
@@ -301,7 +355,9 @@ public class MutantDAO {
         mutants.addAll(new LinkedList<>(mutants));
         DatabaseValue[] values = mutants.stream().map(DatabaseValue::of).toArray(DatabaseValue[]::new);
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean removed = DB.executeUpdateQuery(query, values);
+        GameVersions.bumpAll();
+        return removed;
     }
 
     /**
@@ -20,6 +20,7 @@ package org.codedefenders.database;
 
 import org.codedefenders.game.GameLevel;
 import org.codedefenders.game.GameState;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.puzzle.Puzzle;
 import org.codedefenders.game.puzzle.PuzzleChapter;
@@ -30,7 +31,10 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * This class handles the database logic for puzzles.
@@ -42,6 +46,17 @@ import java.util.List;
 public class PuzzleDAO {
     private static final Logger logger = LoggerFactory.getLogger(PuzzleDAO.class);
 
+    /**
+     * Caches all puzzle chapters and all puzzles, which are shared by the puzzle overviews of all users.
+     * Both are invalidated when a puzzle or chapter is stored, and additionally expire after ten minutes,
+     * since puzzles can also be added to the database directly.
+     */
+    private static final EntityCache<Integer, List<PuzzleChapter>> chapterCache =
+            new EntityCache<>("Puzzle chapters", 1, 10, TimeUnit.MINUTES);
+    private static final EntityCache<Integer, List<Puzzle>> puzzleCache =
+            new EntityCache<>("Puzzles", 1, 10, TimeUnit.MINUTES);
+    private static final int CACHE_KEY = 0;
+
     /**
      * Returns the {@link PuzzleChapter} for the given chapter ID.
      *
@@ -60,17 +75,20 @@ public class PuzzleDAO {
 
     /**
      * Returns a {@link List} of all {@link PuzzleChapter PuzzleChapters}, sorted by the position in the chapter list.
+     * The chapters are cached and shared, so neither the list nor the chapters must be modified.
      *
      * @return A {@link List} of all {@link PuzzleChapter PuzzleChapters}, sorted by the position in the chapter list.
      */
     public static List<PuzzleChapter> getPuzzleChapters() {
-        String query = String.join("\n",
-                "SELECT *",
-                "FROM puzzle_chapters",
-                "ORDER BY Position;"
-        );
-
-        return DB.executeQueryReturnList(query, PuzzleDAO::getPuzzleChapterFromResultSet);
+        return chapterCache.get(CACHE_KEY, key -> {
+            String query = String.join("\n",
+                    "SELECT *",
+                    "FROM puzzle_chapters",
+                    "ORDER BY Position;"
+            );
+
+            return Collections.unmodifiableList(DB.executeQueryReturnList(query, PuzzleDAO::getPuzzleChapterFromResultSet));
+        });
     }
 
     /**
@@ -91,36 +109,34 @@ public class PuzzleDAO {
 
     /**
      * Returns a {@link List} of all {@link Puzzle Puzzles}, sorted by the chapter ID and position in the chapter.
+     * The puzzles are cached and shared, so neither the list nor the puzzles must be modified.
      *
      * @return A {@link List} of all {@link Puzzle Puzzles}, sorted by the chapter ID and position in the chapter.
      */
     public static List<Puzzle> getPuzzles() {
-        String query = String.join("\n",
-                "SELECT *",
-                "FROM puzzles",
-                "ORDER BY Chapter_ID, Position;"
-        );
-
-        return DB.executeQueryReturnList(query, PuzzleDAO::getPuzzleFromResultSet);
+        return puzzleCache.get(CACHE_KEY, key -> {
+            String query = String.join("\n",
+                    "SELECT *",
+                    "FROM puzzles",
+                    "ORDER BY Chapter_ID, Position;"
+            );
+
+            return Collections.unmodifiableList(DB.executeQueryReturnList(query, PuzzleDAO::getPuzzleFromResultSet));
+        });
     }
 
     /**
      * Returns a {@link List} of all {@link Puzzle Puzzles} in the given {@link PuzzleChapter}, sorted by the position
-     * in the chapter.
+     * in the chapter. The puzzles are filtered from the cached {@link #getPuzzles() puzzles}.
      *
      * @param chapterId The chapter ID.
      * @return A {@link List} of all {@link Puzzle Puzzles} in the given {@link PuzzleChapter}, sorted by the position
      * in the chapter.
      */
     public static List<Puzzle> getPuzzlesForChapterId(int chapterId) {
-        String query = String.join("\n",
-                "SELECT *",
-                "FROM puzzles",
-                "WHERE Chapter_ID = ?",
-                "ORDER BY Position;"
-        );
-
-        return DB.executeQueryReturnList(query, PuzzleDAO::getPuzzleFromResultSet, DatabaseValue.of(chapterId));
+        return getPuzzles().stream()
+                .filter(puzzle -> puzzle.getChapterId() != null && puzzle.getChapterId() == chapterId)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -238,7 +254,9 @@ public class PuzzleDAO {
                 DatabaseValue.of(puzzle.getDescription())
         };
 
-        return DB.executeUpdateQueryGetKeys(query, values);
+        final int puzzleId = DB.executeUpdateQueryGetKeys(query, values);
+        puzzleCache.invalidateAll();
+        return puzzleId;
     }
 
     /**
@@ -266,7 +284,9 @@ public class PuzzleDAO {
                 DatabaseValue.of(chapter.getDescription()),
         };
 
-        return DB.executeUpdateQueryGetKeys(query, values);
+        final int chapterId = DB.executeUpdateQueryGetKeys(query, values);
+        chapterCache.invalidateAll();
+        return chapterId;
     }
 
     /**
@@ -345,7 +365,9 @@ public class PuzzleDAO {
                 DatabaseValue.of(game.getId()),
         };
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean updated = DB.executeUpdateQuery(query, values);
+        GameVersions.bump(game.getId());
+        return updated;
     }
 
     /**
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the {@link PreparedStatement PreparedStatements} of a single pooled {@link Connection},
+ * keyed by their SQL text. If more than {@link #MAX_SIZE} statements are cached, the least
+ * recently used statement is closed.
+ * <p>
+ * A pooled connection is only used by one thread at a time, but the cache is
+ * synchronized anyway, because the pool may close the connection while it is idle.
+ * <p>
+ * Hit and miss counts are collected over all caches and exported by
+ * {@link ConnectionPool#getMetrics()}.
+ */
+class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    /**
+     * Maximum number of cached statements per connection.
+     */
+    static final int MAX_SIZE = 100;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > MAX_SIZE) {
+                evictions.incrementAndGet();
+                cachedStatements.remove(eldest.getValue());
+                close(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Set<PreparedStatement> cachedStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns a cached statement for the given query or prepares and caches a new one.
+     * Generated keys are only requested for {@code INSERT} statements.
+     *
+     * @param query the SQL query.
+     * @return a prepared statement for the given query, whose parameters are cleared.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    synchronized PreparedStatement prepare(String query) throws SQLException {
+        PreparedStatement stmt = statements.get(query);
+        if (stmt != null && !stmt.isClosed()) {
+            hits.incrementAndGet();
+            return stmt;
+        }
+        misses.incrementAndGet();
+        if (stmt != null) {
+            // Closed by the caller instead of using DB#cleanup.
+            cachedStatements.remove(stmt);
+        }
+        stmt = prepareStatement(connection, query);
+        statements.put(query, stmt);
+        cachedStatements.add(stmt);
+        return stmt;
+    }
+
+    /**
+     * Resets a statement after it was used. The current result set of the statement is closed and the
+     * parameters and batch are cleared, but a cached statement is kept open.
+     *
+     * @param stmt the statement.
+     * @return {@code true} if the statement is cached, {@code false} if it has to be closed by the caller.
+     */
+    synchronized boolean release(PreparedStatement stmt) {
+        if (!cachedStatements.contains(stmt)) {
+            return false;
+        }
+        try {
+            final ResultSet resultSet = stmt.getResultSet();
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            stmt.clearParameters();
+            stmt.clearBatch();
+        } catch (SQLException e) {
+            logger.warn("SQL exception while resetting cached statement. Removing it from the cache.", e);
+            statements.values().remove(stmt);
+            cachedStatements.remove(stmt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    synchronized void close() {
+        for (PreparedStatement stmt : statements.values()) {
+            close(stmt);
+        }
+        statements.clear();
+        cachedStatements.clear();
+    }
+
+    private static void close(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            logger.warn("SQL exception while closing cached statement.", e);
+        }
+    }
+
+    /**
+     * Prepares a statement for a given query. Generated keys are only requested
+     * for {@code INSERT} statements, since retrieving them has a cost for every execution.
+     */
+    static PreparedStatement prepareStatement(Connection connection, String query) throws SQLException {
+        if (isInsert(query)) {
+            return connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+        }
+        return connection.prepareStatement(query);
+    }
+
+    private static boolean isInsert(String query) {
+        final String trimmed = query.trim();
+        return trimmed.regionMatches(true, 0, "INSERT", 0, "INSERT".length());
+    }
+
+    static long getHits() {
+        return hits.get();
+    }
+
+    static long getMisses() {
+        return misses.get();
+    }
+
+    static long getEvictions() {
+        return evictions.get();
+    }
+}
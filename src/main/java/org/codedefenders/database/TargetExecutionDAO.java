@@ -22,10 +22,17 @@ import org.codedefenders.database.DB.RSMapper;
 import org.codedefenders.execution.TargetExecution;
 import org.codedefenders.game.Mutant;
 import org.codedefenders.game.Test;
+import org.codedefenders.model.GameEventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This class handles the database logic for target executions.
@@ -34,6 +41,7 @@ import java.sql.Timestamp;
  * @see TargetExecution
  */
 public class TargetExecutionDAO {
+    private static final Logger logger = LoggerFactory.getLogger(TargetExecutionDAO.class);
     private static final int MESSAGE_LIMIT = 2000;
 
     /**
@@ -62,9 +70,13 @@ public class TargetExecutionDAO {
      * <p>
      * This method does not update the given target execution object.
      * Use {@link TargetExecution#insert()} instead.
+     * <p>
+     * Only one execution is stored per test, mutant and target. If the same test and mutant were
+     * executed concurrently and the other execution was stored first, this one is not stored.
      *
      * @param targetExecution the given target execution as a {@link TargetExecution}.
-     * @return the generated identifier of the target execution as an {@code int}.
+     * @return the generated identifier of the target execution as an {@code int}, or the identifier
+     * of the already stored execution of the same test, mutant and target.
      * @throws UncheckedSQLException If storing the target execution was not successful.
      */
     public static int storeTargetExecution(TargetExecution targetExecution) {
@@ -76,7 +88,7 @@ public class TargetExecutionDAO {
                         : targetExecution.message.substring(0, MESSAGE_LIMIT);
 
         if (targetExecution.hasTest() && targetExecution.hasMutant()) {
-            query = "INSERT INTO targetexecutions (Test_ID, Mutant_ID, Target, Status, Message) VALUES (?, ?, ?, ?, ?);";
+            query = "INSERT IGNORE INTO targetexecutions (Test_ID, Mutant_ID, Target, Status, Message) VALUES (?, ?, ?, ?, ?);";
             values = new DatabaseValue[] {
                     DatabaseValue.of(targetExecution.testId),
                     DatabaseValue.of(targetExecution.mutantId),
@@ -112,12 +124,62 @@ public class TargetExecutionDAO {
 
         final int result = DB.executeUpdateQueryGetKeys(query, values);
         if (result != -1) {
+            if (GameEventBus.hasListeners() && (targetExecution.hasTest() || targetExecution.hasMutant())) {
+                final Integer gameId = getGameIdForTargetExecution(targetExecution);
+                if (gameId != null) {
+                    GameEventBus.publishProgress(gameId);
+                }
+            }
             return result;
-        } else {
-            throw new UncheckedSQLException("Could not store target execution to database.");
         }
+        if (targetExecution.hasTest() && targetExecution.hasMutant()) {
+            // Ignored because of the unique key on test, mutant and target
+            final Integer existingId = getTargetExecutionId(targetExecution);
+            if (existingId != null) {
+                logger.info("Execution of test {} on mutant {} was already stored.",
+                        targetExecution.testId, targetExecution.mutantId);
+                return existingId;
+            }
+        }
+        throw new UncheckedSQLException("Could not store target execution to database.");
      }
 
+    /**
+     * Retrieves the identifier of the stored execution with the same test, mutant and target as the given one.
+     */
+    private static Integer getTargetExecutionId(TargetExecution targetExecution) {
+        String query = String.join("\n",
+                "SELECT TargetExecution_ID",
+                "FROM targetexecutions",
+                "WHERE Test_ID = ?",
+                "  AND Mutant_ID = ?",
+                "  AND Target = ?;"
+        );
+        return DB.executeQueryReturnValue(query, rs -> rs.getInt("TargetExecution_ID"),
+                DatabaseValue.of(targetExecution.testId),
+                DatabaseValue.of(targetExecution.mutantId),
+                DatabaseValue.of(targetExecution.target.name()));
+    }
+
+    /**
+     * Retrieves the identifier of the game the test or mutant of a given {@link TargetExecution} belongs to.
+     *
+     * @param targetExecution the given target execution, which must have a test or a mutant.
+     * @return the game identifier if found, {@code null} otherwise.
+     */
+    private static Integer getGameIdForTargetExecution(TargetExecution targetExecution) {
+        final String query;
+        final DatabaseValue value;
+        if (targetExecution.hasTest()) {
+            query = "SELECT Game_ID FROM tests WHERE Test_ID = ?;";
+            value = DatabaseValue.of(targetExecution.testId);
+        } else {
+            query = "SELECT Game_ID FROM mutants WHERE Mutant_ID = ?;";
+            value = DatabaseValue.of(targetExecution.mutantId);
+        }
+        return DB.executeQueryReturnValue(query, rs -> rs.getInt("Game_ID"), value);
+    }
+
     /**
      * Retrieves the specific {@link TargetExecution} for given test and mutant identifiers.
      *
@@ -141,6 +203,34 @@ public class TargetExecutionDAO {
         return DB.executeQueryReturnValue(query, TargetExecutionDAO::targetExecutionFromRS, values);
     }
 
+    /**
+     * Retrieves the {@link TargetExecution TargetExecutions} of all pairs of the given
+     * test and mutant identifiers with a single query.
+     *
+     * @param testIds the given {@link Test} identifiers.
+     * @param mutantIds the given {@link Mutant} identifiers.
+     * @return the target executions of all pairs of given tests and mutants, can be empty.
+     * @see #getTargetExecutionForPair(int, int)
+     */
+    public static List<TargetExecution> getTargetExecutionsForPairs(Collection<Integer> testIds,
+                                                                    Collection<Integer> mutantIds) {
+        if (testIds.isEmpty() || mutantIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String query = String.join("\n",
+                "SELECT *",
+                "FROM targetexecutions",
+                "WHERE Test_ID IN (" + DB.placeholders(testIds.size()) + ")",
+                "  AND Mutant_ID IN (" + DB.placeholders(mutantIds.size()) + ");"
+        );
+
+        DatabaseValue[] values = Stream.concat(testIds.stream(), mutantIds.stream())
+                .map(DatabaseValue::of)
+                .toArray(DatabaseValue[]::new);
+
+        return DB.executeQueryReturnList(query, TargetExecutionDAO::targetExecutionFromRS, values);
+    }
+
     /**
      * Retrieves the specific {@link TargetExecution} for a given test and execution target.
      *
@@ -20,15 +20,17 @@ package org.codedefenders.database;
 
 import org.codedefenders.database.DB.RSMapper;
 import org.codedefenders.game.GameClass;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.LineCoverage;
 import org.codedefenders.game.Test;
+import org.codedefenders.util.LineBitmaps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -66,25 +68,36 @@ public class TestDAO {
         int mutantsKilled = rs.getInt("MutantsKilled");
         int playerId = rs.getInt("Player_ID");
         int points = rs.getInt("Points");
-        String linesCoveredString = rs.getString("Lines_Covered");
-        String linesUncoveredString = rs.getString("Lines_Uncovered");
-
-        List<Integer> linesCovered = new ArrayList<>();
-        if (linesCoveredString != null && !linesCoveredString.isEmpty()) {
-            linesCovered.addAll(Arrays.stream(linesCoveredString.split(","))
-                            .map(Integer::parseInt)
-                            .collect(Collectors.toList()));
-        }
+        Test test = new Test(testId, classId, gameId, javaFile, classFile, roundCreated, mutantsKilled, playerId,
+                Collections.emptyList(), Collections.emptyList(), points);
+        test.setLineCoverage(lineCoverageFromRS(rs));
+        return test;
+    }
 
-        List<Integer> linesUncovered = new ArrayList<>();
-        if (linesUncoveredString != null && !linesUncoveredString.isEmpty()) {
-            linesUncovered.addAll(Arrays.stream(linesUncoveredString.split(","))
-                            .map(Integer::parseInt)
-                            .collect(Collectors.toList()));
+    /**
+     * Constructs the line coverage of a test from a {@link ResultSet} entry.
+     * <p>
+     * Uses the binary {@code Lines_Covered_Bitmap} and {@code Lines_Uncovered_Bitmap} columns, which are
+     * decoded on demand. Tests stored before these columns existed fall back to parsing the comma separated
+     * {@code Lines_Covered} and {@code Lines_Uncovered} columns.
+     *
+     * @param rs The {@link ResultSet}.
+     * @return The line coverage of the test.
+     */
+    static LineCoverage lineCoverageFromRS(ResultSet rs) throws SQLException {
+        byte[] linesCoveredBitmap = null;
+        byte[] linesUncoveredBitmap = null;
+        try {
+            linesCoveredBitmap = rs.getBytes("Lines_Covered_Bitmap");
+            linesUncoveredBitmap = rs.getBytes("Lines_Uncovered_Bitmap");
+        } catch (SQLException e) { /* Bitmap columns cannot be retrieved from query. */ }
+
+        if (linesCoveredBitmap != null && linesUncoveredBitmap != null) {
+            return LineCoverage.fromEncoded(linesCoveredBitmap, linesUncoveredBitmap);
         }
-
-        return new Test(testId, classId, gameId, javaFile, classFile, roundCreated, mutantsKilled, playerId,
-                linesCovered, linesUncovered, points);
+        List<Integer> linesCovered = LineBitmaps.parseLegacy(rs.getString("Lines_Covered"));
+        List<Integer> linesUncovered = LineBitmaps.parseLegacy(rs.getString("Lines_Uncovered"));
+        return new LineCoverage(linesCovered, linesUncovered);
     }
 
     /**
@@ -236,13 +249,17 @@ public class TestDAO {
 
         String linesCovered = "";
         String linesUncovered = "";
+        byte[] linesCoveredBitmap = LineBitmaps.encode(Collections.<Integer>emptyList());
+        byte[] linesUncoveredBitmap = linesCoveredBitmap;
 
         if (lineCoverage != null) {
             linesCovered = lineCoverage.getLinesCovered().stream().map(Object::toString).collect(Collectors.joining(","));
             linesUncovered = lineCoverage.getLinesUncovered().stream().map(Object::toString).collect(Collectors.joining(","));
+            linesCoveredBitmap = lineCoverage.getEncodedLinesCovered();
+            linesUncoveredBitmap = lineCoverage.getEncodedLinesUncovered();
         }
 
-        String query = "INSERT INTO tests (JavaFile, ClassFile, Game_ID, Timestamp, RoundCreated, MutantsKilled, Player_ID, Points, Class_ID, Lines_Covered, Lines_Uncovered) VALUES (?,?,?,?,?,?,?,?,?,?,?);";
+        String query = "INSERT INTO tests (JavaFile, ClassFile, Game_ID, Timestamp, RoundCreated, MutantsKilled, Player_ID, Points, Class_ID, Lines_Covered, Lines_Uncovered, Lines_Covered_Bitmap, Lines_Uncovered_Bitmap) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?);";
         DatabaseValue[] values = new DatabaseValue[]{
                 DatabaseValue.of(javaFile),
                 DatabaseValue.of(classFile),
@@ -254,11 +271,14 @@ public class TestDAO {
                 DatabaseValue.of(score),
                 DatabaseValue.of(classId),
                 DatabaseValue.of(linesCovered),
-                DatabaseValue.of(linesUncovered)
+                DatabaseValue.of(linesUncovered),
+                DatabaseValue.of(linesCoveredBitmap),
+                DatabaseValue.of(linesUncoveredBitmap)
         };
 
         final int result = DB.executeUpdateQueryGetKeys(query, values);
         if (result != -1) {
+            GameVersions.bump(gameId);
             return result;
         } else {
             throw new UncheckedSQLException("Could not store test to database.");
@@ -297,7 +317,9 @@ public class TestDAO {
                 "DELETE FROM test_uploaded_with_class WHERE Test_ID = ?;"
         );
 
-        return DB.executeUpdateQuery(query, DatabaseValue.of(id));
+        final boolean removed = DB.executeUpdateQuery(query, DatabaseValue.of(id));
+        GameVersions.bumpAll();
+        return removed;
     }
 
     /**
@@ -331,7 +353,9 @@ public class TestDAO {
         tests.addAll(new LinkedList<>(tests));
         DatabaseValue[] values = tests.stream().map(DatabaseValue::of).toArray(DatabaseValue[]::new);
 
-        return DB.executeUpdateQuery(query, values);
+        final boolean removed = DB.executeUpdateQuery(query, values);
+        GameVersions.bumpAll();
+        return removed;
     }
 
     /**
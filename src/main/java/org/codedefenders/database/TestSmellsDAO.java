@@ -49,14 +49,13 @@ public class TestSmellsDAO {
      * @throws UncheckedSQLException If storing test smells was not successful.
      */
     public static void storeSmell(final Test test, final TestFile testFile) throws UncheckedSQLException {
+        String query = String.join("\n",
+                "INSERT INTO test_smell (Test_ID, smell_name)",
+                "VALUES (?, ?);"
+        );
+        Connection conn = DB.getConnection();
+        PreparedStatement stmt = DB.createPreparedStatement(conn, query);
         try {
-            String query = String.join("\n",
-                    "INSERT INTO test_smell (Test_ID, smell_name)",
-                    "VALUES (?, ?);"
-            );
-            Connection conn = DB.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(query);
-
             for (AbstractSmell smell : testFile.getTestSmells()) {
                 if (smell.getHasSmell() && !filterSmell.equals(smell.getSmellName())) {
                     stmt.setInt(1, test.getId());
@@ -69,6 +68,8 @@ public class TestSmellsDAO {
         } catch (SQLException e) {
             logger.warn("Cannot store smell to database ", e);
             throw new UncheckedSQLException("Could not store test smell to database.");
+        } finally {
+            DB.cleanup(conn, stmt);
         }
     }
 
@@ -24,7 +24,14 @@ import org.codedefenders.model.User;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles the database logic for mutants.
@@ -32,6 +39,26 @@ import java.util.List;
  */
 public class UserDAO {
 
+    /**
+     * Caches users by their identifier. Cached users are copied when returned, so callers may modify them.
+     */
+    private static final EntityCache<Integer, User> userCache =
+            new EntityCache<>("Users", 10000, 5, TimeUnit.MINUTES);
+
+    /**
+     * Caches the user identifier of players. Players never change their user, so entries are only
+     * invalidated when a player is deleted.
+     */
+    private static final EntityCache<Integer, Integer> playerUserCache =
+            new EntityCache<>("Player to user mappings", 50000, 30, TimeUnit.MINUTES);
+
+    /**
+     * Caches whether users are active, which is checked on every request of a logged in user.
+     * Entries expire quickly, so users deactivated directly in the database are logged out soon.
+     */
+    private static final EntityCache<Integer, Boolean> activeUserCache =
+            new EntityCache<>("Active users", 10000, 30, TimeUnit.SECONDS);
+
     /**
      * Constructs a user from a {@link ResultSet} entry.
      * @param rs The {@link ResultSet}.
@@ -49,12 +76,36 @@ public class UserDAO {
         return new User(userId, userName, password, email, validated, active);
     }
 
+    private static User copyOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new User(user.getId(), user.getUsername(), user.getEncodedPassword(), user.getEmail(),
+                user.isValidated(), user.isActive());
+    }
+
     /**
      * Returns the user for the given user id.
      */
     public static User getUserById(int userId) throws UncheckedSQLException, SQLMappingException {
-        String query = "SELECT * FROM users WHERE User_ID = ?;";
-        return DB.executeQueryReturnValue(query, UserDAO::userFromRS, DatabaseValue.of(userId));
+        return copyOf(userCache.get(userId, id -> {
+            String query = "SELECT * FROM users WHERE User_ID = ?;";
+            return DB.executeQueryReturnValue(query, UserDAO::userFromRS, DatabaseValue.of(id));
+        }));
+    }
+
+    /**
+     * Returns whether the user with the given id exists and is active, without loading the whole user.
+     *
+     * @param userId the user id.
+     * @return {@code true} if the user is active, {@code false} if the user is inactive or does not exist.
+     */
+    public static boolean isActiveUser(int userId) throws UncheckedSQLException, SQLMappingException {
+        final Boolean active = activeUserCache.get(userId, id -> {
+            String query = "SELECT Active FROM users WHERE User_ID = ?;";
+            return DB.executeQueryReturnValue(query, rs -> rs.getBoolean("Active"), DatabaseValue.of(id));
+        });
+        return Boolean.TRUE.equals(active);
     }
 
     /**
@@ -73,13 +124,82 @@ public class UserDAO {
         return DB.executeQueryReturnValue(query, UserDAO::userFromRS, DatabaseValue.of(email));
     }
 
+    /**
+     * Returns the user of the player with the given id.
+     */
     public static User getUserForPlayer(int playerId) throws UncheckedSQLException, SQLMappingException {
+        final Integer userId = playerUserCache.get(playerId, id -> {
+            String query = "SELECT User_ID FROM players WHERE ID = ?;";
+            return DB.executeQueryReturnValue(query, rs -> rs.getInt("User_ID"), DatabaseValue.of(id));
+        });
+        return userId == null ? null : getUserById(userId);
+    }
+
+    /**
+     * Returns the users of the players with the given ids with a single query.
+     *
+     * @param playerIds the player ids.
+     * @return a mapping from player ids to their users, in the order of the given ids.
+     * Player ids which do not exist are not contained.
+     */
+    public static Map<Integer, User> getUsersForPlayers(int[] playerIds)
+            throws UncheckedSQLException, SQLMappingException {
+        final Map<Integer, User> users = new LinkedHashMap<>();
+        if (playerIds.length == 0) {
+            return users;
+        }
+
         String query = String.join("\n",
-                "SELECT users.*",
-                "FROM users, players",
-                "WHERE players.User_ID = users.User_ID",
-                "  AND players.ID = ?;");
-        return DB.executeQueryReturnValue(query, UserDAO::userFromRS, DatabaseValue.of(playerId));
+                "SELECT p.ID AS Player_ID, u.*",
+                "FROM players p",
+                "INNER JOIN users u ON u.User_ID = p.User_ID",
+                "WHERE p.ID IN (" + DB.placeholders(playerIds.length) + ");");
+        DatabaseValue[] values = Arrays.stream(playerIds).mapToObj(DatabaseValue::of).toArray(DatabaseValue[]::new);
+
+        final List<Map.Entry<Integer, User>> rows = DB.executeQueryReturnList(query,
+                rs -> new AbstractMap.SimpleImmutableEntry<>(rs.getInt("Player_ID"), userFromRS(rs)), values);
+        final Map<Integer, User> usersByPlayer = new HashMap<>();
+        for (Map.Entry<Integer, User> row : rows) {
+            usersByPlayer.put(row.getKey(), row.getValue());
+        }
+        for (int playerId : playerIds) {
+            final User user = usersByPlayer.get(playerId);
+            if (user != null) {
+                users.put(playerId, user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Returns the first of the given players which belongs to the given user,
+     * looking up the users of all players with a single query.
+     *
+     * @param playerIds the player ids, e.g. the attackers of a game.
+     * @param userId    the user id.
+     * @return the player id, or an empty optional if none of the players belongs to the user.
+     */
+    public static OptionalInt getPlayerIdForUser(int[] playerIds, int userId)
+            throws UncheckedSQLException, SQLMappingException {
+        return getUsersForPlayers(playerIds).entrySet().stream()
+                .filter(entry -> entry.getValue().getId() == userId)
+                .mapToInt(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    /**
+     * Removes the user with the given id from the cache. Must be called whenever a user is updated or deleted.
+     */
+    public static void invalidateUser(int userId) {
+        userCache.invalidate(userId);
+        activeUserCache.invalidate(userId);
+    }
+
+    /**
+     * Removes the player with the given id from the cache. Must be called whenever a player is deleted.
+     */
+    public static void invalidatePlayer(int playerId) {
+        playerUserCache.invalidate(playerId);
     }
 
     /**
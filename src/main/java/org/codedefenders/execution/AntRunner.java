@@ -34,9 +34,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -68,6 +74,13 @@ public class AntRunner {
 	private static String clusterJavaHome = null;
 	private static String clusterReservationName = null;
 	private static String clusterTimeOutMinutes = "2";
+	//
+	private static String scratchDir = null;
+
+	/**
+	 * Ant targets which write a test recompiled against a mutant to {@code mutant.test.file}.
+	 */
+	private static final List<String> RECOMPILING_TARGETS = Arrays.asList("recompile-test-mutant", "recompiled-test-mutant");
 
 	// Alessio: DO NOT REALLY LIKE THOSE...
 	static {
@@ -101,6 +114,9 @@ public class AntRunner {
 					case "forceLocalExecution":
 						forceLocalExecution = "enabled".equalsIgnoreCase((String) environmentContext.lookup(name));
 						break;
+					case "scratch.dir":
+						scratchDir = (String) environmentContext.lookup(name);
+						break;
 				}
 			}
 
@@ -115,6 +131,10 @@ public class AntRunner {
 			antHome = (String) env.get("ANT_HOME");
 		}
 
+		// Unset or unfiltered values fall back to the defaults of getScratchRoot()
+		if (scratchDir != null && (scratchDir.trim().isEmpty() || scratchDir.startsWith("${"))) {
+			scratchDir = null;
+		}
 
 	}
 	/////
@@ -204,7 +224,16 @@ public class AntRunner {
 	}
 
 	public static void testOriginal(GameClass cut, String testDir, String testClassName) throws Exception {
-		AntProcessResult result = runAntTarget("test-original", null, testDir, cut, testClassName, forceLocalExecution);
+		// The coverage is not needed, but must not be written to the test directory
+		final File scratch = createScratchDirectory("test-original-", forceLocalExecution);
+		final File executionDataFile = new File(scratch, LineCoverageGenerator.JACOCO_REPORT_FILE);
+		AntProcessResult result;
+		try {
+			result = runAntTarget("test-original", null, testDir, cut, testClassName, forceLocalExecution,
+					Collections.singletonMap("jacoco.exec.file", executionDataFile.getAbsolutePath()));
+		} finally {
+			deleteScratchDirectory(scratch);
+		}
 
 		if (result.hasFailure() || result.hasError()) {
 			logger.error("Test {} failed to run against class under test", testClassName);
@@ -223,12 +252,21 @@ public class AntRunner {
 	public static TargetExecution testOriginal(File dir, Test t) {
 		GameClass cut = GameClassDAO.getClassForGameId(t.getGameId());
 
-		AntProcessResult result = runAntTarget("test-original", null, dir.getAbsolutePath(), cut, t.getFullyQualifiedClassName(), forceLocalExecution);
-
-		// add coverage information
-		final LineCoverage coverage = LineCoverageGenerator.generate(cut, Paths.get(t.getJavaFile()));
-		t.setLineCoverage(coverage);
-		t.update();
+		// The execution data is only needed until the coverage is stored
+		final File scratch = createScratchDirectory("test-original-", forceLocalExecution);
+		final File executionDataFile = new File(scratch, LineCoverageGenerator.JACOCO_REPORT_FILE);
+		AntProcessResult result;
+		try {
+			result = runAntTarget("test-original", null, dir.getAbsolutePath(), cut, t.getFullyQualifiedClassName(),
+					forceLocalExecution, Collections.singletonMap("jacoco.exec.file", executionDataFile.getAbsolutePath()));
+
+			// add coverage information
+			final LineCoverage coverage = LineCoverageGenerator.generate(cut, executionDataFile);
+			t.setLineCoverage(coverage);
+			t.update();
+		} finally {
+			deleteScratchDirectory(scratch);
+		}
 
 		// record test execution
 		TargetExecution.Status status;
@@ -480,6 +518,16 @@ public class AntRunner {
 	}
 	
 	private static AntProcessResult runAntTarget(String target, String mutantDir, String testDir, GameClass cut, String testClassName, boolean forcedLocally) {
+		return runAntTarget(target, mutantDir, testDir, cut, testClassName, forcedLocally, Collections.emptyMap());
+	}
+
+	/**
+	 * Runs a specific Ant target in the build.xml file, passing additional properties to Ant.
+	 *
+	 * @param properties additional Ant properties, which are passed as {@code -Dkey=value}.
+	 * @see #runAntTarget(String, String, String, GameClass, String)
+	 */
+	private static AntProcessResult runAntTarget(String target, String mutantDir, String testDir, GameClass cut, String testClassName, boolean forcedLocally, Map<String, String> properties) {
 		logger.info("Running Ant Target: {} with mFile: {} and tFile: {}", target, mutantDir, testDir);
 
 		ProcessBuilder pb = new ProcessBuilder();
@@ -541,22 +589,14 @@ public class AntRunner {
 		command.add("-Dclassname=" + cut.getName());
 		command.add("-DtestClassname=" + testClassName);
 		command.add("-Dcuts.deps=" + cutDir + F_SEP + CUTS_DEPENDENCY_DIR);
-		//
-		if (mutantDir != null && testDir != null) {
-			String separator = F_SEP;
-			if (separator.equals("\\")){
-				separator = "\\\\";
-			}
-			String[] tokens = mutantDir.split(separator);
-			String mutantFile = String.format("%s-%s", tokens[tokens.length - 2], tokens[tokens.length - 1]);
-			String testMutantFile = testDir.replace("original", mutantFile);
-			// TODO This might need refactoring
-			File testMutantFileDir = new File( testMutantFile  );
-			if( ! testMutantFileDir.exists() ){
-				testMutantFileDir.mkdirs();
-			}
-			//
-			command.add("-Dmutant.test.file=" + testMutantFile);
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			command.add("-D" + property.getKey() + "=" + property.getValue());
+		}
+		// Tests recompiled against a mutant are only needed for this execution
+		File testMutantDir = null;
+		if (mutantDir != null && testDir != null && RECOMPILING_TARGETS.contains(target)) {
+			testMutantDir = createScratchDirectory("mutant-test-", forcedLocally);
+			command.add("-Dmutant.test.file=" + testMutantDir.getAbsolutePath());
 		}
 		// Execute whichever command was build
 		pb.command(command);
@@ -567,7 +607,54 @@ public class AntRunner {
 
 		logger.info("Executing Ant Command {} from directory {}", pb.command().toString(), buildFileDir);
 
-		return runAntProcess(pb);
+		try {
+			return runAntProcess(pb);
+		} finally {
+			deleteScratchDirectory(testMutantDir);
+		}
+	}
+
+	/**
+	 * Returns the root directory for temporary execution data, which does not
+	 * need to be kept after the execution results are stored.
+	 * <p>
+	 * Clustered executions use a folder in the data directory, because the scratch
+	 * directory must be accessible by all nodes. Local executions use the configured
+	 * {@code scratch.dir}, which ideally is on a fast local disk or a tmpfs, or the
+	 * system temporary directory if none is configured.
+	 */
+	private static Path getScratchRoot(boolean forcedLocally) {
+		if (clusterEnabled && !forcedLocally) {
+			return Paths.get(Constants.DATA_DIR, "scratch");
+		}
+		if (scratchDir != null) {
+			return Paths.get(scratchDir);
+		}
+		return Paths.get(System.getProperty("java.io.tmpdir"), "codedefenders-scratch");
+	}
+
+	/**
+	 * Creates a new, uniquely named directory in the scratch root.
+	 *
+	 * @param prefix the prefix of the directory name.
+	 * @param forcedLocally whether the directory is used by a local execution.
+	 * @return the created directory.
+	 */
+	private static File createScratchDirectory(String prefix, boolean forcedLocally) {
+		final Path scratchRoot = getScratchRoot(forcedLocally);
+		try {
+			Files.createDirectories(scratchRoot);
+			return Files.createTempDirectory(scratchRoot, prefix).toFile();
+		} catch (IOException e) {
+			logger.error("Could not create scratch directory in " + scratchRoot, e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void deleteScratchDirectory(File directory) {
+		if (directory != null && !FileUtils.deleteQuietly(directory)) {
+			logger.warn("Could not delete scratch directory {}", directory);
+		}
 	}
 
 	private static AntProcessResult runAntProcess(ProcessBuilder pb) {
@@ -25,10 +25,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -325,6 +328,96 @@ public class Compiler {
         }
     }
 
+    /**
+     * Compiles multiple java test files with a single compiler invocation. Compared to
+     * calling {@link #compileJavaTestFileForContent(String, String, List, boolean)} for each
+     * test, the dependencies are only parsed and compiled once.
+     * <p>
+     * All classes are compiled to a temporary directory first. Afterwards, the
+     * {@code .class} files of each test (including nested classes) are moved into the
+     * directory of the respective {@code .java} file. Generated {@code .class} files of
+     * the dependencies are removed.
+     * <p>
+     * The file names of the given tests must be unique. If compilation fails, no
+     * {@code .class} file is kept and the compiler output of all tests is included
+     * in the {@link CompileException}.
+     *
+     * @param testFiles    the {@code .java} test files, which are compiled.
+     * @param dependencies a list of java files required for compilation.
+     * @return The paths to the {@code .class} files, in the same order as the given tests.
+     * @throws CompileException If an error during compilation occurs.
+     */
+    public static List<String> compileJavaTestFiles(List<JavaFileObject> testFiles, List<JavaFileObject> dependencies) throws CompileException, IllegalStateException {
+        javax.tools.JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Platform provided no java compiler.");
+        }
+
+        final Path outputDir;
+        try {
+            outputDir = Files.createTempDirectory("codedefenders-javac-");
+        } catch (IOException e) {
+            throw new CompileException(e);
+        }
+
+        try {
+            final StringWriter writer = new StringWriter();
+            final List<javax.tools.JavaFileObject> compilationUnits = new LinkedList<>(dependencies);
+            compilationUnits.addAll(testFiles);
+
+            final List<String> options = Arrays.asList(
+                    "-encoding", "UTF-8",
+                    "-d", outputDir.toString(),
+                    "-classpath", TEST_CLASSPATH
+            );
+
+            final JavaCompiler.CompilationTask task = compiler.getTask(writer, null, null, options, null, compilationUnits);
+            if (!task.call()) {
+                throw new CompileException(writer.toString());
+            }
+
+            final List<String> classFiles = new ArrayList<>(testFiles.size());
+            for (JavaFileObject testFile : testFiles) {
+                final Path baseDir = Paths.get(testFile.getPath()).getParent();
+                classFiles.add(moveClassFiles(testFile, outputDir, baseDir).toString());
+            }
+            return classFiles;
+        } catch (IOException e) {
+            throw new CompileException(e);
+        } finally {
+            org.apache.commons.io.FileUtils.deleteQuietly(outputDir.toFile());
+        }
+    }
+
+    /**
+     * Moves the {@code .class} files generated for a given java file, including the files
+     * of nested classes, from an output directory to a target directory. The package
+     * folder structure is kept.
+     *
+     * @param javaFile   the {@code .java} file the {@code .class} files were generated from.
+     * @param outputDir  the directory the java file was compiled to.
+     * @param targetDir  the directory the {@code .class} files are moved to.
+     * @return the path to the moved {@code .class} file of the given java file.
+     * @throws IOException when the {@code .class} file could not be found or moved.
+     */
+    private static Path moveClassFiles(JavaFileObject javaFile, Path outputDir, Path targetDir) throws IOException {
+        final Path classFile = getClassPath(javaFile, outputDir);
+        if (!Files.exists(classFile)) {
+            throw new IOException("Could not find class file for " + javaFile.getName());
+        }
+        final String className = classFile.getFileName().toString().replace(".class", "");
+        final Path packageDir = classFile.getParent();
+        final Path targetPackageDir = targetDir.resolve(outputDir.toAbsolutePath().relativize(packageDir));
+        Files.createDirectories(targetPackageDir);
+
+        try (DirectoryStream<Path> generated = Files.newDirectoryStream(packageDir, className + "{.class,$*.class}")) {
+            for (Path file : generated) {
+                Files.move(file, targetPackageDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return targetPackageDir.resolve(classFile.getFileName()).toAbsolutePath();
+    }
+
     /**
      * Removes the {@code .class} files for a given list of files. These files were dependencies
      * for other classes.
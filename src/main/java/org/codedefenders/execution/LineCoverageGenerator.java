@@ -20,6 +20,7 @@ package org.codedefenders.execution;
 
 import org.codedefenders.game.GameClass;
 import org.codedefenders.game.LineCoverage;
+import org.codedefenders.util.BitSetList;
 import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IClassCoverage;
@@ -36,10 +37,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
+import java.util.BitSet;
 import java.util.regex.Pattern;
 
 /**
@@ -48,7 +46,7 @@ import java.util.regex.Pattern;
  */
 public class LineCoverageGenerator {
     private static final Logger logger = LoggerFactory.getLogger(LineCoverageGenerator.class);
-    private static final String JACOCO_REPORT_FILE = "jacoco.exec";
+    static final String JACOCO_REPORT_FILE = "jacoco.exec";
 
     /**
      * Generates and returns line coverage for a given {@link GameClass} and {@link Path path to a java test file}.
@@ -64,7 +62,19 @@ public class LineCoverageGenerator {
      */
     public static LineCoverage generate(GameClass gameClass, Path testJavaFile) {
         final File reportDirectory = testJavaFile.getParent().toFile();
-        final File executionDataFile = new File(reportDirectory, JACOCO_REPORT_FILE);
+        return generate(gameClass, new File(reportDirectory, JACOCO_REPORT_FILE));
+    }
+
+    /**
+     * Generates and returns line coverage for a given {@link GameClass} and JaCoCo execution data file.
+     *
+     * @param gameClass         the class that is tested.
+     * @param executionDataFile the 'jacoco.exec' file written when executing the test.
+     * @return a {@link LineCoverage} instance with covered and uncovered lines if successful,
+     * empty lists for covered and uncovered lines if failed.
+     * @see #generate(GameClass, Path)
+     */
+    public static LineCoverage generate(GameClass gameClass, File executionDataFile) {
         final ExecFileLoader execFileLoader = new ExecFileLoader();
         try {
             execFileLoader.load(executionDataFile);
@@ -97,8 +107,8 @@ public class LineCoverageGenerator {
             }
         }
 
-        final List<Integer> linesCovered = new LinkedList<>();
-        final List<Integer> linesUncovered = new LinkedList<>();
+        final BitSet linesCovered = new BitSet();
+        final BitSet linesUncovered = new BitSet();
 
         final String cutName = gameClass.getName();
         for (IClassCoverage cc : coverageBuilder.getClasses()) {
@@ -108,37 +118,36 @@ public class LineCoverageGenerator {
                     final ILine line = cc.getLine(i);
                     final int status = line.getInstructionCounter().getStatus();
                     if (status == ICounter.FULLY_COVERED || status == ICounter.PARTLY_COVERED) {
-                        linesCovered.add(i);
+                        linesCovered.set(i);
                     } else if (status == ICounter.NOT_COVERED) {
-                        linesUncovered.add(i);
+                        linesUncovered.set(i);
                     }
                 }
             }
         }
 
-        final Set<Integer> linesToAdd = new HashSet<>();
+        final BitSet linesToAdd = new BitSet();
         // If there's at least one line covered, then static field initializer and compile time constants are covered
         if (!linesCovered.isEmpty()) {
-            linesToAdd.addAll(gameClass.getCompileTimeConstants());
-            linesToAdd.addAll(gameClass.getNonInitializedFields());
+            gameClass.getCompileTimeConstants().forEach(linesToAdd::set);
+            gameClass.getNonInitializedFields().forEach(linesToAdd::set);
         }
 
         // Now we need to map lines covered with methods and then-branches of ifstatements in the class
-        for (Integer coveredLine : linesCovered) {
-            linesToAdd.addAll(gameClass.getMethodSignaturesForLine(coveredLine));
-            linesToAdd.addAll(gameClass.getClosingBracketForLine(coveredLine));
+        for (int coveredLine = linesCovered.nextSetBit(0); coveredLine >= 0;
+             coveredLine = linesCovered.nextSetBit(coveredLine + 1)) {
             // If covered line belongs to method, add the method signature
+            gameClass.getMethodSignaturesForLine(coveredLine).forEach(linesToAdd::set);
+            gameClass.getClosingBracketForLine(coveredLine).forEach(linesToAdd::set);
         }
 
-        linesCovered.addAll(linesToAdd);
+        linesCovered.or(linesToAdd);
 
         // Include covered empty lines. This requires the lines covered so far can cover them
-        linesToAdd.addAll(gameClass.getCoveredEmptyLines(linesCovered));
-
-        // Remove the duplicates
+        gameClass.getCoveredEmptyLines(new BitSetList(linesCovered)).forEach(linesToAdd::set);
 
-        linesCovered.addAll(linesToAdd);
-        linesUncovered.removeAll(linesToAdd);
+        linesCovered.or(linesToAdd);
+        linesUncovered.andNot(linesCovered);
 
         return new LineCoverage(linesCovered, linesUncovered);
     }
@@ -18,7 +18,6 @@
  */
 package org.codedefenders.execution;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.codedefenders.database.TargetExecutionDAO;
 import org.codedefenders.database.UserDAO;
 import org.codedefenders.game.AbstractGame;
@@ -35,6 +34,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +45,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -113,8 +114,9 @@ public class MutationTester {
 	public static void runTestOnAllMutants(AbstractGame game, Test test, ArrayList<String> messages) {
 		int killed = 0;
 		List<Mutant> mutants = game.getAliveMutants();
+		final Map<Long, TargetExecution> executions = getTargetExecutions(Collections.singletonList(test), mutants);
 		for (Mutant mutant : mutants) {
-			killed += testVsMutant(test, mutant) ? 1 : 0;
+			killed += testVsMutant(test, mutant, executions) ? 1 : 0;
 		}
 		if (killed == 0)
 			if (mutants.size() == 0)
@@ -139,6 +141,7 @@ public class MutationTester {
 		List<Mutant> mutants = game.getAliveMutants();
 		mutants.addAll(game.getMutantsMarkedEquivalentPending());
 		List<Mutant> killedMutants = new ArrayList<Mutant>();
+		final Map<Long, TargetExecution> executions = getTargetExecutions(Collections.singletonList(test), mutants);
 
 		// Acquire and release the connection
 		User u = UserDAO.getUserForPlayer(test.getPlayerId());
@@ -159,7 +162,7 @@ public class MutationTester {
 					public Boolean call() throws Exception {
 						// This automatically update the 'mutants' and 'tests'
 						// tables, as well as the test and mutant objects.
-						return testVsMutant(test, mutant);
+						return testVsMutant(test, mutant, executions);
 					}
 				});
 
@@ -204,7 +207,7 @@ public class MutationTester {
 					continue;
 				}
 
-				if (testVsMutant(test, mutant)) {
+				if (testVsMutant(test, mutant, executions)) {
 					killed++;
 					killedMutants.add(mutant);
 				}
@@ -215,17 +218,8 @@ public class MutationTester {
 			if (mutant.isAlive()){
 				ArrayList<Test> missedTests = new ArrayList<Test>();
 
-				for (int lm : mutant.getLines()){
-					boolean found = false;
-					for (int lc : test.getLineCoverage().getLinesCovered()){
-						if (lc == lm){
-							found = true;
-							missedTests.add(test);
-						}
-					}
-					if (found){
-						break;
-					}
+				if (test.getLineCoverage().coversAny(mutant.getLines())){
+					missedTests.add(test);
 				}
 				// mutant.setScore(Scorer.score(game, mutant, missedTests));
 				// mutant.update();
@@ -285,6 +279,7 @@ public class MutationTester {
 			TestScheduler scheduler) {
 		// Schedule the executable tests submitted by the defenders only (true)
 		List<Test> tests = scheduler.scheduleTests( game.getTests(true) ) ;
+		final Map<Long, TargetExecution> executions = getTargetExecutions(tests, Collections.singletonList(mutant));
 
 		User u = UserDAO.getUserForPlayer(mutant.getPlayerId());
 
@@ -302,7 +297,7 @@ public class MutationTester {
 					public Boolean call() throws Exception {
 						logger.info("Executing mutant " + mutant.getId() + ", test " + test.getId());
 						// TODO Is this testVsMutant thread safe?
-						return testVsMutant(test, mutant);
+						return testVsMutant(test, mutant, executions);
                     }
                 });
 
@@ -379,7 +374,7 @@ public class MutationTester {
                     continue;
                 }
 
-                if (testVsMutant(test, mutant)) {
+                if (testVsMutant(test, mutant, executions)) {
                     logger.info("Test {} kills mutant {}", test.getId(), mutant.getId());
                     messages.add(String.format(MUTANT_KILLED_BY_TEST_MESSAGE, test.getId()));
                     if (game instanceof MultiplayerGame) {
@@ -406,7 +401,7 @@ public class MutationTester {
         ArrayList<Test> missedTests = new ArrayList<Test>();
         if (game instanceof MultiplayerGame) {
             for (Test t : tests) {
-                if (CollectionUtils.containsAny(t.getLineCoverage().getLinesCovered(), mutant.getLines()))
+                if (t.getLineCoverage().coversAny(mutant.getLines()))
                     missedTests.add(t);
             }
 //            mutant.setScore(1 + Scorer.score((MultiplayerGame) game, mutant, missedTests));
@@ -437,6 +432,7 @@ public class MutationTester {
 	 */
 	public static boolean runAllTestsOnMutantWithoutScoring(MultiplayerGame game, Mutant mutant) {
 		List<Test> tests = game.getTests(true); // executable tests submitted by defenders
+		final Map<Long, TargetExecution> executions = getTargetExecutions(tests, Collections.singletonList(mutant));
 
         boolean killed = false;
 		for (Test test : tests) {
@@ -444,7 +440,7 @@ public class MutationTester {
 				logger.info("Skipping non-covered mutant " + mutant.getId() + ", test " + test.getId());
 				continue;
 			}
-			killed = testOnMutantWithoutKilling(game, test, mutant);
+			killed = testOnMutantWithoutKilling(test, mutant, executions.get(pairKey(test.getId(), mutant.getId())));
 			if (killed) {
 				logger.info("Test {} kills mutant {}", test.getId(), mutant.getId());
 				return true; // return as soon as a test kills the mutant
@@ -454,7 +450,13 @@ public class MutationTester {
 	}
 
 	public static boolean testOnMutantWithoutKilling(MultiplayerGame game, Test test, Mutant mutant) {
-		TargetExecution execution = TargetExecutionDAO.getTargetExecutionForPair(test.getId(), mutant.getId());
+		return testOnMutantWithoutKilling(test, mutant, TargetExecutionDAO.getTargetExecutionForPair(test.getId(), mutant.getId()));
+	}
+
+	/**
+	 * @param execution the existing execution result of the test and mutant, or {@code null} if there is none.
+	 */
+	private static boolean testOnMutantWithoutKilling(Test test, Mutant mutant, TargetExecution execution) {
 		if (execution == null) {
 			// Run the test against the mutant and get the result
 			execution = AntRunner.testMutant(mutant, test);
@@ -482,10 +484,14 @@ public class MutationTester {
 	 *
 	 * @param test
 	 * @param mutant
+	 * @param executions the existing execution results, as returned by {@link #getTargetExecutions(List, List)}.
+	 *                   If the pair is executed concurrently after the results were loaded, only one result
+	 *                   is stored, see {@link TargetExecutionDAO#storeTargetExecution(TargetExecution)},
+	 *                   and the mutant is only killed once.
 	 * @return {@code true} if the test killed the mutant, {@code false} otherwise
 	 */
-	private static boolean testVsMutant(Test test, Mutant mutant) {
-		if (TargetExecutionDAO.getTargetExecutionForPair(test.getId(), mutant.getId()) != null) {
+	private static boolean testVsMutant(Test test, Mutant mutant, Map<Long, TargetExecution> executions) {
+		if (executions.containsKey(pairKey(test.getId(), mutant.getId()))) {
 			logger.error("Execution result found for Mutant {} and Test {}.", mutant.getId(), test.getId());
 			return false;
 		}
@@ -506,6 +512,29 @@ public class MutationTester {
 		return true;
 	}
 
+	/**
+	 * Loads the existing execution results of all pairs of the given tests and mutants with
+	 * a single query, instead of one query per executed pair.
+	 *
+	 * @param tests
+	 * @param mutants
+	 * @return the execution results, mapped by {@link #pairKey(int, int)}
+	 */
+	private static Map<Long, TargetExecution> getTargetExecutions(List<Test> tests, List<Mutant> mutants) {
+		final List<Integer> testIds = tests.stream().map(Test::getId).collect(Collectors.toList());
+		final List<Integer> mutantIds = mutants.stream().map(Mutant::getId).collect(Collectors.toList());
+
+		final Map<Long, TargetExecution> executions = new HashMap<>();
+		for (TargetExecution execution : TargetExecutionDAO.getTargetExecutionsForPairs(testIds, mutantIds)) {
+			executions.putIfAbsent(pairKey(execution.testId, execution.mutantId), execution);
+		}
+		return executions;
+	}
+
+	private static long pairKey(int testId, int mutantId) {
+		return ((long) testId << 32) | (mutantId & 0xFFFFFFFFL);
+	}
+
 	private static boolean didTestKillMutant(TargetExecution executedTarget, Mutant mutant, Test test) {
 		// If the test did NOT pass, the mutant was detected and should be killed.
 		if (executedTarget.status.equals("FAIL") || executedTarget.status.equals("ERROR")) {
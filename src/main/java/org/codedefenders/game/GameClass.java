@@ -26,8 +26,9 @@ import org.codedefenders.database.UncheckedSQLException;
 import org.codedefenders.game.duel.DuelGame;
 import org.codedefenders.game.singleplayer.NoDummyGameException;
 import org.codedefenders.model.Dependency;
+import org.codedefenders.util.BitSetList;
 import org.codedefenders.util.FileUtils;
-import org.codedefenders.util.analysis.ClassCodeAnalyser;
+import org.codedefenders.util.analysis.CodeAnalysisCache;
 import org.codedefenders.util.analysis.CodeAnalysisResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -97,13 +99,19 @@ public class GameClass {
     private List<Integer> linesOfNonCoverableCode = new ArrayList<>();
     private List<Integer> nonInitializedFields = new ArrayList<>();
     //
-    private List<Integer> emptyLines = new ArrayList<>();
+    private BitSet emptyLines = new BitSet();
     private Map<Integer, Integer> linesCoveringEmptyLines = new HashMap<>();
 
     private List<Range<Integer>> linesOfMethods = new ArrayList<>();
     private List<Range<Integer>> linesOfMethodSignatures = new ArrayList<>();
     private List<Range<Integer>> linesOfClosingBrackets = new ArrayList<>();
 
+    /**
+     * Whether the code analysis results above have been loaded. The analysis is only
+     * done once it is needed, so loading a class does not require reading its source code.
+     */
+    private boolean codeVisited = false;
+
     /**
      * The source code of this Java class. Used as an instance attribute so the file content only needs to be read once.
      */
@@ -124,8 +132,6 @@ public class GameClass {
         this.javaFile = jFile;
         this.classFile = cFile;
         this.isMockingEnabled = isMockingEnabled;
-
-        visitCode();
     }
 
     public static GameClass ofPuzzleWithId(int id, String name, String alias, String javaFilePath, String classFilePath, boolean isMockingEnabled) {
@@ -140,16 +146,21 @@ public class GameClass {
         return gameClass;
     }
 
-    private void visitCode() {
-        final CodeAnalysisResult visit = ClassCodeAnalyser.visitCode(this.name, this.getSourceCode());
+    private synchronized void visitCode() {
+        if (codeVisited) {
+            return;
+        }
+        final CodeAnalysisResult visit = CodeAnalysisCache.getCodeAnalysis(this.name, this.javaFile, this::getSourceCode);
+        codeVisited = true;
         this.additionalImports.addAll(visit.getAdditionalImports());
         this.linesOfCompileTimeConstants.addAll(visit.getCompileTimeConstants());
         this.linesOfNonCoverableCode.addAll(visit.getNonCoverableCode());
         this.nonInitializedFields.addAll(visit.getNonInitializedFields());
+        Collections.sort(this.nonInitializedFields);
         this.linesOfMethods.addAll(visit.getMethods());
         this.linesOfMethodSignatures.addAll(visit.getMethodSignatures());
         this.linesOfClosingBrackets.addAll(visit.getClosingBrackets());
-        this.emptyLines.addAll(visit.getEmptyLines());
+        visit.getEmptyLines().forEach(this.emptyLines::set);
         this.linesCoveringEmptyLines.putAll(visit.getLinesCoveringEmptyLines());
     }
 
@@ -184,6 +195,7 @@ public class GameClass {
      * @return
      */
     public Set<String> getAdditionalImports() {
+        visitCode();
         return new HashSet<>(additionalImports);
     }
 
@@ -251,6 +263,7 @@ public class GameClass {
      * @see #getHTMLEscapedTestTemplate()
      */
     private String getTestTemplate() {
+        visitCode();
         final StringBuilder bob = new StringBuilder();
         final String classPackage = getPackage();
         if (!classPackage.isEmpty()) {
@@ -327,7 +340,7 @@ public class GameClass {
      * Can be empty, but never {@code null}.
      */
     public List<Integer> getNonInitializedFields() {
-        Collections.sort(this.nonInitializedFields);
+        visitCode();
         return Collections.unmodifiableList(this.nonInitializedFields);
     }
 
@@ -336,6 +349,7 @@ public class GameClass {
      * Can be empty, but never {@code null}.
      */
     public List<Integer> getMethodSignatures() {
+        visitCode();
         return this.linesOfMethodSignatures
                 .stream()
                 .flatMap(range -> IntStream.rangeClosed(range.getMinimum(), range.getMaximum()).boxed())
@@ -348,11 +362,13 @@ public class GameClass {
      * Can be empty, but never {@code null}.
      */
     public List<Integer> getNonCoverableCode() {
-        return linesOfNonCoverableCode;
+        visitCode();
+        return Collections.unmodifiableList(linesOfNonCoverableCode);
     }
 
 	public List<Range<Integer>> getLinesOfMethods() {
-		return linesOfMethods;
+		visitCode();
+		return Collections.unmodifiableList(linesOfMethods);
 	}
 
     /**
@@ -363,6 +379,7 @@ public class GameClass {
      * Can be empty, but never {@code null}.
      */
     public List<Integer> getCompileTimeConstants() {
+        visitCode();
         return Collections.unmodifiableList(linesOfCompileTimeConstants);
     }
 
@@ -374,6 +391,7 @@ public class GameClass {
      * Can be empty, but never {@code null}.
      */
     public List<Integer> getMethodSignaturesForLine(Integer line) {
+        visitCode();
         final List<Integer> collect = linesOfMethods
                 .stream()
                 .filter(method -> method.contains(line))
@@ -392,6 +410,7 @@ public class GameClass {
      * {@link Integer Integers}. Can be empty, but never {@code null}.
      */
     public List<Integer> getClosingBracketForLine(Integer line) {
+        visitCode();
         final List<Integer> collect = linesOfClosingBrackets
                 .stream()
                 .filter(integerRange -> integerRange.contains(line))
@@ -406,13 +425,15 @@ public class GameClass {
      * can be covered if it belongs to a method and is followed by a covered line (either empty or not)
      */
     public List<Integer> getCoveredEmptyLines(List<Integer> alreadyCoveredLines) {
+        visitCode();
+        final BitSetList coveredLines = BitSetList.of(alreadyCoveredLines);
         List<Integer> collect = new ArrayList<>();
         for (Range<Integer> linesOfMethod : linesOfMethods) {
-            for (int line = linesOfMethod.getMinimum(); line < linesOfMethod.getMaximum(); line++) {
-                if (emptyLines.contains(line)) {
-                    if (alreadyCoveredLines.contains(linesCoveringEmptyLines.get(line))) {
-                        collect.add(line);
-                    }
+            for (int line = emptyLines.nextSetBit(linesOfMethod.getMinimum());
+                 line >= 0 && line < linesOfMethod.getMaximum();
+                 line = emptyLines.nextSetBit(line + 1)) {
+                if (coveredLines.contains(linesCoveringEmptyLines.get(line))) {
+                    collect.add(line);
                 }
             }
         }
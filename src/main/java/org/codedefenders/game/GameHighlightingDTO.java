@@ -18,40 +18,57 @@
  */
 package org.codedefenders.game;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
+import org.codedefenders.database.EntityCache;
 import org.codedefenders.game.Mutant.Equivalence;
 
 /**
  * Saves data for the game highlighting in order to convert it to JSON.
+ * <p>
+ * The covered and mutated lines of tests and mutants never change, so the highlighting of a game is kept
+ * in memory by {@link #toJson(int, List, List)} and only updated with the tests and mutants which were added
+ * since the last update. The statuses and scores of the mutants are refreshed on every update.
+ * <p>
+ * The JSON format is compact, since the highlighting is embedded in every game page:
+ * <pre>{@code
+ * {
+ *     "testCount": 2,
+ *     "coveragePerLine": [[line, number of covering tests], ...],
+ *     "mutantIdsPerLine": [[line, [mutant id, ...]], ...],
+ *     "mutants": [[id, score, creator name, status], ...]
+ * }
+ * }</pre>
+ * All lists are sorted by line number or id and can be used to construct an ES6 Map.
  */
 public class GameHighlightingDTO {
+    private static final EntityCache<Integer, GameHighlightingDTO> cache =
+            new EntityCache<>("Game highlighting", 500, 30, TimeUnit.MINUTES);
 
     /**
-     * Maps line numbers to the mutant ids of mutants that modify the line.
+     * The ids of the tests included in {@link #testCountPerLine}.
      */
-    private Map<Integer, List<Integer>> mutantIdsPerLine;
+    private final Set<Integer> testIds = new HashSet<>();
 
     /**
-     * Maps line numbers to the test ids of tests that cover the line.
+     * Maps line numbers (the index) to the number of tests that cover the line.
      */
-    private Map<Integer, List<Integer>> testIdsPerLine;
+    private int[] testCountPerLine = new int[0];
 
     /**
-     * Maps test ids to mutants.
+     * Maps line numbers to the mutant ids of mutants that modify the line.
      */
-    private Map<Integer, GHMutantDTO> mutants;
+    private final Map<Integer, List<Integer>> mutantIdsPerLine = new TreeMap<>();
 
     /**
-     * Maps test ids to tests..
+     * Maps mutant ids to mutants.
      */
-    private Map<Integer, GHTestDTO> tests;
+    private final Map<Integer, GHMutantDTO> mutants = new TreeMap<>();
 
     /**
      * Constructs the game highlighting data from the list of mutants and the list of tests in the game.
@@ -60,37 +77,121 @@ public class GameHighlightingDTO {
      * @param tests The tests in the game.
      */
     public GameHighlightingDTO(List<Mutant> mutants, List<Test> tests) {
-        this.mutantIdsPerLine = new TreeMap<>();
-        this.testIdsPerLine = new TreeMap<>();
-        this.mutants = new TreeMap<>();
-        this.tests = new TreeMap<>();
+        update(mutants, tests);
+    }
+
+    /**
+     * Returns the game highlighting JSON for the given game, updating the kept highlighting
+     * of the game with the given mutants and tests.
+     * @param gameId The id of the game.
+     * @param mutants The mutants in the game.
+     * @param tests The tests in the game.
+     * @return The game highlighting JSON.
+     */
+    public static String toJson(int gameId, List<Mutant> mutants, List<Test> tests) {
+        final GameHighlightingDTO highlighting =
+                cache.get(gameId, id -> new GameHighlightingDTO(Collections.emptyList(), Collections.emptyList()));
+        synchronized (highlighting) {
+            highlighting.update(mutants, tests);
+            return highlighting.toJson();
+        }
+    }
+
+    /**
+     * Adds the lines of the given tests and mutants, which were not added before. If a test or mutant
+     * was removed from the game, the highlighting is rebuilt.
+     * @param mutants The mutants in the game.
+     * @param tests The tests in the game.
+     */
+    synchronized void update(List<Mutant> mutants, List<Test> tests) {
+        final Set<Integer> currentTestIds = new HashSet<>();
+        for (Test test : tests) {
+            currentTestIds.add(test.getId());
+        }
+        final Set<Integer> currentMutantIds = new HashSet<>();
+        for (Mutant mutant : mutants) {
+            currentMutantIds.add(mutant.getId());
+        }
+        if (!currentTestIds.containsAll(testIds) || !currentMutantIds.containsAll(this.mutants.keySet())) {
+            testIds.clear();
+            testCountPerLine = new int[0];
+            mutantIdsPerLine.clear();
+            this.mutants.clear();
+        }
 
-        /* Construct the test maps. */
+        /* Add the lines of new tests. */
         for (Test test : tests) {
-            this.tests.put(test.getId(), new GHTestDTO(test));
-            List<Integer> linesCovered = test
-                    .getLineCoverage()
-                    .getLinesCovered()
-                    .stream()
-                    .distinct()
-                    .collect(Collectors.toList());
-            for (Integer line : linesCovered) {
-                List<Integer> list = testIdsPerLine.computeIfAbsent(line, key -> new LinkedList<>());
-                list.add(test.getId());
+            if (!testIds.add(test.getId())) {
+                continue;
+            }
+            // covered lines are distinct
+            for (int line : test.getLineCoverage().getLinesCovered()) {
+                if (line >= testCountPerLine.length) {
+                    testCountPerLine = Arrays.copyOf(testCountPerLine, Math.max(line + 1, testCountPerLine.length * 2));
+                }
+                testCountPerLine[line]++;
             }
         }
 
-        /* Construct the mutant maps. */
+        /* Add the lines of new mutants and refresh the status of all mutants. */
         for (Mutant mutant : mutants) {
-            this.mutants.put(mutant.getId(), new GHMutantDTO(mutant));
-            List<Integer> lines = mutant.getLines();
-            for (Integer line : lines) {
-                List<Integer> list = mutantIdsPerLine.computeIfAbsent(line, key -> new LinkedList<>());
-                list.add(mutant.getId());
+            final GHMutantDTO previous = this.mutants.put(mutant.getId(), new GHMutantDTO(mutant));
+            if (previous != null) {
+                continue;
+            }
+            for (Integer line : mutant.getLines()) {
+                mutantIdsPerLine.computeIfAbsent(line, key -> new ArrayList<>()).add(mutant.getId());
             }
         }
     }
 
+    /**
+     * @return The game highlighting in the compact JSON format.
+     */
+    public synchronized String toJson() {
+        final StringWriter json = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(json)) {
+            writer.setHtmlSafe(true);
+            writer.beginObject();
+
+            writer.name("testCount").value(testIds.size());
+
+            writer.name("coveragePerLine").beginArray();
+            for (int line = 0; line < testCountPerLine.length; line++) {
+                if (testCountPerLine[line] > 0) {
+                    writer.beginArray().value(line).value(testCountPerLine[line]).endArray();
+                }
+            }
+            writer.endArray();
+
+            writer.name("mutantIdsPerLine").beginArray();
+            for (Map.Entry<Integer, List<Integer>> entry : mutantIdsPerLine.entrySet()) {
+                writer.beginArray().value(entry.getKey()).beginArray();
+                for (int mutantId : entry.getValue()) {
+                    writer.value(mutantId);
+                }
+                writer.endArray().endArray();
+            }
+            writer.endArray();
+
+            writer.name("mutants").beginArray();
+            for (GHMutantDTO mutant : mutants.values()) {
+                writer.beginArray()
+                        .value(mutant.id)
+                        .value(mutant.score)
+                        .value(mutant.creatorName)
+                        .value(mutant.status.name())
+                        .endArray();
+            }
+            writer.endArray();
+
+            writer.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
     /**
      * Represents the status a mutant has in the game highlighting.
      */
@@ -127,37 +228,4 @@ public class GameHighlightingDTO {
             }
         }
     }
-
-    /**
-     * Represents a test for the game highlighting.
-     */
-    public static class GHTestDTO {
-        private int id;
-
-        public GHTestDTO(Test test) {
-            this.id = test.getId();
-        }
-    }
-
-    /**
-     * Serializes a {@link Map} as a list of lists, so that it can be used to construct an ES6 Map. <br>
-     * <pre>{@code
-     * var json = JSON.parse(jsonString); // e.g. [[1, "one"], [2, "two"], [3, "three"]]
-     * var map = new Map(jsonString);
-     * }</pre>
-     */
-    public static class MapSerializer implements JsonSerializer<Map> {
-        @Override
-        public JsonElement serialize(Map map, Type type, JsonSerializationContext jsonSerializationContext) {
-            JsonArray outerArray = new JsonArray();
-            for (Object obj : map.entrySet()) {
-                Map.Entry entry = (Map.Entry) obj;
-                JsonArray innerArray = new JsonArray();
-                innerArray.add(jsonSerializationContext.serialize(entry.getKey()));
-                innerArray.add(jsonSerializationContext.serialize(entry.getValue()));
-                outerArray.add(innerArray);
-            }
-            return outerArray;
-        }
-    }
 }
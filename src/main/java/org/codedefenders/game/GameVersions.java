@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version number for each game, which is increased whenever data shown
+ * for the game changes, e.g. when a mutant or test is submitted or scored.
+ * Derived data, like the {@link org.codedefenders.game.multiplayer.Scoreboard Scoreboard}
+ * of a game, can be cached together with the version it was computed for and
+ * is up to date as long as the version did not change.
+ * <p>
+ * Versions are only kept in memory. They are increasing, but not consecutive, and start
+ * at the time the application was started, so they are not reused after a restart.
+ * <p>
+ * Code which modifies game data must call {@link #bump(int)}, or {@link #bumpAll()}
+ * if the affected game is not known.
+ * <p>
+ * At most {@link #MAX_TRACKED_GAMES} games are tracked individually. When more games were
+ * bumped, the versions of all games are increased and the individual entries are dropped.
+ */
+public class GameVersions {
+    static final int MAX_TRACKED_GAMES = 10000;
+
+    private static final AtomicLong counter = new AtomicLong(System.currentTimeMillis());
+    private static final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private static final AtomicLong globalVersion = new AtomicLong(counter.get());
+
+    private GameVersions() {
+    }
+
+    /**
+     * @param gameId the identifier of the game.
+     * @return the current version of the given game.
+     */
+    public static long get(int gameId) {
+        final long global = globalVersion.get();
+        final Long version = versions.get(gameId);
+        return version == null ? global : Math.max(version, global);
+    }
+
+    /**
+     * Increases the version of the given game.
+     *
+     * @param gameId the identifier of the modified game.
+     * @return the new version of the game.
+     */
+    public static long bump(int gameId) {
+        final long version = counter.incrementAndGet();
+        versions.merge(gameId, version, Math::max);
+        if (versions.size() > MAX_TRACKED_GAMES) {
+            prune();
+        }
+        return version;
+    }
+
+    /**
+     * Increases the version of all games.
+     */
+    public static void bumpAll() {
+        globalVersion.accumulateAndGet(counter.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * @return the number of games which are tracked individually.
+     */
+    static int trackedGames() {
+        return versions.size();
+    }
+
+    /**
+     * Drops the entries of all games by raising the global version above them,
+     * so the version of no game decreases.
+     */
+    private static synchronized void prune() {
+        if (versions.size() <= MAX_TRACKED_GAMES) {
+            return;
+        }
+        bumpAll();
+        final long global = globalVersion.get();
+        versions.values().removeIf(version -> version <= global);
+    }
+}
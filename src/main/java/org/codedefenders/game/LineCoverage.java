@@ -18,27 +18,36 @@
  */
 package org.codedefenders.game;
 
-import java.util.LinkedList;
+import org.codedefenders.util.BitSetList;
+import org.codedefenders.util.LineBitmaps;
+
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * This class contains information about how many lines of a {@link GameClass} was
  * covered not or covered by a {@link Test}. Covered and uncovered lines are stored
- * in {@link List Lists}. Both lists can't be {@code null}.
+ * in {@link BitSet BitSets} and returned as sorted, immutable {@link List} views.
+ * Both can't be {@code null}.
  * <p>
  * Note that no {@link GameClass} or {@link Test} reference is stored.
  * <p>
+ * Line coverages loaded from the database keep the encoded lines and only decode
+ * them when they are accessed, see {@link #fromEncoded(byte[], byte[])}.
  */
 public class LineCoverage {
-    private List<Integer> linesCovered;
-    private List<Integer> linesUncovered;
+    private BitSetList linesCovered;
+    private BitSetList linesUncovered;
+
+    private byte[] encodedLinesCovered;
+    private byte[] encodedLinesUncovered;
 
     /**
      * Creating a empty line coverage in which zero covered and uncovered lines are stored.
      */
     public LineCoverage() {
-        linesCovered = new LinkedList<>();
-        linesUncovered = new LinkedList<>();
+        this(BitSetList.empty(), BitSetList.empty(), null, null);
     }
 
     /**
@@ -47,16 +56,103 @@ public class LineCoverage {
      * @param linesCovered given covered lines.
      * @param linesUncovered given uncovered lines.
      */
-    public LineCoverage(List<Integer> linesCovered, List<Integer> linesUncovered) {
-        this.linesCovered = new LinkedList<>(linesCovered);
-        this.linesUncovered = new LinkedList<>(linesUncovered);
+    public LineCoverage(Collection<Integer> linesCovered, Collection<Integer> linesUncovered) {
+        this(BitSetList.of(linesCovered), BitSetList.of(linesUncovered), null, null);
+    }
+
+    /**
+     * Creates a line coverage for given covered and uncovered lines.
+     *
+     * @param linesCovered given covered lines.
+     * @param linesUncovered given uncovered lines.
+     */
+    public LineCoverage(BitSet linesCovered, BitSet linesUncovered) {
+        this(new BitSetList(linesCovered), new BitSetList(linesUncovered), null, null);
+    }
+
+    /**
+     * Creates a line coverage for covered and uncovered lines encoded with {@link LineBitmaps}.
+     * The lines are decoded on first access.
+     *
+     * @param encodedLinesCovered the encoded covered lines.
+     * @param encodedLinesUncovered the encoded uncovered lines.
+     * @return a line coverage for the encoded lines.
+     */
+    public static LineCoverage fromEncoded(byte[] encodedLinesCovered, byte[] encodedLinesUncovered) {
+        return new LineCoverage(null, null, encodedLinesCovered, encodedLinesUncovered);
+    }
+
+    private LineCoverage(BitSetList linesCovered, BitSetList linesUncovered,
+                         byte[] encodedLinesCovered, byte[] encodedLinesUncovered) {
+        this.linesCovered = linesCovered;
+        this.linesUncovered = linesUncovered;
+        this.encodedLinesCovered = encodedLinesCovered;
+        this.encodedLinesUncovered = encodedLinesUncovered;
     }
 
+    /**
+     * @return the covered lines in ascending order. The returned list cannot be modified.
+     */
     public List<Integer> getLinesCovered() {
-        return linesCovered;
+        return covered();
     }
 
+    /**
+     * @return the uncovered lines in ascending order. The returned list cannot be modified.
+     */
     public List<Integer> getLinesUncovered() {
+        return uncovered();
+    }
+
+    /**
+     * @param line the checked line.
+     * @return {@code true} if the given line is covered, {@code false} otherwise.
+     */
+    public boolean isLineCovered(int line) {
+        return covered().contains(line);
+    }
+
+    /**
+     * Returns whether any of the given lines is covered, e.g. whether a mutant is covered.
+     *
+     * @param lines the checked lines.
+     * @return {@code true} if at least one of the given lines is covered, {@code false} otherwise.
+     */
+    public boolean coversAny(Collection<Integer> lines) {
+        return covered().intersects(lines);
+    }
+
+    /**
+     * @return the covered lines encoded with {@link LineBitmaps}.
+     */
+    public synchronized byte[] getEncodedLinesCovered() {
+        if (encodedLinesCovered == null) {
+            encodedLinesCovered = LineBitmaps.encode(covered().toBitSet());
+        }
+        return encodedLinesCovered;
+    }
+
+    /**
+     * @return the uncovered lines encoded with {@link LineBitmaps}.
+     */
+    public synchronized byte[] getEncodedLinesUncovered() {
+        if (encodedLinesUncovered == null) {
+            encodedLinesUncovered = LineBitmaps.encode(uncovered().toBitSet());
+        }
+        return encodedLinesUncovered;
+    }
+
+    private synchronized BitSetList covered() {
+        if (linesCovered == null) {
+            linesCovered = BitSetList.of(LineBitmaps.decode(encodedLinesCovered));
+        }
+        return linesCovered;
+    }
+
+    private synchronized BitSetList uncovered() {
+        if (linesUncovered == null) {
+            linesUncovered = BitSetList.of(LineBitmaps.decode(encodedLinesUncovered));
+        }
         return linesUncovered;
     }
 }
@@ -18,12 +18,12 @@
  */
 package org.codedefenders.game;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.codedefenders.database.*;
 import org.codedefenders.game.duel.DuelGame;
+import org.codedefenders.util.BitSetList;
 import org.codedefenders.util.Constants;
 import org.codedefenders.util.FileUtils;
 import org.codedefenders.validation.code.CodeValidator;
@@ -47,6 +47,8 @@ import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import difflib.Chunk;
 import difflib.Delta;
@@ -65,6 +67,15 @@ public class Mutant implements Serializable {
 	private static final Logger logger = LoggerFactory.getLogger(Mutant.class);
 	// https://stackoverflow.com/questions/9577930/regular-expression-to-select-all-whitespace-that-isnt-in-quotes
 	public static String regex = "\\s+(?=((\\\\[\\\\\"]|[^\\\\\"])*\"(\\\\[\\\\\"]|[^\\\\\"])*\")*(\\\\[\\\\\"]|[^\\\\\"])*$)";
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile(regex);
+
+	/**
+	 * Whitespace normalized lines of class under test source files, mapped by the path and the modification
+	 * time of the source file, so the lines only need to be normalized once per class and not once per mutant.
+	 * A replaced source file gets a new key, the old entry is evicted once it is least recently used or expired.
+	 */
+	private static final EntityCache<String, List<String>> normalizedClassLines =
+			new EntityCache<>("Normalized class lines", 200, 30, TimeUnit.MINUTES);
 
 	private int id;
 	private int gameId;
@@ -103,9 +114,10 @@ public class Mutant implements Serializable {
 	private int score; // multiplayer
 
 	// Computed on the fly if not read in the db
-	private List<Integer> lines = null;
+	private BitSetList lines = null;
 	private transient List<String> description = null;
 	private transient Patch difference = null;
+	private transient String patchString = null;
 
     /**
      * Creates a new Mutant with following attributes:
@@ -283,6 +295,7 @@ public class Mutant implements Serializable {
 
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
 		DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
 	}
 
 	public void setScore(int score) {
@@ -318,13 +331,15 @@ public class Mutant implements Serializable {
 				DatabaseValue.of(id)};
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
 		//
-		return DB.executeUpdate(stmt, conn);
+		final boolean killed = DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
+		return killed;
 	}
 
 	public boolean isCovered() {
 		List<Test> tests = TestDAO.getValidTestsForGame(gameId, true);
 		for (Test t : tests) {
-			if (CollectionUtils.containsAny(t.getLineCoverage().getLinesCovered(), getLines()))
+			if (t.getLineCoverage().coversAny(getLines()))
 				return true;
 		}
 		return false;
@@ -348,7 +363,7 @@ public class Mutant implements Serializable {
 		if(  cut == null ){
 		    cut = GameClassDAO.getClassForId(classId);
 		}
-		return CollectionUtils.containsAny(cut.getCompileTimeConstants(), getLines());
+		return BitSetList.of(getLines()).intersects(cut.getCompileTimeConstants());
 	}
 
 	/**
@@ -407,47 +422,54 @@ public class Mutant implements Serializable {
         return difference;
     }
 
-	// Not sure
-	private void computeDifferences() {
+	/**
+	 * Returns the class under test of this mutant. If the mutant does not belong
+	 * to a game (e.g. it was uploaded together with the class), the class is
+	 * retrieved using the class identifier of the mutant.
+	 */
+	private GameClass getGameClass() {
 		GameClass sut = GameClassDAO.getClassForGameId(gameId);
-		if( sut == null ){
-            // in this case gameId might have been -1 (upload)
-            // so we try to reload the sut
-            sut = GameClassDAO.getClassForId(classId);
-        }
-
+		if (sut == null) {
+			// in this case gameId might have been -1 (upload)
+			// so we try to reload the sut
+			sut = GameClassDAO.getClassForId(classId);
+		}
 		assert sut != null;
+		return sut;
+	}
 
-		File sourceFile = new File(sut.getJavaFile());
-		File mutantFile = new File(javaFile);
+	private void computeDifferences() {
+		GameClass sut = getGameClass();
 
-        List<String> sutLines = FileUtils.readLines(sourceFile.toPath());
-        List<String> mutantLines = FileUtils.readLines(mutantFile.toPath());
+		final Path sutFile = Paths.get(sut.getJavaFile());
+		List<String> sutLines = normalizedClassLines.get(sutFile + "@" + sutFile.toFile().lastModified(),
+				key -> Collections.unmodifiableList(normalizeLines(FileUtils.readLines(sutFile))));
+		List<String> mutantLines = normalizeLines(FileUtils.readLines(Paths.get(javaFile)));
 
-		for (int l = 0; l < sutLines.size(); l++) {
-			sutLines.set(l, sutLines.get(l).replaceAll(regex, ""));
-		}
+		difference = DiffUtils.diff(sutLines, mutantLines);
+	}
 
-		for (int l = 0; l < mutantLines.size(); l++) {
-			mutantLines.set(l, mutantLines.get(l).replaceAll(regex, ""));
+	/**
+	 * Removes all whitespace, which is not part of a string literal, from the given lines.
+	 */
+	private static List<String> normalizeLines(List<String> lines) {
+		for (int l = 0; l < lines.size(); l++) {
+			lines.set(l, WHITESPACE_PATTERN.matcher(lines.get(l)).replaceAll(""));
 		}
-
-		difference = DiffUtils.diff(sutLines, mutantLines);
+		return lines;
 	}
 
 	public String getPatchString() {
-	    GameClass sut = GameClassDAO.getClassForGameId(gameId);
-	    if( sut == null ){
-	        // in this case gameId might have been -1 (upload)
-	        // so we try to reload the sut
-	        sut = GameClassDAO.getClassForId(classId);
-	    }
+		if (patchString != null) {
+			return patchString;
+		}
+		GameClass sut = getGameClass();
 
 		Path sourceFile = Paths.get(sut.getJavaFile());
 		Path mutantFile = Paths.get(javaFile);
 
-        List<String> sutLines = FileUtils.readLines(sourceFile);
-        List<String> mutantLines = FileUtils.readLines(mutantFile);
+		List<String> sutLines = FileUtils.readLines(sourceFile);
+		List<String> mutantLines = FileUtils.readLines(mutantFile);
 
 		Patch patch = DiffUtils.diff(sutLines, mutantLines);
 		List<String> unifiedPatches = DiffUtils.generateUnifiedDiff(null, null, sutLines, patch, 3);
@@ -457,7 +479,17 @@ public class Mutant implements Serializable {
 				continue;
 			unifiedPatch.append(s).append(System.getProperty("line.separator"));
 		}
-		return unifiedPatch.toString();
+		return patchString = unifiedPatch.toString();
+	}
+
+	/**
+	 * Sets the unified patch string of this mutant, e.g. when it was already computed and stored in the database.
+	 *
+	 * @param patchString the unified patch string.
+	 * @see #getPatchString()
+	 */
+	public void setPatchString(String patchString) {
+		this.patchString = patchString;
 	}
 
 	public String getHTMLEscapedPatchString() {
@@ -510,7 +542,9 @@ public class Mutant implements Serializable {
 				DatabaseValue.of(id)};
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
 
-		return DB.executeUpdate(stmt, conn);
+		final boolean updated = DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
+		return updated;
 	}
 
 	@Override
@@ -555,6 +589,10 @@ public class Mutant implements Serializable {
 		killedByAITests++;
 	}
 
+	/**
+	 * Returns the lines of the class under test modified by this mutant in ascending order.
+	 * The returned list is backed by a bit set and cannot be modified.
+	 */
 	// Does this every get called if mutant is not stored to DB ?
 	public List<Integer> getLines() {
 		if (lines == null) {
@@ -635,6 +673,16 @@ public class Mutant implements Serializable {
 		return description;
 	}
 
+	/**
+	 * Sets the HTML description of this mutant, e.g. when it was already computed and stored in the database.
+	 *
+	 * @param description the HTML escaped description lines.
+	 * @see #getHTMLReadout()
+	 */
+	public void setHTMLReadout(List<String> description) {
+		this.description = description;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -692,7 +740,8 @@ public class Mutant implements Serializable {
 				return 1;
 			}
 
-			return Collections.min(lines1) - Collections.min(lines2);
+			// lines are sorted in ascending order
+			return lines1.get(0) - lines2.get(0);
 		};
 	}
 
@@ -708,6 +757,6 @@ public class Mutant implements Serializable {
 	}
 
 	public void setLines(List<Integer> mutatedLines) {
-		this.lines = mutatedLines;
+		this.lines = BitSetList.of(mutatedLines);
 	}
 }
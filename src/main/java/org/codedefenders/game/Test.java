@@ -18,12 +18,12 @@
  */
 package org.codedefenders.game;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.codedefenders.database.*;
 import org.codedefenders.game.duel.DuelGame;
 import org.codedefenders.util.Constants;
 import org.codedefenders.util.FileUtils;
+import org.codedefenders.util.LineBitmaps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -146,6 +146,7 @@ public class Test {
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
 
 		boolean incremented = DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
 
 		logger.info("Increment score for {} by {}. Update? {} ", toString(), score, incremented);
 	}
@@ -219,6 +220,7 @@ public class Test {
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
 
 		boolean updated = DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
 
 		// Eventually update the kill count from the DB
 		mutantsKilled = TestDAO.getTestById(getId()).getMutantsKilled();
@@ -227,15 +229,14 @@ public class Test {
 	}
 
 	public boolean isMutantCovered(Mutant mutant) {
-		return CollectionUtils.containsAny(lineCoverage.getLinesCovered(), mutant.getLines());
+		return lineCoverage.coversAny(mutant.getLines());
 	}
 
 	public Set<Mutant> getCoveredMutants(List<Mutant> mutants) {
-		List<Integer> coverage = lineCoverage.getLinesCovered();
 		Set<Mutant> coveredMutants = new TreeSet<>(Mutant.orderByIdAscending());
 
 		for(Mutant m : mutants) {
-			if(CollectionUtils.containsAny(coverage, m.getLines())) {
+			if(lineCoverage.coversAny(m.getLines())) {
 				coveredMutants.add(m);
 			}
 		}
@@ -274,25 +275,33 @@ public class Test {
 
 		String linesCoveredString = "";
 		String linesUncoveredString= "";
+		byte[] linesCoveredBitmap = LineBitmaps.encode(Collections.<Integer>emptyList());
+		byte[] linesUncoveredBitmap = linesCoveredBitmap;
 
 		if (lineCoverage != null) {
 			linesCoveredString = lineCoverage.getLinesCovered().stream().map(Object::toString).collect(Collectors.joining(","));
 			linesUncoveredString = lineCoverage.getLinesUncovered().stream().map(Object::toString).collect(Collectors.joining(","));
+			linesCoveredBitmap = lineCoverage.getEncodedLinesCovered();
+			linesUncoveredBitmap = lineCoverage.getEncodedLinesUncovered();
 		}
 
-		String query = "UPDATE tests SET ClassFile=?, mutantsKilled=?,NumberAiMutantsKilled=?,Lines_Covered=?,Lines_Uncovered=?,Points=? WHERE Test_ID=?;";
+		String query = "UPDATE tests SET ClassFile=?, mutantsKilled=?,NumberAiMutantsKilled=?,Lines_Covered=?,Lines_Uncovered=?,Lines_Covered_Bitmap=?,Lines_Uncovered_Bitmap=?,Points=? WHERE Test_ID=?;";
 		DatabaseValue[] valueList = new DatabaseValue[]{
 		        DatabaseValue.of(classFile),
 		        DatabaseValue.of(mutantsKilled),
 				DatabaseValue.of(aiMutantsKilled),
 				DatabaseValue.of(linesCoveredString),
 				DatabaseValue.of(linesUncoveredString),
+				DatabaseValue.of(linesCoveredBitmap),
+				DatabaseValue.of(linesUncoveredBitmap),
 				DatabaseValue.of(score),
 				DatabaseValue.of(id)
 		};
 
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
-		return DB.executeUpdate(stmt, conn);
+		final boolean updated = DB.executeUpdate(stmt, conn);
+		GameVersions.bump(gameId);
+		return updated;
 	}
 
 	public String getFullyQualifiedClassName() {
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.codedefenders.database.EntityCache;
+import org.codedefenders.game.GameState;
+import org.codedefenders.game.Role;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps snapshots of the pages of {@link GameState#FINISHED finished} games, e.g. the scoreboard,
+ * the mutant and test lists with their patches and the coverage highlighting of the game history page.
+ * <p>
+ * Finished games do not change anymore, so a snapshot is filled on the first view of the game
+ * and afterwards serves all views without reading the mutants and tests of the game again.
+ * Snapshots do not depend on the {@link org.codedefenders.game.GameVersions version} of the game,
+ * but are invalidated whenever the game itself is updated, e.g. when an admin restarts a finished game.
+ * <p>
+ * Fragments are stored gzip compressed, since finished games are viewed rarely compared to
+ * how much memory their mutants and tests take up.
+ */
+public class FinishedGameSnapshots {
+    private static final EntityCache<Integer, Snapshot> cache =
+            new EntityCache<>("Finished game snapshots", 200, 1, TimeUnit.DAYS);
+
+    private FinishedGameSnapshots() {
+    }
+
+    /**
+     * Returns the snapshot of the given game, creating an empty one if none exists yet.
+     * The caller must make sure the game is finished.
+     *
+     * @param gameId the identifier of the finished game.
+     * @return the snapshot, never {@code null}.
+     */
+    public static Snapshot get(int gameId) {
+        return cache.get(gameId, Snapshot::new);
+    }
+
+    /**
+     * Removes the snapshot of the given game. Must be called whenever a game is updated.
+     *
+     * @param gameId the identifier of the game.
+     */
+    public static void invalidate(int gameId) {
+        cache.invalidate(gameId);
+    }
+
+    /**
+     * The rendered fragments of a finished game, per role of the viewing user.
+     */
+    public static class Snapshot {
+        private final int gameId;
+        private final long createdAt;
+        private final Map<String, byte[]> fragments = new ConcurrentHashMap<>();
+
+        private Snapshot(int gameId) {
+            this.gameId = gameId;
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        public int getGameId() {
+            return gameId;
+        }
+
+        /**
+         * @return the time the snapshot was created in milliseconds, used to identify the snapshot.
+         */
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * @param role the role of the viewing user.
+         * @param name the name of the fragment.
+         * @return the fragment, or {@code null} if it was not stored yet.
+         */
+        public String getFragment(Role role, String name) {
+            final byte[] compressed = fragments.get(key(role, name));
+            return compressed == null ? null : decompress(compressed);
+        }
+
+        /**
+         * @param role  the role of the viewing user.
+         * @param name  the name of the fragment.
+         * @param value the rendered fragment.
+         */
+        public void putFragment(Role role, String name, String value) {
+            fragments.put(key(role, name), compress(value));
+        }
+
+        /**
+         * @param role  the role of the viewing user.
+         * @param names the names of the fragments.
+         * @return {@code true} if all given fragments are stored, {@code false} otherwise.
+         */
+        public boolean hasFragments(Role role, String... names) {
+            for (String name : names) {
+                if (!fragments.containsKey(key(role, name))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the size of all stored fragments in bytes, after compression.
+         */
+        public int getCompressedSize() {
+            return fragments.values().stream().mapToInt(bytes -> bytes.length).sum();
+        }
+
+        private static String key(Role role, String name) {
+            return role + "/" + name;
+        }
+    }
+
+    static byte[] compress(String value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String decompress(byte[] compressed) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
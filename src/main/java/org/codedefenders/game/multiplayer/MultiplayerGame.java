@@ -46,11 +46,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 
-import static org.codedefenders.game.Mutant.Equivalence.ASSUMED_YES;
-import static org.codedefenders.game.Mutant.Equivalence.DECLARED_YES;
-import static org.codedefenders.game.Mutant.Equivalence.PENDING_TEST;
-import static org.codedefenders.game.Mutant.Equivalence.PROVEN_NO;
-
 public class MultiplayerGame extends AbstractGame {
     /*
     Inherited from AbstractGame
@@ -421,171 +416,19 @@ public class MultiplayerGame extends AbstractGame {
         return MultiplayerGameDAO.updateMultiplayerGame(this);
     }
 
-    public HashMap<Integer, PlayerScore> getMutantScores() {
-        HashMap<Integer, PlayerScore> mutantScores = new HashMap<Integer, PlayerScore>();
-
-        HashMap<Integer, Integer> mutantsAlive = new HashMap<Integer, Integer>();
-        HashMap<Integer, Integer> mutantsKilled = new HashMap<Integer, Integer>();
-        HashMap<Integer, Integer> mutantsEquiv = new HashMap<Integer, Integer>();
-        HashMap<Integer, Integer> mutantsChallenged = new HashMap<Integer, Integer>();
-        HashMap<Integer, Integer> duelsWon = new HashMap<Integer, Integer>();
-
-        // TODO why not getMutants()
-        List<Mutant> allMutants = getAliveMutants();
-        allMutants.addAll(getKilledMutants());
-        allMutants.addAll(getMutantsMarkedEquivalent());
-        allMutants.addAll(getMutantsMarkedEquivalentPending());
-
-        if (!mutantScores.containsKey(-1)) {
-            mutantScores.put(-1, new PlayerScore(-1));
-            mutantsAlive.put(-1, 0);
-            mutantsEquiv.put(-1, 0);
-            mutantsChallenged.put(-1, 0);
-            mutantsKilled.put(-1, 0);
-            duelsWon.put(-1, 0);
-        }
-
-        for (Mutant mm : allMutants) {
-
-            if (!mutantScores.containsKey(mm.getPlayerId())) {
-                mutantScores.put(mm.getPlayerId(), new PlayerScore(mm.getPlayerId()));
-                mutantsAlive.put(mm.getPlayerId(), 0);
-                mutantsEquiv.put(mm.getPlayerId(), 0);
-                mutantsChallenged.put(mm.getPlayerId(), 0);
-                mutantsKilled.put(mm.getPlayerId(), 0);
-                duelsWon.put(mm.getPlayerId(), 0);
-            }
-
-            PlayerScore ps = mutantScores.get(mm.getPlayerId());
-            ps.increaseQuantity();
-            ps.increaseTotalScore(mm.getScore());
-
-            PlayerScore ts = mutantScores.get(-1);
-            ts.increaseQuantity();
-            ts.increaseTotalScore(mm.getScore());
-
-            if (mm.getEquivalent().equals(ASSUMED_YES) || mm.getEquivalent().equals(DECLARED_YES)) {
-                mutantsEquiv.put(mm.getPlayerId(), mutantsEquiv.get(mm.getPlayerId()) + 1);
-                mutantsEquiv.put(-1, mutantsEquiv.get(-1) + 1);
-            } else if (mm.isAlive()) {
-                //This includes mutants marked equivalent
-                mutantsAlive.put(mm.getPlayerId(), mutantsAlive.get(mm.getPlayerId()) + 1);
-                mutantsAlive.put(-1, mutantsAlive.get(-1) + 1);
-                if (mm.getEquivalent().equals(PENDING_TEST)) {
-                    mutantsChallenged.put(mm.getPlayerId(), mutantsChallenged.get(mm.getPlayerId()) + 1);
-                    mutantsChallenged.put(-1, mutantsChallenged.get(-1) + 1);
-                }
-            } else {
-                mutantsKilled.put(mm.getPlayerId(), mutantsKilled.get(mm.getPlayerId()) + 1);
-                mutantsKilled.put(-1, mutantsKilled.get(-1) + 1);
-                if (mm.getEquivalent().equals(PROVEN_NO)) {
-                    duelsWon.put(mm.getPlayerId(), duelsWon.get(mm.getPlayerId()) + 1);
-                    duelsWon.put(-1, duelsWon.get(-1) + 1);
-                }
-            }
-
-        }
-
-        for (int i : mutantsKilled.keySet()) {
-            PlayerScore ps = mutantScores.get(i);
-            ps.setMutantKillInformation(mutantsAlive.get(i) + " / " + mutantsKilled.get(i) + " / " + mutantsEquiv.get((i)));
-            ps.setDuelInformation(duelsWon.get(i) + " / " + mutantsEquiv.get(i) + " / " + mutantsChallenged.get((i)));
-
-        }
+    /**
+     * @return the cached {@link Scoreboard} of this game.
+     */
+    public Scoreboard getScoreboard() {
+        return Scoreboard.forGame(id);
+    }
 
-        return mutantScores;
+    public HashMap<Integer, PlayerScore> getMutantScores() {
+        return getScoreboard().getMutantScores();
     }
 
     public HashMap<Integer, PlayerScore> getTestScores() {
-        HashMap<Integer, PlayerScore> testScores = new HashMap<>();
-        HashMap<Integer, Integer> mutantsKilled = new HashMap<>();
-
-        HashMap<Integer, Integer> challengesOpen = new HashMap<>();
-        HashMap<Integer, Integer> challengesWon = new HashMap<>();
-        HashMap<Integer, Integer> challengesLost = new HashMap<>();
-
-        int defendersTeamId = -1;
-        testScores.put(defendersTeamId, new PlayerScore(defendersTeamId));
-        mutantsKilled.put(defendersTeamId, 0);
-        challengesOpen.put(defendersTeamId, 0);
-        challengesWon.put(defendersTeamId, 0);
-        challengesLost.put(defendersTeamId, 0);
-
-        for (int defenderId : getDefenderIds()) {
-            testScores.put(defenderId, new PlayerScore(defenderId));
-            mutantsKilled.put(defenderId, 0);
-            challengesOpen.put(defenderId, 0);
-            challengesWon.put(defenderId, 0);
-            challengesLost.put(defenderId, 0);
-        }
-
-        int[] attackers = getAttackerIds();
-        for (Test test : getTests()) {
-            if (ArrayUtils.contains(attackers, test.getPlayerId()))
-                continue;
-            if (!testScores.containsKey(test.getPlayerId())) {
-                testScores.put(test.getPlayerId(), new PlayerScore(test.getPlayerId()));
-                mutantsKilled.put(test.getPlayerId(), 0);
-            }
-            PlayerScore ps = testScores.get(test.getPlayerId());
-            ps.increaseQuantity();
-            ps.increaseTotalScore(test.getScore());
-
-            int teamKey = defendersTeamId;
-
-            PlayerScore ts = testScores.get(teamKey);
-            ts.increaseQuantity();
-            ts.increaseTotalScore(test.getScore());
-
-            mutantsKilled.put(test.getPlayerId(), mutantsKilled.get(test.getPlayerId()) + test.getMutantsKilled());
-            mutantsKilled.put(teamKey, mutantsKilled.get(teamKey) + test.getMutantsKilled());
-
-        }
-
-        for (int playerId : mutantsKilled.keySet()) {
-            if (playerId < 0 || ArrayUtils.contains(attackers, playerId))
-                continue;
-
-            int teamKey = defendersTeamId;
-
-            PlayerScore ps = testScores.get(playerId);
-            int playerScore = DatabaseAccess.getPlayerPoints(playerId);
-            ps.increaseTotalScore(playerScore);
-
-            PlayerScore ts = testScores.get(teamKey);
-            ts.increaseTotalScore(playerScore);
-        }
-
-        for (Mutant m : getKilledMutants()) {
-            if (!m.getEquivalent().equals(PROVEN_NO))
-                continue;
-
-            int defenderId = DatabaseAccess.getEquivalentDefenderId(m);
-            challengesLost.put(defenderId, challengesLost.get(defenderId) + 1);
-            challengesLost.put(defendersTeamId, challengesLost.get(defendersTeamId) + 1);
-        }
-        for (Mutant m : getMutantsMarkedEquivalent()) {
-            int defenderId = DatabaseAccess.getEquivalentDefenderId(m);
-            challengesWon.put(defenderId, challengesWon.get(defenderId) + 1);
-            challengesWon.put(defendersTeamId, challengesWon.get(defendersTeamId) + 1);
-        }
-        for (Mutant m : getMutantsMarkedEquivalentPending()) {
-            int defenderId = DatabaseAccess.getEquivalentDefenderId(m);
-            challengesOpen.put(defenderId, challengesOpen.get(defenderId) + 1);
-            challengesOpen.put(defendersTeamId, challengesOpen.get(defendersTeamId) + 1);
-        }
-
-        for (int playerId : testScores.keySet()) {
-            testScores.get(playerId).setDuelInformation(challengesWon.get(playerId) + " / " + challengesLost.get(playerId) + " / " + challengesOpen.get((playerId)));
-        }
-        testScores.get(defendersTeamId).setDuelInformation(challengesWon.get(defendersTeamId) + " / " + challengesLost.get(defendersTeamId) + " / " + challengesOpen.get((defendersTeamId)));
-
-        for (int i : mutantsKilled.keySet()) {
-            PlayerScore ps = testScores.get(i);
-            ps.setMutantKillInformation("" + mutantsKilled.get(i));
-        }
-
-        return testScores;
+        return getScoreboard().getTestScores();
     }
 
     private int getAttackerTeamScore() {
@@ -611,7 +454,7 @@ public class MultiplayerGame extends AbstractGame {
 
     public boolean isLineCovered(int lineNumber) {
         for (Test test : getTests(true)) {
-            if (test.getLineCoverage().getLinesCovered().contains(lineNumber))
+            if (test.getLineCoverage().isLineCovered(lineNumber))
                 return true;
         }
         return false;
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.codedefenders.database.GameClassDAO;
+import org.codedefenders.database.MultiplayerGameDAO;
+import org.codedefenders.game.GameClass;
+import org.codedefenders.game.GameLevel;
+import org.codedefenders.game.GameState;
+import org.codedefenders.game.Role;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A lightweight projection of a not yet finished {@link MultiplayerGame}, as shown in the game lists
+ * of the games overview. Summaries contain the active players of the game, so the role of a user and the
+ * number of attackers and defenders are known without further queries.
+ * <p>
+ * Summaries are shared between all users and must not be modified.
+ *
+ * @see MultiplayerGameDAO#getMultiplayerGameSummariesForUser(int)
+ * @see MultiplayerGameDAO#getOpenMultiplayerGameSummariesForUser(int)
+ */
+public class MultiplayerGameSummary {
+    private final int id;
+    private final int classId;
+    private final int creatorId;
+    private final GameState state;
+    private final GameLevel level;
+    private final long startDateTime;
+    private final long finishDateTime;
+    private final int minAttackers;
+    private final int minDefenders;
+    private final int attackerLimit;
+    private final int defenderLimit;
+    private final boolean requiresValidation;
+
+    /**
+     * Maps the user ids of the active players to their role.
+     */
+    private final Map<Integer, Role> players;
+    private final int attackerCount;
+    private final int defenderCount;
+
+    public MultiplayerGameSummary(int id, int classId, int creatorId, GameState state, GameLevel level,
+                                  long startDateTime, long finishDateTime, int minAttackers, int minDefenders,
+                                  int attackerLimit, int defenderLimit, boolean requiresValidation,
+                                  Map<Integer, Role> players) {
+        this.id = id;
+        this.classId = classId;
+        this.creatorId = creatorId;
+        this.state = state;
+        this.level = level;
+        this.startDateTime = startDateTime;
+        this.finishDateTime = finishDateTime;
+        this.minAttackers = minAttackers;
+        this.minDefenders = minDefenders;
+        this.attackerLimit = attackerLimit;
+        this.defenderLimit = defenderLimit;
+        this.requiresValidation = requiresValidation;
+        this.players = new HashMap<>(players);
+        this.attackerCount = (int) players.values().stream().filter(role -> role == Role.ATTACKER).count();
+        this.defenderCount = (int) players.values().stream().filter(role -> role == Role.DEFENDER).count();
+    }
+
+    /**
+     * @param userId the user id.
+     * @return the role of the user in the game, like {@link MultiplayerGame#getRole(int)}.
+     */
+    public Role getRole(int userId) {
+        if (userId == creatorId) {
+            return Role.CREATOR;
+        }
+        final Role role = players.get(userId);
+        return role == null ? Role.NONE : role;
+    }
+
+    /**
+     * Returns whether the given user can join the game. The game must be created or active, it must not be
+     * created by the user, the user must not play in it already and it must have free attacker or defender slots.
+     *
+     * @param userId    the user id.
+     * @param validated whether the user has a validated account.
+     * @return {@code true} if the user can join the game, {@code false} otherwise.
+     */
+    public boolean isOpenFor(int userId, boolean validated) {
+        return (state == GameState.CREATED || state == GameState.ACTIVE)
+                && userId != creatorId
+                && !players.containsKey(userId)
+                && (!requiresValidation || validated)
+                && (attackerCount < attackerLimit || defenderCount < defenderLimit);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getClassId() {
+        return classId;
+    }
+
+    public GameClass getCUT() {
+        return GameClassDAO.getClassForId(classId);
+    }
+
+    public int getCreatorId() {
+        return creatorId;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public GameLevel getLevel() {
+        return level;
+    }
+
+    public int getMinAttackers() {
+        return minAttackers;
+    }
+
+    public int getMinDefenders() {
+        return minDefenders;
+    }
+
+    public int getAttackerLimit() {
+        return attackerLimit;
+    }
+
+    public int getDefenderLimit() {
+        return defenderLimit;
+    }
+
+    public int getAttackerCount() {
+        return attackerCount;
+    }
+
+    public int getDefenderCount() {
+        return defenderCount;
+    }
+
+    /**
+     * @return the user ids of the active players, mapped to their role.
+     */
+    public Map<Integer, Role> getPlayers() {
+        return Collections.unmodifiableMap(players);
+    }
+
+    public String getFormattedStartDateTime() {
+        return new SimpleDateFormat("yy/MM/dd HH:mm").format(new Date(startDateTime));
+    }
+
+    public String getFormattedFinishDateTime() {
+        return new SimpleDateFormat("yy/MM/dd HH:mm").format(new Date(finishDateTime));
+    }
+}
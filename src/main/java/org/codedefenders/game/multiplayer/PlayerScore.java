@@ -32,6 +32,17 @@ public class PlayerScore {
         this.quantity = 0;
     }
 
+    /**
+     * Creates a copy of the given score.
+     */
+    public PlayerScore(PlayerScore other) {
+        this.playerId = other.playerId;
+        this.totalScore = other.totalScore;
+        this.quantity = other.quantity;
+        this.mutantKillInformation = other.mutantKillInformation;
+        this.duelInformation = other.duelInformation;
+    }
+
     public String toString() {
         return playerId + ": " + totalScore + ", " + quantity + "," + mutantKillInformation + "," + duelInformation;
     }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.EntityCache;
+import org.codedefenders.database.GameDAO;
+import org.codedefenders.database.MutantDAO;
+import org.codedefenders.database.TestDAO;
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.game.Mutant;
+import org.codedefenders.game.Role;
+import org.codedefenders.game.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.codedefenders.game.Mutant.Equivalence.ASSUMED_NO;
+import static org.codedefenders.game.Mutant.Equivalence.ASSUMED_YES;
+import static org.codedefenders.game.Mutant.Equivalence.DECLARED_YES;
+import static org.codedefenders.game.Mutant.Equivalence.PENDING_TEST;
+import static org.codedefenders.game.Mutant.Equivalence.PROVEN_NO;
+
+/**
+ * The aggregated scores of the attackers and defenders of a {@link MultiplayerGame},
+ * as shown on the scoreboard and used by the AI players to decide whether to play.
+ * <p>
+ * Scores are computed once per {@link GameVersions game version} with a fixed number of
+ * queries and cached, so rendering the scoreboard does not read the mutants and tests
+ * of the game again until one of them changes. Cached scoreboards additionally expire
+ * after a minute, because the equivalence duels expired by the database event
+ * {@code proc_multiplayer_task} change scores without increasing the game version.
+ * <p>
+ * Score maps use the player identifier as key and {@code -1} for the whole team.
+ * The returned maps and scores are copies and may be modified by the caller.
+ */
+public class Scoreboard {
+    private static final int TEAM_ID = -1;
+
+    private static final EntityCache<Integer, Scoreboard> cache =
+            new EntityCache<>("Scoreboards", 500, 1, TimeUnit.MINUTES);
+
+    private final long version;
+    private final Map<Integer, PlayerScore> mutantScores;
+    private final Map<Integer, PlayerScore> testScores;
+    private final int mutantCount;
+    private final int aliveMutantCount;
+    private final int testCount;
+
+    Scoreboard(long version, List<Mutant> mutants, List<Test> tests, int[] attackerIds, int[] defenderIds,
+               Map<Integer, Integer> equivalentDefenderIds, Map<Integer, Integer> playerPoints) {
+        this.version = version;
+        this.mutantScores = computeMutantScores(mutants);
+        this.testScores = computeTestScores(mutants, tests, attackerIds, defenderIds, equivalentDefenderIds, playerPoints);
+        this.mutantCount = mutants.size();
+        this.aliveMutantCount = (int) mutants.stream().filter(Scoreboard::isAlive).count();
+        this.testCount = tests.size();
+    }
+
+    /**
+     * Returns the scoreboard of the given game, computing it only if the game changed
+     * since the cached scoreboard was computed.
+     *
+     * @param gameId the identifier of the game.
+     * @return the scoreboard, never {@code null}.
+     */
+    public static Scoreboard forGame(int gameId) {
+        final long version = GameVersions.get(gameId);
+        Scoreboard scoreboard = cache.get(gameId, id -> load(id, version));
+        if (scoreboard.version < version) {
+            cache.invalidate(gameId);
+            scoreboard = cache.get(gameId, id -> load(id, version));
+        }
+        return scoreboard;
+    }
+
+    private static Scoreboard load(int gameId, long version) {
+        final List<Mutant> mutants = MutantDAO.getValidMutantsForGame(gameId);
+        final List<Test> tests = TestDAO.getValidTestsForGame(gameId, false);
+        final int[] attackerIds = GameDAO.getPlayersForGame(gameId, Role.ATTACKER).stream().mapToInt(Integer::intValue).toArray();
+        final int[] defenderIds = GameDAO.getPlayersForGame(gameId, Role.DEFENDER).stream().mapToInt(Integer::intValue).toArray();
+        return new Scoreboard(version, mutants, tests, attackerIds, defenderIds,
+                DatabaseAccess.getEquivalencesForGame(gameId), DatabaseAccess.getPlayerPointsForGame(gameId));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public HashMap<Integer, PlayerScore> getMutantScores() {
+        return copy(mutantScores);
+    }
+
+    public HashMap<Integer, PlayerScore> getTestScores() {
+        return copy(testScores);
+    }
+
+    /**
+     * @return the total score of the attacking team.
+     */
+    public int getAttackerTeamScore() {
+        return mutantScores.get(TEAM_ID).getTotalScore();
+    }
+
+    /**
+     * @return the total score of the defending team.
+     */
+    public int getDefenderTeamScore() {
+        return testScores.get(TEAM_ID).getTotalScore();
+    }
+
+    /**
+     * @param playerId the identifier of the player.
+     * @return {@code true} if the given player submitted a scored mutant, {@code false} otherwise.
+     */
+    public boolean hasMutants(int playerId) {
+        final PlayerScore score = mutantScores.get(playerId);
+        return playerId != TEAM_ID && score != null && score.getQuantity() > 0;
+    }
+
+    /**
+     * @param playerId the identifier of the player.
+     * @return {@code true} if the given player submitted a scored test, {@code false} otherwise.
+     */
+    public boolean hasTests(int playerId) {
+        final PlayerScore score = testScores.get(playerId);
+        return playerId != TEAM_ID && score != null && score.getQuantity() > 0;
+    }
+
+    /**
+     * @return the number of compilable mutants of the game, like {@link MultiplayerGame#getMutants()}.
+     */
+    public int getMutantCount() {
+        return mutantCount;
+    }
+
+    /**
+     * @return the number of alive mutants of the game, like {@link MultiplayerGame#getAliveMutants()}.
+     */
+    public int getAliveMutantCount() {
+        return aliveMutantCount;
+    }
+
+    /**
+     * @return the number of compilable tests of the game, like {@link MultiplayerGame#getTests()}.
+     */
+    public int getTestCount() {
+        return testCount;
+    }
+
+    private static HashMap<Integer, PlayerScore> copy(Map<Integer, PlayerScore> scores) {
+        final HashMap<Integer, PlayerScore> copy = new HashMap<>();
+        scores.forEach((playerId, score) -> copy.put(playerId, new PlayerScore(score)));
+        return copy;
+    }
+
+    private static boolean isAlive(Mutant mutant) {
+        return mutant.isAlive() && mutant.getEquivalent() == ASSUMED_NO && mutant.getClassFile() != null;
+    }
+
+    private static boolean isKilled(Mutant mutant) {
+        return !mutant.isAlive() && (mutant.getEquivalent() == ASSUMED_NO || mutant.getEquivalent() == PROVEN_NO)
+                && mutant.getClassFile() != null;
+    }
+
+    private static boolean isEquivalent(Mutant mutant) {
+        return mutant.getEquivalent() == ASSUMED_YES || mutant.getEquivalent() == DECLARED_YES;
+    }
+
+    private static Map<Integer, PlayerScore> computeMutantScores(List<Mutant> mutants) {
+        final Map<Integer, PlayerScore> mutantScores = new HashMap<>();
+        final Map<Integer, Integer> mutantsAlive = new HashMap<>();
+        final Map<Integer, Integer> mutantsKilled = new HashMap<>();
+        final Map<Integer, Integer> mutantsEquiv = new HashMap<>();
+        final Map<Integer, Integer> mutantsChallenged = new HashMap<>();
+        final Map<Integer, Integer> duelsWon = new HashMap<>();
+
+        mutantScores.put(TEAM_ID, new PlayerScore(TEAM_ID));
+        for (Mutant mm : mutants) {
+            if (!(isAlive(mm) || isKilled(mm) || isEquivalent(mm) || mm.getEquivalent() == PENDING_TEST)) {
+                continue;
+            }
+            final int playerId = mm.getPlayerId();
+            mutantScores.computeIfAbsent(playerId, PlayerScore::new);
+
+            PlayerScore ps = mutantScores.get(playerId);
+            ps.increaseQuantity();
+            ps.increaseTotalScore(mm.getScore());
+
+            PlayerScore ts = mutantScores.get(TEAM_ID);
+            ts.increaseQuantity();
+            ts.increaseTotalScore(mm.getScore());
+
+            if (isEquivalent(mm)) {
+                increment(mutantsEquiv, playerId);
+            } else if (mm.isAlive()) {
+                // This includes mutants marked equivalent
+                increment(mutantsAlive, playerId);
+                if (mm.getEquivalent() == PENDING_TEST) {
+                    increment(mutantsChallenged, playerId);
+                }
+            } else {
+                increment(mutantsKilled, playerId);
+                if (mm.getEquivalent() == PROVEN_NO) {
+                    increment(duelsWon, playerId);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, PlayerScore> entry : mutantScores.entrySet()) {
+            final int i = entry.getKey();
+            final PlayerScore ps = entry.getValue();
+            ps.setMutantKillInformation(mutantsAlive.getOrDefault(i, 0) + " / " + mutantsKilled.getOrDefault(i, 0)
+                    + " / " + mutantsEquiv.getOrDefault(i, 0));
+            ps.setDuelInformation(duelsWon.getOrDefault(i, 0) + " / " + mutantsEquiv.getOrDefault(i, 0)
+                    + " / " + mutantsChallenged.getOrDefault(i, 0));
+        }
+        return mutantScores;
+    }
+
+    private static Map<Integer, PlayerScore> computeTestScores(List<Mutant> mutants, List<Test> tests,
+                                                               int[] attackerIds, int[] defenderIds,
+                                                               Map<Integer, Integer> equivalentDefenderIds,
+                                                               Map<Integer, Integer> playerPoints) {
+        final Map<Integer, PlayerScore> testScores = new HashMap<>();
+        final Map<Integer, Integer> mutantsKilled = new HashMap<>();
+        final Map<Integer, Integer> challengesOpen = new HashMap<>();
+        final Map<Integer, Integer> challengesWon = new HashMap<>();
+        final Map<Integer, Integer> challengesLost = new HashMap<>();
+
+        testScores.put(TEAM_ID, new PlayerScore(TEAM_ID));
+        mutantsKilled.put(TEAM_ID, 0);
+        for (int defenderId : defenderIds) {
+            testScores.put(defenderId, new PlayerScore(defenderId));
+            mutantsKilled.put(defenderId, 0);
+        }
+
+        for (Test test : tests) {
+            final int playerId = test.getPlayerId();
+            if (ArrayUtils.contains(attackerIds, playerId)) {
+                continue;
+            }
+            testScores.computeIfAbsent(playerId, PlayerScore::new);
+            mutantsKilled.putIfAbsent(playerId, 0);
+
+            PlayerScore ps = testScores.get(playerId);
+            ps.increaseQuantity();
+            ps.increaseTotalScore(test.getScore());
+
+            PlayerScore ts = testScores.get(TEAM_ID);
+            ts.increaseQuantity();
+            ts.increaseTotalScore(test.getScore());
+
+            mutantsKilled.merge(playerId, test.getMutantsKilled(), Integer::sum);
+            mutantsKilled.merge(TEAM_ID, test.getMutantsKilled(), Integer::sum);
+        }
+
+        // Points of the defenders which are not tied to a test, e.g. for won equivalence duels
+        for (int playerId : mutantsKilled.keySet()) {
+            if (playerId < 0) {
+                continue;
+            }
+            final int points = playerPoints.getOrDefault(playerId, 0);
+            testScores.get(playerId).increaseTotalScore(points);
+            testScores.get(TEAM_ID).increaseTotalScore(points);
+        }
+
+        for (Mutant m : mutants) {
+            final Map<Integer, Integer> challenges;
+            if (isKilled(m) && m.getEquivalent() == PROVEN_NO) {
+                challenges = challengesLost;
+            } else if (isEquivalent(m)) {
+                challenges = challengesWon;
+            } else if (m.getEquivalent() == PENDING_TEST) {
+                challenges = challengesOpen;
+            } else {
+                continue;
+            }
+            increment(challenges, equivalentDefenderIds.getOrDefault(m.getId(), -1));
+        }
+
+        for (Map.Entry<Integer, PlayerScore> entry : testScores.entrySet()) {
+            final int i = entry.getKey();
+            final PlayerScore ps = entry.getValue();
+            ps.setDuelInformation(challengesWon.getOrDefault(i, 0) + " / " + challengesLost.getOrDefault(i, 0)
+                    + " / " + challengesOpen.getOrDefault(i, 0));
+            ps.setMutantKillInformation("" + mutantsKilled.getOrDefault(i, 0));
+        }
+        return testScores;
+    }
+
+    /**
+     * Increments the count of the given player and of the whole team.
+     */
+    private static void increment(Map<Integer, Integer> counts, int playerId) {
+        counts.merge(playerId, 1, Integer::sum);
+        if (playerId != TEAM_ID) {
+            counts.merge(TEAM_ID, 1, Integer::sum);
+        }
+    }
+}
@@ -27,18 +27,18 @@ import org.codedefenders.game.*;
 import org.codedefenders.execution.MutationTester;
 import org.codedefenders.game.duel.DuelGame;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
-import org.codedefenders.game.multiplayer.PlayerScore;
+import org.codedefenders.game.multiplayer.Scoreboard;
 import org.codedefenders.game.singleplayer.AiPlayer;
 import org.codedefenders.game.singleplayer.NoDummyGameException;
 import org.codedefenders.game.singleplayer.PrepareAI;
 import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.UserDAO;
 import org.codedefenders.servlets.admin.AdminSystemSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 /**
@@ -85,8 +85,7 @@ public class AiAttacker extends AiPlayer {
             if (DatabaseAccess.getJoinedMultiplayerGamesForUser(AiAttacker.ID).stream()
                     .filter(joinedGames -> joinedGames.getId() == multiplayerGame.getId())
                     .findFirst().isPresent()) {
-                int aiAttackerPlayerId = IntStream.of(multiplayerGame.getAttackerIds())
-                        .filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiAttacker.ID).findFirst().getAsInt();
+                int aiAttackerPlayerId = UserDAO.getPlayerIdForUser(multiplayerGame.getAttackerIds(), AiAttacker.ID).getAsInt();
                 ExecutorPool.getInstanceOf().cancelTask(aiAttackerPlayerId, true);
                 return false;
             }
@@ -95,22 +94,12 @@ public class AiAttacker extends AiPlayer {
         // should the bot actually do something: depends on game score and mutant/test relation
         // numbers are made up and calculated from the db dump of a testing session
         // TODO: move this to AiPlayer class together with the similar function in AiDefender
-        HashMap mutantScores = multiplayerGame.getMutantScores();
-        HashMap testScores = multiplayerGame.getTestScores();
-        int attackerScore = 0;
-        int defenderScore = 0;
-        if (mutantScores.containsKey(-1) && mutantScores.get(-1) != null) {
-            attackerScore += ((PlayerScore) mutantScores.get(-1)).getTotalScore();
-        }
-        if (testScores.containsKey(-2) && testScores.get(-2) != null) {
-            attackerScore += ((PlayerScore) testScores.get(-2)).getTotalScore();
-        }
-        if (testScores.containsKey(-1) && testScores.get(-1) != null) {
-            defenderScore += ((PlayerScore) testScores.get(-1)).getTotalScore();
-        }
+        Scoreboard scoreboard = multiplayerGame.getScoreboard();
+        int attackerScore = scoreboard.getAttackerTeamScore();
+        int defenderScore = scoreboard.getDefenderTeamScore();
         if (defenderScore + AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_ATTACKER_POINTS_DIFFERENCE).getIntValue() < attackerScore
-                || multiplayerGame.getMutants().size() > multiplayerGame.getTests().size() * AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_TEST_MUTANT_RELATION).getFloatValue()
-                || multiplayerGame.getTests().size() == 0) {
+                || scoreboard.getMutantCount() > scoreboard.getTestCount() * AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_TEST_MUTANT_RELATION).getFloatValue()
+                || scoreboard.getTestCount() == 0) {
             logger.info("AI-Attacker doing nothing due to game scores or test-mutant relation.");
             return false;
         }
@@ -19,6 +19,7 @@
 package org.codedefenders.game.singleplayer.automated.defender;
 
 import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.UserDAO;
 import org.apache.commons.lang3.Range;
 import org.codedefenders.database.TestDAO;
 import org.codedefenders.execution.AntRunner;
@@ -29,7 +30,7 @@ import org.codedefenders.game.Mutant;
 import org.codedefenders.game.*;
 import org.codedefenders.game.Test;
 import org.codedefenders.game.duel.DuelGame;
-import org.codedefenders.game.multiplayer.PlayerScore;
+import org.codedefenders.game.multiplayer.Scoreboard;
 import org.codedefenders.game.singleplayer.AiPlayer;
 import org.codedefenders.game.singleplayer.NoDummyGameException;
 import org.codedefenders.database.AdminDAO;
@@ -40,7 +41,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Ben Clegg
@@ -75,8 +75,7 @@ public class AiDefender extends AiPlayer {
 			if (DatabaseAccess.getJoinedMultiplayerGamesForUser(AiDefender.ID).stream()
 					.filter(joinedGames -> joinedGames.getId() == multiplayerGame.getId())
 					.findFirst().isPresent()) {
-				int aiDefenderPlayerId = IntStream.of(multiplayerGame.getDefenderIds())
-						.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiDefender.ID).findFirst().getAsInt();
+				int aiDefenderPlayerId = UserDAO.getPlayerIdForUser(multiplayerGame.getDefenderIds(), AiDefender.ID).getAsInt();
 				ExecutorPool.getInstanceOf().cancelTask(aiDefenderPlayerId, true);
 				return false;
 			}
@@ -85,23 +84,13 @@ public class AiDefender extends AiPlayer {
 		// should the bot actually do something: depends on game score and mutant/test relation
 		// numbers are made up and calculated from the db dump of a testing session
 		// TODO: move this to AiPlayer class together with the similar function in AiAttacker
-		HashMap mutantScores = multiplayerGame.getMutantScores();
-		HashMap testScores = multiplayerGame.getTestScores();
-		int attackerScore = 0;
-		int defenderScore = 0;
-		if (mutantScores.containsKey(-1) && mutantScores.get(-1) != null) {
-			attackerScore += ((PlayerScore) mutantScores.get(-1)).getTotalScore();
-		}
-		if (testScores.containsKey(-2) && testScores.get(-2) != null) {
-			attackerScore += ((PlayerScore) testScores.get(-2)).getTotalScore();
-		}
-		if (testScores.containsKey(-1) && testScores.get(-1) != null) {
-			defenderScore += ((PlayerScore) testScores.get(-1)).getTotalScore();
-		}
+		Scoreboard scoreboard = multiplayerGame.getScoreboard();
+		int attackerScore = scoreboard.getAttackerTeamScore();
+		int defenderScore = scoreboard.getDefenderTeamScore();
 		if (defenderScore + AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_DEFENDER_POINTS_DIFFERENCE).getIntValue() > attackerScore
-				|| multiplayerGame.getMutants().size() < multiplayerGame.getTests().size() * AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_TEST_MUTANT_RELATION).getFloatValue()
-				|| multiplayerGame.getMutants().size() == 0
-				|| multiplayerGame.getAliveMutants().size() == 0) {
+				|| scoreboard.getMutantCount() < scoreboard.getTestCount() * AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_TEST_MUTANT_RELATION).getFloatValue()
+				|| scoreboard.getMutantCount() == 0
+				|| scoreboard.getAliveMutantCount() == 0) {
 			logger.info("AI-Defender doing nothing due to game scores or test-mutant relation.");
 			return false;
 		}
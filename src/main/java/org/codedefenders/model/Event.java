@@ -19,6 +19,7 @@
 package org.codedefenders.model;
 
 import org.codedefenders.database.UserDAO;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Role;
 import org.codedefenders.database.DB;
 import org.codedefenders.database.DatabaseValue;
@@ -122,37 +123,30 @@ public class Event {
 		chatMessage = message;
 	}
 
+	String getUnparsedChatMessage() {
+		return chatMessage;
+	}
+
 	public String parse(HashMap<String, String> replacements, String message,
 	                    boolean emphasise) {
 
 		String procMessage = message;
 
 		for (String s : replacements.keySet()) {
-			procMessage = procMessage.replace(s, replacements.get(s));
-		}
-
-		if (procMessage.contains("@event_user")) {
-			User user = getUser();
-			procMessage = procMessage.replace("@event_user",
-					user != null ? user.printFriendly(ROLE_COLORS.get(role)) :
-							"<span style='color:#000000'>@Unknown</span>");
+			procMessage = EventMessageTemplate.replace(procMessage, s, replacements.get(s));
 		}
 
-		if (procMessage.contains("@chat_message")) {
-			procMessage = procMessage.replace("@chat_message",
-					getChatMessage());
-		} else if (emphasise) {
-			procMessage = "<span style='font-style: italic; font-weight: " +
-					"bold;'>" + procMessage +
-					"</span>";
-		}
+		return render(EventMessageTemplate.compile(procMessage), emphasise);
+	}
 
-		if (currentUserName.length() > 0 && procMessage.contains
-				(currentUserName)) {
-			procMessage = procMessage.replace(currentUserName, "@You");
-		}
+	private String render(EventMessageTemplate template, boolean emphasise) {
+		return replaceCurrentUserName(template.render(this, emphasise), currentUserName);
+	}
 
-		return procMessage;
+	String getFriendlyUser() {
+		User user = getUser();
+		return user != null ? user.printFriendly(ROLE_COLORS.get(role)) :
+				"<span style='color:#000000'>@Unknown</span>";
 	}
 
 	public String getChatMessage() {
@@ -160,8 +154,9 @@ public class Event {
 			return "";
 		}
 		if (parsedChatMessage == null) {
-			parsedChatMessage = parse(new HashMap<String, String>(),
-					chatMessage, false);
+			// chat messages are not templates themselves, @chat_message stays as it is
+			parsedChatMessage = replaceCurrentUserName(EventMessageTemplate.compile(chatMessage)
+					.render(this, false, EventMessageTemplate.CHAT_MESSAGE), currentUserName);
 		}
 		return parsedChatMessage;
 	}
@@ -172,7 +167,19 @@ public class Event {
 	}
 
 	public void parse(boolean emphasise) {
-		parse(new HashMap<String, String>(), emphasise);
+		parse(EventMessageTemplate.compile(message), emphasise);
+	}
+
+	/**
+	 * Parses the message of this event from the given compiled message, which
+	 * should be compiled from {@link #getMessage()}, and replaces the current
+	 * user's name with {@code @You}.
+	 *
+	 * @param template the compiled message.
+	 * @param emphasise whether a message without chat message is emphasised.
+	 */
+	public void parse(EventMessageTemplate template, boolean emphasise) {
+		this.parsedMessage = render(template, emphasise);
 	}
 
 	public String getMessage() {
@@ -241,6 +248,9 @@ public class Event {
 				stmt = DB.createPreparedStatement(conn, query, valueList);
 				DB.executeUpdate(stmt, conn);
 			}
+			EventBuffers.add(this);
+			GameVersions.bump(gameId);
+			GameEventBus.publishEvent(this);
 		}
 		return eventId >= 0;
 	}
@@ -256,7 +266,11 @@ public class Event {
 				DatabaseValue.of((Long) time.getTime()),
 				DatabaseValue.of(eventId)};
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
-		return DB.executeUpdate(stmt, conn);
+		final boolean updated = DB.executeUpdate(stmt, conn);
+		// the event may have moved to another game, user or status
+		EventBuffers.invalidateAll();
+		GameVersions.bumpAll();
+		return updated;
 	}
 
 	public final static Comparator<Event> MAX_ID_COMPARATOR = new Comparator<Event>() {
@@ -269,4 +283,45 @@ public class Event {
 	public int getId() {
 		return this.eventId;
 	}
+
+	public int getGameId() {
+		return gameId;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public Timestamp getTime() {
+		return time;
+	}
+
+	public Role getRole() {
+		return role;
+	}
+
+	/**
+	 * Creates a copy of this parsed event for the given user. In the parsed messages
+	 * of the copy, the user's name is replaced by {@code @You}, like in {@link #parse(boolean)}.
+	 * This way, an event can be parsed once and then be shown to different users.
+	 *
+	 * @param currentUserName the name of the user, prefixed by {@code @}.
+	 * @return the copy.
+	 */
+	public Event copyForUser(String currentUserName) {
+		final Event copy = new Event(eventId, gameId, userId, message, eventType, eventStatus, time);
+		copy.user = user;
+		copy.currentUserName = currentUserName;
+		copy.chatMessage = chatMessage;
+		copy.parsedChatMessage = replaceCurrentUserName(parsedChatMessage, currentUserName);
+		copy.parsedMessage = replaceCurrentUserName(parsedMessage, currentUserName);
+		return copy;
+	}
+
+	private static String replaceCurrentUserName(String parsedMessage, String currentUserName) {
+		if (currentUserName == null) {
+			return parsedMessage;
+		}
+		return EventMessageTemplate.replace(parsedMessage, currentUserName, "@You");
+	}
 }
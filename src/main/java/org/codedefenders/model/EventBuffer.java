@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.codedefenders.game.Role;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * A bounded buffer of the most recent {@link Event Events} of one game or one user,
+ * ordered by their identifiers. Once the buffer is full, the oldest event is dropped.
+ * <p>
+ * The buffer knows the window of events it contains completely: all events after
+ * {@link #getWindowStartId()} and all events at or after {@link #getWindowStartTime()}.
+ * Lookups outside this window return {@code null}, so callers can fall back to the database.
+ * <p>
+ * Buffered events are shared and must not be modified, use {@link Event#copyForUser(String)}.
+ *
+ * @see EventBuffers
+ */
+public class EventBuffer {
+    private final int capacity;
+    private final LinkedList<Event> events = new LinkedList<>();
+
+    private int windowStartId;
+    private long windowStartTime;
+
+    /**
+     * Creates an empty buffer, which will contain all events after the given event identifier
+     * and all events created at or after the given time.
+     *
+     * @param capacity        the maximum number of buffered events.
+     * @param windowStartId   the identifier after which all events will be added to this buffer.
+     * @param windowStartTime the time in milliseconds from which on all events will be added to this buffer.
+     */
+    public EventBuffer(int capacity, int windowStartId, long windowStartTime) {
+        this.capacity = capacity;
+        this.windowStartId = windowStartId;
+        this.windowStartTime = windowStartTime;
+    }
+
+    /**
+     * Adds an event to the buffer. Events with identifiers before the window are ignored.
+     *
+     * @param event the stored event, with its identifier and timestamp set.
+     */
+    public synchronized void add(Event event) {
+        if (event.getId() <= windowStartId) {
+            return;
+        }
+        // Concurrently stored events can be added out of order
+        final ListIterator<Event> iterator = events.listIterator(events.size());
+        while (iterator.hasPrevious()) {
+            if (iterator.previous().getId() < event.getId()) {
+                iterator.next();
+                break;
+            }
+        }
+        iterator.add(event);
+
+        while (events.size() > capacity) {
+            final Event dropped = events.removeFirst();
+            windowStartId = Math.max(windowStartId, dropped.getId());
+            windowStartTime = Math.max(windowStartTime, EventBuffers.nextSecond(getTime(dropped)));
+        }
+    }
+
+    /**
+     * Returns the buffered events after the given event identifier.
+     *
+     * @param lastEventId the identifier of the last event the caller knows.
+     * @return the events, ordered by their identifiers, or {@code null}
+     * if the events after the given identifier are not completely buffered.
+     */
+    public synchronized List<Event> getAfter(int lastEventId) {
+        if (lastEventId < windowStartId) {
+            return null;
+        }
+        final List<Event> result = new ArrayList<>();
+        for (Event event : events) {
+            if (event.getId() > lastEventId) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the buffered events after the given event identifier which can be seen by the given role.
+     * Attackers do not see messages of the defenders' chat and vice versa.
+     *
+     * @param lastEventId the identifier of the last event the caller knows.
+     * @param role        the role of the player in the game.
+     * @return the events, ordered by their identifiers, or {@code null}
+     * if the events after the given identifier are not completely buffered.
+     */
+    public List<Event> getAfter(int lastEventId, Role role) {
+        final List<Event> result = getAfter(lastEventId);
+        if (result != null) {
+            result.removeIf(event -> !isVisibleFor(event, role));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the buffered events created at or after the given time.
+     *
+     * @param time the time in milliseconds.
+     * @return the events, ordered by their identifiers, or {@code null}
+     * if the events since the given time are not completely buffered.
+     */
+    public synchronized List<Event> getSince(long time) {
+        if (time < windowStartTime) {
+            return null;
+        }
+        final List<Event> result = new ArrayList<>();
+        for (Event event : events) {
+            if (getTime(event) >= time) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int getWindowStartId() {
+        return windowStartId;
+    }
+
+    public synchronized long getWindowStartTime() {
+        return windowStartTime;
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    /**
+     * @return whether the given role can see the given game event.
+     */
+    static boolean isVisibleFor(Event event, Role role) {
+        if (role == Role.ATTACKER) {
+            return event.getEventType() != EventType.DEFENDER_MESSAGE;
+        } else if (role == Role.DEFENDER) {
+            return event.getEventType() != EventType.ATTACKER_MESSAGE;
+        }
+        return true;
+    }
+
+    private static long getTime(Event event) {
+        return event.getTime() == null ? 0 : event.getTime().getTime();
+    }
+}
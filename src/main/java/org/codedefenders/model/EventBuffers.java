@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.game.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Answers the event requests of clients from {@link EventBuffer EventBuffers} of the most
+ * recent events of each game and user, and only falls back to the database if
+ * a request asks for events outside of the buffered window.
+ * <p>
+ * {@link Event#insert()} adds every stored event to the buffers, parsed once with
+ * the same message as it would be read from the database. The messages of all event types
+ * are compiled once into {@link EventMessageTemplate EventMessageTemplates}. Requests receive copies of
+ * the parsed events with their user name replaced, see {@link Event#copyForUser(String)}.
+ * <p>
+ * Since {@link Event#insert()} is the only way events are created, a game or user without
+ * a buffer has no events since the buffers were started. This only holds for a single
+ * application instance. Evicting or invalidating a buffer moves the start of the window
+ * of games and users without a buffer to the current event.
+ */
+public class EventBuffers {
+    private static final Logger logger = LoggerFactory.getLogger(EventBuffers.class);
+
+    private static final int GAME_BUFFER_CAPACITY = 100;
+    private static final int USER_BUFFER_CAPACITY = 20;
+    private static final int MAX_GAME_BUFFERS = 200;
+    private static final int MAX_USER_BUFFERS = 1000;
+
+    /**
+     * Equivalence duel events are pushed to the clients for this long after they were created.
+     */
+    private static final long PUSH_EVENT_TIME = TimeUnit.MINUTES.toMillis(5);
+    private static final Set<EventType> PUSH_EVENT_TYPES = EnumSet.of(
+            EventType.DEFENDER_MUTANT_CLAIMED_EQUIVALENT,
+            EventType.DEFENDER_MUTANT_EQUIVALENT,
+            EventType.ATTACKER_MUTANT_KILLED_EQUIVALENT);
+
+    private static final Map<Integer, EventBuffer> gameBuffers = createBufferMap(MAX_GAME_BUFFERS);
+    private static final Map<Integer, EventBuffer> pushBuffers = createBufferMap(MAX_GAME_BUFFERS);
+    private static final Map<Integer, EventBuffer> userBuffers = createBufferMap(MAX_USER_BUFFERS);
+
+    /**
+     * Window of games and users without a buffer. The identifier is unknown until the first event was added.
+     */
+    private static int windowStartId = -1;
+    private static long windowStartTime = nextSecond(System.currentTimeMillis());
+    private static int lastAddedId = -1;
+
+    private static volatile Map<EventType, EventMessageTemplate> eventTemplates;
+
+    private EventBuffers() {
+    }
+
+    /**
+     * Adds a stored event to the buffers of its game or user.
+     *
+     * @param event the stored event, with its identifier set.
+     */
+    static void add(Event event) {
+        try {
+            if (event.getEventStatus() == EventStatus.GAME) {
+                final Event parsed = parse(event, getEventTemplates().get(event.getEventType()));
+                add(gameBuffers, event.getGameId(), parsed, GAME_BUFFER_CAPACITY);
+                if (PUSH_EVENT_TYPES.contains(event.getEventType())) {
+                    add(pushBuffers, event.getGameId(),
+                            parse(event, EventMessageTemplate.compile(event.getMessage())), GAME_BUFFER_CAPACITY);
+                }
+            } else if (event.getEventStatus() != EventStatus.DELETED) {
+                final Event parsed = parse(event, getEventTemplates().get(event.getEventType()));
+                add(userBuffers, event.getUserId(), parsed, USER_BUFFER_CAPACITY);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to buffer event " + event.getId() + ". Invalidating event buffers.", e);
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Retrieves the game events after the given event, as
+     * {@link DatabaseAccess#getNewEventsForGame(int, int, Role)}, parsed for the given user.
+     *
+     * @param gameId          the identifier of the game.
+     * @param lastEventId     the identifier of the last received event.
+     * @param role            the role of the requesting player.
+     * @param currentUserName the name of the requesting user, prefixed by {@code @}.
+     * @return the parsed events.
+     */
+    public static List<Event> getNewEventsForGame(int gameId, int lastEventId, Role role, String currentUserName) {
+        List<Event> events;
+        synchronized (EventBuffers.class) {
+            final EventBuffer buffer = gameBuffers.get(gameId);
+            if (buffer != null) {
+                events = buffer.getAfter(lastEventId, role);
+            } else {
+                events = windowStartId >= 0 && lastEventId >= windowStartId ? new ArrayList<>() : null;
+            }
+        }
+        if (events == null) {
+            return parseForUser(DatabaseAccess.getNewEventsForGame(gameId, lastEventId, role), currentUserName);
+        }
+        return copyForUser(events, currentUserName);
+    }
+
+    /**
+     * Retrieves the equivalence duel events of the last five minutes after the given event, as
+     * {@link DatabaseAccess#getNewEquivalenceDuelEventsForGame(int, int)}, parsed for the given user.
+     *
+     * @param gameId          the identifier of the game.
+     * @param lastMessageId   the identifier of the last received event.
+     * @param currentUserName the name of the requesting user, prefixed by {@code @}.
+     * @return the parsed events.
+     */
+    public static List<Event> getNewEquivalenceDuelEventsForGame(int gameId, int lastMessageId, String currentUserName) {
+        final long since = System.currentTimeMillis() - PUSH_EVENT_TIME;
+        List<Event> events;
+        synchronized (EventBuffers.class) {
+            final EventBuffer buffer = pushBuffers.get(gameId);
+            if (buffer != null) {
+                events = buffer.getAfter(lastMessageId);
+                if (events == null) {
+                    events = buffer.getSince(since);
+                }
+            } else {
+                final boolean complete = (windowStartId >= 0 && lastMessageId >= windowStartId) || since >= windowStartTime;
+                events = complete ? new ArrayList<>() : null;
+            }
+        }
+        if (events == null) {
+            return parseForUser(DatabaseAccess.getNewEquivalenceDuelEventsForGame(gameId, lastMessageId), currentUserName);
+        }
+        return copyForUser(events.stream()
+                .filter(event -> event.getId() > lastMessageId && getTime(event) >= since)
+                .collect(Collectors.toList()), currentUserName);
+    }
+
+    /**
+     * Retrieves the user events created since the given time, as
+     * {@link DatabaseAccess#getNewEventsForUser(int, long)}, parsed for the given user.
+     *
+     * @param userId          the identifier of the user.
+     * @param time            the time in seconds.
+     * @param currentUserName the name of the requesting user, prefixed by {@code @}.
+     * @return the parsed events.
+     */
+    public static List<Event> getNewEventsForUser(int userId, long time, String currentUserName) {
+        final long timeMillis = time * 1000;
+        List<Event> events;
+        synchronized (EventBuffers.class) {
+            final EventBuffer buffer = userBuffers.get(userId);
+            if (buffer != null) {
+                events = buffer.getSince(timeMillis);
+            } else {
+                events = timeMillis >= windowStartTime ? new ArrayList<>() : null;
+            }
+        }
+        if (events == null) {
+            return parseForUser(DatabaseAccess.getNewEventsForUser(userId, time), currentUserName);
+        }
+        return copyForUser(events, currentUserName);
+    }
+
+    /**
+     * Removes all buffered events, e.g. after events were modified in the database.
+     */
+    public static synchronized void invalidateAll() {
+        gameBuffers.clear();
+        pushBuffers.clear();
+        userBuffers.clear();
+        moveWindowStart();
+    }
+
+    private static synchronized void add(Map<Integer, EventBuffer> buffers, int key, Event event, int capacity) {
+        if (windowStartId < 0) {
+            windowStartId = event.getId() - 1;
+        }
+        lastAddedId = Math.max(lastAddedId, event.getId());
+        buffers.computeIfAbsent(key, k -> new EventBuffer(capacity, windowStartId, windowStartTime)).add(event);
+    }
+
+    private static void moveWindowStart() {
+        windowStartId = Math.max(windowStartId, lastAddedId);
+        windowStartTime = Math.max(windowStartTime, nextSecond(System.currentTimeMillis()));
+    }
+
+    /**
+     * Parses an event for all users, with the compiled message it would have when read from the database.
+     */
+    private static Event parse(Event event, EventMessageTemplate template) {
+        if (template == null) {
+            throw new IllegalStateException("No message for event type " + event.getEventType());
+        }
+        final Event parsed = new Event(event.getId(), event.getGameId(), event.getUserId(), template.getMessage(),
+                event.getEventType(), event.getEventStatus(), event.getTime());
+        parsed.setChatMessage(event.getUnparsedChatMessage());
+        parsed.parse(template, event.getEventStatus() == EventStatus.GAME);
+        return parsed;
+    }
+
+    private static List<Event> parseForUser(List<Event> events, String currentUserName) {
+        for (Event event : events) {
+            event.setCurrentUserName(currentUserName);
+            event.parse(EventMessageTemplate.compile(event.getMessage()), event.getEventStatus() == EventStatus.GAME);
+        }
+        return events;
+    }
+
+    private static List<Event> copyForUser(List<Event> events, String currentUserName) {
+        return events.stream()
+                .map(event -> event.copyForUser(currentUserName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Compiles the messages of all event types once.
+     */
+    private static Map<EventType, EventMessageTemplate> getEventTemplates() {
+        Map<EventType, EventMessageTemplate> templates = eventTemplates;
+        if (templates == null) {
+            templates = new EnumMap<>(EventType.class);
+            for (Map.Entry<String, String> entry : DatabaseAccess.getEventMessages().entrySet()) {
+                try {
+                    templates.put(EventType.valueOf(entry.getKey()), EventMessageTemplate.compile(entry.getValue()));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown event type in event messages: " + entry.getKey());
+                }
+            }
+            eventTemplates = templates;
+        }
+        return templates;
+    }
+
+    private static long getTime(Event event) {
+        return event.getTime() == null ? 0 : event.getTime().getTime();
+    }
+
+    /**
+     * The database compares timestamps in seconds, so time windows start at full seconds.
+     */
+    static long nextSecond(long time) {
+        return (time / 1000 + 1) * 1000;
+    }
+
+    private static Map<Integer, EventBuffer> createBufferMap(int maxSize) {
+        return new LinkedHashMap<Integer, EventBuffer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, EventBuffer> eldest) {
+                if (size() > maxSize) {
+                    // the evicted game or user has no buffer anymore
+                    moveWindowStart();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An event message, e.g. {@code "@event_user created a mutant"}, compiled once into
+ * literal text and placeholders, so it can be rendered for many events without
+ * searching and replacing the placeholders each time.
+ * <p>
+ * Supported placeholders are {@code @event_user}, the user who created the event,
+ * and {@code @chat_message}, the chat message of the event. Rendered messages are the
+ * same as the messages of {@link Event#parse(boolean)}, before the current user's name
+ * is replaced.
+ */
+public class EventMessageTemplate {
+    static final String EVENT_USER = "@event_user";
+    static final String CHAT_MESSAGE = "@chat_message";
+
+    /**
+     * Marks a placeholder in {@link #parts}.
+     */
+    private enum Placeholder {
+        EVENT_USER, CHAT_MESSAGE
+    }
+
+    /**
+     * Literal {@link String Strings} and {@link Placeholder Placeholders}, in order.
+     */
+    private final String message;
+    private final List<Object> parts;
+    private final int literalLength;
+    private final boolean hasChatMessage;
+
+    private EventMessageTemplate(String message, List<Object> parts) {
+        this.message = message;
+        this.parts = parts;
+        int literalLength = 0;
+        boolean hasChatMessage = false;
+        for (Object part : parts) {
+            if (part instanceof String) {
+                literalLength += ((String) part).length();
+            } else if (part == Placeholder.CHAT_MESSAGE) {
+                hasChatMessage = true;
+            }
+        }
+        this.literalLength = literalLength;
+        this.hasChatMessage = hasChatMessage;
+    }
+
+    /**
+     * Compiles the given message.
+     *
+     * @param message the message, may be {@code null}.
+     * @return the compiled message, never {@code null}.
+     */
+    public static EventMessageTemplate compile(String message) {
+        if (message == null || message.isEmpty()) {
+            return new EventMessageTemplate(message, Collections.emptyList());
+        }
+        final List<Object> parts = new ArrayList<>();
+        int start = 0;
+        int index = message.indexOf('@');
+        while (index >= 0) {
+            final Placeholder placeholder;
+            final int length;
+            if (message.startsWith(EVENT_USER, index)) {
+                placeholder = Placeholder.EVENT_USER;
+                length = EVENT_USER.length();
+            } else if (message.startsWith(CHAT_MESSAGE, index)) {
+                placeholder = Placeholder.CHAT_MESSAGE;
+                length = CHAT_MESSAGE.length();
+            } else {
+                index = message.indexOf('@', index + 1);
+                continue;
+            }
+            if (index > start) {
+                parts.add(message.substring(start, index));
+            }
+            parts.add(placeholder);
+            start = index + length;
+            index = message.indexOf('@', start);
+        }
+        if (start < message.length()) {
+            parts.add(message.substring(start));
+        }
+        return new EventMessageTemplate(message, parts);
+    }
+
+    /**
+     * @return the message this template was compiled from.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return {@code true} if the message contains the {@code @chat_message} placeholder.
+     */
+    public boolean hasChatMessage() {
+        return hasChatMessage;
+    }
+
+    /**
+     * Renders the message for the given event.
+     *
+     * @param event     the event, which provides the user and the chat message.
+     * @param emphasise whether messages without a chat message are emphasised.
+     * @return the rendered message, or {@code null} if the template was compiled from {@code null}.
+     */
+    public String render(Event event, boolean emphasise) {
+        return render(event, emphasise, hasChatMessage ? event.getChatMessage() : "");
+    }
+
+    /**
+     * Renders the message for the given event with the given chat message.
+     */
+    String render(Event event, boolean emphasise, String chatMessage) {
+        if (message == null) {
+            return null;
+        }
+        if (parts.size() == 1 && parts.get(0) instanceof String && !emphasise) {
+            return (String) parts.get(0);
+        }
+        final String user = parts.contains(Placeholder.EVENT_USER) ? event.getFriendlyUser() : "";
+
+        final StringBuilder result = new StringBuilder(literalLength + user.length() + chatMessage.length() + 64);
+        final boolean emphasised = emphasise && !hasChatMessage;
+        if (emphasised) {
+            result.append("<span style='font-style: italic; font-weight: bold;'>");
+        }
+        for (Object part : parts) {
+            if (part == Placeholder.EVENT_USER) {
+                result.append(user);
+            } else if (part == Placeholder.CHAT_MESSAGE) {
+                result.append(chatMessage);
+            } else {
+                result.append((String) part);
+            }
+        }
+        if (emphasised) {
+            result.append("</span>");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Replaces all occurrences of {@code target} in the given text. Unlike {@link String#replace(CharSequence,
+     * CharSequence)}, this compiles no pattern and returns the given text itself if it does not contain the target.
+     *
+     * @param text        the text, may be {@code null}.
+     * @param target      the replaced text, may be empty.
+     * @param replacement the replacement.
+     * @return the text with all occurrences replaced.
+     */
+    public static String replace(String text, String target, String replacement) {
+        if (text == null || target.isEmpty()) {
+            return text;
+        }
+        int index = text.indexOf(target);
+        if (index < 0) {
+            return text;
+        }
+        final StringBuilder result = new StringBuilder(text.length() + 16);
+        int start = 0;
+        while (index >= 0) {
+            result.append(text, start, index).append(replacement);
+            start = index + target.length();
+            index = text.indexOf(target, start);
+        }
+        return result.append(text, start, text.length()).toString();
+    }
+}
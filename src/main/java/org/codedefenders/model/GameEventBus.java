@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-process publish/subscribe channel for changes in a game, used to push
+ * {@link Event Events} and progress bar updates to clients instead of having them poll.
+ * <p>
+ * {@link Event#insert()} publishes every stored event of a game and storing a
+ * {@link org.codedefenders.execution.TargetExecution TargetExecution} publishes a progress update.
+ * <p>
+ * Listeners are called on the publishing thread, i.e. while a request stores the event,
+ * so they must return quickly and must not access the database themselves.
+ * <p>
+ * Only listeners in the same application instance are notified.
+ *
+ * @see org.codedefenders.servlets.events.GameEventStream
+ */
+public class GameEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(GameEventBus.class);
+
+    private static final Map<Integer, Set<Listener>> listeners = new ConcurrentHashMap<>();
+
+    private GameEventBus() {
+    }
+
+    /**
+     * Registers a listener for the given game.
+     *
+     * @param gameId   the identifier of the game.
+     * @param listener the listener.
+     */
+    public static void subscribe(int gameId, Listener listener) {
+        listeners.compute(gameId, (id, gameListeners) -> {
+            if (gameListeners == null) {
+                gameListeners = ConcurrentHashMap.newKeySet();
+            }
+            gameListeners.add(listener);
+            return gameListeners;
+        });
+    }
+
+    /**
+     * Removes a listener registered with {@link #subscribe(int, Listener)}.
+     */
+    public static void unsubscribe(int gameId, Listener listener) {
+        listeners.computeIfPresent(gameId, (id, gameListeners) -> {
+            gameListeners.remove(listener);
+            return gameListeners.isEmpty() ? null : gameListeners;
+        });
+    }
+
+    /**
+     * @return {@code true} if any listener is registered, {@code false} otherwise.
+     */
+    public static boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Notifies the listeners of the event's game about the stored event.
+     *
+     * @param event the stored event.
+     */
+    public static void publishEvent(Event event) {
+        final Set<Listener> gameListeners = listeners.get(event.getGameId());
+        if (gameListeners == null) {
+            return;
+        }
+        for (Listener listener : gameListeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                logger.warn("Listener failed to handle event " + event.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of the given game that the progress of a submission changed.
+     *
+     * @param gameId the identifier of the game.
+     */
+    public static void publishProgress(int gameId) {
+        final Set<Listener> gameListeners = listeners.get(gameId);
+        if (gameListeners == null) {
+            return;
+        }
+        for (Listener listener : gameListeners) {
+            try {
+                listener.onProgress();
+            } catch (RuntimeException e) {
+                logger.warn("Listener failed to handle progress update of game " + gameId, e);
+            }
+        }
+    }
+
+    /**
+     * Receives the changes of a game.
+     */
+    public interface Listener {
+        /**
+         * Called after an event of the game was stored.
+         */
+        default void onEvent(Event event) {
+        }
+
+        /**
+         * Called after the execution status of a submission in the game changed.
+         */
+        default void onProgress() {
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.codedefenders.model;
 import org.codedefenders.database.DB;
 import org.codedefenders.database.DatabaseAccess;
 import org.codedefenders.database.DatabaseValue;
+import org.codedefenders.database.UserDAO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -104,7 +105,9 @@ public class User {
 				DatabaseValue.of(active),
 				DatabaseValue.of(id)};
 		PreparedStatement stmt = DB.createPreparedStatement(conn, query, valueList);
-		return DB.executeUpdate(stmt, conn);
+		final boolean updated = DB.executeUpdate(stmt, conn);
+		UserDAO.invalidateUser(id);
+		return updated;
 	}
 
 	public boolean isValidated() {
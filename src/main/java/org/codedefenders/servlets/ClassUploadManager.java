@@ -18,11 +18,16 @@
  */
 package org.codedefenders.servlets;
 
-import org.apache.commons.fileupload.FileItem;
+import com.google.gson.Gson;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
 import org.apache.commons.fileupload.FileUploadException;
-import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.codedefenders.database.DependencyDAO;
 import org.codedefenders.database.GameClassDAO;
 import org.codedefenders.database.KillmapDAO;
@@ -32,8 +37,7 @@ import org.codedefenders.database.UncheckedSQLException;
 import org.codedefenders.execution.AntRunner;
 import org.codedefenders.execution.CompileException;
 import org.codedefenders.execution.Compiler;
-import org.codedefenders.execution.KillMap;
-import org.codedefenders.execution.KillMap.KillMapEntry;
+import org.codedefenders.execution.KillMap.KillMapJob;
 import org.codedefenders.execution.LineCoverageGenerator;
 import org.codedefenders.game.GameClass;
 import org.codedefenders.game.LineCoverage;
@@ -45,12 +49,15 @@ import org.codedefenders.util.Constants;
 import org.codedefenders.util.FileUtils;
 import org.codedefenders.util.JavaFileObject;
 import org.codedefenders.util.ZipFileUtils;
+import org.codedefenders.util.analysis.CodeAnalysisCache;
 import org.codedefenders.validation.code.CodeValidator;
 import org.codedefenders.game.singleplayer.PrepareAI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -59,10 +66,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
-import java.util.zip.ZipFile;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipException;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -85,12 +99,69 @@ import static org.codedefenders.util.Constants.CUTS_TESTS_DIR;
 public class ClassUploadManager extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(ClassUploadManager.class);
 
+    private static final Gson gson = new Gson();
+
     private static List<String> reservedClassNames = Arrays.asList(
             "Test.java"
     );
 
+    /** Session attribute under which the {@link UploadProgress} of the current upload is stored. */
+    private static final String UPLOAD_PROGRESS = "uploadProgress";
+
+    /**
+     * Upper bound of threads used to compile and run the uploaded mutants and tests.
+     * Each upload gets its own pool, which is shut down once the upload is processed.
+     */
+    private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Maximum number of uploads, which are processed in the background at the same time. */
+    private static final int MAX_CONCURRENT_UPLOADS = 2;
+
+    /** Maximum size of an upload request in bytes. */
+    private static final long MAX_REQUEST_SIZE = 2 * ZipFileUtils.MAX_TOTAL_SIZE;
+
+    /**
+     * Aliases of the uploads, which were accepted but are not processed yet. The class of an upload is only
+     * stored once its {@link UploadJob} ran, so the alias is reserved here until then.
+     */
+    private static final Set<String> pendingAliases = ConcurrentHashMap.newKeySet();
+
+    /** Processes uploads in the background, see {@link UploadJob}. */
+    private ExecutorService uploadExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_UPLOADS);
+
+    @Override
+    public void destroy() {
+        uploadExecutor.shutdownNow();
+        super.destroy();
+    }
+
     @Override
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final HttpSession session = request.getSession();
+        UploadProgress progress = (UploadProgress) session.getAttribute(UPLOAD_PROGRESS);
+        if (request.getParameter("progress") != null) {
+            // Polled by the upload page while an upload is processed in the background.
+            if (progress == null) {
+                progress = new UploadProgress();
+            }
+            response.setContentType("application/json");
+            final PrintWriter out = response.getWriter();
+            out.print(gson.toJson(progress));
+            out.flush();
+            return;
+        }
+        if (progress != null && !progress.isRunning()) {
+            // Show the result of a finished upload once.
+            session.removeAttribute(UPLOAD_PROGRESS);
+            @SuppressWarnings("unchecked")
+            List<String> messages = (List<String>) session.getAttribute("messages");
+            if (messages == null) {
+                messages = new ArrayList<>();
+                session.setAttribute("messages", messages);
+            }
+            messages.addAll(progress.getMessages());
+        }
+        request.setAttribute("uploadInProgress", progress != null && progress.isRunning());
         RequestDispatcher dispatcher = request.getRequestDispatcher(Constants.CLASS_UPLOAD_VIEW_JSP);
         dispatcher.forward(request, response);
     }
@@ -101,147 +172,158 @@ public class ClassUploadManager extends HttpServlet {
         HttpSession session = request.getSession();
         ArrayList<String> messages = new ArrayList<>();
         session.setAttribute("messages", messages);
+        final UploadProgress previousProgress = (UploadProgress) session.getAttribute(UPLOAD_PROGRESS);
+        if (previousProgress != null && previousProgress.isRunning()) {
+            logger.warn("Class upload rejected. Another upload of the same session is still processed.");
+            messages.add("Class upload failed. Please wait until your previous upload is processed.");
+            abortRequestAndCleanUp(request, response);
+            return;
+        }
+        final UploadProgress progress = new UploadProgress();
+        session.setAttribute(UPLOAD_PROGRESS, progress);
 
         logger.debug("Uploading CUT");
 
-        final List<CompiledClass> compiledClasses = new LinkedList<>();
-
         boolean isMockingEnabled = false;
         boolean shouldPrepareAI = false;
 
         // Alias of the CUT
         String classAlias = null;
-        // Used to check whether multiple CUTs are uploaded.
-        final int cutId;
         // Used to check whether mutants have the same name as the class under test.
         final String cutFileName;
         // The directory in which the CUT is saved in.
         final Path cutDir;
-        // Used to run calculate line coverage for tests
-        final GameClass cut;
-        // flag whether upload is with dependencies or not
-        boolean withDependencies = false;
-
-        // Get actual parameters, because of the upload component, I can't do
-        // request.getParameter before fetching the file
-        List<FileItem> items;
-        try {
-            if (servletFileUpload == null) {
-                items = new ServletFileUpload(new DiskFileItemFactory()).parseRequest(request);
-            } else {
-                items = servletFileUpload.parseRequest(request);
-            }
-        } catch (FileUploadException e) {
-            logger.error("Failed to upload class. Failed to get file upload parameters.", e);
-            Redirect.redirectBack(request, response);
-            return;
-        }
-
-        // Splits request parameters by FileItem#isFormField into
-        // upload and file parameters to ensure that all upload parameters
-        // set before storing files.
-        final Map<Boolean, List<FileItem>> parameters = items.stream().collect(Collectors.partitioningBy(FileItem::isFormField));
-        final List<FileItem> uploadParameters = parameters.get(true);
-        final List<FileItem> fileParameters = parameters.get(false);
-
-        for (FileItem uploadParameter : uploadParameters) {
-            final String fieldName = uploadParameter.getFieldName();
-            final String fieldValue = uploadParameter.getString();
-            logger.debug("Upload parameter {" + fieldName + ":" + fieldValue + "}");
-            switch (fieldName) {
-                case "classAlias":
-                    classAlias = fieldValue;
-                    if (!validateAlias(classAlias)) {
-                        logger.error("Class upload failed. Provided alias '{}' contained whitespaces or special characters. Aborting.", classAlias);
-                        messages.add("Class upload failed. Alias must not contain whitespaces or special characters.");
-                        abortRequestAndCleanUp(request, response);
-                        return;
-                    }
-                    break;
-                case "prepareForSingle":
-                    // TODO Phil: legacy, will this be used in the future? (look TODO below)
-                    shouldPrepareAI = true;
-                    break;
-                case "enableMocking":
-                    isMockingEnabled = true;
-                    break;
-                default:
-                    logger.warn("Unrecognized parameter: " + fieldName);
-                    break;
-            }
-        }
 
+        // Form fields and files are read while the multipart request is streamed.
+        // Zip files are extracted directly from the request stream, without storing them first.
         SimpleFile cutFile = null;
-        SimpleFile dependenciesZipFile = null;
-        SimpleFile mutantsZipFile = null;
-        SimpleFile testsZipFile = null;
-
-        for (FileItem fileParameter : fileParameters) {
-            final String fieldName = fileParameter.getFieldName();
-            final String fileName = FilenameUtils.getName(fileParameter.getName());
-            logger.info("Upload file parameter {" + fieldName + ":" + fileName + "}");
-            if (fileName == null || fileName.isEmpty()) {
-                // even if no file is uploaded, the fieldname is given, but no filename -> skip
-                continue;
-            }
-            byte[] fileContentBytes = fileParameter.get();
-            if (fileContentBytes.length == 0) {
-                logger.error("Class upload failed. Given file {} was empty", fileName);
-                messages.add("Class upload failed. File content for " + fileName + " could not be read. Please try again.");
-                abortRequestAndCleanUp(request, response);
-                return;
-            }
+        UploadedZipFile dependenciesZipFile = null;
+        UploadedZipFile mutantsZipFile = null;
+        UploadedZipFile testsZipFile = null;
 
-            switch (fieldName) {
-                case "fileUploadCUT": {
-                    if (cutFile != null) {
-                        // Upload of second CUT? Abort
-                        logger.error("Class upload failed. Multiple classes under test uploaded.");
-                        messages.add("Class upload failed. Multiple classes under test uploaded.");
-                        abortRequestAndCleanUp(request, response);
-                        return;
+        try {
+            final FileItemIterator items = getServletFileUpload().getItemIterator(request);
+            while (items.hasNext()) {
+                final FileItemStream item = items.next();
+                final String fieldName = item.getFieldName();
+
+                if (item.isFormField()) {
+                    final String fieldValue = Streams.asString(item.openStream());
+                    logger.debug("Upload parameter {" + fieldName + ":" + fieldValue + "}");
+                    switch (fieldName) {
+                        case "classAlias":
+                            classAlias = fieldValue;
+                            if (!validateAlias(classAlias)) {
+                                logger.error("Class upload failed. Provided alias '{}' contained whitespaces or special characters. Aborting.", classAlias);
+                                messages.add("Class upload failed. Alias must not contain whitespaces or special characters.");
+                                abortRequestAndCleanUp(request, response);
+                                return;
+                            }
+                            break;
+                        case "prepareForSingle":
+                            // TODO Phil: legacy, will this be used in the future? (look TODO below)
+                            shouldPrepareAI = true;
+                            break;
+                        case "enableMocking":
+                            isMockingEnabled = true;
+                            break;
+                        default:
+                            logger.warn("Unrecognized parameter: " + fieldName);
+                            break;
                     }
-                    cutFile = new SimpleFile(fileName, fileContentBytes);
-                    break;
+                    continue;
                 }
-                case "fileUploadDependency": {
-                    if (dependenciesZipFile != null) {
-                        // Upload of second dependency ZIP file? Abort
-                        logger.error("Class upload failed. Multiple dependency ZIP files uploaded.");
-                        messages.add("Class upload failed. Multiple dependency ZIP files uploaded.");
-                        abortRequestAndCleanUp(request, response);
-                        return;
-                    }
-                    dependenciesZipFile = new SimpleFile(fileName, fileContentBytes);
-                    withDependencies = true;
-                    break;
+
+                final String fileName = FilenameUtils.getName(item.getName());
+                logger.info("Upload file parameter {" + fieldName + ":" + fileName + "}");
+                if (fileName == null || fileName.isEmpty()) {
+                    // even if no file is uploaded, the fieldname is given, but no filename -> skip
+                    continue;
                 }
-                case "fileUploadMutant": {
-                    if (mutantsZipFile != null) {
-                        // Upload of second mutant ZIP file? Abort
-                        logger.error("Class upload failed. Multiple mutant ZIP files uploaded.");
-                        messages.add("Class upload failed. Multiple mutant ZIP files uploaded.");
-                        abortRequestAndCleanUp(request, response);
-                        return;
+
+                switch (fieldName) {
+                    case "fileUploadCUT": {
+                        if (cutFile != null) {
+                            // Upload of second CUT? Abort
+                            logger.error("Class upload failed. Multiple classes under test uploaded.");
+                            messages.add("Class upload failed. Multiple classes under test uploaded.");
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        final byte[] fileContentBytes;
+                        try (InputStream in = item.openStream()) {
+                            fileContentBytes = IOUtils.toByteArray(in);
+                        }
+                        if (fileContentBytes.length == 0) {
+                            logger.error("Class upload failed. Given file {} was empty", fileName);
+                            messages.add("Class upload failed. File content for " + fileName + " could not be read. Please try again.");
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        cutFile = new SimpleFile(fileName, fileContentBytes);
+                        break;
                     }
-                    mutantsZipFile = new SimpleFile(fileName, fileContentBytes);
-                    break;
-                }
-                case "fileUploadTest": {
-                    if (testsZipFile != null) {
-                        // Upload of second test ZIP file? Abort
-                        logger.error("Class upload failed. Multiple test ZIP files uploaded.");
-                        messages.add("Class upload failed. Multiple test ZIP files uploaded.");
-                        abortRequestAndCleanUp(request, response);
-                        return;
+                    case "fileUploadDependency": {
+                        if (dependenciesZipFile != null) {
+                            // Upload of second dependency ZIP file? Abort
+                            logger.error("Class upload failed. Multiple dependency ZIP files uploaded.");
+                            messages.add("Class upload failed. Multiple dependency ZIP files uploaded.");
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        dependenciesZipFile = readZipFile(item, fileName, "Dependencies", messages);
+                        if (dependenciesZipFile == null) {
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        break;
                     }
-                    testsZipFile = new SimpleFile(fileName, fileContentBytes);
-                    break;
+                    case "fileUploadMutant": {
+                        if (mutantsZipFile != null) {
+                            // Upload of second mutant ZIP file? Abort
+                            logger.error("Class upload failed. Multiple mutant ZIP files uploaded.");
+                            messages.add("Class upload failed. Multiple mutant ZIP files uploaded.");
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        mutantsZipFile = readZipFile(item, fileName, "Mutants", messages);
+                        if (mutantsZipFile == null) {
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        break;
+                    }
+                    case "fileUploadTest": {
+                        if (testsZipFile != null) {
+                            // Upload of second test ZIP file? Abort
+                            logger.error("Class upload failed. Multiple test ZIP files uploaded.");
+                            messages.add("Class upload failed. Multiple test ZIP files uploaded.");
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        testsZipFile = readZipFile(item, fileName, "Tests", messages);
+                        if (testsZipFile == null) {
+                            abortRequestAndCleanUp(request, response);
+                            return;
+                        }
+                        break;
+                    }
+                    default:
+                        logger.warn("Unrecognized parameter: " + fieldName);
+                        break;
                 }
-                default:
-                    logger.warn("Unrecognized parameter: " + fieldName);
-                    break;
             }
+        } catch (FileUploadException e) {
+            logger.error("Failed to upload class. Failed to get file upload parameters.", e);
+            messages.add("Class upload failed. " + e.getMessage());
+            Redirect.redirectBack(request, response);
+            return;
+        } catch (FileUploadBase.FileUploadIOException e) {
+            // Thrown while streaming the request, e.g. when the request exceeds the maximum size.
+            logger.error("Failed to upload class. Failed to read file upload parameters.", e);
+            messages.add("Class upload failed. " + e.getCause().getMessage());
+            Redirect.redirectBack(request, response);
+            return;
         }
 
         if (cutFile == null) {
@@ -251,234 +333,137 @@ public class ClassUploadManager extends HttpServlet {
             return;
         }
 
-        final List<JavaFileObject> dependencies = new ArrayList<>();
-            final String fileName = cutFile.fileName;
-            final String fileContent = new String(cutFile.fileContent, Charset.forName("UTF-8")).trim();
-            if (!fileName.endsWith(".java")) {
-                logger.error("Class upload failed. Given file {} was not a .java file.", fileName);
-                messages.add("Class upload failed. The class under test must be a .java file.");
-                abortRequestAndCleanUp(request, response);
-                return;
-            }
-            if (reservedClassNames.contains(fileName)) {
-                logger.error("Class with reserved name uploaded. Aborting.");
-                messages.add("Class upload failed. " + fileName + " is a reserved class name, please rename your Java class.");
-                abortRequestAndCleanUp(request, response);
-                return;
-            }
-            cutFileName = fileName;
-            if (fileContent == null) {
-                logger.error("Class upload failed. Provided fileContent is null. That shouldn't happen.");
-                messages.add("Class upload failed. Internal error. Sorry about that!");
-                abortRequestAndCleanUp(request, response);
-                return;
-            }
+        final String fileName = cutFile.fileName;
+        final String fileContent = new String(cutFile.fileContent, Charset.forName("UTF-8")).trim();
+        if (!fileName.endsWith(".java")) {
+            logger.error("Class upload failed. Given file {} was not a .java file.", fileName);
+            messages.add("Class upload failed. The class under test must be a .java file.");
+            abortRequestAndCleanUp(request, response);
+            return;
+        }
+        if (reservedClassNames.contains(fileName)) {
+            logger.error("Class with reserved name uploaded. Aborting.");
+            messages.add("Class upload failed. " + fileName + " is a reserved class name, please rename your Java class.");
+            abortRequestAndCleanUp(request, response);
+            return;
+        }
+        cutFileName = fileName;
 
         if (classAlias == null || classAlias.equals("")) {
             classAlias = fileName.replace(".java", "");
         }
-        if (GameClassDAO.classExistsForAlias(classAlias)) {
-            logger.error("Class upload failed. Given alias {} was already used.", classAlias);
+        // Reserved until the upload job is done, or released below if the upload is not accepted.
+        if (!pendingAliases.add(classAlias)) {
+            logger.error("Class upload failed. Given alias {} is used by an upload which is processed.", classAlias);
             messages.add("Class upload failed. Given alias is already used.");
             abortRequestAndCleanUp(request, response);
             return;
         }
-
-        cutDir = Paths.get(CUTS_DIR, classAlias);
-        final String cutJavaFilePath;
+        boolean accepted = false;
         try {
-            cutJavaFilePath = FileUtils.storeFile(cutDir, fileName, fileContent).toString();
-        } catch (IOException e) {
-            logger.error("Class upload failed. Could not store java file " + fileName, e);
-            messages.add("Class upload failed. Internal error. Sorry about that!");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return;
-        }
-
-        final String cutClassFilePath;
-        final List<JavaFileReferences> dependencyReferences = new LinkedList<>();
-        if (!withDependencies) {
-            try {
-                cutClassFilePath = Compiler.compileJavaFileForContent(cutJavaFilePath, fileContent);
-            } catch (CompileException e) {
-                logger.error("Class upload failed. Could not compile {}!\n\n{}", fileName, e.getMessage());
-                messages.add("Class upload failed. Could not compile " + fileName + "!\n" + e.getMessage());
-
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
-                } catch (IllegalStateException e) {
-                    logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
+            if (GameClassDAO.classExistsForAlias(classAlias)) {
+                logger.error("Class upload failed. Given alias {} was already used.", classAlias);
+                messages.add("Class upload failed. Given alias is already used.");
+                abortRequestAndCleanUp(request, response);
+                return;
+            }
 
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
-                }
-            } else {
-                final String zipFileName = dependenciesZipFile.fileName;
-                final byte[] zipFileContent = dependenciesZipFile.fileContent;
-
-            if (!zipFileName.endsWith(".zip")) {
-                logger.error("Class upload failed. Given file {} was not a .zip file.", zipFileName);
-                messages.add("Class upload failed. Dependencies must be provided in a .zip file.");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
+            cutDir = Paths.get(CUTS_DIR, classAlias);
+            if (Files.exists(cutDir)) {
+                // Not created by this request, so it must not be removed when the upload fails.
+                logger.error("Class upload failed. Directory {} of alias {} already exists.", cutDir, classAlias);
+                messages.add("Class upload failed. Given alias is already used.");
+                abortRequestAndCleanUp(request, response);
                 return;
             }
 
+            final String cutJavaFilePath;
             try {
-                final ZipFile zip = ZipFileUtils.createZip(zipFileContent);
-
-                // The returned list contains the files, but without an actual file path, just names.
-                dependencies.addAll(ZipFileUtils.getFilesFromZip(zip, true));
+                cutJavaFilePath = FileUtils.storeFile(cutDir, fileName, fileContent).toString();
             } catch (IOException e) {
-                logger.error("Class upload failed. Failed to extract dependencies ZIP file.");
-                messages.add("Class upload failed. Failed to extract dependencies ZIP file.");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
+                logger.error("Class upload failed. Could not store java file " + fileName, e);
+                messages.add("Class upload failed. Internal error. Sorry about that!");
+                abortRequestAndCleanUp(request, response, cutDir);
                 return;
             }
-            for (int index = 0; index < dependencies.size(); index++) {
-                final JavaFileObject dependencyFile = dependencies.get(index);
-                final Path path = Paths.get(dependencyFile.getName());
-
-                final String dependencyFileName = path.getFileName().toString();
-                final String dependencyFileContent = dependencyFile.getContent();
 
-                if (!dependencyFileName.endsWith(".java")) {
-                    logger.error("Class upload failed. Given file {} was not a .java file.", dependencyFileName);
-                    messages.add("Class upload failed. Dependency must be a .java file.");
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
-                }
-                if (dependencyFileContent == null) {
-                    logger.error("Class upload failed. Provided fileContent is null. That shouldn't happen.");
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
-                }
+            // Dependencies with the actually stored file paths, required for the compilation of the CUT, mutants and tests.
+            final List<JavaFileObject> dependencies = new ArrayList<>();
+            final List<JavaFileReferences> dependencyReferences = new LinkedList<>();
+            if (dependenciesZipFile != null) {
+                for (JavaFileObject dependencyFile : dependenciesZipFile.files) {
+                    final String dependencyFileName = Paths.get(dependencyFile.getName()).getFileName().toString();
+                    final String dependencyFileContent = dependencyFile.getContent();
+
+                    if (!dependencyFileName.endsWith(".java")) {
+                        logger.error("Class upload failed. Given file {} was not a .java file.", dependencyFileName);
+                        messages.add("Class upload failed. Dependency must be a .java file.");
+                        abortRequestAndCleanUp(request, response, cutDir);
+                        return;
+                    }
+                    if (dependencyFileContent == null) {
+                        logger.error("Class upload failed. Provided fileContent is null. That shouldn't happen.");
+                        messages.add("Class upload failed. Internal error. Sorry about that!");
+                        abortRequestAndCleanUp(request, response, cutDir);
+                        return;
+                    }
 
-                final String depJavaFilePath;
-                try {
-                    final Path folderPath = cutDir.resolve(CUTS_DEPENDENCY_DIR);
-                    depJavaFilePath = FileUtils.storeFile(folderPath, dependencyFileName, dependencyFileContent).toString();
-                    final String depClassFilePath = depJavaFilePath.replace(".java", ".class");
-                    dependencyReferences.add(new JavaFileReferences(depJavaFilePath, depClassFilePath));
-                } catch (IOException e) {
-                    logger.error("Class upload failed. Could not store java file " + dependencyFileName, e);
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
+                    try {
+                        final Path folderPath = cutDir.resolve(CUTS_DEPENDENCY_DIR);
+                        final String depJavaFilePath = FileUtils.storeFile(folderPath, dependencyFileName, dependencyFileContent).toString();
+                        final String depClassFilePath = depJavaFilePath.replace(".java", ".class");
+                        dependencyReferences.add(new JavaFileReferences(depJavaFilePath, depClassFilePath));
+                        dependencies.add(new JavaFileObject(depJavaFilePath, dependencyFileContent));
+                    } catch (IOException e) {
+                        logger.error("Class upload failed. Could not store java file " + dependencyFileName, e);
+                        messages.add("Class upload failed. Internal error. Sorry about that!");
+                        abortRequestAndCleanUp(request, response, cutDir);
+                        return;
+                    }
                 }
-
-                // Update the existing dependency file with the actually stored file path.
-                // This is required for the compilation of mutants and tests.
-                dependencies.set(index, new JavaFileObject(depJavaFilePath, dependencyFileContent));
             }
 
-            try {
-                cutClassFilePath = Compiler.compileJavaFileWithDependencies(cutJavaFilePath, dependencies);
-            } catch (CompileException e) {
-                logger.error("Class upload failed. Could not compile {}!\n\n{}", fileName, e.getMessage());
-                messages.add("Class upload failed. Could not compile " + fileName + "!\n" + e.getMessage());
-
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                    return;
-                } catch (IllegalStateException e) {
-                    logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
+            List<JavaFileObject> mutantFiles = new ArrayList<>();
+            if (mutantsZipFile != null) {
+                mutantFiles = storeMutants(messages, cutFileName, cutDir, mutantsZipFile);
+                if (mutantFiles == null) {
+                    abortRequestAndCleanUp(request, response, cutDir);
                     return;
                 }
             }
 
-        String classQualifiedName;
-        try {
-            classQualifiedName = FileUtils.getFullyQualifiedName(cutClassFilePath);
-        } catch (IOException e) {
-            logger.error("Class upload failed. Could not get fully qualified name for " + fileName, e);
-            messages.add("Class upload failed. Internal error. Sorry about that!");
-
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return;
-        }
-
-        cut = new GameClass(classQualifiedName, classAlias, cutJavaFilePath, cutClassFilePath, isMockingEnabled);
-        try {
-            cutId = GameClassDAO.storeClass(cut);
-        } catch (Exception e) {
-            logger.error("Class upload failed. Could not store class to database.");
-            messages.add("Class upload failed. Internal error. Sorry about that!");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return;
-        }
-
-        compiledClasses.add(new CompiledClass(CompileClassType.CUT, cutId));
-
-        if (withDependencies) {
-            for (JavaFileReferences dep : dependencyReferences) {
-                final int depId;
-                try {
-                    depId = DependencyDAO.storeDependency(new Dependency(cutId, dep.javaFile, dep.classFile));
-                } catch (Exception e) {
-                    logger.error("Class upload failed. Could not store dependency class to database.");
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
+            List<JavaFileObject> testFiles = new ArrayList<>();
+            if (testsZipFile != null) {
+                testFiles = storeTests(messages, cutDir, testsZipFile);
+                if (testFiles == null) {
+                    abortRequestAndCleanUp(request, response, cutDir);
                     return;
                 }
-
-                compiledClasses.add(new CompiledClass(CompileClassType.DEPENDENCY, depId));
             }
-        }
 
-        if (mutantsZipFile != null) {
-            final boolean failed = addMutants(request, response, messages, compiledClasses, cutId, cutFileName, cutDir, mutantsZipFile, dependencies);
-            if (failed) {
-                // tests zip failed and abort method has been called.
+            // Compiling and running the uploaded files can take longer than the browser waits for a response,
+            // so this is done in the background. The upload page polls the progress until the job is done.
+            final UploadJob job = new UploadJob(progress, classAlias, cutFileName, cutDir, cutJavaFilePath, fileContent,
+                    isMockingEnabled, shouldPrepareAI, dependencies, dependencyReferences, mutantFiles, testFiles);
+            progress.start("Waiting for processing", 0);
+            try {
+                uploadExecutor.execute(job);
+            } catch (RejectedExecutionException e) {
+                logger.error("Class upload failed. Could not start processing the upload.", e);
+                messages.add("Class upload failed. Internal error. Sorry about that!");
+                session.removeAttribute(UPLOAD_PROGRESS);
+                abortRequestAndCleanUp(request, response, cutDir);
                 return;
             }
-        }
-
-        if (testsZipFile != null) {
-            final boolean failed = addTests(request, response, messages, compiledClasses, cutId, cutDir, cut, testsZipFile, dependencies);
-            if (failed) {
-                // tests zip failed and abort method has been called.
-                return;
+            accepted = true;
+        } finally {
+            if (!accepted) {
+                pendingAliases.remove(classAlias);
             }
         }
 
-        messages.add("Class upload successful.");
-        logger.info("Class upload of {} was successful", cutFileName);
-
-        // At this point if there's test and mutants we shall run them against each other.
-        // Since this is not happening in the context of a game we shall do it manually.
-        List<Mutant> mutants = GameClassDAO.getMappedMutantsForClassId(cutId);
-        List<Test> tests = GameClassDAO.getMappedTestsForClassId(cutId);
-        try {
-            // Custom Killmaps are not store in the DB for whatever reason,
-            // while we need that !
-            // Since gameID = -1, DAOs cannot find the class linked to this
-            // game, hence its if, which is needed instead inside mutants and
-            // tests
-            KillMap killMap = KillMap.forCustom(tests, mutants, cutId, new ArrayList<>(), true,
-                    // Since this is required. Make a default one.
-                    (t, u) -> true);
-            for (KillMapEntry entry : killMap.getEntries()) {
-                // TODO Phil 04/12/18: Batch insert instead of insert in a for loop
-                KillmapDAO.insertKillMapEntry(entry, cutId);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Could error while calculating killmap for successfully uploaded class.", e);
-        }
-
+        logger.info("Class upload of {} was accepted and is processed in the background.", cutFileName);
         Redirect.redirectBack(request, response);
-
-        // TODO Phil: Will this be used in the future? Looks like legacy code.
-        if (shouldPrepareAI) {
-            if (!PrepareAI.createTestsAndMutants(cut.getId(), false)) {
-                logger.error("Preparation of AI for class failed, please prepare the class again, or try a different class.");
-                messages.add("Preparation of AI for class failed, please prepare the class again, or try a different class.");
-            }
-        }
-
     }
 
     /**
@@ -493,49 +478,83 @@ public class ClassUploadManager extends HttpServlet {
     }
 
     /**
-     * Adds the contents of a given zip file as mutants uploaded together with
-     * a class under test.
+     * Extracts the java files of an uploaded zip file while the file is streamed
+     * from the request. If the file is not a valid zip file, a message is added
+     * for the user.
      *
-     * @param request         the request the mutants are added for.
-     * @param response        the response to the request.
-     * @param messages        messages which will be shown to the user, which made the request.
-     * @param compiledClasses a list of previously added CUT, tests and mutants,
-     *                        which need to get cleaned up once something fails.
-     * @param cutId           the identifier of the class under test.
-     * @param cutFileName     the file name of the class under test.
-     * @param cutDir          the directory in which the class under test lies.
-     * @param mutantsZipFile  the given zip file from which the mutants are added.
-     * @param dependencies    dependencies required to compile the mutants.
-     * @return {@code true} if addition fails, {@code fail} otherwise.
-     * @throws IOException when aborting the request fails.
+     * @param item        the uploaded file, which is read.
+     * @param fileName    the name of the uploaded file.
+     * @param description what the zip file contains, e.g. {@code Mutants}.
+     * @param messages    messages which will be shown to the user, which made the request.
+     * @return the extracted zip file, or {@code null} if the file is not a valid zip file.
+     * @throws IOException when reading the request fails.
      */
-    @SuppressWarnings("Duplicates")
-    private boolean addMutants(HttpServletRequest request, HttpServletResponse response, ArrayList<String> messages,
-                               List<CompiledClass> compiledClasses, int cutId, String cutFileName, Path cutDir,
-                               SimpleFile mutantsZipFile, List<JavaFileObject> dependencies) throws IOException {
-        boolean withDependencies = !dependencies.isEmpty();
-
-        final String zipFileName = mutantsZipFile.fileName;
-        final byte[] zipFileContent = mutantsZipFile.fileContent;
-
-        if (!zipFileName.endsWith(".zip")) {
-            logger.error("Class upload failed. Given file {} was not a .zip file.", zipFileName);
-            messages.add("Class upload failed. Mutants must be provided in a .zip file.");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return true;
+    private static UploadedZipFile readZipFile(FileItemStream item, String fileName, String description,
+                                               List<String> messages) throws IOException {
+        if (!fileName.endsWith(".zip")) {
+            logger.error("Class upload failed. Given file {} was not a .zip file.", fileName);
+            messages.add("Class upload failed. " + description + " must be provided in a .zip file.");
+            return null;
         }
 
-        final List<JavaFileObject> mutants;
-        try {
-            final ZipFile zip = ZipFileUtils.createZip(zipFileContent);
-            mutants = ZipFileUtils.getFilesFromZip(zip, true);
+        final List<JavaFileObject> files;
+        final long bytesRead;
+        try (CountingInputStream in = new CountingInputStream(item.openStream())) {
+            files = ZipFileUtils.getFilesFromZip(in);
+            bytesRead = in.getByteCount();
+        } catch (ZipFileUtils.ZipLimitExceededException e) {
+            logger.error("Class upload failed. Given file {} exceeds zip file limits: {}", fileName, e.getMessage());
+            messages.add("Class upload failed. " + e.getMessage());
+            return null;
+        } catch (ZipException e) {
+            logger.error("Class upload failed. Given file {} is no valid zip file: {}", fileName, e.getMessage());
+            messages.add("Class upload failed. " + description + " ZIP file " + fileName + " is invalid. " + e.getMessage());
+            return null;
+        } catch (FileUploadBase.FileUploadIOException e) {
+            // Request related, e.g. exceeding the maximum request size.
+            throw e;
         } catch (IOException e) {
-            logger.error("Class upload failed. Failed to extract mutants ZIP file.");
-            messages.add("Class upload failed. Failed to extract mutants ZIP file.");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return true;
+            logger.error("Class upload failed. Failed to extract " + fileName, e);
+            messages.add("Class upload failed. Failed to extract " + description.toLowerCase() + " ZIP file.");
+            return null;
+        }
+
+        if (bytesRead == 0) {
+            logger.error("Class upload failed. Given file {} was empty", fileName);
+            messages.add("Class upload failed. File content for " + fileName + " could not be read. Please try again.");
+            return null;
+        }
+        return new UploadedZipFile(fileName, files);
+    }
+
+    /**
+     * Returns the {@link ServletFileUpload}, which is used to stream the multipart request.
+     * The size of the request is limited to {@link #MAX_REQUEST_SIZE}.
+     */
+    private ServletFileUpload getServletFileUpload() {
+        if (servletFileUpload != null) {
+            return servletFileUpload;
         }
+        final ServletFileUpload upload = new ServletFileUpload();
+        upload.setSizeMax(MAX_REQUEST_SIZE);
+        return upload;
+    }
 
+    /**
+     * Validates and stores the contents of a given zip file as mutants uploaded together with
+     * a class under test. The mutants are compiled later by the {@link UploadJob}.
+     *
+     * @param messages       messages which will be shown to the user, which made the request.
+     * @param cutFileName    the file name of the class under test.
+     * @param cutDir         the directory in which the class under test lies.
+     * @param mutantsZipFile the given zip file with the mutants, which are added.
+     * @return the mutant files with the actually stored file paths, or {@code null} if storing failed.
+     */
+    private static List<JavaFileObject> storeMutants(List<String> messages, String cutFileName, Path cutDir,
+                                                     UploadedZipFile mutantsZipFile) {
+        final List<JavaFileObject> mutants = mutantsZipFile.files;
+
+        final List<JavaFileObject> mutantFiles = new ArrayList<>(mutants.size());
         for (int index = 0; index < mutants.size(); index++) {
             final JavaFileObject mutantFile = mutants.get(index);
 
@@ -545,134 +564,45 @@ public class ClassUploadManager extends HttpServlet {
             if (!fileName.endsWith(".java")) {
                 logger.error("Class upload failed. Given file {} was not a .java file.", fileName);
                 messages.add("Class upload failed. Mutant must be a .java file.");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+                return null;
             }
             if (!fileName.equals(cutFileName)) {
                 logger.error("Class uploaded failed. Mutant {} has not the same class name as CUT, {}", fileName, cutFileName);
                 messages.add("Class upload failed. Mutants must have same class name as class under test!");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+                return null;
             }
             if (fileContent == null) {
                 logger.error("Class upload failed. Provided fileContent is null. That shouldn't happen.");
                 messages.add("Class upload failed. Internal error. Sorry about that!");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+                return null;
             }
 
-            String javaFilePath;
             try {
-
                 final Path folderPath = cutDir.resolve(CUTS_MUTANTS_DIR).resolve(String.valueOf(index));
-                javaFilePath = FileUtils.storeFile(folderPath, fileName, fileContent).toString();
+                final String javaFilePath = FileUtils.storeFile(folderPath, fileName, fileContent).toString();
+                mutantFiles.add(new JavaFileObject(javaFilePath, fileContent));
             } catch (IOException e) {
                 logger.error("Class upload failed. Could not store mutant java file " + fileName, e);
                 messages.add("Class upload failed. Internal error. Sorry about that!");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
-            }
-            String classFilePath;
-
-            if (!withDependencies) {
-                try {
-                    classFilePath = Compiler.compileJavaFileForContent(javaFilePath, fileContent);
-                } catch (CompileException e) {
-                    logger.error("Class upload failed. Could not compile mutant {}!\n\n{}", fileName, e.getMessage());
-                    messages.add("Class upload failed. Could not compile mutant " + fileName + "!\n" + e.getMessage());
-
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                    return true;
-                } catch (IllegalStateException e) {
-                    logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                    return true;
-                }
-            } else {
-                try {
-                    classFilePath = Compiler.compileJavaFileForContentWithDependencies(javaFilePath, fileContent, dependencies, true);
-                } catch (CompileException e) {
-                    logger.error("Class upload failed. Could not compile mutant {} with dependencies{}!\n\n{}", fileName, dependencies, e.getMessage());
-                    messages.add("Class upload failed. Could not compile mutant " + fileName + "!\n" + e.getMessage());
-
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                    return true;
-                } catch (IllegalStateException e) {
-                    logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
-                    messages.add("Class upload failed. Internal error. Sorry about that!");
-
-                    abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                    return true;
-                }
-            }
-
-            int mutantId;
-            final String md5 = CodeValidator.getMD5FromText(fileContent);
-            final Mutant mutant = new Mutant(javaFilePath, classFilePath, md5, cutId);
-            try {
-                mutantId = MutantDAO.storeMutant(mutant, true);
-                MutantDAO.mapMutantToClass(mutantId, cutId);
-            } catch (Exception e) {
-                logger.error("Class upload with mutant failed. Could not store mutant to database.");
-                messages.add("Class upload failed. Seems like you uploaded two identical mutants.");
-
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath, classFilePath);
-                return true;
+                return null;
             }
-
-            compiledClasses.add(new CompiledClass(CompileClassType.MUTANT, mutantId));
         }
-        return false;
+        return mutantFiles;
     }
 
     /**
-     * Adds the contents of a given zip file as tests uploaded together with
-     * a class under test.
+     * Validates and stores the contents of a given zip file as tests uploaded together with
+     * a class under test. The tests are compiled and run later by the {@link UploadJob}.
      *
-     * @param request         the request the tests are added for.
-     * @param response        the response to the request.
-     * @param messages        messages which will be shown to the user, which made the request.
-     * @param compiledClasses a list of previously added CUT, tests and mutants,
-     *                        which need to get cleaned up once something fails.
-     * @param cutId           the identifier of the class under test.
-     * @param cutDir          the directory in which the class under test lies.
-     * @param cut             the class under test {@link GameClass} object.
-     * @param testsZipFile    the given zip file from which the tests are added.
-     * @param dependencies    dependencies required to compile the tests.
-     * @return {@code true} if addition fails, {@code fail} otherwise.
-     * @throws IOException when aborting the request fails.
+     * @param messages     messages which will be shown to the user, which made the request.
+     * @param cutDir       the directory in which the class under test lies.
+     * @param testsZipFile the given zip file with the tests, which are added.
+     * @return the test files with the actually stored file paths, or {@code null} if storing failed.
      */
-    @SuppressWarnings("Duplicates")
-    private boolean addTests(HttpServletRequest request, HttpServletResponse response, ArrayList<String> messages,
-                             List<CompiledClass> compiledClasses, int cutId, Path cutDir, GameClass cut,
-                             SimpleFile testsZipFile, List<JavaFileObject> dependencies) throws IOException {
-
-        // Class under test is a dependency for all tests
-        dependencies.add(new JavaFileObject(cut.getJavaFile()));
-
-        final String zipFileName = testsZipFile.fileName;
-        final byte[] zipFileContent = testsZipFile.fileContent;
-
-        if (!zipFileName.endsWith(".zip")) {
-            logger.error("Class upload failed. Given file {} was not a .zip file.", zipFileName);
-            messages.add("Class upload failed. The tests must be provided in a .zip file.");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return true;
-        }
-
-        final List<JavaFileObject> tests;
-        try {
-            final ZipFile zip = ZipFileUtils.createZip(zipFileContent);
-            tests = ZipFileUtils.getFilesFromZip(zip, true);
-        } catch (IOException e) {
-            logger.error("Class upload failed. Failed to extract tests ZIP file.");
-            messages.add("Class upload failed. Failed to extract tests ZIP file.");
-            abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-            return true;
-        }
+    private static List<JavaFileObject> storeTests(List<String> messages, Path cutDir, UploadedZipFile testsZipFile) {
+        final List<JavaFileObject> tests = testsZipFile.files;
 
+        final List<JavaFileObject> testFiles = new ArrayList<>(tests.size());
         for (int index = 0; index < tests.size(); index++) {
             final JavaFileObject testFile = tests.get(index);
 
@@ -682,148 +612,489 @@ public class ClassUploadManager extends HttpServlet {
             if (!fileName.endsWith(".java")) {
                 logger.error("Class upload failed. Given file {} was not a .java file.", fileName);
                 messages.add("Class upload failed. The tests files must be .java file.");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+                return null;
             }
             if (fileContent == null) {
                 logger.error("Class upload failed. Provided fileContent is null. That shouldn't happen.");
                 messages.add("Class upload failed. Internal error. Sorry about that!");
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+                return null;
             }
 
-            String javaFilePath;
             try {
                 final Path folderPath = cutDir.resolve(CUTS_TESTS_DIR).resolve(String.valueOf(index));
-                javaFilePath = FileUtils.storeFile(folderPath, fileName, fileContent).toString();
+                final String javaFilePath = FileUtils.storeFile(folderPath, fileName, fileContent).toString();
+                testFiles.add(new JavaFileObject(javaFilePath, fileContent));
             } catch (IOException e) {
                 logger.error("Class upload failed. Could not store java file of test class " + fileName, e);
                 messages.add("Class upload failed. Could not store java file of test class " + fileName);
+                return null;
+            }
+        }
+        return testFiles;
+    }
 
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses);
-                return true;
+    /**
+     * Processes a validated and stored upload in the background: compiles the class under test,
+     * compiles the uploaded mutants and tests, runs the tests against the class under test and
+     * stores everything in the database.
+     * <p>
+     * Failures are reported through the {@link UploadProgress} and remove all files and
+     * database entries of the upload again.
+     */
+    private static class UploadJob implements Runnable {
+        private final UploadProgress progress;
+        private final String classAlias;
+        private final String cutFileName;
+        private final Path cutDir;
+        private final String cutJavaFilePath;
+        private final String cutFileContent;
+        private final boolean isMockingEnabled;
+        private final boolean shouldPrepareAI;
+        private final List<JavaFileObject> dependencies;
+        private final List<JavaFileReferences> dependencyReferences;
+        private final List<JavaFileObject> mutantFiles;
+        private final List<JavaFileObject> testFiles;
+
+        /**
+         * A list of added CUT, dependencies, tests and mutants, which need to get cleaned up once something fails.
+         */
+        private final List<CompiledClass> compiledClasses = new LinkedList<>();
+
+        UploadJob(UploadProgress progress, String classAlias, String cutFileName, Path cutDir, String cutJavaFilePath,
+                  String cutFileContent, boolean isMockingEnabled, boolean shouldPrepareAI,
+                  List<JavaFileObject> dependencies, List<JavaFileReferences> dependencyReferences,
+                  List<JavaFileObject> mutantFiles, List<JavaFileObject> testFiles) {
+            this.progress = progress;
+            this.classAlias = classAlias;
+            this.cutFileName = cutFileName;
+            this.cutDir = cutDir;
+            this.cutJavaFilePath = cutJavaFilePath;
+            this.cutFileContent = cutFileContent;
+            this.isMockingEnabled = isMockingEnabled;
+            this.shouldPrepareAI = shouldPrepareAI;
+            this.dependencies = dependencies;
+            this.dependencyReferences = dependencyReferences;
+            this.mutantFiles = mutantFiles;
+            this.testFiles = testFiles;
+        }
+
+        @Override
+        public void run() {
+            try {
+                process();
+            } catch (RuntimeException e) {
+                logger.error("Class upload of " + cutFileName + " failed.", e);
+                fail("Class upload failed. Internal error. Sorry about that!");
+            } finally {
+                pendingAliases.remove(classAlias);
             }
-            String classFilePath;
+        }
+
+        private void process() {
+            progress.start("Compiling class under test", 0);
+            final String cutClassFilePath;
             try {
-                classFilePath = Compiler.compileJavaTestFileForContent(javaFilePath, fileContent, dependencies, true);
+                if (dependencies.isEmpty()) {
+                    cutClassFilePath = Compiler.compileJavaFileForContent(cutJavaFilePath, cutFileContent);
+                } else {
+                    cutClassFilePath = Compiler.compileJavaFileWithDependencies(cutJavaFilePath, dependencies);
+                }
             } catch (CompileException e) {
-                logger.error("Class upload failed. Could not compile test {}!\n\n{}", fileName, e.getMessage());
-                messages.add("Class upload failed. Could not compile test " + fileName + "!\n" + e.getMessage());
-
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                return true;
+                logger.error("Class upload failed. Could not compile {}!\n\n{}", cutFileName, e.getMessage());
+                fail("Class upload failed. Could not compile " + cutFileName + "!\n" + e.getMessage());
+                return;
             } catch (IllegalStateException e) {
                 logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
-                messages.add("Class upload failed. Internal error. Sorry about that!");
-
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath);
-                return true;
+                fail("Class upload failed. Internal error. Sorry about that!");
+                return;
             }
 
+            String classQualifiedName;
             try {
-                final String testDir = Paths.get(javaFilePath).getParent().toString();
-                final String qualifiedName = FileUtils.getFullyQualifiedName(classFilePath);
+                classQualifiedName = FileUtils.getFullyQualifiedName(cutClassFilePath);
+            } catch (IOException e) {
+                logger.error("Class upload failed. Could not get fully qualified name for " + cutFileName, e);
+                fail("Class upload failed. Internal error. Sorry about that!");
+                return;
+            }
 
-                // This adds a jacoco.exec file to the testDir
-                AntRunner.testOriginal(cut, testDir, qualifiedName);
+            final GameClass cut = new GameClass(classQualifiedName, classAlias, cutJavaFilePath, cutClassFilePath, isMockingEnabled);
+            final int cutId;
+            try {
+                cutId = GameClassDAO.storeClass(cut);
             } catch (Exception e) {
-                logger.error("Class upload failed. Test " + fileName + " failed", e);
-                messages.add("Class upload failed. Test " + fileName + " failed");
+                logger.error("Class upload failed. Could not store class to database.");
+                fail("Class upload failed. Internal error. Sorry about that!");
+                return;
+            }
 
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath, classFilePath);
-                return true;
+            compiledClasses.add(new CompiledClass(CompileClassType.CUT, cutId));
+
+            for (JavaFileReferences dep : dependencyReferences) {
+                final int depId;
+                try {
+                    depId = DependencyDAO.storeDependency(new Dependency(cutId, dep.javaFile, dep.classFile));
+                } catch (Exception e) {
+                    logger.error("Class upload failed. Could not store dependency class to database.");
+                    fail("Class upload failed. Internal error. Sorry about that!");
+                    return;
+                }
+
+                compiledClasses.add(new CompiledClass(CompileClassType.DEPENDENCY, depId));
+            }
+
+            if (!mutantFiles.isEmpty() && !addMutants(cutId)) {
+                return;
+            }
+            if (!testFiles.isEmpty() && !addTests(cutId, cut)) {
+                return;
+            }
+
+            logger.info("Class upload of {} was successful", cutFileName);
+
+            // At this point if there's test and mutants we shall run them against each other.
+            // Since this can take a long time, the killmap is computed asynchronously by the KillMapProcessor.
+            if (!mutantFiles.isEmpty() && !testFiles.isEmpty()) {
+                if (KillmapDAO.enqueueJob(new KillMapJob(KillMapJob.Type.CLASS, cutId))) {
+                    logger.info("Enqueued killmap computation for uploaded class {}", cutId);
+                } else {
+                    logger.error("Failed to enqueue killmap computation for uploaded class {}", cutId);
+                }
+            }
+
+            // TODO Phil: Will this be used in the future? Looks like legacy code.
+            if (shouldPrepareAI) {
+                if (!PrepareAI.createTestsAndMutants(cut.getId(), false)) {
+                    logger.error("Preparation of AI for class failed, please prepare the class again, or try a different class.");
+                    progress.finish("Class upload successful.",
+                            "Preparation of AI for class failed, please prepare the class again, or try a different class.");
+                    return;
+                }
             }
+            progress.finish("Class upload successful.");
+        }
 
-            int testId;
-            final LineCoverage lineCoverage = LineCoverageGenerator.generate(cut, Paths.get(javaFilePath));
-            final Test test = new Test(javaFilePath, classFilePath, cutId, lineCoverage);
+        /**
+         * Compiles and stores the uploaded mutants.
+         * <p>
+         * The mutants are compiled in parallel. Their results are consumed in the order of the
+         * zip file entries, so mutants are stored while the remaining ones are still compiled.
+         *
+         * @param cutId the identifier of the class under test.
+         * @return {@code true} if all mutants were added, {@code false} if adding failed and the upload was aborted.
+         */
+        @SuppressWarnings("Duplicates")
+        private boolean addMutants(int cutId) {
+            final boolean withDependencies = !dependencies.isEmpty();
+
+            final ExecutorService executor = createExecutor(mutantFiles.size());
             try {
-                testId = TestDAO.storeTest(test, true);
-                TestDAO.mapTestToClass(testId, cutId);
-            } catch (UncheckedSQLException e) {
-                logger.error("Class upload with mutant failed. Could not store test to database.");
-                messages.add("Class upload failed. Internal error. Sorry about that!");
+                final List<Callable<String>> compilations = new ArrayList<>(mutantFiles.size());
+                for (JavaFileObject mutantFile : mutantFiles) {
+                    final String javaFilePath = mutantFile.getPath();
+                    final String fileContent = mutantFile.getContent();
+                    if (!withDependencies) {
+                        compilations.add(() -> Compiler.compileJavaFileForContent(javaFilePath, fileContent));
+                    } else {
+                        compilations.add(() -> Compiler.compileJavaFileForContentWithDependencies(javaFilePath, fileContent, dependencies, true));
+                    }
+                }
+                final List<Future<String>> compiledMutants = submitAll(executor, progress, "Compiling mutants", compilations);
+
+                for (int index = 0; index < mutantFiles.size(); index++) {
+                    final String fileName = mutantFiles.get(index).getName();
+                    final String fileContent = mutantFiles.get(index).getContent();
+                    final String javaFilePath = mutantFiles.get(index).getPath();
+
+                    String classFilePath;
+                    try {
+                        classFilePath = awaitResult(compiledMutants.get(index));
+                    } catch (CompileException e) {
+                        logger.error("Class upload failed. Could not compile mutant {}!\n\n{}", fileName, e.getMessage());
+                        fail("Class upload failed. Could not compile mutant " + fileName + "!\n" + e.getMessage(), javaFilePath);
+                        return false;
+                    } catch (IllegalStateException e) {
+                        logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
+                        fail("Class upload failed. Internal error. Sorry about that!", javaFilePath);
+                        return false;
+                    }
+
+                    int mutantId;
+                    final String md5 = CodeValidator.getMD5FromText(fileContent);
+                    final Mutant mutant = new Mutant(javaFilePath, classFilePath, md5, cutId);
+                    try {
+                        mutantId = MutantDAO.storeMutant(mutant, true);
+                        MutantDAO.mapMutantToClass(mutantId, cutId);
+                    } catch (Exception e) {
+                        logger.error("Class upload with mutant failed. Could not store mutant to database.");
+                        fail("Class upload failed. Seems like you uploaded two identical mutants.", javaFilePath, classFilePath);
+                        return false;
+                    }
+
+                    compiledClasses.add(new CompiledClass(CompileClassType.MUTANT, mutantId));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            return true;
+        }
+
+        /**
+         * Compiles the uploaded tests, runs them against the class under test and stores them.
+         * <p>
+         * If the test file names are unique, all tests are compiled with a single compiler
+         * invocation. Otherwise, or if that fails, the tests are compiled one by one in
+         * parallel, so a compilation error can be reported for the test causing it.
+         * The tests are then run against the class under test in parallel.
+         *
+         * @param cutId the identifier of the class under test.
+         * @param cut   the class under test {@link GameClass} object.
+         * @return {@code true} if all tests were added, {@code false} if adding failed and the upload was aborted.
+         */
+        @SuppressWarnings("Duplicates")
+        private boolean addTests(int cutId, GameClass cut) {
+            // Class under test is a dependency for all tests
+            final List<JavaFileObject> testDependencies = new ArrayList<>(dependencies);
+            testDependencies.add(new JavaFileObject(cut.getJavaFile()));
+
+            final ExecutorService executor = createExecutor(testFiles.size());
+            try {
+                List<String> classFilePaths = null;
+                final long distinctFileNames = testFiles.stream().map(JavaFileObject::getName).distinct().count();
+                if (testFiles.size() > 1 && distinctFileNames == testFiles.size()) {
+                    progress.start("Compiling tests", 0);
+                    try {
+                        classFilePaths = Compiler.compileJavaTestFiles(testFiles, testDependencies);
+                    } catch (CompileException | IllegalStateException e) {
+                        logger.info("Compiling all tests at once failed. Compiling tests one by one.");
+                    }
+                }
+
+                if (classFilePaths == null) {
+                    final List<Callable<String>> compilations = new ArrayList<>(testFiles.size());
+                    for (JavaFileObject testFile : testFiles) {
+                        compilations.add(() -> Compiler.compileJavaTestFileForContent(testFile.getPath(), testFile.getContent(), testDependencies, true));
+                    }
+                    final List<Future<String>> compiledTests = submitAll(executor, progress, "Compiling tests", compilations);
+
+                    classFilePaths = new ArrayList<>(testFiles.size());
+                    for (int index = 0; index < testFiles.size(); index++) {
+                        final String fileName = testFiles.get(index).getName();
+                        final String javaFilePath = testFiles.get(index).getPath();
+                        try {
+                            classFilePaths.add(awaitResult(compiledTests.get(index)));
+                        } catch (CompileException e) {
+                            logger.error("Class upload failed. Could not compile test {}!\n\n{}", fileName, e.getMessage());
+                            fail("Class upload failed. Could not compile test " + fileName + "!\n" + e.getMessage(), javaFilePath);
+                            return false;
+                        } catch (IllegalStateException e) {
+                            logger.error("SEVERE ERROR. Could not find Java compiler. Please reconfigure your installed version.", e);
+                            fail("Class upload failed. Internal error. Sorry about that!", javaFilePath);
+                            return false;
+                        }
+                    }
+                }
+
+                final List<Callable<LineCoverage>> executions = new ArrayList<>(testFiles.size());
+                for (int index = 0; index < testFiles.size(); index++) {
+                    final String javaFilePath = testFiles.get(index).getPath();
+                    final String classFilePath = classFilePaths.get(index);
+                    executions.add(() -> {
+                        final String testDir = Paths.get(javaFilePath).getParent().toString();
+                        final String qualifiedName = FileUtils.getFullyQualifiedName(classFilePath);
+
+                        // This adds a jacoco.exec file to the testDir
+                        AntRunner.testOriginal(cut, testDir, qualifiedName);
+                        return LineCoverageGenerator.generate(cut, Paths.get(javaFilePath));
+                    });
+                }
+                final List<Future<LineCoverage>> executedTests = submitAll(executor, progress, "Running tests", executions);
+
+                for (int index = 0; index < testFiles.size(); index++) {
+                    final String fileName = testFiles.get(index).getName();
+                    final String javaFilePath = testFiles.get(index).getPath();
+                    final String classFilePath = classFilePaths.get(index);
+
+                    final LineCoverage lineCoverage;
+                    try {
+                        lineCoverage = awaitResult(executedTests.get(index));
+                    } catch (Exception e) {
+                        logger.error("Class upload failed. Test " + fileName + " failed", e);
+                        fail("Class upload failed. Test " + fileName + " failed", javaFilePath, classFilePath);
+                        return false;
+                    }
+
+                    int testId;
+                    final Test test = new Test(javaFilePath, classFilePath, cutId, lineCoverage);
+                    try {
+                        testId = TestDAO.storeTest(test, true);
+                        TestDAO.mapTestToClass(testId, cutId);
+                    } catch (UncheckedSQLException e) {
+                        logger.error("Class upload with mutant failed. Could not store test to database.");
+                        fail("Class upload failed. Internal error. Sorry about that!", javaFilePath, classFilePath);
+                        return false;
+                    }
 
-                abortRequestAndCleanUp(request, response, cutDir, compiledClasses, javaFilePath, classFilePath);
-                return true;
+                    compiledClasses.add(new CompiledClass(CompileClassType.TEST, testId));
+                }
+            } finally {
+                executor.shutdownNow();
             }
+            return true;
+        }
 
-            compiledClasses.add(new CompiledClass(CompileClassType.TEST, testId));
+        /**
+         * Aborts the upload by removing everything added so far and reports the given message to the user.
+         *
+         * @param message the message shown to the user.
+         * @param files   optional additional files, which need to be removed.
+         */
+        private void fail(String message, String... files) {
+            cleanUp(cutDir, compiledClasses, files);
+            progress.fail(message);
         }
-        return false;
     }
 
     /**
-     * Aborts a given request by removing all uploaded compile classes from for
-     * the database and {@code .java} and {@code .class} files from the system.
+     * Creates a bounded thread pool for compiling or running a given number of uploaded files.
+     *
+     * @param numberOfTasks the number of tasks, which will be submitted.
+     * @return an {@link ExecutorService} with at most {@link #NUM_THREADS} threads.
+     */
+    private static ExecutorService createExecutor(int numberOfTasks) {
+        return Executors.newFixedThreadPool(Math.max(1, Math.min(NUM_THREADS, numberOfTasks)));
+    }
+
+    /**
+     * Submits the given tasks to an executor. The given progress is reset for
+     * the given phase and advanced once a task completes, successfully or not.
+     *
+     * @param executor the executor the tasks are submitted to.
+     * @param progress the progress of the upload.
+     * @param phase    a description of what the tasks do, which is shown to the user.
+     * @param tasks    the tasks to submit.
+     * @param <T>      the result type of the tasks.
+     * @return the futures of the submitted tasks, in the same order as the given tasks.
+     */
+    private static <T> List<Future<T>> submitAll(ExecutorService executor, UploadProgress progress, String phase,
+                                                 List<Callable<T>> tasks) {
+        progress.start(phase, tasks.size());
+        final List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    progress.itemDone();
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits for the result of a task submitted by {@link #submitAll(ExecutorService, UploadProgress, String, List)}
+     * and rethrows the exception the task failed with.
+     *
+     * @param future the future of the task.
+     * @param <T>    the result type of the task.
+     * @return the result of the task.
+     * @throws CompileException if the task failed to compile a file.
+     */
+    private static <T> T awaitResult(Future<T> future) throws CompileException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing uploaded files.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof CompileException) {
+                throw (CompileException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Aborts a given request by removing the directory of the uploaded class again.
      * <p>
      * Also redirects the user.
      * <p>
      * This method should be the last thing called when aborting a request.
      *
-     * @param request         The handled request.
-     * @param response        The response of the handled requests.
-     * @param cutDir          The directory in which all files are located, can be {@code null}.
-     * @param compiledClasses A list of {@link CompiledClass}, which will get removed.
-     * @param files           Optional additional files, which need to be removed.
+     * @param request  The handled request.
+     * @param response The response of the handled requests.
+     * @param cutDir   The directory in which all files are located.
      * @throws IOException When an error during redirecting occurs.
      */
-    private static void abortRequestAndCleanUp(HttpServletRequest request, HttpServletResponse response, Path cutDir,
-                                               List<CompiledClass> compiledClasses, String... files) throws IOException {
+    private static void abortRequestAndCleanUp(HttpServletRequest request, HttpServletResponse response, Path cutDir) throws IOException {
         logger.debug("Aborting request...");
-        if (cutDir != null) {
-            final List<Integer> cuts = new LinkedList<>();
-            final List<Integer> dependencies = new LinkedList<>();
-            final List<Integer> mutants = new LinkedList<>();
-            final List<Integer> tests = new LinkedList<>();
-            for (CompiledClass compiledClass : compiledClasses) {
-                switch (compiledClass.type) {
-                    case CUT:
-                        cuts.add(compiledClass.id);
-                        break;
-                    case DEPENDENCY:
-                        dependencies.add(compiledClass.id);
-                        break;
-                    case MUTANT:
-                        mutants.add(compiledClass.id);
-                        break;
-                    case TEST:
-                        tests.add(compiledClass.id);
-                        break;
-                }
+        cleanUp(cutDir, new LinkedList<>());
+        Redirect.redirectBack(request, response);
+        logger.debug("Aborting request...done");
+    }
+
+    /**
+     * Removes all uploaded compiled classes from the database and
+     * {@code .java} and {@code .class} files from the system.
+     *
+     * @param cutDir          The directory in which all files are located.
+     * @param compiledClasses A list of {@link CompiledClass}, which will get removed.
+     * @param files           Optional additional files, which need to be removed.
+     */
+    private static void cleanUp(Path cutDir, List<CompiledClass> compiledClasses, String... files) {
+        final List<Integer> cuts = new LinkedList<>();
+        final List<Integer> dependencies = new LinkedList<>();
+        final List<Integer> mutants = new LinkedList<>();
+        final List<Integer> tests = new LinkedList<>();
+        for (CompiledClass compiledClass : compiledClasses) {
+            switch (compiledClass.type) {
+                case CUT:
+                    cuts.add(compiledClass.id);
+                    break;
+                case DEPENDENCY:
+                    dependencies.add(compiledClass.id);
+                    break;
+                case MUTANT:
+                    mutants.add(compiledClass.id);
+                    break;
+                case TEST:
+                    tests.add(compiledClass.id);
+                    break;
             }
+        }
 
+        try {
+            logger.info("Removing directory {} again", cutDir);
+            org.apache.commons.io.FileUtils.forceDelete(cutDir.toFile());
+        } catch (IOException e) {
+            // logged, but otherwise ignored. No need to abort while aborting.
+            logger.error("Error removing directory of compiled classes.", e);
+        }
+        for (String file : files) {
+            logger.info("Removing {} again.", file);
+            CodeAnalysisCache.invalidate(file);
             try {
-                logger.info("Removing directory {} again", cutDir);
-                org.apache.commons.io.FileUtils.forceDelete(cutDir.toFile());
-            } catch (IOException e) {
-                // logged, but otherwise ignored. No need to abort while aborting.
-                logger.error("Error removing directory of compiled classes.", e);
+                Files.delete(Paths.get(file));
+            } catch (IOException ignored) {
+                // file may have been removed already.
             }
-            for (String file : files) {
-                logger.info("Removing {} again.", file);
-                try {
-                    Files.delete(Paths.get(file));
-                } catch (IOException ignored) {
-                    // file may have been removed already.
-                }
 
-                try {
-                    final Path parentFolder = Paths.get(file).getParent();
-                    Files.delete(parentFolder);
-                } catch (IOException ignored) {
-                    // folder may have been removed already.
-                }
+            try {
+                final Path parentFolder = Paths.get(file).getParent();
+                Files.delete(parentFolder);
+            } catch (IOException ignored) {
+                // folder may have been removed already.
             }
-
-            MutantDAO.removeMutantsForIds(mutants);
-            TestDAO.removeTestsForIds(tests);
-            DependencyDAO.removeDependenciesForIds(dependencies);
-            GameClassDAO.removeClassesForIds(cuts);
         }
 
-        Redirect.redirectBack(request, response);
-        logger.debug("Aborting request...done");
+        MutantDAO.removeMutantsForIds(mutants);
+        TestDAO.removeTestsForIds(tests);
+        DependencyDAO.removeDependenciesForIds(dependencies);
+        GameClassDAO.removeClassesForIds(cuts);
     }
 
     /**
@@ -856,11 +1127,24 @@ public class ClassUploadManager extends HttpServlet {
         }
     }
 
+    /**
+     * Container for an uploaded zip file with its name and the extracted java files.
+     */
+    private static class UploadedZipFile {
+        private String fileName;
+        private List<JavaFileObject> files;
+
+        UploadedZipFile(String fileName, List<JavaFileObject> files) {
+            this.fileName = fileName;
+            this.files = files;
+        }
+    }
+
     /**
      * Container for paths to {@code .java} and {@code .class}
      * files of a java class.
      */
-    private class JavaFileReferences {
+    private static class JavaFileReferences {
         private String javaFile;
         private String classFile;
 
@@ -875,7 +1159,7 @@ public class ClassUploadManager extends HttpServlet {
      * They have a type {@link CompileClassType}, an {@code id} and
      * paths to {@code .java} and {@code .class} files.
      */
-    private class CompiledClass {
+    private static class CompiledClass {
         private CompileClassType type;
         private Integer id;
 
@@ -892,6 +1176,69 @@ public class ClassUploadManager extends HttpServlet {
         TEST
     }
 
+    /**
+     * Progress of the upload a session is currently processing. Updated while the
+     * upload is processed in the background, and polled by the upload page.
+     * Once the upload is done, the progress contains the messages for the user.
+     */
+    static class UploadProgress {
+        private volatile String phase = "";
+        private volatile int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile boolean running;
+        private volatile boolean failed;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        /**
+         * Starts a new phase of the upload.
+         *
+         * @param phase a description of the phase, which is shown to the user.
+         * @param total the number of items processed in this phase, {@code 0} if not applicable.
+         */
+        synchronized void start(String phase, int total) {
+            this.completed.set(0);
+            this.total = total;
+            this.phase = phase;
+            this.running = true;
+        }
+
+        void itemDone() {
+            final int done = completed.incrementAndGet();
+            logger.debug("{}: {}/{}", phase, done, total);
+        }
+
+        /**
+         * Marks the upload as successfully processed.
+         *
+         * @param messages messages which will be shown to the user.
+         */
+        synchronized void finish(String... messages) {
+            start("Done", 0);
+            this.messages.addAll(Arrays.asList(messages));
+            this.running = false;
+        }
+
+        /**
+         * Marks the upload as failed.
+         *
+         * @param message the error message, which will be shown to the user.
+         */
+        synchronized void fail(String message) {
+            start("Failed", 0);
+            this.messages.add(message);
+            this.failed = true;
+            this.running = false;
+        }
+
+        boolean isRunning() {
+            return running;
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+    }
+
     private ServletFileUpload servletFileUpload;
 
     // Enable minimal testing
@@ -899,4 +1246,11 @@ public class ClassUploadManager extends HttpServlet {
     void setServletFileUpload(ServletFileUpload servletFileUpload) {
         this.servletFileUpload = servletFileUpload;
     }
+
+    // Enable minimal testing
+    @Deprecated
+    void setUploadExecutor(ExecutorService uploadExecutor) {
+        this.uploadExecutor.shutdownNow();
+        this.uploadExecutor = uploadExecutor;
+    }
 }
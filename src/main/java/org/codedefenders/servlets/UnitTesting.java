@@ -158,7 +158,7 @@ public class UnitTesting extends HttpServlet {
 	private Test createTest(int gid, int cid, String testText, int ownerId, String subDirectory) throws IOException {
 		GameClass classUnderTest = GameClassDAO.getClassForId(cid);
 
-		File newTestDir = FileUtils.getNextSubDir(getServletContext().getRealPath(DATA_DIR + F_SEP + subDirectory + F_SEP + gid + F_SEP + TESTS_DIR + F_SEP + ownerId));
+		File newTestDir = FileUtils.getNextShardedSubDir(getServletContext().getRealPath(DATA_DIR + F_SEP + subDirectory + F_SEP + gid + F_SEP + TESTS_DIR + F_SEP + ownerId));
 
 		String javaFile = FileUtils.createJavaTestFile(newTestDir, classUnderTest.getBaseName(), testText);
 
@@ -32,6 +32,7 @@ import org.codedefenders.game.Role;
 import org.codedefenders.game.Test;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
 import org.codedefenders.game.multiplayer.PlayerScore;
+import org.codedefenders.game.multiplayer.Scoreboard;
 import org.codedefenders.model.Event;
 import org.codedefenders.model.EventStatus;
 import org.codedefenders.model.EventType;
@@ -667,8 +668,9 @@ public class AdminCreateGames extends HttpServlet {
     }
 
     public static int getPlayerScore(MultiplayerGame mg, int pid) {
-        HashMap mutantScores = mg.getMutantScores();
-        HashMap testScores = mg.getTestScores();
+        Scoreboard scoreboard = mg.getScoreboard();
+        HashMap mutantScores = scoreboard.getMutantScores();
+        HashMap testScores = scoreboard.getTestScores();
         if (mutantScores.containsKey(pid) && mutantScores.get(pid) != null) {
             return ((PlayerScore) mutantScores.get(pid)).getTotalScore();
         } else if (testScores.containsKey(pid) && testScores.get(pid) != null)
@@ -31,6 +31,7 @@ import org.codedefenders.game.GameState;
 import org.codedefenders.game.Mutant;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.Test;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots;
 import org.codedefenders.game.multiplayer.MultiplayerGame;
 import org.codedefenders.servlets.util.Redirect;
 import org.codedefenders.util.Constants;
@@ -159,6 +160,7 @@ public class AdminMonitorGames extends HttpServlet {
                 AdminDAO.deleteMutantTargetExecutions(m.getId());
         }
         DatabaseAccess.removePlayerEventsForGame(gid, pid);
+        FinishedGameSnapshots.invalidate(gid);
         AdminDAO.deleteAttackerEquivalences(pid);
         AdminDAO.deleteDefenderEquivalences(pid);
         AdminDAO.deletePlayerTest(pid);
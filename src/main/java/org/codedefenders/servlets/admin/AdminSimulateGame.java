@@ -21,6 +21,7 @@ package org.codedefenders.servlets.admin;
 import org.apache.commons.lang.ArrayUtils;
 import org.codedefenders.database.AdminDAO;
 import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.UserDAO;
 import org.codedefenders.execution.AntRunner;
 import org.codedefenders.execution.MutationTester;
 import org.codedefenders.execution.TargetExecution;
@@ -108,8 +109,8 @@ public class AdminSimulateGame extends HttpServlet {
                     simulationGame.setSimulationGame(true);
                     simulationGame.setAiStrat(AiPlayer.GenerationMethod.valueOf(AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.AI_STRAT).getStringValue()));
                     simulationGame.insert();
-                    Arrays.stream(dummyGame.getDefenderIds()).forEach(playerId ->simulationGame.addPlayer(DatabaseAccess.getUserFromPlayer(playerId).getId(), Role.DEFENDER));
-                    Arrays.stream(dummyGame.getAttackerIds()).forEach(playerId ->simulationGame.addPlayer(DatabaseAccess.getUserFromPlayer(playerId).getId(), Role.ATTACKER));
+                    UserDAO.getUsersForPlayers(dummyGame.getDefenderIds()).values().forEach(user -> simulationGame.addPlayer(user.getId(), Role.DEFENDER));
+                    UserDAO.getUsersForPlayers(dummyGame.getAttackerIds()).values().forEach(user -> simulationGame.addPlayer(user.getId(), Role.ATTACKER));
                     boolean isAiDefInGame = ArrayUtils.contains(simulationGame.getUserIds(Role.DEFENDER), AiDefender.ID);
                     boolean isAiAtkInGame = ArrayUtils.contains(simulationGame.getUserIds(Role.ATTACKER), AiAttacker.ID);
                     AiAttacker aiAttacker = isAiAtkInGame ? new AiAttacker(simulationGame.getId()) : null;
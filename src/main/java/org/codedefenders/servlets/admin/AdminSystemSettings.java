@@ -20,6 +20,7 @@ package org.codedefenders.servlets.admin;
 
 import org.codedefenders.database.AdminDAO;
 import org.codedefenders.database.ConnectionPool;
+import org.codedefenders.database.DatabaseAccess;
 import org.codedefenders.util.Constants;
 
 import java.io.IOException;
@@ -267,6 +268,10 @@ public class AdminSystemSettings extends HttpServlet {
 			case "saveSettings":
 				updateSystemSettings(request, messages);
 				break;
+			case "rebuildLeaderboard":
+				boolean rebuilt = DatabaseAccess.rebuildLeaderboard();
+				messages.add(rebuilt ? "Rebuilt the leaderboard." : "There was a problem. Please consult the logs");
+				break;
 			default:
 				System.err.println("Action not recognised");
 				break;
@@ -19,12 +19,10 @@
 package org.codedefenders.servlets.auth;
 
 import org.codedefenders.database.UserDAO;
-import org.codedefenders.model.User;
+import org.codedefenders.servlets.util.StaticResources;
 import org.codedefenders.util.Paths;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -58,8 +56,7 @@ public class LoginFilter implements Filter {
 			Integer uid = (Integer) session.getAttribute("uid");
 
 			if (uid != null) {
-				User user = UserDAO.getUserById(uid);
-				if (user != null && user.isActive()) {
+				if (UserDAO.isActiveUser(uid)) {
 					/* Disable caching in the HTTP header.
 					 * https://stackoverflow.com/questions/13640109/how-to-prevent-browser-cache-for-php-site */
 					httpResponse.setHeader("Pragma", "No-cache");
@@ -94,9 +91,7 @@ public class LoginFilter implements Filter {
 				|| path.endsWith(context + Paths.CONTACT_PAGE))
 			return false;
 
-		Pattern excludeUrls = Pattern.compile("^.*/(css|js|images|fonts|codemirror)/.*$", Pattern.CASE_INSENSITIVE);
-		Matcher m = excludeUrls.matcher(path);
-		return !m.matches();
+		return !StaticResources.isStaticResource(path);
 	}
 
 	private void redirectToLogin(HttpServletRequest httpReq, ServletResponse response) throws IOException {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.events;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import org.codedefenders.model.Event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.util.Collection;
+
+/**
+ * Writes parsed {@link Event Events} as JSON directly to a {@link Writer}, e.g. the writer of a response,
+ * instead of serializing them into a {@link String} with reflection first.
+ * <p>
+ * Events are written with the fields clients read and in the same format as {@link Gson} would
+ * write them, i.e. timestamps are formatted like {@link Gson#toJson(Object)} formats them and HTML
+ * characters are escaped. {@code null} fields are omitted.
+ */
+class EventJsonWriter {
+    private static final TypeAdapter<Timestamp> timestampAdapter = new Gson().getAdapter(Timestamp.class);
+
+    private EventJsonWriter() {
+    }
+
+    /**
+     * Writes the given events as a JSON array.
+     *
+     * @param out    the writer to write to. It is flushed, but not closed.
+     * @param events the parsed events.
+     * @throws IOException if writing fails.
+     */
+    static void writeEvents(Writer out, Collection<Event> events) throws IOException {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(true);
+        writer.beginArray();
+        for (Event event : events) {
+            writeEvent(writer, event);
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    private static void writeEvent(JsonWriter writer, Event event) throws IOException {
+        writer.beginObject();
+        writer.name("eventId").value(event.getId());
+        writer.name("userId").value(event.getUserId());
+        writer.name("gameId").value(event.getGameId());
+        writeString(writer, "message", event.getMessage());
+        writeString(writer, "parsedMessage", event.getParsedMessage());
+        writeString(writer, "eventType", event.getEventType() == null ? null : event.getEventType().name());
+        writeString(writer, "eventStatus", event.getEventStatus() == null ? null : event.getEventStatus().name());
+        if (event.getTime() != null) {
+            writer.name("time");
+            timestampAdapter.write(writer, event.getTime());
+        }
+        writeString(writer, "role", event.getRole() == null ? null : event.getRole().name());
+        writer.endObject();
+    }
+
+    private static void writeString(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.events;
+
+import com.google.gson.Gson;
+
+import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.UserDAO;
+import org.codedefenders.execution.TargetExecution;
+import org.codedefenders.game.Role;
+import org.codedefenders.model.Event;
+import org.codedefenders.model.EventBuffers;
+import org.codedefenders.model.EventStatus;
+import org.codedefenders.model.GameEventBus;
+import org.codedefenders.model.NotificationType;
+import org.codedefenders.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * This {@link HttpServlet} pushes game events and progress bar updates to clients
+ * as <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">server-sent events</a>,
+ * instead of having them poll the {@link NotificationsHandler}.
+ * <p>
+ * Each open stream subscribes to the {@link GameEventBus} of its game and only looks up
+ * new events, usually from the {@link EventBuffers}, when the bus reports a change. Streams are closed after a timeout,
+ * after which the browser reconnects and continues at the last received event.
+ * <p>
+ * Requires the following URL parameters:
+ * <ul>
+ *     <li><code>type</code>, either {@link NotificationType#GAMEEVENT} or {@link NotificationType#PROGRESSBAR}</li>
+ *     <li><code>gameId</code></li>
+ *     <li><code>lastEventId</code>, optional for game events, is overridden by the {@code Last-Event-ID} header</li>
+ *     <li><code>isDefender</code>, optional for progress bar updates</li>
+ * </ul>
+ * Only players and the creator of the game can open a stream, other users are answered with
+ * {@code 403 Forbidden}.
+ * <p>
+ * Game events are sent with the event name {@code gameevent}, progress bar updates
+ * with the event name {@code progressbar}. The data of both is the same JSON as
+ * the corresponding {@link NotificationsHandler} response.
+ * <p>
+ * Serves on path: {@code /api/game_events}.
+ * @see org.codedefenders.util.Paths#API_GAME_EVENTS
+ */
+public class GameEventStream extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(GameEventStream.class);
+    private static final Gson gson = new Gson();
+
+    private static final long STREAM_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+    private static final int RECONNECT_DELAY_MILLIS = 3000;
+    private static final int THREADS = 4;
+
+    private ExecutorService executor;
+
+    @Override
+    public void init() throws ServletException {
+        executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "game-event-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final NotificationType type;
+        try {
+            type = NotificationType.valueOf(request.getParameter("type"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            response.setStatus(400);
+            logger.error("Game event stream: Missing or invalid parameter type.");
+            return;
+        }
+        if (type != NotificationType.GAMEEVENT && type != NotificationType.PROGRESSBAR) {
+            response.setStatus(400);
+            logger.error("Game event stream: Unsupported type " + type.name());
+            return;
+        }
+        final String gameIdString = request.getParameter("gameId");
+        if (gameIdString == null) {
+            response.setStatus(400);
+            logger.error("Game event stream: Missing parameter gameId.");
+            return;
+        }
+        final int gameId;
+        int lastEventId = 0;
+        try {
+            gameId = Integer.parseInt(gameIdString);
+            final String lastEventIdString = request.getHeader("Last-Event-ID") != null
+                    ? request.getHeader("Last-Event-ID")
+                    : request.getParameter("lastEventId");
+            if (lastEventIdString != null) {
+                lastEventId = Integer.parseInt(lastEventIdString);
+            }
+        } catch (NumberFormatException e) {
+            response.setStatus(400);
+            logger.error("Game event stream: Error trying to format parameters.", e);
+            return;
+        }
+
+        final HttpSession session = request.getSession();
+        final int userId = (int) session.getAttribute("uid");
+
+        // Resolved once per stream and before the stream is opened. Other responses than 200 make
+        // the browser stop reconnecting, so users who do not play the game are not polling forever.
+        final Role role = DatabaseAccess.getRole(userId, gameId);
+        if (role == null || role == Role.NONE) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            logger.warn("Game event stream: User {} is not a player of game {}.", userId, gameId);
+            return;
+        }
+        final User user = UserDAO.getUserById(userId);
+        if (user == null) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            logger.error("Game event stream: Could not find user {}.", userId);
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        // Disable response buffering of reverse proxies
+        response.setHeader("X-Accel-Buffering", "no");
+
+        final AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(STREAM_TIMEOUT);
+        final Stream stream = new Stream(asyncContext, response.getWriter(), session, type, userId, role,
+                user.getUsername(), gameId, lastEventId, request.getParameter("isDefender") != null);
+        asyncContext.addListener(stream);
+
+        stream.write("retry: " + RECONNECT_DELAY_MILLIS + "\n\n");
+        GameEventBus.subscribe(gameId, stream);
+        // Send the events stored since the client's last event and the current progress
+        stream.schedule();
+    }
+
+    /**
+     * An open event stream of one client.
+     */
+    private class Stream implements GameEventBus.Listener, AsyncListener {
+        private final AsyncContext asyncContext;
+        private final PrintWriter out;
+        private final HttpSession session;
+        private final NotificationType type;
+        private final int userId;
+        private final Role role;
+        private final String username;
+        private final int gameId;
+        private final boolean isDefender;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed = false;
+
+        private int lastEventId;
+        private TargetExecution.Target lastStatus;
+
+        private Stream(AsyncContext asyncContext, PrintWriter out, HttpSession session, NotificationType type,
+                       int userId, Role role, String username, int gameId, int lastEventId, boolean isDefender) {
+            this.asyncContext = asyncContext;
+            this.out = out;
+            this.session = session;
+            this.type = type;
+            this.userId = userId;
+            this.role = role;
+            this.username = username;
+            this.gameId = gameId;
+            this.lastEventId = lastEventId;
+            this.isDefender = isDefender;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            if (type == NotificationType.GAMEEVENT && event.getEventStatus() == EventStatus.GAME) {
+                schedule();
+            }
+        }
+
+        @Override
+        public void onProgress() {
+            if (type == NotificationType.PROGRESSBAR) {
+                schedule();
+            }
+        }
+
+        /**
+         * Schedules sending the changes to the client. Changes published while an update is
+         * already scheduled are sent with it.
+         */
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::update);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                    logger.warn("Could not schedule update of game event stream.", e);
+                    close();
+                }
+            }
+        }
+
+        private synchronized void update() {
+            scheduled.set(false);
+            if (closed) {
+                return;
+            }
+            try {
+                if (type == NotificationType.GAMEEVENT) {
+                    sendEvents();
+                } else {
+                    sendProgress();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to update game event stream for game " + gameId, e);
+                close();
+            }
+        }
+
+        private void sendEvents() throws IOException {
+            final List<Event> events = EventBuffers.getNewEventsForGame(gameId, lastEventId, role, "@" + username);
+            final StringWriter message = new StringWriter();
+            for (Event event : events) {
+                message.append("id: ").append(String.valueOf(event.getId())).append('\n')
+                        .append("event: gameevent\n")
+                        .append("data: ");
+                EventJsonWriter.writeEvents(message, Collections.singletonList(event));
+                message.append("\n\n");
+                lastEventId = Math.max(lastEventId, event.getId());
+            }
+            if (message.getBuffer().length() > 0) {
+                write(message.toString());
+            }
+        }
+
+        private void sendProgress() {
+            final TargetExecution.Target status = NotificationsHandler.getProgressBarStatus(session, userId, gameId, isDefender);
+            if (status != null && status != lastStatus) {
+                lastStatus = status;
+                write("event: progressbar\ndata: " + gson.toJson(Collections.singletonList(status)) + "\n\n");
+            }
+        }
+
+        private synchronized void write(String message) {
+            if (closed) {
+                return;
+            }
+            out.write(message);
+            out.flush();
+            if (out.checkError()) {
+                logger.debug("Client of game event stream for game {} disconnected.", gameId);
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            GameEventBus.unsubscribe(gameId, this);
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            closed = true;
+            GameEventBus.unsubscribe(gameId, this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
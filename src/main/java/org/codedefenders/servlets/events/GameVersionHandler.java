@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.events;
+
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.servlets.util.ServletUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This {@link HttpServlet} responds with the current {@link GameVersions version} of a game, so clients can
+ * poll whether anything changed in the game before requesting the game page or other game data.
+ * <p>
+ * Requires the following URL parameters:
+ * <ul>
+ *     <li><code>gameId</code></li>
+ * </ul>
+ * Responds with a JSON object of the form {@code {"gameId": 1, "version": 123}}. Responses carry the
+ * version as entity tag, so unchanged polls are answered with {@code 304 Not Modified}.
+ * <p>
+ * Serves on path: {@code /api/game_version}.
+ * @see org.codedefenders.util.Paths#API_GAME_VERSION
+ */
+public class GameVersionHandler extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(GameVersionHandler.class);
+
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final Optional<Integer> gameIdOpt = ServletUtils.gameId(request);
+        if (!gameIdOpt.isPresent()) {
+            logger.debug("Game version: Missing or invalid parameter gameId.");
+            response.setStatus(400);
+            return;
+        }
+        final int gameId = gameIdOpt.get();
+        if (ServletUtils.isNotModified(request, response, ServletUtils.gameETag(gameId, "version"))) {
+            return;
+        }
+
+        response.setContentType("application/json");
+        final PrintWriter out = response.getWriter();
+        out.print("{\"gameId\":" + gameId + ",\"version\":" + GameVersions.get(gameId) + "}");
+        out.flush();
+    }
+}
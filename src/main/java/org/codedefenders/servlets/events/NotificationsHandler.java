@@ -25,8 +25,9 @@ import org.codedefenders.database.UserDAO;
 import org.codedefenders.execution.TargetExecution;
 import org.codedefenders.game.Role;
 import org.codedefenders.model.Event;
-import org.codedefenders.model.EventStatus;
+import org.codedefenders.model.EventBuffers;
 import org.codedefenders.model.NotificationType;
+import org.codedefenders.servlets.util.ServletUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,7 +36,6 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -127,6 +127,26 @@ public class NotificationsHandler extends HttpServlet {
 		}
 
 		boolean isDefender = request.getParameter("isDefender") != null;
+		final TargetExecution.Target status = getProgressBarStatus(session, userId, gameId, isDefender);
+		final ArrayList<TargetExecution.Target> progressBarUpdates = new ArrayList<>();
+		if (status != null) {
+			progressBarUpdates.add(status);
+		}
+		final PrintWriter out = response.getWriter();
+		out.print(gson.toJson(progressBarUpdates));
+		out.flush();
+	}
+
+	/**
+	 * Retrieves the execution status of the last test or mutant the user submitted in the given game.
+	 *
+	 * @param session the session of the user.
+	 * @param userId the identifier of the user.
+	 * @param gameId the identifier of the game.
+	 * @param isDefender {@code true} for the status of the last test, {@code false} for the last mutant.
+	 * @return the last executed target of the submission, or {@code null} if there is none.
+	 */
+	static TargetExecution.Target getProgressBarStatus(HttpSession session, int userId, int gameId, boolean isDefender) {
 		final String attributeName = isDefender ? "lastTest" : "lastMutant";
 
 		// Check if we have any data on the last Submitted Test / Mutant
@@ -140,14 +160,7 @@ public class NotificationsHandler extends HttpServlet {
 			session.setAttribute(attributeName, lastSubmissionId);
 		}
 
-		final TargetExecution.Target status = DatabaseAccess.getStatusOfRequestForUserInGame(userId, gameId, lastSubmissionId, isDefender);
-		final ArrayList<TargetExecution.Target> progressBarUpdates = new ArrayList<>();
-		if (status != null) {
-			progressBarUpdates.add(status);
-		}
-		final PrintWriter out = response.getWriter();
-		out.print(gson.toJson(progressBarUpdates));
-		out.flush();
+		return DatabaseAccess.getStatusOfRequestForUserInGame(userId, gameId, lastSubmissionId, isDefender);
 	}
 
     /**
@@ -177,45 +190,40 @@ public class NotificationsHandler extends HttpServlet {
 		final Object lastMsg1 = request.getSession().getAttribute("lastMsg");
 		final int lastMessageId = lastMsg1 != null ? (Integer) lastMsg1 : 0;
 
-		final ArrayList<Event> events = new ArrayList<>(DatabaseAccess.getNewEquivalenceDuelEventsForGame(gameId, lastMessageId));
+		final String username = UserDAO.getUserById(userId).getUsername();
+		final List<Event> events = EventBuffers.getNewEquivalenceDuelEventsForGame(gameId, lastMessageId, "@" + username);
 		if (!events.isEmpty()) {
 			int lastMsg = Collections.max(events, Event.MAX_ID_COMPARATOR).getId();
 			session.setAttribute("lastMsg", lastMsg);
 		}
 
-		final String username = UserDAO.getUserById(userId).getUsername();
-		for (Event e : events) {
-			e.setCurrentUserName("@" + username);
-			e.parse(e.getEventStatus() == EventStatus.GAME);
-		}
-
-		PrintWriter out = response.getWriter();
-		out.print(gson.toJson(events));
-		out.flush();
+		EventJsonWriter.writeEvents(response.getWriter(), events);
 	}
 
 	/**
 	 * Handles a game event request, which requires the following URL parameters:
 	 * <ul>
 	 *     <li><code>gameId</code></li>
-	 *     <li><code>timestamp</code></li>
+	 *     <li><code>lastEventId</code>, the largest event identifier the client received so far</li>
 	 * </ul>
-     * If parameters are valid, responds with a JSON list of most recent game {@link Event Events}.
+     * If parameters are valid, responds with a JSON list of the game {@link Event Events} after the given event.
+	 * Responses carry the game's version as entity tag, so polls while nothing changed are answered
+	 * with {@code 304 Not Modified}.
 	 */
 	@SuppressWarnings("Duplicates")
 	private void handleGameEventRequest(HttpServletRequest request, HttpServletResponse response, int userId) throws IOException {
-		final String timestampString = request.getParameter("timestamp");
-		if (timestampString == null) {
+		final String lastEventIdString = request.getParameter("lastEventId");
+		if (lastEventIdString == null) {
 			response.setStatus(400);
-			logger.error("Game Event: Missing parameter timestamp.");
+			logger.error("Game Event: Missing parameter lastEventId.");
 			return;
 		}
-		long timestamp;
+		int lastEventId;
 		try {
-			timestamp = Long.parseLong(timestampString);
+			lastEventId = Integer.parseInt(lastEventIdString);
 		} catch (NumberFormatException e) {
 			response.setStatus(400);
-			logger.error("Game Event: Error trying to format timestamp.", e);
+			logger.error("Game Event: Error trying to format parameter lastEventId.", e);
 			return;
 		}
 		final String gameIdString = request.getParameter("gameId");
@@ -233,18 +241,15 @@ public class NotificationsHandler extends HttpServlet {
 			return;
 		}
 
-		final Role role = DatabaseAccess.getRole(userId, gameId);
-		final ArrayList<Event> events = new ArrayList<>(DatabaseAccess.getNewEventsForGame(gameId, timestamp, role));
+		if (ServletUtils.isNotModified(request, response, ServletUtils.gameETag(gameId, "events-" + userId))) {
+			return;
+		}
 
+		final Role role = DatabaseAccess.getRole(userId, gameId);
 		final String username = UserDAO.getUserById(userId).getUsername();
-		for (Event e : events) {
-			e.setCurrentUserName("@" + username);
-			e.parse(e.getEventStatus() == EventStatus.GAME);
-		}
+		final List<Event> events = EventBuffers.getNewEventsForGame(gameId, lastEventId, role, "@" + username);
 
-		PrintWriter out = response.getWriter();
-		out.print(gson.toJson(events));
-		out.flush();
+		EventJsonWriter.writeEvents(response.getWriter(), events);
 	}
 
 	/**
@@ -272,15 +277,8 @@ public class NotificationsHandler extends HttpServlet {
 		}
 
 		final String username = UserDAO.getUserById(userId).getUsername();
-		// DatabaseAccess#getNewEventsForUser(int, long) never returns null, so no need for extra check
-		final List<Event> events = DatabaseAccess.getNewEventsForUser(userId, timestamp)
-				.stream()
-				.peek(event -> event.setCurrentUserName("@" + username))
-				.peek(event -> event.parse(event.getEventStatus() == EventStatus.GAME))
-				.collect(Collectors.toList());
+		final List<Event> events = EventBuffers.getNewEventsForUser(userId, timestamp, "@" + username);
 
-		PrintWriter out = response.getWriter();
-		out.print(gson.toJson(events));
-		out.flush();
+		EventJsonWriter.writeEvents(response.getWriter(), events);
 	}
 }
\ No newline at end of file
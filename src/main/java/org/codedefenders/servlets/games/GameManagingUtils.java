@@ -111,7 +111,7 @@ public class GameManagingUtils {
         String classMutatedBaseName = classMutated.getBaseName();
 
         Path path = Paths.get(Constants.MUTANTS_DIR, subDirectory, String.valueOf(gameId), String.valueOf(ownerUserId));
-        File newMutantDir = FileUtils.getNextSubDir(path.toString());
+        File newMutantDir = FileUtils.getNextShardedSubDir(path.toString());
 
         logger.debug("NewMutantDir: {}", newMutantDir.getAbsolutePath());
         logger.debug("Class Mutated: {} (basename: {})", classMutated.getName(), classMutatedBaseName);
@@ -158,7 +158,7 @@ public class GameManagingUtils {
         GameClass cut = GameClassDAO.getClassForId(classId);
 
         Path path = Paths.get(TESTS_DIR, subDirectory, String.valueOf(gameId), String.valueOf(ownerUserId), "original");
-        File newTestDir = FileUtils.getNextSubDir(path.toString());
+        File newTestDir = FileUtils.getNextShardedSubDir(path.toString());
 
         String javaFile = FileUtils.createJavaTestFile(newTestDir, cut.getBaseName(), testText);
 
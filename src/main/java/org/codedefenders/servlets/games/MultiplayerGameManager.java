@@ -21,6 +21,7 @@ package org.codedefenders.servlets.games;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.xerces.util.SynchronizedSymbolTable;
 import org.codedefenders.database.DatabaseAccess;
+import org.codedefenders.database.UserDAO;
 import org.codedefenders.database.TargetExecutionDAO;
 import org.codedefenders.execution.ExecutorPool;
 import org.codedefenders.execution.MutationTester;
@@ -54,7 +55,6 @@ import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -389,8 +389,7 @@ public class MultiplayerGameManager extends HttpServlet {
                 if (DatabaseAccess.getJoinedMultiplayerGamesForUser(AiAttacker.ID).stream()
                         .filter(joinedGames -> joinedGames.getId() == activeGame.getId())
                         .findFirst().isPresent()) {
-                    int aiAttackerPlayerId = IntStream.of(activeGame.getAttackerIds())
-                            .filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiAttacker.ID).findFirst().getAsInt();
+                    int aiAttackerPlayerId = UserDAO.getPlayerIdForUser(activeGame.getAttackerIds(), AiAttacker.ID).getAsInt();
                     ExecutorPool.getInstanceOf().cancelTask(aiAttackerPlayerId, false);
                 } else {
                     logger.info("No Ai-Attacker in this game");
@@ -402,8 +401,7 @@ public class MultiplayerGameManager extends HttpServlet {
 				if (DatabaseAccess.getJoinedMultiplayerGamesForUser(AiDefender.ID).stream()
 						.filter(joinedGames -> joinedGames.getId() == activeGame.getId())
 						.findFirst().isPresent()) {
-					int aiDefenderPlayerId = IntStream.of(activeGame.getDefenderIds())
-							.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiDefender.ID).findFirst().getAsInt();
+					int aiDefenderPlayerId = UserDAO.getPlayerIdForUser(activeGame.getDefenderIds(), AiDefender.ID).getAsInt();
 					ExecutorPool.getInstanceOf().cancelTask(aiDefenderPlayerId, false);
 				} else {
 					logger.info("No Ai-Defender in this game");
@@ -417,15 +415,13 @@ public class MultiplayerGameManager extends HttpServlet {
 						.findFirst().isPresent();
 				int aiDefenderPlayerId = 0;
 				if (aiDefenderJoinedGame) {
-					aiDefenderPlayerId = IntStream.of(DatabaseAccess.getInactiveAndActivePlayersForMultiplayerGame(activeGame.getId(), Role.DEFENDER))
-							.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiDefender.ID).findFirst().getAsInt();
+					aiDefenderPlayerId = UserDAO.getPlayerIdForUser(DatabaseAccess.getInactiveAndActivePlayersForMultiplayerGame(activeGame.getId(), Role.DEFENDER), AiDefender.ID).getAsInt();
 				}
 				if (!aiDefenderJoinedGame || aiDefenderPlayerId != 0) {
 					boolean joinedGame;
 					if (aiDefenderPlayerId == 0) {
 						joinedGame = activeGame.addPlayer(AiDefender.ID, Role.DEFENDER);
-						aiDefenderPlayerId = IntStream.of(activeGame.getDefenderIds())
-								.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiDefender.ID).findFirst().getAsInt();
+						aiDefenderPlayerId = UserDAO.getPlayerIdForUser(activeGame.getDefenderIds(), AiDefender.ID).getAsInt();
 					} else {
 						DatabaseAccess.setPlayerIsActive(aiDefenderPlayerId, true);
 						joinedGame = true;
@@ -493,15 +489,13 @@ public class MultiplayerGameManager extends HttpServlet {
 
 				int aiAttackerPlayerId = 0;
 				if (aiAttackerJoinedGame) {
-					aiAttackerPlayerId = IntStream.of(DatabaseAccess.getInactiveAndActivePlayersForMultiplayerGame(activeGame.getId(), Role.ATTACKER))
-							.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiAttacker.ID).findFirst().getAsInt();
+					aiAttackerPlayerId = UserDAO.getPlayerIdForUser(DatabaseAccess.getInactiveAndActivePlayersForMultiplayerGame(activeGame.getId(), Role.ATTACKER), AiAttacker.ID).getAsInt();
 				}
 				if (!aiAttackerJoinedGame || aiAttackerPlayerId != 0) {
 					boolean joinedGame;
 					if (aiAttackerPlayerId == 0) {
 						joinedGame = activeGame.addPlayer(AiAttacker.ID, Role.ATTACKER);
-						aiAttackerPlayerId = IntStream.of(activeGame.getAttackerIds())
-								.filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiAttacker.ID).findFirst().getAsInt();
+						aiAttackerPlayerId = UserDAO.getPlayerIdForUser(activeGame.getAttackerIds(), AiAttacker.ID).getAsInt();
 					} else {
 						DatabaseAccess.setPlayerIsActive(aiAttackerPlayerId, true);
 						joinedGame = true;
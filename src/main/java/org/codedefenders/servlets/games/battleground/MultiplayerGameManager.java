@@ -28,6 +28,7 @@ import org.codedefenders.database.UserDAO;
 import org.codedefenders.execution.MutationTester;
 import org.codedefenders.execution.TargetExecution;
 import org.codedefenders.game.GameState;
+import org.codedefenders.game.GameVersions;
 import org.codedefenders.game.Mutant;
 import org.codedefenders.game.Role;
 import org.codedefenders.game.Test;
@@ -111,6 +112,12 @@ public class MultiplayerGameManager extends HttpServlet {
             return;
         }
         int gameId = gameIdOpt.get();
+        int userId = ServletUtils.userId(request);
+        if (ServletUtils.isGamePageNotModified(request, response, gameId, userId)) {
+            return;
+        }
+        // read before any game data is loaded, see GameFragmentCache
+        final long gameVersion = GameVersions.get(gameId);
 
         MultiplayerGame game = MultiplayerGameDAO.getMultiplayerGame(gameId);
         if (game == null) {
@@ -118,7 +125,6 @@ public class MultiplayerGameManager extends HttpServlet {
             response.sendRedirect(request.getContextPath() + Paths.GAMES_OVERVIEW);
             return;
         }
-        int userId = ServletUtils.userId(request);
         int playerId = DatabaseAccess.getPlayerIdForMultiplayerGame(userId, gameId);
 
         if (playerId == -1 && game.getCreatorId() != userId) {
@@ -138,6 +144,7 @@ public class MultiplayerGameManager extends HttpServlet {
                 });
 
         request.setAttribute("game", game);
+        request.setAttribute("gameVersion", gameVersion);
 
         RequestDispatcher dispatcher = request.getRequestDispatcher(Constants.BATTLEGROUND_GAME_VIEW_JSP);
         dispatcher.forward(request, response);
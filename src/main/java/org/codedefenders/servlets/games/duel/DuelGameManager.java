@@ -99,6 +99,9 @@ public class DuelGameManager extends HttpServlet {
             return;
         }
         int gameId = gameIdOpt.get();
+        if (ServletUtils.isGamePageNotModified(request, response, gameId, userId)) {
+            return;
+        }
 
         final DuelGame game = DuelGameDAO.getDuelGameForId(gameId);
         if (game == null) {
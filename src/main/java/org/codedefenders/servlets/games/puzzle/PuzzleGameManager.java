@@ -97,6 +97,9 @@ public class PuzzleGameManager extends HttpServlet {
         boolean fromGameId = gameIdOpt.isPresent(); // else from puzzleId
         if (fromGameId) {
             final int gameId = gameIdOpt.get();
+            if (ServletUtils.isGamePageNotModified(request, response, gameId, userId)) {
+                return;
+            }
             game = PuzzleDAO.getPuzzleGameForId(gameId);
 
             if (game == null) {
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import org.codedefenders.database.EntityCache;
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.game.Role;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots.Snapshot;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Caches rendered page components, e.g. the mutants list or the tests carousel, and component data,
+ * e.g. the game highlighting JSON, which are the same for all players of a role in a game.
+ * <p>
+ * Fragments are cached per game, role and fragment name together with the {@link GameVersions version}
+ * of the game they were rendered for, and are only returned as long as the version did not change.
+ * Cached fragments additionally expire after a minute, because the database event
+ * {@code proc_multiplayer_task} changes games without increasing their version.
+ * <p>
+ * Caching is enabled per request with {@link #enable(HttpServletRequest, int, long, Role)}. The version
+ * must be read before any game data is loaded for the request, so a fragment is never stored for a newer
+ * version than the data it was rendered from. Without enabling, {@link #get(HttpServletRequest, String)}
+ * always misses and {@link #put(HttpServletRequest, String, String)} does nothing, so components can be
+ * included in pages which do not use the cache.
+ * <p>
+ * Pages of finished games use {@link #enableSnapshot(HttpServletRequest, Snapshot, Role)} instead,
+ * which stores fragments in the game's {@link FinishedGameSnapshots snapshot} without expiration.
+ */
+public class GameFragmentCache {
+    private static final String REQUEST_ATTRIBUTE = "gameFragmentCacheKey";
+
+    private static final EntityCache<Key, Fragment> cache =
+            new EntityCache<>("Game fragments", 1000, 1, TimeUnit.MINUTES);
+
+    private GameFragmentCache() {
+    }
+
+    /**
+     * Enables caching of fragments for the given request.
+     *
+     * @param request the request of the game page.
+     * @param gameId  the identifier of the game.
+     * @param version the version of the game, read before the game data was loaded.
+     * @param role    the role of the requesting user.
+     */
+    public static void enable(HttpServletRequest request, int gameId, long version, Role role) {
+        request.setAttribute(REQUEST_ATTRIBUTE, new RequestKey(gameId, version, role, null));
+    }
+
+    /**
+     * Enables caching of fragments in the snapshot of a finished game for the given request.
+     *
+     * @param request  the request of the game page.
+     * @param snapshot the snapshot of the finished game.
+     * @param role     the role of the requesting user.
+     */
+    public static void enableSnapshot(HttpServletRequest request, Snapshot snapshot, Role role) {
+        request.setAttribute(REQUEST_ATTRIBUTE, new RequestKey(snapshot.getGameId(), 0, role, snapshot));
+    }
+
+    /**
+     * @param request the request of the game page.
+     * @param name    the name of the fragment.
+     * @return the cached fragment, or {@code null} if caching is disabled or no up to date fragment is cached.
+     */
+    public static String get(HttpServletRequest request, String name) {
+        final RequestKey requestKey = (RequestKey) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (requestKey == null) {
+            return null;
+        }
+        if (requestKey.snapshot != null) {
+            return requestKey.snapshot.getFragment(requestKey.role, name);
+        }
+        final Fragment fragment = cache.getIfPresent(new Key(requestKey, name));
+        if (fragment == null || fragment.version != requestKey.version) {
+            return null;
+        }
+        return fragment.content;
+    }
+
+    /**
+     * Returns the cached fragment or computes and caches it.
+     *
+     * @param request the request of the game page.
+     * @param name    the name of the fragment.
+     * @param content computes the fragment, only called if no up to date fragment is cached.
+     * @return the cached or computed fragment.
+     */
+    public static String get(HttpServletRequest request, String name, Supplier<String> content) {
+        String fragment = get(request, name);
+        if (fragment == null) {
+            fragment = content.get();
+            put(request, name, fragment);
+        }
+        return fragment;
+    }
+
+    /**
+     * Caches a rendered fragment for the version of the request.
+     *
+     * @param request the request of the game page.
+     * @param name    the name of the fragment.
+     * @param content the rendered fragment.
+     */
+    public static void put(HttpServletRequest request, String name, String content) {
+        final RequestKey requestKey = (RequestKey) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (requestKey == null || content == null) {
+            return;
+        }
+        if (requestKey.snapshot != null) {
+            requestKey.snapshot.putFragment(requestKey.role, name, content);
+            return;
+        }
+        cache.put(new Key(requestKey, name), new Fragment(requestKey.version, content));
+    }
+
+    private static class RequestKey {
+        private final int gameId;
+        private final long version;
+        private final Role role;
+        private final Snapshot snapshot;
+
+        private RequestKey(int gameId, long version, Role role, Snapshot snapshot) {
+            this.gameId = gameId;
+            this.version = version;
+            this.role = role;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private static class Key {
+        private final int gameId;
+        private final Role role;
+        private final String name;
+
+        private Key(RequestKey requestKey, String name) {
+            this.gameId = requestKey.gameId;
+            this.role = requestKey.role;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return gameId == key.gameId && role == key.role && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gameId, role, name);
+        }
+    }
+
+    private static class Fragment {
+        private final long version;
+        private final String content;
+
+        private Fragment(long version, String content) {
+            this.version = version;
+            this.content = content;
+        }
+    }
+}
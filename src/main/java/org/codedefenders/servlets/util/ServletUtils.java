@@ -18,15 +18,22 @@
  */
 package org.codedefenders.servlets.util;
 
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots.Snapshot;
+import org.codedefenders.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
 /**
  * This class offers static methods, which offer functionality useful for {@link HttpServlet} implementations.
@@ -178,4 +185,112 @@ public final class ServletUtils {
     public static <T> T parameterThenOrOther(HttpServletRequest request, String parameter, T then, T other) {
         return Optional.ofNullable(request.getParameter(parameter)).map(s -> then).orElse(other);
     }
+
+    /**
+     * Returns an entity tag for a response about the given game, which is only valid as long as the
+     * {@link GameVersions version} of the game does not change.
+     * <p>
+     * The database event {@code proc_multiplayer_task} changes games without increasing their
+     * version, so entity tags additionally change every minute.
+     *
+     * @param gameId  the identifier of the game.
+     * @param variant distinguishes different responses for the same game, e.g. for different users.
+     * @return a weak entity tag.
+     */
+    public static String gameETag(int gameId, String variant) {
+        final long minute = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+        return "W/\"" + gameId + "-" + GameVersions.get(gameId) + "-" + minute + "-" + variant + "\"";
+    }
+
+    /**
+     * Handles a conditional {@code GET} request with the given entity tag. Sets the entity tag of the response
+     * and requires clients to revalidate cached responses. If the request's {@code If-None-Match} header matches
+     * the entity tag, responds with {@code 304 Not Modified} and the caller must not write a body.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param etag     the entity tag of the current response.
+     * @return {@code true} if the client's cached response is up to date, {@code false} otherwise.
+     */
+    public static boolean isNotModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        return isNotModified(request, response, etag, "private, no-cache");
+    }
+
+    /**
+     * Handles a conditional {@code GET} request with the given entity tag, as
+     * {@link #isNotModified(HttpServletRequest, HttpServletResponse, String)}, but with the given
+     * {@code Cache-Control} header, e.g. to allow clients to use the cached response without revalidation.
+     *
+     * @param request      the request.
+     * @param response     the response.
+     * @param etag         the entity tag of the current response.
+     * @param cacheControl the value of the {@code Cache-Control} header.
+     * @return {@code true} if the client's cached response is up to date, {@code false} otherwise.
+     */
+    public static boolean isNotModified(HttpServletRequest request, HttpServletResponse response, String etag,
+                                        String cacheControl) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", cacheControl);
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            final String trimmed = tag.trim();
+            if (trimmed.equals(etag) || trimmed.equals("*")) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles a conditional {@code GET} request for the page of the given game, as
+     * {@link #isNotModified(HttpServletRequest, HttpServletResponse, String)}.
+     * <p>
+     * Pages which show messages or submissions stored in the session only once are never answered
+     * from the client's cache and are sent without an entity tag.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param gameId   the identifier of the game.
+     * @param userId   the identifier of the user requesting the page.
+     * @return {@code true} if the client's cached page is up to date, {@code false} otherwise.
+     */
+    public static boolean isGamePageNotModified(HttpServletRequest request, HttpServletResponse response,
+                                                int gameId, int userId) {
+        if (hasSessionMessages(request)) {
+            return false;
+        }
+        return isNotModified(request, response, gameETag(gameId, "page-" + userId));
+    }
+
+    /**
+     * Handles a conditional {@code GET} request for the page of a finished game, which is served from the
+     * given {@link Snapshot snapshot}. The page does not change as long as the snapshot exists. Since the
+     * snapshot is invalidated when the game or its feedback changes, clients must revalidate their cached page.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param snapshot the snapshot of the finished game.
+     * @param userId   the identifier of the user requesting the page.
+     * @return {@code true} if the client's cached page is up to date, {@code false} otherwise.
+     */
+    public static boolean isFinishedGamePageNotModified(HttpServletRequest request, HttpServletResponse response,
+                                                        Snapshot snapshot, int userId) {
+        if (hasSessionMessages(request)) {
+            return false;
+        }
+        final String etag = "W/\"finished-" + snapshot.getGameId() + "-" + snapshot.getCreatedAt() + "-" + userId + "\"";
+        return isNotModified(request, response, etag);
+    }
+
+    private static boolean hasSessionMessages(HttpServletRequest request) {
+        final HttpSession session = request.getSession();
+        final Object messages = session.getAttribute("messages");
+        return (messages instanceof Collection && !((Collection<?>) messages).isEmpty())
+                || session.getAttribute(Constants.SESSION_ATTRIBUTE_PREVIOUS_TEST) != null
+                || session.getAttribute(Constants.SESSION_ATTRIBUTE_PREVIOUS_MUTANT) != null;
+    }
 }
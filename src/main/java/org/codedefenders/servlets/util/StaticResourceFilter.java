@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the {@link StaticResources static resources} of the web application with caching headers
+ * and compressed, if the client accepts it. Runs before the {@link org.codedefenders.servlets.auth.LoginFilter
+ * LoginFilter}, so compressed resources are served without looking up the session's user.
+ * <p>
+ * Requests with the current fingerprint of the resource, see {@link StaticResources#url(ServletContext, String)},
+ * are cached by clients for a year. All other requests must be revalidated.
+ * Resources which are not compressed are passed on to the container's default servlet.
+ */
+public class StaticResourceFilter implements Filter {
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    private ServletContext context;
+
+    public void init(FilterConfig config) throws ServletException {
+        context = config.getServletContext();
+    }
+
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        final HttpServletRequest httpRequest = (HttpServletRequest) request;
+        final HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        final String method = httpRequest.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // The servlet path is decoded and normalized by the container, unlike the request URI
+        final String pathInfo = httpRequest.getPathInfo();
+        final String path = httpRequest.getServletPath() + (pathInfo == null ? "" : pathInfo);
+        final String fingerprint = StaticResources.fingerprint(context, path);
+        if (fingerprint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final String cacheControl = fingerprint.equals(request.getParameter(StaticResources.VERSION_PARAMETER))
+                ? CACHE_IMMUTABLE : CACHE_REVALIDATE;
+
+        final String mimeType = context.getMimeType(path);
+        if (!StaticResources.isCompressible(mimeType)) {
+            httpResponse.setHeader("Cache-Control", cacheControl);
+            chain.doFilter(request, response);
+            return;
+        }
+        httpResponse.setHeader("Vary", "Accept-Encoding");
+
+        final String acceptEncoding = httpRequest.getHeader("Accept-Encoding");
+        String encoding = null;
+        byte[] body = null;
+        if (StaticResources.accepts(acceptEncoding, "br")) {
+            encoding = "br";
+            body = StaticResources.compressed(context, path, encoding);
+        }
+        if (body == null && StaticResources.accepts(acceptEncoding, "gzip")) {
+            encoding = "gzip";
+            body = StaticResources.compressed(context, path, encoding);
+        }
+        if (body == null) {
+            httpResponse.setHeader("Cache-Control", cacheControl);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final String etag = "\"" + fingerprint + "-" + encoding + "\"";
+        if (ServletUtils.isNotModified(httpRequest, httpResponse, etag, cacheControl)) {
+            return;
+        }
+        httpResponse.setContentType(mimeType);
+        httpResponse.setHeader("Content-Encoding", encoding);
+        httpResponse.setContentLength(body.length);
+        if (method.equals("GET")) {
+            httpResponse.getOutputStream().write(body);
+        }
+    }
+
+    public void destroy() { }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import org.codedefenders.database.EntityCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletContext;
+
+/**
+ * Utilities for static resources of the web application, i.e. the JavaScript, CSS, font,
+ * image and CodeMirror files.
+ * <p>
+ * Static resources are fingerprinted with a checksum of their content. Pages reference them with
+ * {@link #url(ServletContext, String)}, which appends the fingerprint to the URL, so clients can cache
+ * them indefinitely and still load a new version after a redeployment.
+ * <p>
+ * Compressed variants of text resources are kept in memory. Variants precompressed during the
+ * build or deployment, i.e. files with the same name and a {@code .br} or {@code .gz} extension,
+ * are preferred. Otherwise, resources are gzip compressed once on their first request.
+ *
+ * @see StaticResourceFilter
+ */
+public class StaticResources {
+    private static final Logger logger = LoggerFactory.getLogger(StaticResources.class);
+
+    /**
+     * The request parameter which contains the fingerprint of a static resource.
+     */
+    public static final String VERSION_PARAMETER = "v";
+
+    private static final Pattern STATIC_RESOURCE =
+            Pattern.compile("^.*/(css|js|images|fonts|codemirror)/.*$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Resources larger than this are not compressed on the fly.
+     */
+    private static final int MAX_COMPRESSED_SIZE = 1024 * 1024;
+
+    private static final EntityCache<String, String> fingerprints =
+            new EntityCache<>("Static resource fingerprints", 2000, 1, TimeUnit.DAYS);
+    private static final EntityCache<String, byte[]> variants =
+            new EntityCache<>("Compressed static resources", 500, 1, TimeUnit.DAYS);
+
+    private StaticResources() {
+    }
+
+    /**
+     * @param path the request URI or the path of the requested resource.
+     * @return {@code true} if the path denotes a static resource, {@code false} otherwise.
+     */
+    public static boolean isStaticResource(String path) {
+        return STATIC_RESOURCE.matcher(path).matches();
+    }
+
+    /**
+     * Returns the fingerprinted URL of the given static resource.
+     *
+     * @param context the servlet context.
+     * @param path    the path of the resource relative to the context root, e.g. {@code js/jquery.js}.
+     * @return the path with the fingerprint of the resource as parameter, or the given path if
+     * the resource does not exist.
+     */
+    public static String url(ServletContext context, String path) {
+        final String fingerprint = fingerprint(context, path.startsWith("/") ? path : "/" + path);
+        return fingerprint == null ? path : path + "?" + VERSION_PARAMETER + "=" + fingerprint;
+    }
+
+    /**
+     * Returns the fingerprint of the given resource, computed once from its content.
+     * Static resources do not change while the application is deployed.
+     *
+     * @param context the servlet context.
+     * @param path    the normalized path of the resource, starting with {@code /}.
+     * @return the fingerprint, or {@code null} if the resource does not exist.
+     */
+    public static String fingerprint(ServletContext context, String path) {
+        return fingerprints.get(path, key -> {
+            final byte[] content = read(context, key);
+            if (content == null) {
+                return null;
+            }
+            final CRC32 checksum = new CRC32();
+            checksum.update(content);
+            return Long.toHexString(checksum.getValue());
+        });
+    }
+
+    /**
+     * @param mimeType the MIME type of a resource, may be {@code null}.
+     * @return {@code true} if resources of the given type benefit from compression, {@code false} otherwise.
+     */
+    public static boolean isCompressible(String mimeType) {
+        return mimeType != null && (mimeType.startsWith("text/")
+                || mimeType.equals("application/javascript")
+                || mimeType.equals("application/json")
+                || mimeType.equals("image/svg+xml"));
+    }
+
+    /**
+     * Returns the given resource compressed with the given content coding.
+     *
+     * @param context  the servlet context.
+     * @param path     the path of the resource, starting with {@code /}.
+     * @param encoding the content coding, either {@code br} or {@code gzip}.
+     * @return the compressed resource, or {@code null} if no compressed variant is available.
+     */
+    public static byte[] compressed(ServletContext context, String path, String encoding) {
+        return variants.get(encoding + ":" + path, key -> {
+            switch (encoding) {
+                case "br":
+                    return read(context, path + ".br");
+                case "gzip":
+                    final byte[] precompressed = read(context, path + ".gz");
+                    if (precompressed != null) {
+                        return precompressed;
+                    }
+                    final byte[] content = read(context, path);
+                    return content == null || content.length > MAX_COMPRESSED_SIZE ? null : gzip(content);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * Checks whether the given {@code Accept-Encoding} header accepts the given content coding.
+     *
+     * @param acceptEncoding the value of the header, may be {@code null}.
+     * @param encoding       the content coding.
+     * @return {@code true} if the content coding is accepted, {@code false} otherwise.
+     */
+    public static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(encoding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                final String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static byte[] gzip(byte[] content) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            logger.error("Could not compress static resource.", e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] read(ServletContext context, String path) {
+        try (InputStream in = context.getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            logger.error("Could not read static resource " + path, e);
+            return null;
+        }
+    }
+}
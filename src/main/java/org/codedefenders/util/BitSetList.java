@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, sorted {@link java.util.List List} of distinct non-negative integers, e.g. line numbers,
+ * which is backed by a {@link BitSet}.
+ * <p>
+ * {@link #contains(Object)} runs in constant time and set operations between
+ * two instances, like {@link #intersects(Collection)}, work on whole words of the bit sets
+ * instead of single elements. Elements are returned in ascending order.
+ */
+public class BitSetList extends AbstractList<Integer> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 2934104519617283641L;
+
+    private static final BitSetList EMPTY = new BitSetList(new BitSet());
+
+    private final BitSet bits;
+    private final int[] elements;
+
+    /**
+     * Creates a list of the set bits of the given {@link BitSet}. The bit set is copied.
+     */
+    public BitSetList(BitSet bits) {
+        this.bits = (BitSet) bits.clone();
+        this.elements = this.bits.stream().toArray();
+    }
+
+    /**
+     * Returns a list of the given integers, without duplicates and sorted in ascending order.
+     * If the given collection already is a {@link BitSetList}, it is returned as is.
+     *
+     * @param values the integers, may be {@code null}.
+     * @return a list of the given integers.
+     * @throws IllegalArgumentException if one of the given integers is {@code null} or negative.
+     */
+    public static BitSetList of(Collection<Integer> values) {
+        if (values instanceof BitSetList) {
+            return (BitSetList) values;
+        }
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        return new BitSetList(toBitSet(values));
+    }
+
+    /**
+     * Returns a list of the set bits of the given {@link BitSet}, e.g. decoded {@link LineBitmaps}.
+     * The bit set is copied.
+     *
+     * @param bits the bit set, may be {@code null}.
+     * @return a list of the set bits.
+     */
+    public static BitSetList of(BitSet bits) {
+        if (bits == null || bits.isEmpty()) {
+            return EMPTY;
+        }
+        return new BitSetList(bits);
+    }
+
+    /**
+     * @return an empty list.
+     */
+    public static BitSetList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Converts the given integers into a {@link BitSet}. For {@link BitSetList BitSetLists},
+     * a copy of the backing bit set is returned.
+     *
+     * @param values the integers, may be {@code null}.
+     * @return a new bit set with the given integers set.
+     * @throws IllegalArgumentException if one of the given integers is {@code null} or negative.
+     */
+    public static BitSet toBitSet(Collection<Integer> values) {
+        if (values instanceof BitSetList) {
+            return ((BitSetList) values).toBitSet();
+        }
+        final BitSet result = new BitSet();
+        if (values != null) {
+            for (Integer value : values) {
+                if (value == null || value < 0) {
+                    throw new IllegalArgumentException("Invalid value: " + value);
+                }
+                result.set(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a copy of the backing {@link BitSet}.
+     */
+    public BitSet toBitSet() {
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * Returns whether this list and the given collection have at least one element in common.
+     *
+     * @param other the other collection.
+     * @return {@code true} if the collections intersect, {@code false} otherwise.
+     */
+    public boolean intersects(Collection<Integer> other) {
+        if (other instanceof BitSetList) {
+            return bits.intersects(((BitSetList) other).bits);
+        }
+        for (Integer value : other) {
+            if (contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value the checked integer.
+     * @return {@code true} if this list contains the given integer, {@code false} otherwise.
+     */
+    public boolean contains(int value) {
+        return value >= 0 && bits.get(value);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!contains(o)) {
+            return -1;
+        }
+        // the index of a set bit is the number of set bits before it
+        final int value = (Integer) o;
+        return value == 0 ? 0 : bits.get(0, value).cardinality();
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+}
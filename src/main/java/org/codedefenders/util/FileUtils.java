@@ -27,16 +27,22 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
-import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 import javassist.ClassPool;
 import javassist.CtClass;
@@ -67,40 +73,140 @@ public class FileUtils {
         return path.toString();
     }
 
+    /**
+     * Number of numbered directories, which are stored in one shard directory.
+     *
+     * @see #getNextShardedSubDir(String)
+     */
+    static final int SHARD_SIZE = 1000;
+    private static final String SUB_DIR_FORMAT = "%08d";
+    private static final String SHARD_DIR_FORMAT = "%05d";
+    private static final int SHARD_DIR_NAME_LENGTH = 5;
+
+    /**
+     * Counters of the last allocated numbered directory, mapped by the absolute parent directory path.
+     * A counter is initialized from the file system once and is incremented under its own lock afterwards.
+     */
+    private static final Map<Path, AtomicInteger> subDirCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates and returns a new numbered directory in the given directory, e.g. {@code path/00000003}.
+     * <p>
+     * The numbers are allocated from an in-memory counter per directory, which is initialized
+     * from the existing directories on first use. Concurrent calls never return the same directory.
+     *
+     * @param path the parent directory.
+     * @return the newly created directory.
+     */
     public static File getNextSubDir(String path) {
-        File folder = new File(path);
-        folder.mkdirs();
-        String[] directories = folder.list(new FilenameFilter() {
-            @Override
-            public boolean accept(File current, String name) {
-                return new File(current, name).isDirectory() && (isParsable(name));
+        final Path folder = Paths.get(path).toAbsolutePath();
+        return allocateSubDir(folder, index -> flatSubDir(folder, index));
+    }
+
+    /**
+     * Similar to {@link #getNextSubDir(String)}, but the numbered directories are grouped
+     * into shard directories of {@link #SHARD_SIZE} directories each, e.g. {@code path/00001/00001042}.
+     * This keeps the number of entries per directory bounded.
+     * <p>
+     * Numbers are shared with directories created by {@link #getNextSubDir(String)}, so
+     * both layouts can coexist in the same parent directory.
+     *
+     * @param path the parent directory.
+     * @return the newly created directory.
+     */
+    public static File getNextShardedSubDir(String path) {
+        final Path folder = Paths.get(path).toAbsolutePath();
+        return allocateSubDir(folder, index -> shardedSubDir(folder, index));
+    }
+
+    private static Path flatSubDir(Path folder, int index) {
+        return folder.resolve(String.format(SUB_DIR_FORMAT, index));
+    }
+
+    private static Path shardedSubDir(Path folder, int index) {
+        return folder.resolve(String.format(SHARD_DIR_FORMAT, index / SHARD_SIZE))
+                .resolve(String.format(SUB_DIR_FORMAT, index));
+    }
+
+    private static File allocateSubDir(Path folder, IntFunction<Path> layout) {
+        final AtomicInteger counter = subDirCounters.computeIfAbsent(folder, FileUtils::recoverSubDirCounter);
+        // Directories of one folder are allocated and created under the lock of its counter,
+        // so the last allocated directory always exists when the next one is allocated.
+        synchronized (counter) {
+            final int last = counter.get();
+            if (last > 0
+                    && !Files.isDirectory(flatSubDir(folder, last))
+                    && !Files.isDirectory(shardedSubDir(folder, last))) {
+                // The last allocated directory was removed (e.g. the folder was cleaned up), so the
+                // counter is initialized from the file system again.
+                counter.set(recoverSubDirCounter(folder).get());
+            }
+            Path newDir = layout.apply(counter.incrementAndGet());
+            while (!createDirectory(newDir)) {
+                // e.g. created by another application instance, try the next number
+                newDir = layout.apply(counter.incrementAndGet());
             }
-        });
-        Arrays.sort(directories);
-        String newPath;
-        if (directories.length == 0)
-            newPath = folder.getAbsolutePath() + F_SEP + "00000001";
-        else {
-            File lastDir = new File(directories[directories.length - 1]);
-            int newIndex = Integer.parseInt(lastDir.getName()) + 1;
-            String formatted = String.format("%08d", newIndex);
-
-            newPath = path + F_SEP + formatted;
+            return newDir.toFile();
         }
-        File newDir = new File(newPath);
-        newDir.mkdirs();
-        return newDir;
     }
 
-    private static boolean isParsable(String input) {
-        boolean parsable = true;
+    /**
+     * Creates the given directory and all its parents.
+     *
+     * @return {@code true} if the directory was created, {@code false} if it already existed.
+     */
+    private static boolean createDirectory(Path dir) {
         try {
-            Integer.parseInt(input);
-        } catch (NumberFormatException e) {
-            parsable = false;
+            Files.createDirectories(dir.getParent());
+            Files.createDirectory(dir);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException e) {
+            logger.error("Could not create directory " + dir, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Initializes a directory counter with the highest number of the numbered
+     * directories in the given folder and in its highest shard directory.
+     */
+    private static AtomicInteger recoverSubDirCounter(Path folder) {
+        int max = 0;
+        int maxShard = -1;
+        for (String name : listNumberedDirectories(folder)) {
+            final int number = Integer.parseInt(name);
+            max = Math.max(max, number);
+            if (name.length() == SHARD_DIR_NAME_LENGTH) {
+                maxShard = Math.max(maxShard, number);
+            }
+        }
+        if (maxShard >= 0) {
+            final Path shard = folder.resolve(String.format(SHARD_DIR_FORMAT, maxShard));
+            for (String name : listNumberedDirectories(shard)) {
+                max = Math.max(max, Integer.parseInt(name));
+            }
         }
+        return new AtomicInteger(max);
+    }
 
-        return parsable;
+    private static List<String> listNumberedDirectories(Path folder) {
+        final String[] directories = folder.toFile().list((current, name) ->
+                isParsable(name) && new File(current, name).isDirectory());
+        return directories == null ? new ArrayList<>() : Arrays.asList(directories);
+    }
+
+    private static boolean isParsable(String input) {
+        if (input.isEmpty() || input.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < input.length(); i++) {
+            if (!Character.isDigit(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static List<String> readLines(Path path) {
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Encodes and decodes sets of line numbers, e.g. covered lines of a test or
+ * mutated lines of a mutant, into a compact binary format for storing them in the database.
+ * <p>
+ * The first byte of an encoded value specifies its format:
+ * <ul>
+ * <li>{@link #FORMAT_BITMAP}: the remaining bytes are a little endian bitmap,
+ * as returned by {@link BitSet#toByteArray()}.</li>
+ * <li>{@link #FORMAT_RUNS}: the remaining bytes are pairs of variable length integers,
+ * the gap to the end of the previous run and the length of the run. Used for sparse or
+ * mostly consecutive lines, e.g. a single mutated line or the lines of a covered method.</li>
+ * </ul>
+ * {@link #encode(Collection)} picks the smaller format.
+ * <p>
+ * Line numbers must not be negative. Duplicate line numbers are dropped
+ * and decoded line numbers are sorted in ascending order.
+ */
+public class LineBitmaps {
+    public static final byte FORMAT_BITMAP = 0;
+    public static final byte FORMAT_RUNS = 1;
+
+    private LineBitmaps() {
+    }
+
+    /**
+     * Encodes the given line numbers.
+     *
+     * @param lines the line numbers, may be {@code null}.
+     * @return the encoded lines, never {@code null}.
+     */
+    public static byte[] encode(Collection<Integer> lines) {
+        final BitSet bitSet = new BitSet();
+        if (lines != null) {
+            for (Integer line : lines) {
+                if (line == null || line < 0) {
+                    throw new IllegalArgumentException("Invalid line number: " + line);
+                }
+                bitSet.set(line);
+            }
+        }
+        return encode(bitSet);
+    }
+
+    /**
+     * Encodes the line numbers set in the given {@link BitSet}.
+     *
+     * @param lines the line numbers.
+     * @return the encoded lines, never {@code null}.
+     */
+    public static byte[] encode(BitSet lines) {
+        final byte[] bitmap = lines.toByteArray();
+
+        final ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        runs.write(FORMAT_RUNS);
+        int previousEnd = 0;
+        int start = lines.nextSetBit(0);
+        while (start >= 0 && runs.size() <= bitmap.length) {
+            final int end = lines.nextClearBit(start);
+            writeVarInt(runs, start - previousEnd);
+            writeVarInt(runs, end - start);
+            previousEnd = end;
+            start = lines.nextSetBit(end);
+        }
+
+        if (start < 0 && runs.size() <= bitmap.length) {
+            return runs.toByteArray();
+        }
+        final byte[] result = new byte[bitmap.length + 1];
+        result[0] = FORMAT_BITMAP;
+        System.arraycopy(bitmap, 0, result, 1, bitmap.length);
+        return result;
+    }
+
+    /**
+     * Decodes the given encoded lines into a {@link BitSet}.
+     *
+     * @param encoded the encoded lines, may be {@code null} or empty.
+     * @return the decoded lines, never {@code null}.
+     * @throws IllegalArgumentException if the given bytes are no valid encoding.
+     */
+    public static BitSet decode(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return new BitSet();
+        }
+        switch (encoded[0]) {
+            case FORMAT_BITMAP:
+                return BitSet.valueOf(Arrays.copyOfRange(encoded, 1, encoded.length));
+            case FORMAT_RUNS:
+                final BitSet result = new BitSet();
+                final int[] position = {1};
+                int previousEnd = 0;
+                while (position[0] < encoded.length) {
+                    final int start = previousEnd + readVarInt(encoded, position);
+                    final int end = start + readVarInt(encoded, position);
+                    result.set(start, end);
+                    previousEnd = end;
+                }
+                return result;
+            default:
+                throw new IllegalArgumentException("Unknown line bitmap format: " + encoded[0]);
+        }
+    }
+
+    /**
+     * Decodes the given encoded lines into a sorted {@link List}.
+     *
+     * @param encoded the encoded lines, may be {@code null} or empty.
+     * @return the decoded lines, never {@code null}.
+     */
+    public static List<Integer> decodeToList(byte[] encoded) {
+        return toList(decode(encoded));
+    }
+
+    /**
+     * Parses lines stored as comma separated values, the format used before the binary encoding.
+     *
+     * @param lines the comma separated lines, may be {@code null} or empty.
+     * @return the parsed lines, never {@code null}.
+     */
+    public static List<Integer> parseLegacy(String lines) {
+        final List<Integer> result = new ArrayList<>();
+        if (lines == null || lines.isEmpty()) {
+            return result;
+        }
+        for (String line : lines.split(",")) {
+            result.add(Integer.parseInt(line.trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the set bits of the given {@link BitSet} as a sorted {@link List}.
+     */
+    public static List<Integer> toList(BitSet lines) {
+        final List<Integer> result = new ArrayList<>(lines.cardinality());
+        for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+            result.add(line);
+        }
+        return result;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= bytes.length || shift > 28) {
+                throw new IllegalArgumentException("Truncated line bitmap.");
+            }
+            final byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -68,6 +68,8 @@ public class Paths {
     public static final String ADMIN_ANALYTICS_KILLMAPS = "/admin/analytics/killmaps";
 
     public static final String API_NOTIFICATION = "/api/notifications";
+    public static final String API_GAME_EVENTS = "/api/game_events";
+    public static final String API_GAME_VERSION = "/api/game_version";
     public static final String API_MESSAGES = "/api/messages"; // path used in messaging.js
     public static final String API_MUTANTS = "/api/game_mutants";
     public static final String API_FEEDBACK = "/api/feedback";
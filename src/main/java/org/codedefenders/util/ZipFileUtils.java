@@ -19,10 +19,14 @@
 package org.codedefenders.util;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,7 +35,9 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 /**
  * This class offers static utility classes for creating and
@@ -41,6 +47,13 @@ import java.util.zip.ZipFile;
  */
 public class ZipFileUtils {
 
+    /** Default maximum number of files extracted from a zip file. */
+    public static final int MAX_ENTRIES = 5000;
+    /** Default maximum uncompressed size of a single file in a zip file in bytes. */
+    public static final long MAX_ENTRY_SIZE = 1024 * 1024;
+    /** Default maximum uncompressed size of all files in a zip file in bytes. */
+    public static final long MAX_TOTAL_SIZE = 64 * 1024 * 1024;
+
     /**
      * Creates a {@link ZipFile} object for a given {@code byte[]}.
      *
@@ -56,49 +69,84 @@ public class ZipFileUtils {
     }
 
     /**
-     * Extracts a {@link List} of {@link JavaFileObject JavaFileObjects} from a
-     * given zip file by mapping the file name and the file content.
+     * Extracts a {@link List} of {@link JavaFileObject JavaFileObjects} from a given stream
+     * of zip file content by mapping the file name and the file content.
+     * <p>
+     * The entries are read directly from the stream, so no copy of the zip file is written.
+     * The default limits {@link #MAX_ENTRIES}, {@link #MAX_ENTRY_SIZE} and {@link #MAX_TOTAL_SIZE}
+     * apply.
      * <p>
      * NOTE: Per design, this method completely ignores the folder structure inside the zip file. This
      * allows to extract files with the same file name, but in different folders.
      *
-     * @param zipFile        a {@link ZipFile} object from which the files are read.
-     * @param deleteZipAfter boolean value, whether the zip file should be deleted
-     *                       after extracting the entries.
-     * @return a list of java file objects.
+     * @param inputStream the stream from which the zip file content is read. The stream is not closed.
+     * @return a list of java file objects, never empty.
+     * @throws ZipLimitExceededException when the zip file exceeds one of the limits.
+     * @throws ZipException when the stream is no zip file or the zip file contains no files.
      * @throws IOException when reading the zip file fails at any point.
      */
-    public static List<JavaFileObject> getFilesFromZip(ZipFile zipFile, boolean deleteZipAfter) throws IOException {
-        final List<JavaFileObject> list = new ArrayList<>();
+    public static List<JavaFileObject> getFilesFromZip(InputStream inputStream) throws IOException {
+        return getFilesFromZip(inputStream, MAX_ENTRIES, MAX_ENTRY_SIZE, MAX_TOTAL_SIZE);
+    }
 
-        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
-        try {
-            while (entries.hasMoreElements()) {
-                final ZipEntry zipEntry = entries.nextElement();
-                if (zipEntry.isDirectory()) {
-                    // Skipping folders.
-                    continue;
-                }
-                final String fileName = Paths.get(zipEntry.getName()).getFileName().toString();
+    /**
+     * Similar to {@link #getFilesFromZip(InputStream)}, but with custom limits.
+     *
+     * @param inputStream  the stream from which the zip file content is read. The stream is not closed.
+     * @param maxEntries   the maximum number of files in the zip file.
+     * @param maxEntrySize the maximum uncompressed size of a single file in bytes.
+     * @param maxTotalSize the maximum uncompressed size of all files in bytes.
+     * @return a list of java file objects, never empty.
+     * @throws ZipLimitExceededException when the zip file exceeds one of the limits.
+     * @throws ZipException when the stream is no zip file or the zip file contains no files.
+     * @throws IOException when reading the zip file fails at any point.
+     */
+    public static List<JavaFileObject> getFilesFromZip(InputStream inputStream, int maxEntries, long maxEntrySize,
+                                                       long maxTotalSize) throws IOException {
+        final List<JavaFileObject> list = new ArrayList<>();
 
-                BufferedReader reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-                StringBuilder bob = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    bob.append(line).append("\n");
-                }
+        // Closing the zip stream would close the given stream, too.
+        final ZipInputStream zipStream = new ZipInputStream(new CloseShieldInputStream(inputStream));
+        final byte[] buffer = new byte[8192];
+        long totalSize = 0;
 
-                final String content = bob.toString().trim();
-                list.add(new JavaFileObject(fileName, content));
+        ZipEntry zipEntry;
+        while ((zipEntry = zipStream.getNextEntry()) != null) {
+            if (zipEntry.isDirectory()) {
+                // Skipping folders.
+                continue;
             }
-        } finally {
-            if (deleteZipAfter) {
-                try {
-                    Files.delete(Paths.get(zipFile.getName()));
-                } catch (IOException ignored) {
-                    // ignored
+            if (list.size() >= maxEntries) {
+                throw new ZipLimitExceededException("Zip file contains more than " + maxEntries + " files.");
+            }
+            final String fileName = Paths.get(zipEntry.getName()).getFileName().toString();
+
+            // The declared entry size cannot be trusted, so the actually read bytes are counted.
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            int read;
+            while ((read = zipStream.read(buffer)) != -1) {
+                totalSize += read;
+                if (content.size() + read > maxEntrySize) {
+                    throw new ZipLimitExceededException("File " + fileName + " is larger than " + maxEntrySize + " bytes.");
                 }
+                if (totalSize > maxTotalSize) {
+                    throw new ZipLimitExceededException("Zip file content is larger than " + maxTotalSize + " bytes.");
+                }
+                content.write(buffer, 0, read);
+            }
+
+            BufferedReader reader = new BufferedReader(new StringReader(content.toString("UTF-8")));
+            StringBuilder bob = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bob.append(line).append("\n");
             }
+
+            list.add(new JavaFileObject(fileName, bob.toString().trim()));
+        }
+        if (list.isEmpty()) {
+            // ZipInputStream does not fail for content, which is no zip file, but simply finds no entries.
+            throw new ZipException("No files found. The file is either empty, corrupt or no zip file.");
         }
         return list;
     }
@@ -148,4 +196,16 @@ public class ZipFileUtils {
         return tempDirectory;
 
     }
+
+    /**
+     * Thrown when a zip file exceeds the number of files or the size
+     * allowed while extracting it.
+     */
+    public static class ZipLimitExceededException extends IOException {
+        private static final long serialVersionUID = -3107520817322145094L;
+
+        public ZipLimitExceededException(String message) {
+            super(message);
+        }
+    }
 }
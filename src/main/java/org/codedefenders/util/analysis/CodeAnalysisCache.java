@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util.analysis;
+
+import org.codedefenders.database.EntityCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the {@link CodeAnalysisResult} of each analysed Java file in memory, so a class
+ * under test is only parsed once instead of every time it is loaded from the database.
+ * <p>
+ * Entries are keyed by the absolute path of the Java file and versioned by the
+ * file's modification time and size. If the file changes, the stale entry is
+ * replaced on the next lookup. Files which cannot be accessed are analysed, but never cached.
+ * At most 500 results are kept, the least recently used ones are evicted first.
+ * <p>
+ * Cached results are shared and must not be modified by callers.
+ *
+ * @see ClassCodeAnalyser
+ */
+public class CodeAnalysisCache {
+    private static final Logger logger = LoggerFactory.getLogger(CodeAnalysisCache.class);
+
+    private static final EntityCache<Path, Entry> cache =
+            new EntityCache<>("Code analysis results", 500, 1, TimeUnit.DAYS);
+
+    private CodeAnalysisCache() {
+    }
+
+    /**
+     * Returns the analysis result for the given Java file, analysing the source code
+     * only if no up to date result is cached.
+     *
+     * @param className  the name of the analysed class.
+     * @param javaFile   the path of the Java file of the class.
+     * @param sourceCode supplies the source code of the class, only called on a cache miss.
+     * @return a result, may be empty, but never {@code null}.
+     */
+    public static CodeAnalysisResult getCodeAnalysis(String className, String javaFile, Supplier<String> sourceCode) {
+        final Path path;
+        final String version;
+        try {
+            path = Paths.get(javaFile).toAbsolutePath();
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return ClassCodeAnalyser.visitCode(className, sourceCode.get());
+            }
+            version = attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not access {}. Analysing class {} without caching.", javaFile, className);
+            return ClassCodeAnalyser.visitCode(className, sourceCode.get());
+        }
+
+        final Entry entry = cache.getIfPresent(path);
+        if (entry != null && entry.version.equals(version)) {
+            return entry.result;
+        }
+        final CodeAnalysisResult result = ClassCodeAnalyser.visitCode(className, sourceCode.get());
+        cache.put(path, new Entry(version, result));
+        return result;
+    }
+
+    /**
+     * Removes the cached result for the given Java file, e.g. after the file was deleted.
+     *
+     * @param javaFile the path of the Java file.
+     */
+    public static void invalidate(String javaFile) {
+        try {
+            cache.invalidate(Paths.get(javaFile).toAbsolutePath());
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    public static int size() {
+        return cache.size();
+    }
+
+    public static long getHits() {
+        return cache.getHits();
+    }
+
+    public static long getMisses() {
+        return cache.getMisses();
+    }
+
+    private static class Entry {
+        private final String version;
+        private final CodeAnalysisResult result;
+
+        private Entry(String version, CodeAnalysisResult result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
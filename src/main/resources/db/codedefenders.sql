@@ -215,6 +215,9 @@ CREATE TABLE `mutants` (
   `Timestamp` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `Points` int(11) DEFAULT '0',
   `MutatedLines` varchar(255),
+  `MutatedLines_Bitmap` blob,
+  `MutationDescription` text,
+  `Patch` mediumtext,
   PRIMARY KEY (`Mutant_ID`),
   UNIQUE KEY `mutants_Game_ID_Class_ID_MD5_key` (`Game_ID`,`Class_ID`,`MD5`),
   KEY `fk_gameId_idx` (`Game_ID`),
@@ -284,6 +287,7 @@ CREATE TABLE `targetexecutions` (
   `Message` varchar(2000) DEFAULT NULL,
   `Timestamp` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`TargetExecution_ID`),
+  UNIQUE KEY `targetexecutions_Test_ID_Mutant_ID_Target` (`Test_ID`,`Mutant_ID`,`Target`),
   KEY `Test_ID` (`Test_ID`),
   KEY `Mutant_ID` (`Mutant_ID`),
   CONSTRAINT `targetexecutions_ibfk_1` FOREIGN KEY (`Test_ID`) REFERENCES `tests` (`Test_ID`),
@@ -346,6 +350,8 @@ CREATE TABLE `tests` (
   `Timestamp` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `Lines_Covered` longtext,
   `Lines_Uncovered` longtext,
+  `Lines_Covered_Bitmap` blob,
+  `Lines_Uncovered_Bitmap` blob,
   `Points` int(11) DEFAULT '0',
   PRIMARY KEY (`Test_ID`),
   KEY `fk_playerId_idx` (`Player_ID`),
@@ -522,9 +528,28 @@ CREATE TABLE `events` (
   `Event_Type` varchar(45) DEFAULT NULL,
   `Event_Status` varchar(45) DEFAULT NULL,
   `Timestamp` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
-  PRIMARY KEY (`Event_ID`)
+  PRIMARY KEY (`Event_ID`),
+  KEY `events_Game_ID_Event_ID_Event_Status` (`Game_ID`,`Event_ID`,`Event_Status`),
+  KEY `events_Player_ID` (`Player_ID`)
 ) AUTO_INCREMENT=100;
 
+--
+-- Table structure for table `events_archive`
+--
+
+DROP TABLE IF EXISTS `events_archive`;
+CREATE TABLE `events_archive` (
+  `Event_ID` int(11) NOT NULL,
+  `Game_ID` int(11) DEFAULT NULL,
+  `Player_ID` int(11) DEFAULT NULL,
+  `Event_Message` varchar(255) DEFAULT NULL,
+  `Event_Type` varchar(45) DEFAULT NULL,
+  `Event_Status` varchar(45) DEFAULT NULL,
+  `Timestamp` timestamp NULL DEFAULT NULL,
+  PRIMARY KEY (`Event_ID`),
+  KEY `events_archive_Game_ID` (`Game_ID`)
+);
+
 --
 -- Table structure for table `event_chat`
 --
@@ -534,9 +559,23 @@ CREATE TABLE `event_chat` (
   `Id` int(11) NOT NULL AUTO_INCREMENT,
   `Event_Id` int(11) DEFAULT NULL,
   `Message` varchar(255) DEFAULT NULL,
-  PRIMARY KEY (`Id`)
+  PRIMARY KEY (`Id`),
+  KEY `event_chat_Event_Id` (`Event_Id`)
 ) AUTO_INCREMENT=100;
 
+--
+-- Table structure for table `event_chat_archive`
+--
+
+DROP TABLE IF EXISTS `event_chat_archive`;
+CREATE TABLE `event_chat_archive` (
+  `Id` int(11) NOT NULL,
+  `Event_Id` int(11) DEFAULT NULL,
+  `Message` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`Id`),
+  KEY `event_chat_archive_Event_Id` (`Event_Id`)
+);
+
 --
 -- Table structure for table `event_messages`
 --
@@ -640,6 +679,87 @@ CREATE OR REPLACE VIEW `view_valid_users`
 AS SELECT * FROM `users`
    WHERE `User_ID` >= 5;
 
+--
+-- Leaderboard
+--
+-- Aggregated scores and submissions per user. The table is maintained incrementally
+-- by the triggers on `mutants` and `tests` below, so reading the leaderboard does not
+-- scan all submissions. proc_rebuild_leaderboard() recomputes it from scratch.
+--
+
+DROP TABLE IF EXISTS `leaderboard`;
+CREATE TABLE `leaderboard` (
+  `User_ID` int(11) NOT NULL,
+  `NMutants` int(11) NOT NULL DEFAULT '0',
+  `AScore` int(11) NOT NULL DEFAULT '0',
+  `NTests` int(11) NOT NULL DEFAULT '0',
+  `DScore` int(11) NOT NULL DEFAULT '0',
+  `NKilled` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`User_ID`)
+);
+
+DELIMITER $$
+CREATE TRIGGER leaderboard_ins_mutants
+  AFTER INSERT ON `mutants`
+  FOR EACH ROW BEGIN
+  INSERT INTO leaderboard (User_ID, NMutants, AScore)
+    SELECT User_ID, 1, IFNULL(NEW.Points, 0) FROM players WHERE ID = NEW.Player_ID
+  ON DUPLICATE KEY UPDATE NMutants = NMutants + 1, AScore = AScore + IFNULL(NEW.Points, 0);
+END$$
+
+CREATE TRIGGER leaderboard_upd_mutants
+  AFTER UPDATE ON `mutants`
+  FOR EACH ROW BEGIN
+  IF NOT (NEW.Player_ID <=> OLD.Player_ID AND NEW.Points <=> OLD.Points) THEN
+    UPDATE leaderboard
+    SET NMutants = NMutants - 1, AScore = AScore - IFNULL(OLD.Points, 0)
+    WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+    INSERT INTO leaderboard (User_ID, NMutants, AScore)
+      SELECT User_ID, 1, IFNULL(NEW.Points, 0) FROM players WHERE ID = NEW.Player_ID
+    ON DUPLICATE KEY UPDATE NMutants = NMutants + 1, AScore = AScore + IFNULL(NEW.Points, 0);
+  END IF;
+END$$
+
+CREATE TRIGGER leaderboard_del_mutants
+  AFTER DELETE ON `mutants`
+  FOR EACH ROW BEGIN
+  UPDATE leaderboard
+  SET NMutants = NMutants - 1, AScore = AScore - IFNULL(OLD.Points, 0)
+  WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+END$$
+
+CREATE TRIGGER leaderboard_ins_tests
+  AFTER INSERT ON `tests`
+  FOR EACH ROW BEGIN
+  INSERT INTO leaderboard (User_ID, NTests, DScore, NKilled)
+    SELECT User_ID, 1, IFNULL(NEW.Points, 0), IFNULL(NEW.MutantsKilled, 0) FROM players WHERE ID = NEW.Player_ID
+  ON DUPLICATE KEY UPDATE NTests = NTests + 1, DScore = DScore + IFNULL(NEW.Points, 0),
+    NKilled = NKilled + IFNULL(NEW.MutantsKilled, 0);
+END$$
+
+CREATE TRIGGER leaderboard_upd_tests
+  AFTER UPDATE ON `tests`
+  FOR EACH ROW BEGIN
+  IF NOT (NEW.Player_ID <=> OLD.Player_ID AND NEW.Points <=> OLD.Points AND NEW.MutantsKilled <=> OLD.MutantsKilled) THEN
+    UPDATE leaderboard
+    SET NTests = NTests - 1, DScore = DScore - IFNULL(OLD.Points, 0), NKilled = NKilled - IFNULL(OLD.MutantsKilled, 0)
+    WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+    INSERT INTO leaderboard (User_ID, NTests, DScore, NKilled)
+      SELECT User_ID, 1, IFNULL(NEW.Points, 0), IFNULL(NEW.MutantsKilled, 0) FROM players WHERE ID = NEW.Player_ID
+    ON DUPLICATE KEY UPDATE NTests = NTests + 1, DScore = DScore + IFNULL(NEW.Points, 0),
+      NKilled = NKilled + IFNULL(NEW.MutantsKilled, 0);
+  END IF;
+END$$
+
+CREATE TRIGGER leaderboard_del_tests
+  AFTER DELETE ON `tests`
+  FOR EACH ROW BEGIN
+  UPDATE leaderboard
+  SET NTests = NTests - 1, DScore = DScore - IFNULL(OLD.Points, 0), NKilled = NKilled - IFNULL(OLD.MutantsKilled, 0)
+  WHERE User_ID = (SELECT User_ID FROM players WHERE ID = OLD.Player_ID);
+END$$
+DELIMITER ;
+
 --
 -- Leaderboard Views
 --
@@ -666,16 +786,40 @@ CREATE OR REPLACE VIEW `view_defenders`
 CREATE OR REPLACE VIEW `view_leaderboard`
   AS
     SELECT
-      U.username                            AS username,
-      IFNULL(NMutants, 0)                   AS NMutants,
-      IFNULL(AScore, 0)                     AS AScore,
-      IFNULL(NTests, 0)                     AS NTests,
-      IFNULL(DScore, 0)                     AS DScore,
-      IFNULL(NKilled, 0)                    AS NKilled,
-      IFNULL(AScore, 0) + IFNULL(DScore, 0) AS TotalScore
+      U.username                                AS username,
+      IFNULL(L.NMutants, 0)                     AS NMutants,
+      IFNULL(L.AScore, 0)                       AS AScore,
+      IFNULL(L.NTests, 0)                       AS NTests,
+      IFNULL(L.DScore, 0)                       AS DScore,
+      IFNULL(L.NKilled, 0)                      AS NKilled,
+      IFNULL(L.AScore, 0) + IFNULL(L.DScore, 0) AS TotalScore
     FROM view_valid_users U
-      LEFT JOIN view_attackers ON U.user_id = view_attackers.user_id
-      LEFT JOIN view_defenders ON U.user_id = view_defenders.user_id;
+      LEFT JOIN leaderboard L ON U.User_ID = L.User_ID;
+
+--
+-- Recomputes the leaderboard table from all mutants and tests,
+-- e.g. to repair it after submissions were modified with the triggers disabled.
+--
+
+DROP PROCEDURE IF EXISTS proc_rebuild_leaderboard;
+
+DELIMITER $$
+CREATE PROCEDURE proc_rebuild_leaderboard()
+BEGIN
+  START TRANSACTION;
+  DELETE FROM leaderboard;
+  INSERT INTO leaderboard (User_ID, NMutants, AScore, NTests, DScore, NKilled)
+    SELECT
+      A.user_id,
+      A.NMutants,
+      IFNULL(A.AScore, 0),
+      D.NTests,
+      IFNULL(D.DScore, 0),
+      IFNULL(D.NKilled, 0)
+    FROM view_attackers A JOIN view_defenders D ON A.user_id = D.user_id;
+  COMMIT;
+END$$
+DELIMITER ;
 
 
 -- Event to activate multiplayer game
@@ -742,6 +886,46 @@ DO
   CALL proc_multiplayer_task();
 
 
+--
+-- Moves events of finished games and deleted events, together with their chat messages,
+-- into events_archive and event_chat_archive
+-- once they are older than the given number of days, to keep the events tables small.
+--
+
+DROP PROCEDURE IF EXISTS proc_archive_events;
+
+DELIMITER $$
+CREATE PROCEDURE proc_archive_events(IN days INT)
+BEGIN
+  DECLARE cutoff TIMESTAMP DEFAULT DATE_SUB(NOW(), INTERVAL days DAY);
+  START TRANSACTION;
+  INSERT IGNORE INTO events_archive
+    SELECT e.*
+    FROM events e
+      LEFT JOIN games g ON g.ID = e.Game_ID
+    WHERE e.Timestamp < cutoff
+      AND (e.Event_Status = 'DELETED' OR g.State = 'FINISHED');
+  INSERT IGNORE INTO event_chat_archive
+    SELECT c.*
+    FROM event_chat c
+      INNER JOIN events_archive a ON a.Event_ID = c.Event_Id;
+  DELETE c
+    FROM event_chat c
+      INNER JOIN event_chat_archive a ON a.Id = c.Id;
+  DELETE e
+    FROM events e
+      INNER JOIN events_archive a ON a.Event_ID = e.Event_ID;
+  COMMIT;
+END$$
+DELIMITER ;
+
+DROP EVENT IF EXISTS event_archive_events;
+CREATE EVENT IF NOT EXISTS event_archive_events
+  ON SCHEDULE EVERY 1 DAY
+  ON COMPLETION PRESERVE
+DO
+  CALL proc_archive_events(30);
+
 
 /*!40101 SET SQL_MODE=@OLD_SQL_MODE */;
 /*!40014 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS */;
@@ -20,6 +20,8 @@
 --%>
 <%@ page import="org.codedefenders.*" %>
 <%@ page import="org.codedefenders.database.AdminDAO" %>
+<%@ page import="org.codedefenders.database.ConnectionPool" %>
+<%@ page import="org.codedefenders.database.EntityCache" %>
 <%@ page import="org.apache.commons.lang.StringUtils" %>
 <%@ page import="org.codedefenders.servlets.admin.AdminSystemSettings" %>
 <% String pageTitle = null; %>
@@ -145,5 +147,39 @@
         </button>
         <a class="btn btn-default" id="cancelBtn" onclick="window.location.reload();">Cancel</a>
     </form>
+
+    <% ConnectionPool.Metrics poolMetrics = ConnectionPool.instance().getMetrics(); %>
+    <h3>Connection Pool</h3>
+    <table class="table table-striped table-responsive" id="connectionPoolMetrics">
+        <tr><td>Connections (active / idle / configured)</td><td><%=poolMetrics.getActive()%> / <%=poolMetrics.getIdle()%> / <%=poolMetrics.getSize()%></td></tr>
+        <tr><td>Borrowed connections</td><td><%=poolMetrics.getBorrowed()%></td></tr>
+        <tr><td>Timeouts while waiting for a connection</td><td><%=poolMetrics.getTimeouts()%></td></tr>
+        <tr><td>Possibly leaked connections</td><td><%=poolMetrics.getLeaks()%></td></tr>
+        <tr><td>Prepared statement cache (hits / misses / evictions)</td><td><%=poolMetrics.getStatementCacheHits()%> / <%=poolMetrics.getStatementCacheMisses()%> / <%=poolMetrics.getStatementCacheEvictions()%> (<%=String.format("%.1f", 100 * poolMetrics.getStatementCacheHitRate())%>% hits)</td></tr>
+        <tr><td>Waiting time in ms (median / 95th / 99th percentile)</td><td><%=String.format("%.2f / %.2f / %.2f", poolMetrics.getWaitTimeMedian(), poolMetrics.getWaitTime95thPercentile(), poolMetrics.getWaitTime99thPercentile())%></td></tr>
+    </table>
+
+    <h3>Entity Caches</h3>
+    <table class="table table-striped table-responsive" id="entityCacheMetrics">
+        <tr><th>Cache</th><th>Entries</th><th>Hits / misses</th><th>Evictions</th><th>Invalidations</th></tr>
+        <% for (EntityCache<?, ?> cache : EntityCache.getCaches()) { %>
+        <tr>
+            <td><%=cache.getName()%></td>
+            <td><%=cache.size()%> / <%=cache.getMaxSize()%></td>
+            <td><%=cache.getHits()%> / <%=cache.getMisses()%> (<%=String.format("%.1f", 100 * cache.getHitRate())%>% hits)</td>
+            <td><%=cache.getEvictions()%></td>
+            <td><%=cache.getInvalidations()%></td>
+        </tr>
+        <% } %>
+    </table>
+
+    <h3>Leaderboard</h3>
+    <form id="rebuildLeaderboard" name="rebuildLeaderboard" action="<%=request.getContextPath() + Paths.ADMIN_SETTINGS%>" method="post">
+        <input type="hidden" name="formType" value="rebuildLeaderboard">
+        <p>The leaderboard is updated with every submission. Rebuilding recomputes it from all mutants and tests.</p>
+        <button type="submit" class="btn btn-default" id="rebuildLeaderboardBtn"
+                onclick="return confirm('Are you sure you want to rebuild the leaderboard?');">Rebuild Leaderboard
+        </button>
+    </form>
 </div>
 <%@ include file="/jsp/footer.jsp" %>
@@ -18,7 +18,7 @@
     along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
 
 --%>
-<%@ page import="java.util.stream.IntStream" %>
+<%@ page import="org.codedefenders.database.UserDAO" %>
 <%@ page import="org.codedefenders.game.singleplayer.automated.defender.AiDefender" %>
 <%@ page import="org.codedefenders.game.singleplayer.automated.attacker.AiAttacker" %>
 <% { %>
@@ -80,7 +80,7 @@
 	<form id="adminAddDefender"
 		  action="<%=request.getContextPath() + "/" + game.getClass().getSimpleName().toLowerCase()%>" method="post"
 		  style="display: inline-block;">
-		<% int aiDefPlayerId = IntStream.of(game.getDefenderIds()).filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiDefender.ID).findAny().orElse(0);
+		<% int aiDefPlayerId = UserDAO.getPlayerIdForUser(game.getDefenderIds(), AiDefender.ID).orElse(0);
 			boolean isAiDefActive = DatabaseAccess.getPlayerIsActive(aiDefPlayerId);
 			boolean aiDefJoinedGame = DatabaseAccess.getJoinedMultiplayerGamesForUser(AiDefender.ID).stream()
 					.filter(joinedGames -> joinedGames.getId() == game.getId())
@@ -106,7 +106,7 @@
 	<form id="adminAddAttacker"
 		  action="<%=request.getContextPath() + "/" + game.getClass().getSimpleName().toLowerCase()%>" method="post"
 		  style="display: inline-block;">
-		<% int aiAttPlayerId = IntStream.of(game.getAttackerIds()).filter(id -> DatabaseAccess.getUserFromPlayer(id).getId() == AiAttacker.ID).findAny().orElse(0);
+		<% int aiAttPlayerId = UserDAO.getPlayerIdForUser(game.getAttackerIds(), AiAttacker.ID).orElse(0);
 			boolean isAiAttActive = DatabaseAccess.getPlayerIsActive(aiAttPlayerId);
 			boolean aiAttJoinedGame = DatabaseAccess.getJoinedMultiplayerGamesForUser(AiAttacker.ID).stream()
 					.filter(joinedGames -> joinedGames.getId() == game.getId())
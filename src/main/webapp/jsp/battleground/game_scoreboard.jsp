@@ -23,14 +23,27 @@
 <%@page import="org.codedefenders.database.MutantDAO"%>
 <%@ page import="org.codedefenders.database.UserDAO" %>
 <%@ page import="org.codedefenders.game.multiplayer.PlayerScore" %>
+<%@ page import="org.codedefenders.game.multiplayer.Scoreboard" %>
 <%@ page import="org.codedefenders.model.User" %>
 <%@ page import="java.util.HashMap" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
+<%@ page import="javax.servlet.jsp.tagext.BodyContent" %>
 <%
+    final String cachedScoreboard = GameFragmentCache.get(request, "game_scoreboard");
+    if (cachedScoreboard != null) {
+        out.write(cachedScoreboard);
+    } else {
+        // render into a buffer, so the fragment can be cached
+        out = pageContext.pushBody();
+%>
+<%
+
+    Scoreboard scoreboard = game.getScoreboard();
 
-    HashMap mutantScores = game.getMutantScores();
+    HashMap mutantScores = scoreboard.getMutantScores();
 
 
-    HashMap testScores = game.getTestScores();
+    HashMap testScores = scoreboard.getTestScores();
 
     // Those return the PlayerID not the UserID
     int[] attackers = game.getAttackerIds();
@@ -77,7 +90,7 @@
                         // Does system attacker submitted any mutant?
                         // TODO #418: we use UserId instead of PlayerID because there's a bug in the logic which initialize the game.
                         // For system generated mutants,  mutant.playerID == userID, which is wrong...
-                        if(aUser.getId() == Constants.DUMMY_ATTACKER_USER_ID && MutantDAO.getMutantsByGameAndUser(game.getId(), aUser.getId()).isEmpty() ){
+                        if(aUser.getId() == Constants.DUMMY_ATTACKER_USER_ID && !scoreboard.hasMutants(i) && !scoreboard.hasMutants(aUser.getId())){
                            continue;
                         }
                         
@@ -181,7 +194,7 @@
                             
                             // XXX: Hardcoded id for system user
                             // TODO #418
-                            if(dUser.getId() == Constants.DUMMY_DEFENDER_USER_ID && TestDAO.getTestsForGameAndUser(game.getId(), dUser.getId()).isEmpty() ){
+                            if(dUser.getId() == Constants.DUMMY_DEFENDER_USER_ID && !scoreboard.hasTests(i) && !scoreboard.hasTests(dUser.getId())){
                                 continue;
                              }
                             
@@ -262,4 +275,11 @@
             </div>
         </div>
     </div>
-</div>
\ No newline at end of file
+</div>
+<%
+        final String renderedScoreboard = ((BodyContent) out).getString();
+        out = pageContext.popBody();
+        out.write(renderedScoreboard);
+        GameFragmentCache.put(request, "game_scoreboard", renderedScoreboard);
+    }
+%>
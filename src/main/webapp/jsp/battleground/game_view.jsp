@@ -21,12 +21,19 @@
 <% String pageTitle="In Game"; %>
 <%@ page import="org.codedefenders.game.Role" %>
 <%@ page import="org.codedefenders.game.multiplayer.MultiplayerGame" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
 <%@ page import="org.codedefenders.servlets.util.ServletUtils" %>
 <%@ page import="org.codedefenders.util.Paths" %>
 <%
     MultiplayerGame game = (MultiplayerGame) request.getAttribute("game");
     int userId = ServletUtils.userId(request); // required for playerFeedback, too
 	Role role = game.getRole(userId); // required for header_game, too
+
+    /* components which are the same for all players of the role are cached */
+    Long gameVersion = (Long) request.getAttribute("gameVersion");
+    if (gameVersion != null) {
+        GameFragmentCache.enable(request, game.getId(), gameVersion, role);
+    }
 %>
 <%-- Set request attributes for the components. --%>
 <%
@@ -20,6 +20,9 @@
 --%>
 <%@ page import="org.codedefenders.game.GameState" %>
 <%@ page import="org.codedefenders.database.MultiplayerGameDAO" %>
+<%@ page import="org.codedefenders.game.multiplayer.FinishedGameSnapshots" %>
+<%@ page import="org.codedefenders.game.multiplayer.FinishedGameSnapshots.Snapshot" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
 <%@ page import="org.codedefenders.servlets.util.ServletUtils" %>
 
 <% { %>
@@ -44,6 +47,15 @@
 
     int uid = ((Integer) session.getAttribute("uid"));
     Role role = game.getRole(uid);
+
+    /* finished games do not change, so the components are rendered once and kept in a snapshot */
+    final Snapshot snapshot = FinishedGameSnapshots.get(game.getId());
+    if (ServletUtils.isFinishedGamePageNotModified(request, response, snapshot, uid)) {
+        return;
+    }
+    GameFragmentCache.enableSnapshot(request, snapshot, role);
+    final boolean fromSnapshot = snapshot.hasFragments(role,
+            "game_scoreboard", "mutants_list", "tests_carousel", "game_highlighting");
 %>
 
 <%-- Set request attributes for the components. --%>
@@ -58,14 +70,18 @@
     request.setAttribute("mutantValidatorLevel", game.getMutantValidatorLevel());
 
     /* tests_carousel */
-    request.setAttribute("tests", game.getTests());
-    request.setAttribute("mutants", game.getMutants());
+    if (!fromSnapshot) {
+        request.setAttribute("tests", game.getTests());
+        request.setAttribute("mutants", game.getMutants());
+    }
 
     /* mutants_list */
-    request.setAttribute("mutantsAlive", game.getAliveMutants());
-    request.setAttribute("mutantsKilled", game.getKilledMutants());
-    request.setAttribute("mutantsEquivalent", game.getMutantsMarkedEquivalent());
-    request.setAttribute("mutantsMarkedEquivalent", game.getMutantsMarkedEquivalentPending());
+    if (!fromSnapshot) {
+        request.setAttribute("mutantsAlive", game.getAliveMutants());
+        request.setAttribute("mutantsKilled", game.getKilledMutants());
+        request.setAttribute("mutantsEquivalent", game.getMutantsMarkedEquivalent());
+        request.setAttribute("mutantsMarkedEquivalent", game.getMutantsMarkedEquivalentPending());
+    }
     request.setAttribute("markEquivalent", false);
     request.setAttribute("markUncoveredEquivalent", false);
     request.setAttribute("viewDiff", true);
@@ -76,7 +92,7 @@
     /* game_highlighting */
     request.setAttribute("codeDivSelector", "#cut-div");
     // request.setAttribute("tests", game.getTests());
-    request.setAttribute("mutants", game.getMutants());
+    // request.setAttribute("mutants", game.getMutants());
     request.setAttribute("showEquivalenceButton", false);
     // request.setAttribute("gameType", GameMode.PARTY);
 //    request.setAttribute("gameId", game.getId());
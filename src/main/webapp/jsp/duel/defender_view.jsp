@@ -20,6 +20,7 @@
 --%>
 <% String pageTitle="Defending Class"; %>
 <%@ include file="/jsp/duel/header_game.jsp" %>
+<%@ page import="org.codedefenders.game.GameVersions" %>
 
 <% { %>
 
@@ -121,15 +122,25 @@
 
 <script>
 	<% if (game.getActiveRole().equals(Role.ATTACKER)) {%>
+        var gameVersion = <%= GameVersions.get(game.getId()) %>;
         function checkForUpdate(){
-            $.post('<%=request.getContextPath() + Paths.DUEL_GAME%>', {
-                formType: "whoseTurn",
+            // only ask whose turn it is if the game changed
+            $.getJSON('<%=request.getContextPath() + Paths.API_GAME_VERSION%>', {
                 gameId: <%= game.getId() %>
-            }, function (data) {
-                if (data === "defender") {
-                    window.location.reload();
+            }, function (version) {
+                if (version.version === gameVersion) {
+                    return;
                 }
-            }, "text");
+                gameVersion = version.version;
+                $.post('<%=request.getContextPath() + Paths.DUEL_GAME%>', {
+                    formType: "whoseTurn",
+                    gameId: <%= game.getId() %>
+                }, function (data) {
+                    if (data === "defender") {
+                        window.location.reload();
+                    }
+                }, "text");
+            });
         }
         setInterval(checkForUpdate, 10000);
 	<% } %>
@@ -18,11 +18,10 @@
     along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
 
 --%>
-<%@ page import="com.google.gson.Gson" %>
-<%@ page import="com.google.gson.GsonBuilder" %>
 <%@ page import="org.codedefenders.game.GameHighlightingDTO" %>
 <%@ page import="org.codedefenders.game.Mutant" %>
 <%@ page import="org.codedefenders.game.Test" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
 <%@ page import="java.util.List" %>
 
 <%--
@@ -70,9 +69,8 @@
 %>
 
 <%
-    GameHighlightingDTO gh = new GameHighlightingDTO(mutantsTODORENAME, testsTODORENAME);
-    Gson gson = new GsonBuilder().registerTypeAdapter(Map.class, new GameHighlightingDTO.MapSerializer()).create();
-    String ghString = gson.toJson(gh);
+    String ghString = GameFragmentCache.get(request, "game_highlighting",
+            () -> GameHighlightingDTO.toJson(gameId, mutantsTODORENAME, testsTODORENAME));
 %>
 
 <script>
@@ -80,11 +78,12 @@
     (function () {
 
         /* Game highlighting data. */
-        const gh_data = JSON.parse(`<%=ghString%>`);
+        const gh_data = <%=ghString%>;
+        const testCount = gh_data.testCount;
+        const coveragePerLine = new Map(gh_data.coveragePerLine);
         const mutantIdsPerLine = new Map(gh_data.mutantIdsPerLine);
-        const testIdsPerLine = new Map(gh_data.testIdsPerLine);
-        const mutants = new Map(gh_data.mutants);
-        const tests = new Map(gh_data.tests);
+        const mutants = new Map(gh_data.mutants.map(
+            ([id, score, creatorName, status]) => [id, {id, score, creatorName, status}]));
 
         /* Game highlighting settings. */
         const showEquivalenceButton = Boolean(<%=showEquivalenceButton%>);
@@ -261,7 +260,7 @@
             let button = '';
             if (showEquivalenceButton
                 && status === MutantStatuses.ALIVE
-                && (markUncoveredEquivalent || testIdsPerLine.get(line))) {
+                && (markUncoveredEquivalent || coveragePerLine.get(line))) {
                 button = createEquivalenceButton(line);
             }
 
@@ -306,8 +305,8 @@
          * @param {object} codeMirror The CodeMirror instance.
          */
         const highlightCoverage = function (codeMirror) {
-            for (const [line, testIds] of testIdsPerLine) {
-                const coveragePercent = (testIds.length * 100 / tests.size).toFixed(0);
+            for (const [line, coveringTests] of coveragePerLine) {
+                const coveragePercent = (coveringTests * 100 / testCount).toFixed(0);
                 codeMirror.addLineClass(line - 1, 'background', 'coverage-' + coveragePercent);
             }
         };
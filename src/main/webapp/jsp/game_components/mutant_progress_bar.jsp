@@ -22,7 +22,8 @@
 
 <%--
     Adds a JavaScript function progressBar() that inserts and updates a progressbar showing the status of the last
-    submitted mutant. The progressbar is inserted after #logout. It reads the mutant status from /api/notifications.
+    submitted mutant. The progressbar is inserted after #logout. It receives the mutant status from /api/game_events,
+    or polls it from /api/notifications if server-sent events are not available.
 
     @param Integer gameId
         The id of the game.
@@ -35,21 +36,22 @@
 %>
 
 <script>
-    var updateProgressBar = function (url) {
+    var showProgress = function (r) {
         var progressBarDiv = document.getElementById("progress-bar");
-        $.get(url, function (r) {
-                $(r).each(function (index) {
-                    switch (r[index]) {
-                        case 'COMPILE_MUTANT': // After test is compiled
-                            progressBarDiv.innerHTML = '<div class="progress-bar bg-danger" role="progressbar" style="width: 66%; font-size: 15px; line-height: 40px;" aria-valuenow="66" aria-valuemin="0" aria-valuemax="100">Running first Test Against Mutant</div>';
-                            break;
-                        case "TEST_MUTANT": // After testing original
-                            progressBarDiv.innerHTML = '<div class="progress-bar bg-danger" role="progressbar" style="width: 90%; font-size: 15px; line-height: 40px;" aria-valuenow="90" aria-valuemin="0" aria-valuemax="100">Running more Tests Against Mutant</div>';
-                            break;
-                    }
-                });
+        $(r).each(function (index) {
+            switch (r[index]) {
+                case 'COMPILE_MUTANT': // After test is compiled
+                    progressBarDiv.innerHTML = '<div class="progress-bar bg-danger" role="progressbar" style="width: 66%; font-size: 15px; line-height: 40px;" aria-valuenow="66" aria-valuemin="0" aria-valuemax="100">Running first Test Against Mutant</div>';
+                    break;
+                case "TEST_MUTANT": // After testing original
+                    progressBarDiv.innerHTML = '<div class="progress-bar bg-danger" role="progressbar" style="width: 90%; font-size: 15px; line-height: 40px;" aria-valuenow="90" aria-valuemin="0" aria-valuemax="100">Running more Tests Against Mutant</div>';
+                    break;
             }
-        );
+        });
+    };
+
+    var updateProgressBar = function (url) {
+        $.get(url, showProgress);
     };
 
     function progressBar() {
@@ -67,8 +69,24 @@
             // Insert progress bar right under logout... this will conflicts with the other push-events
             form.parentNode.insertBefore(progressBar, form.nextSibling);
         }
-        // Do a first request right away, such that compilation of this test is hopefully not yet started. This one will set the session...
+        // Receive status updates as they occur, fall back to polling if server-sent events are not available
+        if (window.EventSource) {
+            var source = new EventSource("<%= request.getContextPath() + Paths.API_GAME_EVENTS%>?type=<%=NotificationType.PROGRESSBAR%>&gameId=" + <%= gameIdTODORENAME %>);
+            source.addEventListener("progressbar", function (e) {
+                showProgress(JSON.parse(e.data));
+            });
+            source.onerror = function () {
+                if (source.readyState === EventSource.CLOSED) {
+                    pollProgressBar();
+                }
+            };
+        } else {
+            pollProgressBar();
+        }
+    }
 
+    var pollProgressBar = function () {
+        // Do a first request right away, such that compilation of this test is hopefully not yet started. This one will set the session...
         var updateURL = "<%= request.getContextPath() + Paths.API_NOTIFICATION%>?type=<%=NotificationType.PROGRESSBAR%>&progressBar=1&gameId=" + <%= gameIdTODORENAME %>;
         updateProgressBar(updateURL);
 
@@ -76,8 +94,8 @@
         var interval = 1000;
         setInterval(function () {
             updateProgressBar(updateURL);
-        }, interval)
-    }
+        }, interval);
+    };
 </script>
 
 <% } %>
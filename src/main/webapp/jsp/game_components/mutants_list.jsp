@@ -26,6 +26,8 @@
 <%@ page import="org.codedefenders.game.Mutant" %>
 <%@ page import="java.util.ArrayList" %>
 <%@ page import="java.util.List" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
+<%@ page import="javax.servlet.jsp.tagext.BodyContent" %>
 
 <%--
     Displays three tabs with a list of alive, killed and equivalent mutants respectively.
@@ -63,6 +65,14 @@
     int gameId = (Integer) request.getAttribute("gameId");
 %>
 
+<%
+    final String cachedMutantsList = GameFragmentCache.get(request, "mutants_list");
+    if (cachedMutantsList != null) {
+        out.write(cachedMutantsList);
+    } else {
+        // render into a buffer, so the fragment can be cached
+        out = pageContext.pushBody();
+%>
 <div class="tabs bg-minus-3" role="tablist">
     <div class="crow fly no-gutter down">
         <div>
@@ -407,4 +417,11 @@
     });
 </script>
 
+<%
+        final String renderedMutantsList = ((BodyContent) out).getString();
+        out = pageContext.popBody();
+        out.write(renderedMutantsList);
+        GameFragmentCache.put(request, "mutants_list", renderedMutantsList);
+    }
+%>
 <% } %>
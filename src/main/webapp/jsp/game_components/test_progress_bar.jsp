@@ -20,7 +20,8 @@
 --%>
 <%--
     Adds a JavaScript function progressBar() that inserts and updates a progressbar showing the status of the last
-    submitted test. The progressbar is inserted after #logout. It reads the test status from /api/notifications.
+    submitted test. The progressbar is inserted after #logout. It receives the test status from /api/game_events,
+    or polls it from /api/notifications if server-sent events are not available.
 
     @param Integer gameId
         The id of the game.
@@ -33,25 +34,26 @@
 %>
 
 <script>
-    var updateProgressBar = function (url) {
+    var showProgress = function (r) {
         var progressBarDiv = document.getElementById("progress-bar");
-        $.get(url, function (r) {
-                $(r).each(function (index) {
-                    switch( r[index] ){
-                        case 'COMPILE_TEST': // After test is compiled
-                            progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 50%; font-size: 15px; line-height: 40px;" aria-valuenow="50" aria-valuemin="0" aria-valuemax="100">Running Test Against Original</div>';
-                            break;
-                        case "TEST_ORIGINAL": // After testing original
-                            progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 75%; font-size: 15px; line-height: 40px;" aria-valuenow="75" aria-valuemin="0" aria-valuemax="100">Running Test Against first Mutant</div>';
-                            break;
-                        // Not sure will ever get this one... since the test_mutant target execution might be written after testing mutants.
-                        case "TEST_MUTANT":
-                            progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 90%; font-size: 15px; line-height: 40px;" aria-valuenow="90" aria-valuemin="0" aria-valuemax="100">Running Test Against more Mutants</div>';
-                            break;
-                    }
-                });
+        $(r).each(function (index) {
+            switch( r[index] ){
+                case 'COMPILE_TEST': // After test is compiled
+                    progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 50%; font-size: 15px; line-height: 40px;" aria-valuenow="50" aria-valuemin="0" aria-valuemax="100">Running Test Against Original</div>';
+                    break;
+                case "TEST_ORIGINAL": // After testing original
+                    progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 75%; font-size: 15px; line-height: 40px;" aria-valuenow="75" aria-valuemin="0" aria-valuemax="100">Running Test Against first Mutant</div>';
+                    break;
+                // Not sure will ever get this one... since the test_mutant target execution might be written after testing mutants.
+                case "TEST_MUTANT":
+                    progressBarDiv.innerHTML='<div class="progress-bar bg-danger" role="progressbar" style="width: 90%; font-size: 15px; line-height: 40px;" aria-valuenow="90" aria-valuemin="0" aria-valuemax="100">Running Test Against more Mutants</div>';
+                    break;
             }
-        );
+        });
+    };
+
+    var updateProgressBar = function (url) {
+        $.get(url, showProgress);
     };
 
     var progressBar = function () {
@@ -68,6 +70,23 @@
             // Insert progress bar right under logout... this will conflicts with the other push-events
             form.parentNode.insertBefore(progressBar, form.nextSibling);
         }
+        // Receive status updates as they occur, fall back to polling if server-sent events are not available
+        if (window.EventSource) {
+            var source = new EventSource("<%= request.getContextPath() + Paths.API_GAME_EVENTS%>?type=<%=NotificationType.PROGRESSBAR%>&gameId=" + <%= gameIdTODORENAME %> +"&isDefender=1");
+            source.addEventListener("progressbar", function (e) {
+                showProgress(JSON.parse(e.data));
+            });
+            source.onerror = function () {
+                if (source.readyState === EventSource.CLOSED) {
+                    pollProgressBar();
+                }
+            };
+        } else {
+            pollProgressBar();
+        }
+    }
+
+    var pollProgressBar = function () {
         // Do a first request right away, such that compilation of this test is hopefully not yet started. This one will set the session...
         var updateURL = "<%= request.getContextPath() + Paths.API_NOTIFICATION%>?type=<%=NotificationType.PROGRESSBAR%>&progressBar=1&gameId=" + <%= gameIdTODORENAME %> +"&isDefender=1";
         updateProgressBar(updateURL);
@@ -77,7 +96,7 @@
         setInterval(function () {
             updateProgressBar(updateURL);
         }, interval);
-    }
+    };
 </script>
 
 <% } %>
@@ -26,6 +26,8 @@
 <%@ page import="org.codedefenders.model.User" %>
 <%@ page import="java.util.Set" %>
 <%@ page import="java.util.stream.Collectors" %>
+<%@ page import="org.codedefenders.servlets.util.GameFragmentCache" %>
+<%@ page import="javax.servlet.jsp.tagext.BodyContent" %>
 
 <%--
     Displays a list of tests in a one-item slider.
@@ -41,6 +43,14 @@
     List<Mutant> mutantsTODORENAME = (List<Mutant>) request.getAttribute("mutants");
 %>
 
+<%
+    final String cachedTestsCarousel = GameFragmentCache.get(request, "tests_carousel");
+    if (cachedTestsCarousel != null) {
+        out.write(cachedTestsCarousel);
+    } else {
+        // render into a buffer, so the fragment can be cached
+        out = pageContext.pushBody();
+%>
 <div class="slider single-item">
 
     <% if (testsTODORENAME.isEmpty()) { %>
@@ -143,5 +153,12 @@ $(function () {
 })
 
 </script>
+<%
+        final String renderedTestsCarousel = ((BodyContent) out).getString();
+        out = pageContext.popBody();
+        out.write(renderedTestsCarousel);
+        GameFragmentCache.put(request, "tests_carousel", renderedTestsCarousel);
+    }
+%>
 <% } %>
 
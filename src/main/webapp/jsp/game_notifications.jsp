@@ -27,69 +27,79 @@
 %>
 <script>
     //If the user is logged in, start receiving notifications
-    var updateGameNotifications = function(url) {
-        $.getJSON(url, function (r) {
-            for (var i = 0; i < r.length; i++){
-                r[i].time = Date.parse(r[i].time);
-            }
-            r.sort(function (a, b) {
-                return a.time - b.time;
-            });
-            $(r).each(function (index) {
+    // largest id of the received game events, used as cursor for polling new events
+    var lastEventId = 0;
 
-                var eventClass = "#game-notifications-game"
+    var showGameNotifications = function(r) {
+        // skip events which were already received by an earlier, overlapping request
+        r = r.filter(function (event) {
+            return event.eventId > lastEventId;
+        });
+        for (var i = 0; i < r.length; i++){
+            r[i].time = Date.parse(r[i].time);
+            lastEventId = Math.max(lastEventId, r[i].eventId);
+        }
+        r.sort(function (a, b) {
+            return a.time - b.time;
+        });
+        $(r).each(function (index) {
 
-                 if (r[index].eventType == "DEFENDER_MESSAGE"){
-                    eventClass = "#game-notifications-defenders"
-                 } else if (r[index].eventType == "ATTACKER_MESSAGE"){
-                    eventClass = "#game-notifications-attackers"
-                }
+            var eventClass = "#game-notifications-game"
 
-                var lastCount = $(eventClass).find(".notif-count");
+             if (r[index].eventType == "DEFENDER_MESSAGE"){
+                eventClass = "#game-notifications-defenders"
+             } else if (r[index].eventType == "ATTACKER_MESSAGE"){
+                eventClass = "#game-notifications-attackers"
+            }
 
-                var total = parseInt(lastCount.html()) + 1;
+            var lastCount = $(eventClass).find(".notif-count");
 
-                if (isNaN(total)){
-                    total = 1;
-                }
+            var total = parseInt(lastCount.html()) + 1;
 
-                if (total > 0){
-                    lastCount.parent().show();
-                    lastCount.parent().removeClass("hidden");
-                } else {
-                    lastCount.parent().hide();
-                }
+            if (isNaN(total)){
+                total = 1;
+            }
 
-                lastCount.html(total);
+            if (total > 0){
+                lastCount.parent().show();
+                lastCount.parent().removeClass("hidden");
+            } else {
+                lastCount.parent().hide();
+            }
 
-                $(eventClass).addClass("notif-alert");
+            lastCount.html(total);
 
-                eventClass += " .events";
+            $(eventClass).addClass("notif-alert");
 
-                $(eventClass).scrollTop(0)
+            eventClass += " .events";
 
-                var oldNotifications = $(eventClass).html();
+            $(eventClass).scrollTop(0)
 
-                oldNotifications =
-                    "<p><span class=\"event\">" +
-                    r[index].parsedMessage +
-                    "</span></p>" + oldNotifications;
+            var oldNotifications = $(eventClass).html();
 
-                $(eventClass).html(oldNotifications);
+            oldNotifications =
+                "<p><span class=\"event\">" +
+                r[index].parsedMessage +
+                "</span></p>" + oldNotifications;
 
-                var lastTotalCount = $("#notif-game-total-count");
+            $(eventClass).html(oldNotifications);
 
-                var totalCount = parseInt(lastTotalCount.html()) + 1;
+            var lastTotalCount = $("#notif-game-total-count");
 
-                if (isNaN(totalCount)){
-                    totalCount = 1;
-                }
+            var totalCount = parseInt(lastTotalCount.html()) + 1;
 
-                lastTotalCount.html(totalCount);
-            });
+            if (isNaN(totalCount)){
+                totalCount = 1;
+            }
+
+            lastTotalCount.html(totalCount);
         });
     };
 
+    var updateGameNotifications = function(url) {
+        $.getJSON(url, showGameNotifications);
+    };
+
     var toggleNotificationTimer = function(show){
         //TODO: Show/Hide loading animation
     };
@@ -116,12 +126,28 @@
 
     $(document).ready(function() {
         var interval = 5000;
-        var lastTime = 0;
-        setInterval(function () {
-            var url = "<%= request.getContextPath() + Paths.API_NOTIFICATION%>?type=<%=NotificationType.GAMEEVENT%>&gameId=<%=gameId%>&timestamp=" + lastTime;
-            lastTime = Math.round(new Date().getTime()/1000);
-            updateGameNotifications(url);
-        }, interval)
+        var pollGameNotifications = function () {
+            setInterval(function () {
+                var url = "<%= request.getContextPath() + Paths.API_NOTIFICATION%>?type=<%=NotificationType.GAMEEVENT%>&gameId=<%=gameId%>&lastEventId=" + lastEventId;
+                updateGameNotifications(url);
+            }, interval)
+        };
+
+        // Receive events as they occur, fall back to polling if server-sent events are not available
+        if (window.EventSource) {
+            var source = new EventSource("<%= request.getContextPath() + Paths.API_GAME_EVENTS%>?type=<%=NotificationType.GAMEEVENT%>&gameId=<%=gameId%>&lastEventId=" + lastEventId);
+            source.addEventListener("gameevent", function (e) {
+                showGameNotifications(JSON.parse(e.data));
+            });
+            source.onerror = function () {
+                // The browser reconnects by itself, unless the stream could not be opened at all
+                if (source.readyState === EventSource.CLOSED) {
+                    pollGameNotifications();
+                }
+            };
+        } else {
+            pollGameNotifications();
+        }
     });
 </script>
 
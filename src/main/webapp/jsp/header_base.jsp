@@ -18,6 +18,7 @@
     along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
 
 --%>
+<%@ page import="org.codedefenders.servlets.util.StaticResources" %>
 <!DOCTYPE html>
 <html>
 
@@ -32,11 +33,11 @@
     <base href="${pageContext.request.contextPath}/">
 
     <!-- jQuery -->
-    <script src="js/jquery.js" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "js/jquery.js") %>" type="text/javascript" ></script>
 
     <!-- Slick -->
-    <link href="css/slick_1.5.9.css" rel="stylesheet" type="text/css" />
-    <script src="js/slick_1.5.9.min.js" type="text/javascript" ></script>
+    <link href="<%= StaticResources.url(application, "css/slick_1.5.9.css") %>" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "js/slick_1.5.9.min.js") %>" type="text/javascript" ></script>
 
 	<!-- Favicon.ico -->
 	<link rel="icon" href="favicon.ico" type="image/x-icon">
@@ -50,45 +51,45 @@
     -->
 
     <!-- Bootstrap -->
-    <script src="js/bootstrap.min.js" type="text/javascript" ></script>
-    <link href="css/bootstrap.min.css" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "js/bootstrap.min.js") %>" type="text/javascript" ></script>
+    <link href="<%= StaticResources.url(application, "css/bootstrap.min.css") %>" rel="stylesheet" type="text/css" />
 
     <!-- JQuery UI -->
-    <script src="js/jquery-ui.min.js" type="text/javascript" ></script>
-    <link href="css/jquery-ui.min.css" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "js/jquery-ui.min.js") %>" type="text/javascript" ></script>
+    <link href="<%= StaticResources.url(application, "css/jquery-ui.min.css") %>" rel="stylesheet" type="text/css" />
 
-    <link href="css/bootstrap-toggle_2.2.0.min.css" rel="stylesheet" type="text/css" />
-    <script src="js/bootstrap-toggle_2.2.0.min.js" type="text/javascript" ></script>
+    <link href="<%= StaticResources.url(application, "css/bootstrap-toggle_2.2.0.min.css") %>" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "js/bootstrap-toggle_2.2.0.min.js") %>" type="text/javascript" ></script>
     <!-- select -->
-    <link href="css/bootstrap-select_1.9.3.min.css" rel="stylesheet" type="text/css" />
-    <script src="js/bootstrap-select_1.9.3.min.js" type="text/javascript" ></script>
+    <link href="<%= StaticResources.url(application, "css/bootstrap-select_1.9.3.min.css") %>" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "js/bootstrap-select_1.9.3.min.js") %>" type="text/javascript" ></script>
 
 
     <!-- Leaf -->
-    <link href="css/base.css" rel="stylesheet">
-    <script type="text/javascript" src="js/script.js"></script>
+    <link href="<%= StaticResources.url(application, "css/base.css") %>" rel="stylesheet">
+    <script type="text/javascript" src="<%= StaticResources.url(application, "js/script.js") %>"></script>
 
     <!-- Codemirror -->
-    <script src="codemirror/lib/codemirror.js" type="text/javascript" ></script>
-    <script src="codemirror/mode/clike/clike.js" type="text/javascript" ></script>
-    <script src="codemirror/mode/diff/diff.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/dialog/dialog.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/search/searchcursor.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/search/search.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/scroll/annotatescrollbar.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/search/matchesonscrollbar.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/search/jump-to-line.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/selection/active-line.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/edit/matchbrackets.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/edit/closebrackets.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/hint/show-hint.js" type="text/javascript" ></script>
-    <script src="codemirror/addon/hint/anyword-hint.js" type="text/javascript" ></script>
-
-    <link href="codemirror/lib/codemirror.css" rel="stylesheet" type="text/css" />
+    <script src="<%= StaticResources.url(application, "codemirror/lib/codemirror.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/mode/clike/clike.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/mode/diff/diff.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/dialog/dialog.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/search/searchcursor.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/search/search.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/scroll/annotatescrollbar.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/search/matchesonscrollbar.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/search/jump-to-line.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/selection/active-line.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/edit/matchbrackets.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/edit/closebrackets.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/hint/show-hint.js") %>" type="text/javascript" ></script>
+    <script src="<%= StaticResources.url(application, "codemirror/addon/hint/anyword-hint.js") %>" type="text/javascript" ></script>
+
+    <link href="<%= StaticResources.url(application, "codemirror/lib/codemirror.css") %>" rel="stylesheet" type="text/css" />
     <!-- <link href="codemirror/lib/codemirror.css" rel="stylesheet" type="text/css" > -->
-    <link href="codemirror/addon/dialog/dialog.css" rel="stylesheet" type="text/css" >
-    <link href="codemirror/addon/search/matchesonscrollbar.css" rel="stylesheet" type="text/css" >
-    <link href="codemirror/addon/hint/show-hint.css" rel="stylesheet" type="text/css" >
+    <link href="<%= StaticResources.url(application, "codemirror/addon/dialog/dialog.css") %>" rel="stylesheet" type="text/css" >
+    <link href="<%= StaticResources.url(application, "codemirror/addon/search/matchesonscrollbar.css") %>" rel="stylesheet" type="text/css" >
+    <link href="<%= StaticResources.url(application, "codemirror/addon/hint/show-hint.css") %>" rel="stylesheet" type="text/css" >
 
     <%-- This function shall be loaded on any page in which we compile the mutant --%>
     <%-- Sources:
@@ -125,22 +126,22 @@
 
 
     <!-- Table sorter -->
-    <script type="text/javascript" src="js/jquery.dataTables.min.js"></script>
-    <script type="text/javascript" src="js/moment.min.js"></script> <!-- must come before datetime-moment -->
-    <script type="text/javascript" src="js/datetime-moment.js"></script> <!-- must come after moment -->
-    <link href="css/jquery.dataTables.min.css" rel="stylesheet" type="text/css" />
-    <link href="css/datatables-override.css" rel="stylesheet" type="text/css" />
+    <script type="text/javascript" src="<%= StaticResources.url(application, "js/jquery.dataTables.min.js") %>"></script>
+    <script type="text/javascript" src="<%= StaticResources.url(application, "js/moment.min.js") %>"></script> <!-- must come before datetime-moment -->
+    <script type="text/javascript" src="<%= StaticResources.url(application, "js/datetime-moment.js") %>"></script> <!-- must come after moment -->
+    <link href="<%= StaticResources.url(application, "css/jquery.dataTables.min.css") %>" rel="stylesheet" type="text/css" />
+    <link href="<%= StaticResources.url(application, "css/datatables-override.css") %>" rel="stylesheet" type="text/css" />
 
 
     <!-- MultiplayerGame -->
-    <link href="css/gamestyle.css" rel="stylesheet" type="text/css" />
-    <link href="css/notification-style.css" rel="stylesheet" type="text/css" />
-    <script type="text/javascript" src="js/messaging.js"></script>
+    <link href="<%= StaticResources.url(application, "css/gamestyle.css") %>" rel="stylesheet" type="text/css" />
+    <link href="<%= StaticResources.url(application, "css/notification-style.css") %>" rel="stylesheet" type="text/css" />
+    <script type="text/javascript" src="<%= StaticResources.url(application, "js/messaging.js") %>"></script>
 
     <!-- Upload page -->
-    <link href="css/uploadcut.css" rel="stylesheet" type="text/css" />
+    <link href="<%= StaticResources.url(application, "css/uploadcut.css") %>" rel="stylesheet" type="text/css" />
 
-    <link href="css/game_highlighting.css" rel="stylesheet" type="text/css" />
+    <link href="<%= StaticResources.url(application, "css/game_highlighting.css") %>" rel="stylesheet" type="text/css" />
 
     <script>
         $(document).ready(function() {
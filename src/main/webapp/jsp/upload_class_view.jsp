@@ -29,6 +29,7 @@
 <div>
 	<div class="w-100 up">
 		<h2>Upload Class</h2>
+		<div id="uploadStatus" class="alert alert-info" style="display: none;"></div>
 		<div id="divUpload" >
 			<form id="formUpload" action="<%=request.getContextPath() + Paths.CLASS_UPLOAD%>" class="form-upload" method="post" enctype="multipart/form-data">
 				<span class="label label-danger" id="invalid_alias" style="color: white;visibility: hidden">Name with no whitespaces or special characters.</span>
@@ -88,11 +89,47 @@
                     </div>
                 </span>
 				<span class="submit-button">
-					<input id="upload" type="submit" class="fileinput-upload-button" value="Upload" onClick="this.form.submit(); this.disabled=true; this.value='Uploading...';"/>
+					<input id="upload" type="submit" class="fileinput-upload-button" value="Upload" onClick="this.form.submit(); this.disabled=true; this.value='Uploading...'; pollUploadProgress(this);"/>
 				</span>
 
 				<input type="hidden" value="<%=request.getParameter("fromAdmin")%>" name="fromAdmin">
 				<script>
+                    function pollUploadProgress(button) {
+                        setInterval(function () {
+                            $.getJSON('<%=request.getContextPath() + Paths.CLASS_UPLOAD%>?progress', function (progress) {
+                                if (progress.phase) {
+                                    let status = progress.phase;
+                                    if (progress.total > 0) {
+                                        status += ' (' + progress.completed + '/' + progress.total + ')';
+                                    }
+                                    button.value = 'Uploading... ' + status;
+                                }
+                            });
+                        }, 1000);
+                    }
+
+                    <% if (Boolean.TRUE.equals(request.getAttribute("uploadInProgress"))) { %>
+                    // An upload is processed in the background after the upload request, so the
+                    // progress is polled until it is done. The page is reloaded to show the result.
+                    $(document).ready(function () {
+                        $('#upload').prop('disabled', true);
+                        const poll = setInterval(function () {
+                            $.getJSON('<%=request.getContextPath() + Paths.CLASS_UPLOAD%>?progress', function (progress) {
+                                if (progress.running) {
+                                    let status = 'Processing upload... ' + progress.phase;
+                                    if (progress.total > 0) {
+                                        status += ' (' + progress.completed + '/' + progress.total + ')';
+                                    }
+                                    $('#uploadStatus').text(status).show();
+                                } else {
+                                    clearInterval(poll);
+                                    location.reload();
+                                }
+                            });
+                        }, 1000);
+                    });
+                    <% } %>
+
                     function validateAlias() {
                         let classAlias = document.forms["formUpload"]["classAlias"].value;
 
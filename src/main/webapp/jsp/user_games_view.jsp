@@ -20,9 +20,8 @@
 --%>
 <%@ page import="org.codedefenders.database.MultiplayerGameDAO" %>
 <%@ page import="org.codedefenders.game.duel.DuelGame" %>
-<%@ page import="org.codedefenders.game.multiplayer.MultiplayerGame" %>
+<%@ page import="org.codedefenders.game.multiplayer.MultiplayerGameSummary" %>
 <%@ page import="org.codedefenders.servlets.admin.AdminSystemSettings" %>
-<%@ page import="java.util.ArrayList" %>
 <%@ page import="java.util.List" %>
 <%@ page import="org.codedefenders.database.UserDAO" %>
 <%@ page import="org.codedefenders.database.DuelGameDAO" %>
@@ -44,20 +43,16 @@
 	// My Games
 	List<DuelGame> duelGames = DuelGameDAO.getDuelGamesForUser(uid);
 
-	List<MultiplayerGame> multiplayerGames = MultiplayerGameDAO.getMultiplayerGamesForUser(uid);
+	List<MultiplayerGameSummary> multiplayerGames = MultiplayerGameDAO.getMultiplayerGameSummariesForUser(uid);
 
-	List<AbstractGame> games = new ArrayList<>();
-	games.addAll( duelGames );
-	games.addAll( multiplayerGames );
+	boolean noGames = duelGames.isEmpty() && multiplayerGames.isEmpty();
 
 	// Open Games
 	List<DuelGame> openDuelGames = DuelGameDAO.getOpenDuelGames();
 
-	List<MultiplayerGame> openMultiplayerGames = MultiplayerGameDAO.getOpenMultiplayerGamesForUser(uid);
+	List<MultiplayerGameSummary> openMultiplayerGames = MultiplayerGameDAO.getOpenMultiplayerGameSummariesForUser(uid);
 
-	List<AbstractGame> openGames = new ArrayList<>();
-	openGames.addAll( openDuelGames );
-	openGames.addAll( openMultiplayerGames );
+	boolean noOpenGames = openDuelGames.isEmpty() && openMultiplayerGames.isEmpty();
 
 	boolean gamesJoinable = AdminDAO.getSystemSetting(AdminSystemSettings.SETTING_NAME.GAME_JOINING).getBoolValue();
 
@@ -79,15 +74,13 @@
 		<th></th>
 	</tr>
 <%
-	if (games.isEmpty()) {
+	if (noGames) {
 %>
 	<tr><td colspan="100%"> You are not currently playing any game. </td></tr>
 <%
 	} else {
-		for (AbstractGame ag : games) {
-			if( ag instanceof DuelGame ){
+		for (DuelGame g : duelGames) {
 /****************************************************************************************************************************************/
-				DuelGame g = (DuelGame) ag;
 
 				atkName = null;
 				defName = null;
@@ -149,9 +142,9 @@
 	</tr>
 <%
 /****************************************************************************************************************************************/
-			} else if ( ag instanceof MultiplayerGame ){
+		} // Closes FOR
+		for (MultiplayerGameSummary g : multiplayerGames) {
 /****************************************************************************************************************************************/
-				MultiplayerGame g = (MultiplayerGame) ag;
 				Role role = g.getRole(uid);
                 final GameClass cut = g.getCUT();%>
 	<tr id="<%="game-"+g.getId()%>">
@@ -181,8 +174,8 @@
 				</div>
 			</div>
 		</td>
-		<td class="col-sm-1"><%= g.getAttackerIds().length %></td>
-		<td class="col-sm-1"><%= g.getDefenderIds().length %></td>
+		<td class="col-sm-1"><%= g.getAttackerCount() %></td>
+		<td class="col-sm-1"><%= g.getDefenderCount() %></td>
 		<td class="col-sm-1"><%= g.getLevel().name() %></td>
 		<td class="col-sm-1"><%= g.getFormattedStartDateTime()%></td>
 		<td class="col-sm-1"><%= g.getFormattedFinishDateTime()%></td>
@@ -256,10 +249,6 @@
 	</tr>
 <%
 /****************************************************************************************************************************************/
-			}
-			else {
-				continue;
-			}
 		} // Closes FOR
 	} // Closes ELSE
 %>
@@ -291,15 +280,13 @@
 
 	</tr>
 <%
-	if (openGames.isEmpty()) {
+	if (noOpenGames) {
 %>
 	<tr><td colspan="100%"> There are currently no open games. </td></tr>
 <%
 	} else {
-		for (AbstractGame ag : openGames) {
-			if( ag instanceof DuelGame ){
+		for (DuelGame g : openDuelGames) {
 /****************************************************************************************************************************************/
-				DuelGame g = (DuelGame) ag;
 				atkName = null;
 				defName = null;
 
@@ -366,9 +353,9 @@
 		</tr>
 <%
 /****************************************************************************************************************************************/
-			} else if ( ag instanceof MultiplayerGame ){
+		} // Closes FOR
+		for (MultiplayerGameSummary g : openMultiplayerGames) {
 /****************************************************************************************************************************************/
-				MultiplayerGame g = (MultiplayerGame) ag;
 				Role role = g.getRole(uid);
                 final GameClass cut = g.getCUT();%>
 		<tr id="<%="game-"+g.getId()%>">
@@ -404,8 +391,8 @@
 			<!-- Owner of the open game -->
 			<%-- <td class="col-sm-1"><%= DatabaseAccess.getUserForKey("User_ID", g.getCreatorId()).getUsername() %></td> --%>
 			<!--<td class="col-sm-1"><%/*= g.getPrize() */%></td>-->
-            <%int attackers = g.getAttackerIds().length;%>
-            <%int defenders = g.getDefenderIds().length;%>
+            <%int attackers = g.getAttackerCount();%>
+            <%int defenders = g.getDefenderCount();%>
 			<td class="col-sm-1"><%=attackers %> of <%=g.getMinAttackers()%>&ndash;<%=g.getAttackerLimit()%></td>
 			<td class="col-sm-1"><%=defenders %> of <%=g.getMinDefenders()%>&ndash;<%=g.getDefenderLimit()%></td>
 			<td class="col-sm-1"><%= g.getLevel().name() %></td>
@@ -432,10 +419,6 @@
 		</tr>
 <%
 /****************************************************************************************************************************************/
-			}
-			else {
-				continue;
-			}
 		} // Closes FOR
 	} // Closes ELSE
 %>
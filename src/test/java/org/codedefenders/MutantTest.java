@@ -23,6 +23,7 @@ import org.apache.commons.lang.StringUtils;
 import org.codedefenders.database.DuelGameDAO;
 import org.codedefenders.database.GameClassDAO;
 import org.codedefenders.database.GameDAO;
+import org.codedefenders.database.MutantDAO;
 import org.codedefenders.game.GameClass;
 import org.codedefenders.game.Mutant;
 import org.codedefenders.game.duel.DuelGame;
@@ -47,6 +48,7 @@ import difflib.Patch;
 import difflib.PatchFailedException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -612,4 +614,75 @@ public class MutantTest {
 
         assertEquals(0, p.getDeltas().size());
     }
+
+    @Test
+    public void testDescriptionRoundTrip() throws IOException {
+        String originalCode = "public class Lift {" + "\n"
+                + "private int topFloor;" + "\n"
+                + "private int currentFloor = 0;" + "\n"
+                + "private int capacity = 10;" + "\n"
+                + "}";
+
+        String mutantCode = "public class Lift {" + "\n"
+                + "private int topFloor = 1;" + "\n" // 2 - Change this
+                + "private int currentFloor = 0;" + "\n"
+                + "private int capacity = 11;" + "\n" // 4 - Change this
+                + "}";
+
+        File cutJavaFile = temporaryFolder.newFile();
+        FileUtils.writeStringToFile(cutJavaFile, originalCode);
+        File mutantJavaFile = temporaryFolder.newFile();
+        FileUtils.writeStringToFile(mutantJavaFile, mutantCode);
+        mockClassUnderTest(cutJavaFile);
+
+        Mutant m = new Mutant(1, 1, mutantJavaFile.getAbsolutePath(), null, true, 1);
+        List<String> description = m.getHTMLReadout();
+        assertTrue(description.size() > 1);
+
+        String stored = MutantDAO.joinDescription(description);
+        assertEquals(description, MutantDAO.splitDescription(stored));
+
+        assertEquals(new ArrayList<String>(), MutantDAO.splitDescription(MutantDAO.joinDescription(new ArrayList<>())));
+    }
+
+    @Test
+    public void testNormalizedClassLinesCachedByModificationTime() throws IOException {
+        String originalCode = "public class Lift {" + "\n"
+                + "private int topFloor;" + "\n"
+                + "}";
+
+        String mutantCode = "public class Lift {" + "\n"
+                + "private int topFloor = 1;" + "\n" // 2 - Change this
+                + "}";
+
+        File cutJavaFile = temporaryFolder.newFile();
+        FileUtils.writeStringToFile(cutJavaFile, originalCode);
+        File mutantJavaFile = temporaryFolder.newFile();
+        FileUtils.writeStringToFile(mutantJavaFile, mutantCode);
+        mockClassUnderTest(cutJavaFile);
+
+        final long lastModified = 1500000000000L;
+        assertTrue(cutJavaFile.setLastModified(lastModified));
+        assertEquals(Arrays.asList(2), new Mutant(1, 1, mutantJavaFile.getAbsolutePath(), null, true, 1).getLines());
+
+        // Same path and modification time, so the cached lines of the original class are used
+        FileUtils.writeStringToFile(cutJavaFile, mutantCode);
+        assertTrue(cutJavaFile.setLastModified(lastModified));
+        assertEquals(Arrays.asList(2), new Mutant(1, 1, mutantJavaFile.getAbsolutePath(), null, true, 1).getLines());
+
+        // A new modification time invalidates the cached lines
+        assertTrue(cutJavaFile.setLastModified(lastModified + 60000));
+        assertEquals(0, new Mutant(1, 1, mutantJavaFile.getAbsolutePath(), null, true, 1).getDifferences().getDeltas().size());
+    }
+
+    private static void mockClassUnderTest(File cutJavaFile) {
+        GameClass mockedGameClass = mock(GameClass.class);
+        when(mockedGameClass.getJavaFile()).thenReturn(cutJavaFile.getAbsolutePath());
+        when(mockedGameClass.getId()).thenReturn(1);
+
+        PowerMockito.mockStatic(GameClassDAO.class);
+        when(GameClassDAO.getClassForId(1)).thenReturn(mockedGameClass);
+        PowerMockito.mockStatic(GameDAO.class);
+        when(GameDAO.getCurrentRound(1)).thenReturn(2);
+    }
 }
@@ -104,4 +104,25 @@ public class ConnectionPoolTest {
 
         assertEquals(numberOfConnections, connectionPool.getNbConnections());
     }
+
+    /**
+     * Shrinks the pool while a connection is borrowed and grows it again afterwards.
+     */
+    @Test
+    public void testConnectionPoolResize() throws ConnectionPool.NoMoreConnectionsException {
+        final ConnectionPool connectionPool = ConnectionPool.instance();
+        final int numberOfConnections = connectionPool.getNbConnections();
+
+        final Connection borrowedConnection = connectionPool.getDBConnection();
+        connectionPool.updateSize(numberOfConnections - 1);
+        assertEquals(numberOfConnections - 1, connectionPool.getNbConnections());
+
+        connectionPool.releaseDBConnection(borrowedConnection);
+        assertEquals(numberOfConnections - 1, connectionPool.getMetrics().getIdle());
+
+        connectionPool.updateSize(numberOfConnections);
+        assertEquals(numberOfConnections, connectionPool.getNbConnections());
+        assertEquals(numberOfConnections, connectionPool.getMetrics().getIdle());
+        assertEquals(0, connectionPool.getMetrics().getActive());
+    }
 }
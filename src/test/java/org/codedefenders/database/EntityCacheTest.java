@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.database;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EntityCacheTest {
+
+    @Test
+    public void testReadThrough() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1, key -> load(key, loads)));
+        assertEquals("1", cache.get(1, key -> load(key, loads)));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.invalidate(1);
+        assertEquals("1", cache.get(1, key -> load(key, loads)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testNullIsNotCached() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        assertNull(cache.get(1, key -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testGetIfPresentAndPut() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        assertNull(cache.getIfPresent(1));
+
+        cache.put(1, "1");
+        cache.put(2, null);
+        assertEquals("1", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 2, 1, TimeUnit.MINUTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> load(key, loads));
+        cache.get(2, key -> load(key, loads));
+        cache.get(1, key -> load(key, loads));
+        cache.get(3, key -> load(key, loads));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        // 2 was the least recently used entry
+        cache.get(1, key -> load(key, loads));
+        assertEquals(3, loads.get());
+        cache.get(2, key -> load(key, loads));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testExpiredEntriesAreReloaded() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 0, TimeUnit.MILLISECONDS);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> load(key, loads));
+        cache.get(1, key -> load(key, loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testInvalidationDuringLoadIsNotOverwritten() {
+        final EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        // The row is updated while it is loaded, so the loaded value may be stale.
+        assertEquals("1", cache.get(1, key -> {
+            cache.invalidate(key);
+            return load(key, loads);
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    private static String load(int key, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return String.valueOf(key);
+    }
+}
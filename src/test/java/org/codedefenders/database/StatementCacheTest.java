@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.database;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link StatementCache} implementation.
+ */
+public class StatementCacheTest {
+    private Connection connection;
+    private StatementCache statementCache;
+
+    @Before
+    public void setup() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+                .thenAnswer(invocation -> mock(PreparedStatement.class));
+        statementCache = new StatementCache(connection);
+    }
+
+    @Test
+    public void testStatementIsReused() throws SQLException {
+        final PreparedStatement first = statementCache.prepare("SELECT * FROM users WHERE User_ID = ?;");
+        assertTrue(statementCache.release(first));
+        verify(first, never()).close();
+
+        final PreparedStatement second = statementCache.prepare("SELECT * FROM users WHERE User_ID = ?;");
+        assertSame(first, second);
+        verify(connection).prepareStatement("SELECT * FROM users WHERE User_ID = ?;");
+    }
+
+    @Test
+    public void testGeneratedKeysOnlyForInserts() throws SQLException {
+        statementCache.prepare("\nINSERT INTO users (Username) VALUES (?);");
+        statementCache.prepare("UPDATE users SET Username = ?;");
+
+        verify(connection).prepareStatement("\nINSERT INTO users (Username) VALUES (?);", Statement.RETURN_GENERATED_KEYS);
+        verify(connection).prepareStatement("UPDATE users SET Username = ?;");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        final PreparedStatement first = statementCache.prepare("SELECT 0;");
+        final PreparedStatement second = statementCache.prepare("SELECT 1;");
+        for (int i = 2; i < StatementCache.MAX_SIZE; i++) {
+            statementCache.prepare("SELECT " + i + ";");
+        }
+        // Use the first statement again, so the second one is the least recently used.
+        assertSame(first, statementCache.prepare("SELECT 0;"));
+
+        statementCache.prepare("SELECT " + StatementCache.MAX_SIZE + ";");
+
+        verify(first, never()).close();
+        verify(second).close();
+        assertFalse(statementCache.release(second));
+        assertNotSame(second, statementCache.prepare("SELECT 1;"));
+    }
+
+    @Test
+    public void testClosedStatementIsReplaced() throws SQLException {
+        final PreparedStatement first = statementCache.prepare("SELECT 1;");
+        when(first.isClosed()).thenReturn(true);
+
+        final PreparedStatement second = statementCache.prepare("SELECT 1;");
+        assertNotSame(first, second);
+        assertFalse(statementCache.release(first));
+        assertTrue(statementCache.release(second));
+    }
+}
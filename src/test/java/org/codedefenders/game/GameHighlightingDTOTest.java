@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game;
+
+import org.codedefenders.game.Mutant.Equivalence;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameHighlightingDTOTest {
+
+    @Test
+    public void testCompactJson() {
+        final List<Mutant> mutants = Arrays.asList(mutant(1, true, 3), mutant(2, false, 3, 4));
+        final List<org.codedefenders.game.Test> tests = Arrays.asList(test(10, 3, 4), test(11, 4));
+
+        assertEquals("{\"testCount\":2,"
+                        + "\"coveragePerLine\":[[3,1],[4,2]],"
+                        + "\"mutantIdsPerLine\":[[3,[1,2]],[4,[2]]],"
+                        + "\"mutants\":[[1,0,\"\\u003cattacker\\u003e\",\"ALIVE\"],[2,0,\"\\u003cattacker\\u003e\",\"KILLED\"]]}",
+                new GameHighlightingDTO(mutants, tests).toJson());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        final int gameId = 4714;
+        final List<Mutant> mutants = new ArrayList<>(Collections.singletonList(mutant(1, true, 5)));
+        final List<org.codedefenders.game.Test> tests = new ArrayList<>(Collections.singletonList(test(10, 5)));
+        GameHighlightingDTO.toJson(gameId, mutants, tests);
+
+        /* a new test and mutant are added, the first mutant is killed */
+        mutants.set(0, mutant(1, false, 5));
+        mutants.add(mutant(2, true, 6));
+        tests.add(test(11, 5, 6));
+        final String json = GameHighlightingDTO.toJson(gameId, mutants, tests);
+        assertEquals(new GameHighlightingDTO(mutants, tests).toJson(), json);
+
+        /* a test is removed */
+        tests.remove(0);
+        assertEquals(new GameHighlightingDTO(mutants, tests).toJson(), GameHighlightingDTO.toJson(gameId, mutants, tests));
+    }
+
+    private static Mutant mutant(int id, boolean alive, Integer... lines) {
+        final Mutant mutant = mock(Mutant.class);
+        when(mutant.getId()).thenReturn(id);
+        when(mutant.isAlive()).thenReturn(alive);
+        when(mutant.getEquivalent()).thenReturn(Equivalence.ASSUMED_NO);
+        when(mutant.getLines()).thenReturn(Arrays.asList(lines));
+        when(mutant.getCreatorName()).thenReturn("<attacker>");
+        return mutant;
+    }
+
+    private static org.codedefenders.game.Test test(int id, Integer... lines) {
+        final org.codedefenders.game.Test test = mock(org.codedefenders.game.Test.class);
+        when(test.getId()).thenReturn(id);
+        when(test.getLineCoverage()).thenReturn(new LineCoverage(Arrays.asList(lines), Collections.emptyList()));
+        return test;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameVersionsTest {
+
+    @Test
+    public void testBump() {
+        final long initial = GameVersions.get(1001);
+        final long other = GameVersions.get(1002);
+
+        final long bumped = GameVersions.bump(1001);
+        assertTrue(bumped > initial);
+        assertEquals(bumped, GameVersions.get(1001));
+        assertEquals(other, GameVersions.get(1002));
+    }
+
+    @Test
+    public void testBumpAll() {
+        final long bumped = GameVersions.bump(1003);
+        final long other = GameVersions.get(1004);
+
+        GameVersions.bumpAll();
+        assertTrue(GameVersions.get(1003) > bumped);
+        assertTrue(GameVersions.get(1004) > other);
+
+        final long bumpedAgain = GameVersions.bump(1003);
+        assertEquals(bumpedAgain, GameVersions.get(1003));
+        assertTrue(GameVersions.get(1004) < bumpedAgain);
+    }
+
+    @Test
+    public void testTrackedGamesAreBounded() {
+        final long bumped = GameVersions.bump(1005);
+
+        for (int gameId = 0; gameId <= GameVersions.MAX_TRACKED_GAMES; gameId++) {
+            GameVersions.bump(-gameId - 1);
+        }
+        assertTrue(GameVersions.trackedGames() <= GameVersions.MAX_TRACKED_GAMES);
+        assertTrue(GameVersions.get(1005) > bumped);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LineCoverageTest {
+
+    @Test
+    public void testLineCoverage() {
+        final LineCoverage coverage = new LineCoverage(Arrays.asList(4, 2, 3), Collections.singletonList(7));
+        assertEquals(Arrays.asList(2, 3, 4), coverage.getLinesCovered());
+        assertTrue(coverage.isLineCovered(3));
+        assertFalse(coverage.isLineCovered(7));
+        assertTrue(coverage.coversAny(Arrays.asList(7, 4)));
+        assertFalse(coverage.coversAny(Collections.singletonList(7)));
+    }
+
+    @Test
+    public void testEncoded() {
+        final LineCoverage coverage = new LineCoverage(Arrays.asList(4, 2, 3), Collections.singletonList(7));
+        final LineCoverage decoded = LineCoverage.fromEncoded(coverage.getEncodedLinesCovered(),
+                coverage.getEncodedLinesUncovered());
+        assertEquals(coverage.getLinesCovered(), decoded.getLinesCovered());
+        assertEquals(coverage.getLinesUncovered(), decoded.getLinesUncovered());
+        assertTrue(decoded.isLineCovered(4));
+    }
+
+    @Test
+    public void testEmpty() {
+        final LineCoverage coverage = LineCoverage.fromEncoded(null, null);
+        assertTrue(coverage.getLinesCovered().isEmpty());
+        assertTrue(coverage.getLinesUncovered().isEmpty());
+        assertFalse(coverage.coversAny(Collections.singletonList(1)));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.codedefenders.game.Role;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots.Snapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FinishedGameSnapshotsTest {
+
+    @Test
+    public void testFragmentsArePerRole() {
+        final Snapshot snapshot = FinishedGameSnapshots.get(4711);
+        snapshot.putFragment(Role.ATTACKER, "mutants_list", "<div>äöü</div>");
+
+        assertEquals("<div>äöü</div>", snapshot.getFragment(Role.ATTACKER, "mutants_list"));
+        assertNull(snapshot.getFragment(Role.DEFENDER, "mutants_list"));
+        assertTrue(snapshot.hasFragments(Role.ATTACKER, "mutants_list"));
+        assertFalse(snapshot.hasFragments(Role.ATTACKER, "mutants_list", "tests_carousel"));
+        assertSame(snapshot, FinishedGameSnapshots.get(4711));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final Snapshot snapshot = FinishedGameSnapshots.get(4712);
+        snapshot.putFragment(Role.DEFENDER, "tests_carousel", "tests");
+
+        FinishedGameSnapshots.invalidate(4712);
+        final Snapshot newSnapshot = FinishedGameSnapshots.get(4712);
+        assertNotSame(snapshot, newSnapshot);
+        assertNull(newSnapshot.getFragment(Role.DEFENDER, "tests_carousel"));
+    }
+
+    @Test
+    public void testCompression() {
+        final StringBuilder fragment = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            fragment.append("<tr><td>Mutant ").append(i).append("</td></tr>\n");
+        }
+        final byte[] compressed = FinishedGameSnapshots.compress(fragment.toString());
+        assertTrue(compressed.length < fragment.length() / 4);
+        assertEquals(fragment.toString(), FinishedGameSnapshots.decompress(compressed));
+    }
+}
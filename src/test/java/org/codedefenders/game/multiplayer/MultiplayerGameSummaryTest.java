@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.codedefenders.game.GameLevel;
+import org.codedefenders.game.GameState;
+import org.codedefenders.game.Role;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiplayerGameSummaryTest {
+
+    private static MultiplayerGameSummary summary(GameState state, boolean requiresValidation, Map<Integer, Role> players) {
+        return new MultiplayerGameSummary(1, 2, 3, state, GameLevel.HARD, 0, 0,
+                1, 1, 2, 1, requiresValidation, players);
+    }
+
+    @Test
+    public void testRolesAndCounts() {
+        final Map<Integer, Role> players = new HashMap<>();
+        players.put(10, Role.ATTACKER);
+        players.put(11, Role.ATTACKER);
+        players.put(12, Role.DEFENDER);
+        final MultiplayerGameSummary game = summary(GameState.ACTIVE, false, players);
+        players.clear();
+
+        assertEquals(Role.CREATOR, game.getRole(3));
+        assertEquals(Role.ATTACKER, game.getRole(10));
+        assertEquals(Role.DEFENDER, game.getRole(12));
+        assertEquals(Role.NONE, game.getRole(13));
+        assertEquals(2, game.getAttackerCount());
+        assertEquals(1, game.getDefenderCount());
+    }
+
+    @Test
+    public void testIsOpenFor() {
+        final Map<Integer, Role> players = new HashMap<>();
+        players.put(10, Role.ATTACKER);
+        final MultiplayerGameSummary game = summary(GameState.CREATED, false, players);
+
+        assertTrue(game.isOpenFor(13, false));
+        assertFalse(game.isOpenFor(3, false));
+        assertFalse(game.isOpenFor(10, false));
+
+        assertFalse(summary(GameState.GRACE_ONE, false, players).isOpenFor(13, false));
+        assertFalse(summary(GameState.ACTIVE, true, players).isOpenFor(13, false));
+        assertTrue(summary(GameState.ACTIVE, true, players).isOpenFor(13, true));
+
+        players.put(11, Role.ATTACKER);
+        players.put(12, Role.DEFENDER);
+        assertFalse(summary(GameState.ACTIVE, false, players).isOpenFor(13, false));
+    }
+}
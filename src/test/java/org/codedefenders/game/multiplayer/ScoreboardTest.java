@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.game.multiplayer;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.codedefenders.game.Mutant;
+import org.codedefenders.game.Mutant.Equivalence;
+import org.codedefenders.game.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.codedefenders.game.Mutant.Equivalence.ASSUMED_NO;
+import static org.codedefenders.game.Mutant.Equivalence.ASSUMED_YES;
+import static org.codedefenders.game.Mutant.Equivalence.DECLARED_YES;
+import static org.codedefenders.game.Mutant.Equivalence.PENDING_TEST;
+import static org.codedefenders.game.Mutant.Equivalence.PROVEN_NO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the {@link Scoreboard} with the score computation {@link MultiplayerGame} used before
+ * the scoreboard was introduced, which is kept here as {@link #legacyMutantScores(List)} and
+ * {@link #legacyTestScores(List, List, int[], int[], Map, Map)}.
+ */
+public class ScoreboardTest {
+    private static final int[] ATTACKERS = {1, 2};
+    private static final int[] DEFENDERS = {3, 4};
+
+    private final List<Mutant> mutants = Arrays.asList(
+            mutant(100, 1, true, ASSUMED_NO, 5),
+            mutant(101, 1, false, ASSUMED_NO, 0),
+            mutant(102, 2, false, PROVEN_NO, 3),
+            mutant(103, 2, true, PENDING_TEST, 2),
+            mutant(104, 1, false, DECLARED_YES, 0),
+            mutant(105, 2, false, ASSUMED_YES, 0),
+            mutant(106, 1, true, ASSUMED_NO, 1));
+    private final List<Test> tests = Arrays.asList(
+            test(3, 4, 1),
+            test(3, 2, 2),
+            test(4, 0, 0));
+    private final Map<Integer, Integer> equivalentDefenderIds = new HashMap<>();
+    private final Map<Integer, Integer> playerPoints = new HashMap<>();
+
+    public ScoreboardTest() {
+        equivalentDefenderIds.put(102, 3);
+        equivalentDefenderIds.put(103, 4);
+        equivalentDefenderIds.put(104, 4);
+        equivalentDefenderIds.put(105, 3);
+        playerPoints.put(3, 2);
+        playerPoints.put(4, 5);
+    }
+
+    @org.junit.Test
+    public void testScoresMatchLegacyComputation() {
+        final Scoreboard scoreboard = new Scoreboard(1, mutants, tests, ATTACKERS, DEFENDERS,
+                equivalentDefenderIds, playerPoints);
+
+        assertSameScores(legacyMutantScores(mutants), scoreboard.getMutantScores());
+        assertSameScores(legacyTestScores(mutants, tests, ATTACKERS, DEFENDERS, equivalentDefenderIds, playerPoints),
+                scoreboard.getTestScores());
+    }
+
+    @org.junit.Test
+    public void testCounts() {
+        final Scoreboard scoreboard = new Scoreboard(1, mutants, tests, ATTACKERS, DEFENDERS,
+                equivalentDefenderIds, playerPoints);
+
+        assertEquals(7, scoreboard.getMutantCount());
+        assertEquals(2, scoreboard.getAliveMutantCount());
+        assertEquals(3, scoreboard.getTestCount());
+        assertTrue(scoreboard.hasMutants(1));
+        assertTrue(scoreboard.hasTests(4));
+        assertFalse(scoreboard.hasTests(1));
+        assertFalse(scoreboard.hasMutants(-1));
+    }
+
+    @org.junit.Test
+    public void testReturnedScoresAreCopies() {
+        final Scoreboard scoreboard = new Scoreboard(1, mutants, tests, ATTACKERS, DEFENDERS,
+                equivalentDefenderIds, playerPoints);
+        final int teamScore = scoreboard.getAttackerTeamScore();
+
+        scoreboard.getMutantScores().get(-1).increaseTotalScore(100);
+        assertEquals(teamScore, scoreboard.getAttackerTeamScore());
+    }
+
+    private static void assertSameScores(Map<Integer, PlayerScore> expected, Map<Integer, PlayerScore> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (int playerId : expected.keySet()) {
+            final PlayerScore e = expected.get(playerId);
+            final PlayerScore a = actual.get(playerId);
+            assertEquals("quantity of " + playerId, e.getQuantity(), a.getQuantity());
+            assertEquals("total score of " + playerId, e.getTotalScore(), a.getTotalScore());
+            assertEquals("kill information of " + playerId, e.getMutantKillInformation(), a.getMutantKillInformation());
+            assertEquals("duel information of " + playerId, e.getDuelInformation(), a.getDuelInformation());
+        }
+    }
+
+    private static Mutant mutant(int id, int playerId, boolean alive, Equivalence equivalence, int score) {
+        final Mutant mutant = mock(Mutant.class);
+        when(mutant.getId()).thenReturn(id);
+        when(mutant.getPlayerId()).thenReturn(playerId);
+        when(mutant.isAlive()).thenReturn(alive);
+        when(mutant.getEquivalent()).thenReturn(equivalence);
+        when(mutant.getScore()).thenReturn(score);
+        when(mutant.getClassFile()).thenReturn("Mutant" + id + ".class");
+        return mutant;
+    }
+
+    private static Test test(int playerId, int score, int mutantsKilled) {
+        final Test test = mock(Test.class);
+        when(test.getPlayerId()).thenReturn(playerId);
+        when(test.getScore()).thenReturn(score);
+        when(test.getMutantsKilled()).thenReturn(mutantsKilled);
+        return test;
+    }
+
+    private static List<Mutant> filter(List<Mutant> mutants, java.util.function.Predicate<Mutant> predicate) {
+        return mutants.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static List<Mutant> alive(List<Mutant> mutants) {
+        return filter(mutants, m -> m.isAlive() && m.getEquivalent().equals(ASSUMED_NO) && m.getClassFile() != null);
+    }
+
+    private static List<Mutant> killed(List<Mutant> mutants) {
+        return filter(mutants, m -> !m.isAlive() && (m.getEquivalent().equals(ASSUMED_NO)
+                || m.getEquivalent().equals(PROVEN_NO)) && m.getClassFile() != null);
+    }
+
+    private static List<Mutant> equivalent(List<Mutant> mutants) {
+        return filter(mutants, m -> m.getEquivalent().equals(ASSUMED_YES) || m.getEquivalent().equals(DECLARED_YES));
+    }
+
+    private static List<Mutant> pending(List<Mutant> mutants) {
+        return filter(mutants, m -> m.getEquivalent().equals(PENDING_TEST));
+    }
+
+    /**
+     * {@code MultiplayerGame#getMutantScores()} before the scoreboard was introduced.
+     */
+    private static HashMap<Integer, PlayerScore> legacyMutantScores(List<Mutant> mutants) {
+        HashMap<Integer, PlayerScore> mutantScores = new HashMap<>();
+
+        HashMap<Integer, Integer> mutantsAlive = new HashMap<>();
+        HashMap<Integer, Integer> mutantsKilled = new HashMap<>();
+        HashMap<Integer, Integer> mutantsEquiv = new HashMap<>();
+        HashMap<Integer, Integer> mutantsChallenged = new HashMap<>();
+        HashMap<Integer, Integer> duelsWon = new HashMap<>();
+
+        List<Mutant> allMutants = alive(mutants);
+        allMutants.addAll(killed(mutants));
+        allMutants.addAll(equivalent(mutants));
+        allMutants.addAll(pending(mutants));
+
+        mutantScores.put(-1, new PlayerScore(-1));
+        mutantsAlive.put(-1, 0);
+        mutantsEquiv.put(-1, 0);
+        mutantsChallenged.put(-1, 0);
+        mutantsKilled.put(-1, 0);
+        duelsWon.put(-1, 0);
+
+        for (Mutant mm : allMutants) {
+            if (!mutantScores.containsKey(mm.getPlayerId())) {
+                mutantScores.put(mm.getPlayerId(), new PlayerScore(mm.getPlayerId()));
+                mutantsAlive.put(mm.getPlayerId(), 0);
+                mutantsEquiv.put(mm.getPlayerId(), 0);
+                mutantsChallenged.put(mm.getPlayerId(), 0);
+                mutantsKilled.put(mm.getPlayerId(), 0);
+                duelsWon.put(mm.getPlayerId(), 0);
+            }
+
+            PlayerScore ps = mutantScores.get(mm.getPlayerId());
+            ps.increaseQuantity();
+            ps.increaseTotalScore(mm.getScore());
+
+            PlayerScore ts = mutantScores.get(-1);
+            ts.increaseQuantity();
+            ts.increaseTotalScore(mm.getScore());
+
+            if (mm.getEquivalent().equals(ASSUMED_YES) || mm.getEquivalent().equals(DECLARED_YES)) {
+                mutantsEquiv.put(mm.getPlayerId(), mutantsEquiv.get(mm.getPlayerId()) + 1);
+                mutantsEquiv.put(-1, mutantsEquiv.get(-1) + 1);
+            } else if (mm.isAlive()) {
+                mutantsAlive.put(mm.getPlayerId(), mutantsAlive.get(mm.getPlayerId()) + 1);
+                mutantsAlive.put(-1, mutantsAlive.get(-1) + 1);
+                if (mm.getEquivalent().equals(PENDING_TEST)) {
+                    mutantsChallenged.put(mm.getPlayerId(), mutantsChallenged.get(mm.getPlayerId()) + 1);
+                    mutantsChallenged.put(-1, mutantsChallenged.get(-1) + 1);
+                }
+            } else {
+                mutantsKilled.put(mm.getPlayerId(), mutantsKilled.get(mm.getPlayerId()) + 1);
+                mutantsKilled.put(-1, mutantsKilled.get(-1) + 1);
+                if (mm.getEquivalent().equals(PROVEN_NO)) {
+                    duelsWon.put(mm.getPlayerId(), duelsWon.get(mm.getPlayerId()) + 1);
+                    duelsWon.put(-1, duelsWon.get(-1) + 1);
+                }
+            }
+        }
+
+        for (int i : mutantsKilled.keySet()) {
+            PlayerScore ps = mutantScores.get(i);
+            ps.setMutantKillInformation(mutantsAlive.get(i) + " / " + mutantsKilled.get(i) + " / " + mutantsEquiv.get((i)));
+            ps.setDuelInformation(duelsWon.get(i) + " / " + mutantsEquiv.get(i) + " / " + mutantsChallenged.get((i)));
+        }
+        return mutantScores;
+    }
+
+    /**
+     * {@code MultiplayerGame#getTestScores()} before the scoreboard was introduced, with the
+     * database lookups of player points and equivalence duel defenders replaced by the given maps.
+     */
+    private static HashMap<Integer, PlayerScore> legacyTestScores(List<Mutant> mutants, List<Test> tests,
+                                                                  int[] attackers, int[] defenders,
+                                                                  Map<Integer, Integer> equivalentDefenderIds,
+                                                                  Map<Integer, Integer> playerPoints) {
+        HashMap<Integer, PlayerScore> testScores = new HashMap<>();
+        HashMap<Integer, Integer> mutantsKilled = new HashMap<>();
+
+        HashMap<Integer, Integer> challengesOpen = new HashMap<>();
+        HashMap<Integer, Integer> challengesWon = new HashMap<>();
+        HashMap<Integer, Integer> challengesLost = new HashMap<>();
+
+        int defendersTeamId = -1;
+        testScores.put(defendersTeamId, new PlayerScore(defendersTeamId));
+        mutantsKilled.put(defendersTeamId, 0);
+        challengesOpen.put(defendersTeamId, 0);
+        challengesWon.put(defendersTeamId, 0);
+        challengesLost.put(defendersTeamId, 0);
+
+        for (int defenderId : defenders) {
+            testScores.put(defenderId, new PlayerScore(defenderId));
+            mutantsKilled.put(defenderId, 0);
+            challengesOpen.put(defenderId, 0);
+            challengesWon.put(defenderId, 0);
+            challengesLost.put(defenderId, 0);
+        }
+
+        for (Test test : tests) {
+            if (ArrayUtils.contains(attackers, test.getPlayerId())) {
+                continue;
+            }
+            if (!testScores.containsKey(test.getPlayerId())) {
+                testScores.put(test.getPlayerId(), new PlayerScore(test.getPlayerId()));
+                mutantsKilled.put(test.getPlayerId(), 0);
+            }
+            PlayerScore ps = testScores.get(test.getPlayerId());
+            ps.increaseQuantity();
+            ps.increaseTotalScore(test.getScore());
+
+            PlayerScore ts = testScores.get(defendersTeamId);
+            ts.increaseQuantity();
+            ts.increaseTotalScore(test.getScore());
+
+            mutantsKilled.put(test.getPlayerId(), mutantsKilled.get(test.getPlayerId()) + test.getMutantsKilled());
+            mutantsKilled.put(defendersTeamId, mutantsKilled.get(defendersTeamId) + test.getMutantsKilled());
+        }
+
+        for (int playerId : mutantsKilled.keySet()) {
+            if (playerId < 0 || ArrayUtils.contains(attackers, playerId)) {
+                continue;
+            }
+            int playerScore = playerPoints.getOrDefault(playerId, 0);
+            testScores.get(playerId).increaseTotalScore(playerScore);
+            testScores.get(defendersTeamId).increaseTotalScore(playerScore);
+        }
+
+        for (Mutant m : killed(mutants)) {
+            if (!m.getEquivalent().equals(PROVEN_NO)) {
+                continue;
+            }
+            int defenderId = equivalentDefenderIds.get(m.getId());
+            challengesLost.put(defenderId, challengesLost.get(defenderId) + 1);
+            challengesLost.put(defendersTeamId, challengesLost.get(defendersTeamId) + 1);
+        }
+        for (Mutant m : equivalent(mutants)) {
+            int defenderId = equivalentDefenderIds.get(m.getId());
+            challengesWon.put(defenderId, challengesWon.get(defenderId) + 1);
+            challengesWon.put(defendersTeamId, challengesWon.get(defendersTeamId) + 1);
+        }
+        for (Mutant m : pending(mutants)) {
+            int defenderId = equivalentDefenderIds.get(m.getId());
+            challengesOpen.put(defenderId, challengesOpen.get(defenderId) + 1);
+            challengesOpen.put(defendersTeamId, challengesOpen.get(defendersTeamId) + 1);
+        }
+
+        for (int playerId : testScores.keySet()) {
+            testScores.get(playerId).setDuelInformation(challengesWon.get(playerId) + " / "
+                    + challengesLost.get(playerId) + " / " + challengesOpen.get((playerId)));
+        }
+
+        for (int i : mutantsKilled.keySet()) {
+            testScores.get(i).setMutantKillInformation("" + mutantsKilled.get(i));
+        }
+        return testScores;
+    }
+}
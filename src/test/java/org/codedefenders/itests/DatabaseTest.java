@@ -164,6 +164,17 @@ public class DatabaseTest {
 		assertEquals(user1.getEncodedPassword(), userFromDB.getEncodedPassword());
 	}
 
+	@Test
+	public void testDeactivateUser() {
+		assumeTrue(user1.insert());
+		assertTrue(UserDAO.isActiveUser(user1.getId()));
+
+		user1.setActive(false);
+		assertTrue(user1.update());
+		assertFalse(UserDAO.isActiveUser(user1.getId()));
+		assertFalse(UserDAO.isActiveUser(-1));
+	}
+
 	@Test
 	public void testInsertClasses() throws Exception {
 		assertEquals(0, GameClassDAO.getAllClasses().size());
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.codedefenders.game.Role;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EventBufferTest {
+
+    @Test
+    public void testGetAfter() {
+        final EventBuffer buffer = new EventBuffer(10, 100, 0);
+        buffer.add(event(101, EventType.GAME_STARTED, 1000));
+        buffer.add(event(103, EventType.DEFENDER_TEST_CREATED, 2000));
+        // stored concurrently, but added later
+        buffer.add(event(102, EventType.ATTACKER_MUTANT_CREATED, 1500));
+        // before the window
+        buffer.add(event(99, EventType.GAME_CREATED, 500));
+
+        assertEquals(3, buffer.size());
+        assertEquals("[101, 102, 103]", ids(buffer.getAfter(100)));
+        assertEquals("[103]", ids(buffer.getAfter(102)));
+        assertEquals("[]", ids(buffer.getAfter(103)));
+        assertNull(buffer.getAfter(99));
+    }
+
+    @Test
+    public void testRoleViews() {
+        final EventBuffer buffer = new EventBuffer(10, 0, 0);
+        buffer.add(event(1, EventType.ATTACKER_MESSAGE, 1000));
+        buffer.add(event(2, EventType.DEFENDER_MESSAGE, 1000));
+        buffer.add(event(3, EventType.GAME_MESSAGE, 1000));
+
+        assertEquals("[1, 3]", ids(buffer.getAfter(0, Role.ATTACKER)));
+        assertEquals("[2, 3]", ids(buffer.getAfter(0, Role.DEFENDER)));
+        assertEquals("[1, 2, 3]", ids(buffer.getAfter(0, Role.CREATOR)));
+    }
+
+    @Test
+    public void testWindowMovesWhenFull() {
+        final EventBuffer buffer = new EventBuffer(2, 0, 0);
+        buffer.add(event(1, EventType.GAME_STARTED, 1000));
+        buffer.add(event(2, EventType.GAME_STARTED, 2500));
+        buffer.add(event(3, EventType.GAME_STARTED, 4000));
+
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.getWindowStartId());
+        assertNull(buffer.getAfter(0));
+        assertEquals("[2, 3]", ids(buffer.getAfter(1)));
+
+        assertEquals(2000, buffer.getWindowStartTime());
+        assertNull(buffer.getSince(1000));
+        assertEquals("[2, 3]", ids(buffer.getSince(2000)));
+        assertEquals("[3]", ids(buffer.getSince(3000)));
+    }
+
+    private static Event event(int eventId, EventType type, long time) {
+        return new Event(eventId, 1, 1, "message", type, EventStatus.GAME, new Timestamp(time));
+    }
+
+    private static String ids(List<Event> events) {
+        return events.stream().map(Event::getId).collect(Collectors.toList()).toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventMessageTemplateTest {
+
+    @Test
+    public void testRenderLiteral() {
+        final EventMessageTemplate template = EventMessageTemplate.compile("The game has started!");
+        final Event event = event(EventType.GAME_STARTED, null);
+
+        assertFalse(template.hasChatMessage());
+        assertEquals("The game has started!", template.render(event, false));
+        assertEquals("<span style='font-style: italic; font-weight: bold;'>The game has started!</span>",
+                template.render(event, true));
+    }
+
+    @Test
+    public void testRenderChatMessage() {
+        final EventMessageTemplate template = EventMessageTemplate.compile("@chat_message @@ @chat_message");
+        final Event event = event(EventType.GAME_MESSAGE, "hello @chat_message");
+
+        assertTrue(template.hasChatMessage());
+        // chat messages are never emphasised
+        assertEquals("hello @chat_message @@ hello @chat_message", template.render(event, true));
+    }
+
+    @Test
+    public void testRenderNull() {
+        final Event event = event(EventType.GAME_STARTED, null);
+
+        assertNull(EventMessageTemplate.compile(null).render(event, true));
+        assertEquals("<span style='font-style: italic; font-weight: bold;'></span>",
+                EventMessageTemplate.compile("").render(event, true));
+    }
+
+    @Test
+    public void testParseReplacesCurrentUserName() {
+        final Event event = event(EventType.GAME_MESSAGE, "hi @alice and @alice");
+        event.setCurrentUserName("@alice");
+        event.parse(EventMessageTemplate.compile("@chat_message"), true);
+
+        assertEquals("hi @You and @You", event.getParsedMessage());
+    }
+
+    @Test
+    public void testReplace() {
+        final String text = "no match";
+        assertSame(text, EventMessageTemplate.replace(text, "@bob", "@You"));
+        assertSame(text, EventMessageTemplate.replace(text, "", "@You"));
+        assertEquals("@You, @You!", EventMessageTemplate.replace("@bob, @bob!", "@bob", "@You"));
+    }
+
+    private static Event event(EventType type, String chatMessage) {
+        final Event event = new Event(1, 1, 1, "", type, EventStatus.GAME, null);
+        event.setChatMessage(chatMessage);
+        return event;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.model;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameEventBusTest {
+
+    @Test
+    public void testPublishToGameListeners() {
+        final List<Integer> received = new ArrayList<>();
+        final GameEventBus.Listener listener = new GameEventBus.Listener() {
+            @Override
+            public void onEvent(Event event) {
+                received.add(event.getId());
+            }
+
+            @Override
+            public void onProgress() {
+                received.add(-1);
+            }
+        };
+
+        GameEventBus.subscribe(2001, listener);
+        GameEventBus.publishEvent(event(1, 2001));
+        GameEventBus.publishEvent(event(2, 2002));
+        GameEventBus.publishProgress(2001);
+        GameEventBus.publishProgress(2002);
+        GameEventBus.unsubscribe(2001, listener);
+        GameEventBus.publishEvent(event(3, 2001));
+
+        assertEquals(2, received.size());
+        assertEquals(1, (int) received.get(0));
+        assertEquals(-1, (int) received.get(1));
+    }
+
+    @Test
+    public void testFailingListener() {
+        final List<Integer> received = new ArrayList<>();
+        final GameEventBus.Listener failing = new GameEventBus.Listener() {
+            @Override
+            public void onEvent(Event event) {
+                throw new IllegalStateException();
+            }
+        };
+        final GameEventBus.Listener listener = new GameEventBus.Listener() {
+            @Override
+            public void onEvent(Event event) {
+                received.add(event.getId());
+            }
+        };
+
+        GameEventBus.subscribe(2003, failing);
+        GameEventBus.subscribe(2003, listener);
+        GameEventBus.publishEvent(event(4, 2003));
+        GameEventBus.unsubscribe(2003, failing);
+        GameEventBus.unsubscribe(2003, listener);
+
+        assertTrue(received.contains(4));
+    }
+
+    private static Event event(int eventId, int gameId) {
+        return new Event(eventId, gameId, 1, "message", EventType.GAME_STARTED, EventStatus.GAME,
+                new Timestamp(System.currentTimeMillis()));
+    }
+}
@@ -19,6 +19,9 @@
 package org.codedefenders.servlets;
 
 import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.disk.DiskFileItem;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.codedefenders.database.DatabaseConnection;
@@ -52,7 +55,11 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -204,6 +211,63 @@ public class ClassUploadManagerTest {
         return fileItem;
     }
 
+    /**
+     * Create a {@link FileItemIterator}, which streams the given file items.
+     *
+     * @param fileItems
+     * @return
+     */
+    private FileItemIterator createFileItemIterator(List<FileItem> fileItems) {
+        final Iterator<FileItem> iterator = fileItems.iterator();
+        return new FileItemIterator() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public FileItemStream next() {
+                final FileItem fileItem = iterator.next();
+                return new FileItemStream() {
+                    @Override
+                    public InputStream openStream() throws IOException {
+                        return fileItem.getInputStream();
+                    }
+
+                    @Override
+                    public String getContentType() {
+                        return fileItem.getContentType();
+                    }
+
+                    @Override
+                    public String getName() {
+                        return fileItem.getName();
+                    }
+
+                    @Override
+                    public String getFieldName() {
+                        return fileItem.getFieldName();
+                    }
+
+                    @Override
+                    public boolean isFormField() {
+                        return fileItem.isFormField();
+                    }
+
+                    @Override
+                    public FileItemHeaders getHeaders() {
+                        return fileItem.getHeaders();
+                    }
+
+                    @Override
+                    public void setHeaders(FileItemHeaders headers) {
+                        fileItem.setHeaders(headers);
+                    }
+                };
+            }
+        };
+    }
+
     @Test
     public void testUploadWithMutantsAndTests() throws Exception {
         HttpServletResponse mockedResponse = Mockito.mock(HttpServletResponse.class);
@@ -231,7 +295,7 @@ public class ClassUploadManagerTest {
 
         // Configure the fileUpload component to return our list of fileItems
         // This might
-        when(fileUpload.parseRequest(request)).thenReturn(fileItems);
+        when(fileUpload.getItemIterator(request)).thenReturn(createFileItemIterator(fileItems));
         // Configure the request to be multipart/form-data
         when(request.getContentType())
                 .thenReturn("multipart/form-data; charset=utf-8; boundary=\"another cool boundary\"");
@@ -242,7 +306,12 @@ public class ClassUploadManagerTest {
         ClassUploadManager uploadManager = new ClassUploadManager();
         // Force the class to use the mocked one
         uploadManager.setServletFileUpload(fileUpload);
+        // The upload is processed in the background, wait for it
+        ExecutorService uploadExecutor = Executors.newSingleThreadExecutor();
+        uploadManager.setUploadExecutor(uploadExecutor);
         uploadManager.doPost(request, mockedResponse);
+        uploadExecutor.shutdown();
+        uploadExecutor.awaitTermination(5, TimeUnit.MINUTES);
         
         // Here make the various assertions ? Or simply query the KillMapDao
     }
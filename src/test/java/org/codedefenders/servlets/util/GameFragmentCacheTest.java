@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import org.codedefenders.game.GameVersions;
+import org.codedefenders.game.Role;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots;
+import org.codedefenders.game.multiplayer.FinishedGameSnapshots.Snapshot;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameFragmentCacheTest {
+
+    @Test
+    public void testFragmentsAreCachedPerVersionAndRole() {
+        final int gameId = 4712;
+        final long version = GameVersions.get(gameId);
+
+        final HttpServletRequest attacker = request();
+        GameFragmentCache.enable(attacker, gameId, version, Role.ATTACKER);
+        assertNull(GameFragmentCache.get(attacker, "mutants_list"));
+        GameFragmentCache.put(attacker, "mutants_list", "attacker list");
+        assertEquals("attacker list", GameFragmentCache.get(attacker, "mutants_list"));
+
+        final HttpServletRequest defender = request();
+        GameFragmentCache.enable(defender, gameId, version, Role.DEFENDER);
+        assertNull(GameFragmentCache.get(defender, "mutants_list"));
+
+        final HttpServletRequest attackerAfterChange = request();
+        GameFragmentCache.enable(attackerAfterChange, gameId, GameVersions.bump(gameId), Role.ATTACKER);
+        assertNull(GameFragmentCache.get(attackerAfterChange, "mutants_list"));
+        assertEquals("new list", GameFragmentCache.get(attackerAfterChange, "mutants_list", () -> "new list"));
+        assertEquals("new list", GameFragmentCache.get(attackerAfterChange, "mutants_list", () -> "other list"));
+    }
+
+    @Test
+    public void testSnapshot() {
+        final Snapshot snapshot = FinishedGameSnapshots.get(4713);
+        final HttpServletRequest request = request();
+        GameFragmentCache.enableSnapshot(request, snapshot, Role.DEFENDER);
+        assertNull(GameFragmentCache.get(request, "tests_carousel"));
+        GameFragmentCache.put(request, "tests_carousel", "tests");
+
+        GameVersions.bump(4713);
+        final HttpServletRequest nextRequest = request();
+        GameFragmentCache.enableSnapshot(nextRequest, FinishedGameSnapshots.get(4713), Role.DEFENDER);
+        assertEquals("tests", GameFragmentCache.get(nextRequest, "tests_carousel"));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        final HttpServletRequest request = request();
+        GameFragmentCache.put(request, "mutants_list", "list");
+        assertNull(GameFragmentCache.get(request, "mutants_list"));
+    }
+
+    private static HttpServletRequest request() {
+        final Map<String, Object> attributes = new HashMap<>();
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        doAnswer(invocation -> attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]))
+                .when(request).setAttribute(anyString(), any());
+        when(request.getAttribute(anyString()))
+                .thenAnswer(invocation -> attributes.get((String) invocation.getArguments()[0]));
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import org.codedefenders.game.GameVersions;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServletUtilsTest {
+
+    @Test
+    public void testGameETagChangesWithVersion() {
+        final String etag = ServletUtils.gameETag(4711, "page-1");
+        assertEquals(etag, ServletUtils.gameETag(4711, "page-1"));
+        assertNotEquals(etag, ServletUtils.gameETag(4711, "page-2"));
+
+        GameVersions.bump(4711);
+        assertNotEquals(etag, ServletUtils.gameETag(4711, "page-1"));
+    }
+
+    @Test
+    public void testIsNotModified() {
+        final String etag = "W/\"1-2-3-page-4\"";
+
+        final HttpServletRequest matching = mock(HttpServletRequest.class);
+        when(matching.getHeader("If-None-Match")).thenReturn("W/\"other\", " + etag);
+        final HttpServletResponse notModified = mock(HttpServletResponse.class);
+        assertTrue(ServletUtils.isNotModified(matching, notModified, etag));
+        verify(notModified).setHeader("ETag", etag);
+        verify(notModified).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+        final HttpServletRequest other = mock(HttpServletRequest.class);
+        when(other.getHeader("If-None-Match")).thenReturn("W/\"other\"");
+        final HttpServletResponse modified = mock(HttpServletResponse.class);
+        assertFalse(ServletUtils.isNotModified(other, modified, etag));
+        verify(modified).setHeader("ETag", etag);
+        verify(modified, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+        final HttpServletRequest unconditional = mock(HttpServletRequest.class);
+        assertFalse(ServletUtils.isNotModified(unconditional, mock(HttpServletResponse.class), etag));
+    }
+}
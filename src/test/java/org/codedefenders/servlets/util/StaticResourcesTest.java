@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.servlets.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletContext;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaticResourcesTest {
+
+    @Test
+    public void testIsStaticResource() {
+        assertTrue(StaticResources.isStaticResource("/codedefenders/js/jquery.js"));
+        assertTrue(StaticResources.isStaticResource("/codedefenders/codemirror/lib/codemirror.css"));
+        assertTrue(StaticResources.isStaticResource("/Fonts/glyphicons.woff"));
+        assertFalse(StaticResources.isStaticResource("/codedefenders/multiplayer/games"));
+        assertFalse(StaticResources.isStaticResource("/codedefenders/jsp/index.jsp"));
+    }
+
+    @Test
+    public void testUrlContainsFingerprint() {
+        final ServletContext context = mock(ServletContext.class);
+        when(context.getResourceAsStream("/js/first.js")).thenAnswer(i -> stream("var a = 1;"));
+        when(context.getResourceAsStream("/js/second.js")).thenAnswer(i -> stream("var a = 2;"));
+
+        final String first = StaticResources.url(context, "js/first.js");
+        final String second = StaticResources.url(context, "js/second.js");
+        assertTrue(first.startsWith("js/first.js?v="));
+        assertEquals("js/first.js?v=" + StaticResources.fingerprint(context, "/js/first.js"), first);
+        assertNotEquals(first.substring(first.indexOf('=')), second.substring(second.indexOf('=')));
+        assertEquals("js/missing.js", StaticResources.url(context, "js/missing.js"));
+    }
+
+    @Test
+    public void testCompressed() throws IOException {
+        final String content = "body { color: black; }\nbody { color: black; }\n";
+        final ServletContext context = mock(ServletContext.class);
+        when(context.getResourceAsStream("/css/test.css")).thenAnswer(i -> stream(content));
+        when(context.getResourceAsStream("/css/test.css.br")).thenAnswer(i -> stream("brotli"));
+
+        final byte[] gzipped = StaticResources.compressed(context, "/css/test.css", "gzip");
+        assertEquals(content, gunzip(gzipped));
+        assertArrayEquals("brotli".getBytes(StandardCharsets.UTF_8),
+                StaticResources.compressed(context, "/css/test.css", "br"));
+        assertNull(StaticResources.compressed(context, "/css/missing.css", "gzip"));
+        assertNull(StaticResources.compressed(context, "/css/missing.css", "br"));
+    }
+
+    @Test
+    public void testAccepts() {
+        assertTrue(StaticResources.accepts("gzip, deflate, br", "br"));
+        assertTrue(StaticResources.accepts("gzip;q=0.5, br;q=1.0", "gzip"));
+        assertFalse(StaticResources.accepts("gzip, br;q=0", "br"));
+        assertFalse(StaticResources.accepts("deflate", "gzip"));
+        assertFalse(StaticResources.accepts(null, "gzip"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
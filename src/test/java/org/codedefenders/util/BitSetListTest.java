@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetListTest {
+
+    @Test
+    public void testListView() {
+        final BitSetList list = BitSetList.of(Arrays.asList(9, 3, 5, 3));
+        assertEquals(Arrays.asList(3, 5, 9), list);
+        assertEquals(3, list.size());
+        assertEquals(Integer.valueOf(9), list.get(2));
+        assertEquals(1, list.indexOf(5));
+        assertEquals(-1, list.indexOf(4));
+        assertTrue(list.contains(9));
+        assertFalse(list.contains(-1));
+        assertFalse(list.contains((Object) "9"));
+    }
+
+    @Test
+    public void testIntersects() {
+        final BitSetList list = BitSetList.of(Arrays.asList(3, 5, 9));
+        assertTrue(list.intersects(BitSetList.of(Arrays.asList(1, 9))));
+        assertFalse(list.intersects(BitSetList.of(Arrays.asList(1, 4))));
+        assertTrue(list.intersects(Collections.singletonList(5)));
+        assertFalse(list.intersects(Collections.emptyList()));
+    }
+
+    @Test
+    public void testBackingBitSetIsCopied() {
+        final BitSet bits = new BitSet();
+        bits.set(4);
+        final BitSetList list = new BitSetList(bits);
+        bits.set(5);
+        list.toBitSet().set(6);
+        assertEquals(Collections.singletonList(4), list);
+    }
+
+    @Test
+    public void testOfBitSet() {
+        final BitSet bits = new BitSet();
+        bits.set(2);
+        bits.set(7);
+        assertEquals(Arrays.asList(2, 7), BitSetList.of(bits));
+        assertTrue(BitSetList.of(new BitSet()).isEmpty());
+        assertTrue(BitSetList.of((BitSet) null).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        BitSetList.of(Arrays.asList(1, 2)).add(3);
+    }
+}
@@ -27,7 +27,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Testing {@link FileUtils}.
@@ -94,6 +100,51 @@ public class FileUtilsTest {
         Assume.assumeTrue(dummyDirectory.toFile().delete());
     }
 
+    @Test
+    public void testGetNextShardedSubDir() {
+        Path dummyDirectory;
+        try {
+            dummyDirectory = Files.createTempDirectory("dummyDirectory");
+            Files.createDirectory(dummyDirectory.resolve("00000999"));
+        } catch (IOException e) {
+            Assume.assumeNoException(e);
+            return;
+        }
+        File nextSubDir = FileUtils.getNextShardedSubDir(dummyDirectory.toString());
+        Assert.assertEquals(dummyDirectory.resolve("00001").resolve("00001000").toFile(), nextSubDir);
+
+        nextSubDir = FileUtils.getNextShardedSubDir(dummyDirectory.toString());
+        Assert.assertEquals(dummyDirectory.resolve("00001").resolve("00001001").toFile(), nextSubDir);
+
+        org.apache.commons.io.FileUtils.deleteQuietly(dummyDirectory.toFile());
+    }
+
+    @Test
+    public void testGetNextSubDirConcurrent() throws Exception {
+        Path dummyDirectory;
+        try {
+            dummyDirectory = Files.createTempDirectory("dummyDirectory");
+        } catch (IOException e) {
+            Assume.assumeNoException(e);
+            return;
+        }
+        final int numberOfDirectories = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<File>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfDirectories; i++) {
+            futures.add(executor.submit(() -> FileUtils.getNextShardedSubDir(dummyDirectory.toString())));
+        }
+        final Set<File> directories = new HashSet<>();
+        for (Future<File> future : futures) {
+            directories.add(future.get());
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(numberOfDirectories, directories.size());
+
+        org.apache.commons.io.FileUtils.deleteQuietly(dummyDirectory.toFile());
+    }
+
     @Test
     public void testReadEmptyLines() {
         final List<String> strings = FileUtils.readLines(Paths.get("doesnotexist/Test.java"));
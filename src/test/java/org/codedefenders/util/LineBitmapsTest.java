@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineBitmapsTest {
+
+    @Test
+    public void testEmpty() {
+        assertTrue(LineBitmaps.decodeToList(LineBitmaps.encode(Collections.emptyList())).isEmpty());
+        assertTrue(LineBitmaps.decodeToList(null).isEmpty());
+        assertTrue(LineBitmaps.decodeToList(new byte[0]).isEmpty());
+    }
+
+    @Test
+    public void testSparseLinesUseRuns() {
+        final byte[] encoded = LineBitmaps.encode(Collections.singletonList(1500));
+        assertEquals(LineBitmaps.FORMAT_RUNS, encoded[0]);
+        assertEquals(4, encoded.length);
+        assertEquals(Collections.singletonList(1500), LineBitmaps.decodeToList(encoded));
+    }
+
+    @Test
+    public void testAlternatingLinesUseBitmap() {
+        final List<Integer> lines = new ArrayList<>();
+        for (int line = 1; line < 200; line += 2) {
+            lines.add(line);
+        }
+        final byte[] encoded = LineBitmaps.encode(lines);
+        assertEquals(LineBitmaps.FORMAT_BITMAP, encoded[0]);
+        assertEquals(lines, LineBitmaps.decodeToList(encoded));
+    }
+
+    @Test
+    public void testUnsortedLinesWithDuplicates() {
+        final byte[] encoded = LineBitmaps.encode(Arrays.asList(12, 3, 4, 5, 12, 200, 201));
+        assertEquals(Arrays.asList(3, 4, 5, 12, 200, 201), LineBitmaps.decodeToList(encoded));
+    }
+
+    @Test
+    public void testParseLegacy() {
+        assertEquals(Arrays.asList(3, 1, 2), LineBitmaps.parseLegacy("3,1,2"));
+        assertTrue(LineBitmaps.parseLegacy("").isEmpty());
+        assertTrue(LineBitmaps.parseLegacy(null).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedInput() {
+        LineBitmaps.decode(new byte[]{LineBitmaps.FORMAT_RUNS, (byte) 0x80});
+    }
+}
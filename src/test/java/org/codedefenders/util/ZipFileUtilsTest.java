@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Testing {@link ZipFileUtils}.
+ */
+public class ZipFileUtilsTest {
+
+    private static byte[] createZip(String... namesAndContents) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testGetFilesFromZipStream() throws IOException {
+        final byte[] zip = createZip(
+                "mutants/1/Lift.java", "public class Lift {\r\n}\r\n",
+                "mutants/2/Lift.java", "public class Lift {}");
+
+        final List<JavaFileObject> files = ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(zip));
+
+        Assert.assertEquals(2, files.size());
+        Assert.assertEquals("Lift.java", files.get(0).getName());
+        Assert.assertEquals("public class Lift {\n}", files.get(0).getContent());
+        Assert.assertEquals("public class Lift {}", files.get(1).getContent());
+    }
+
+    @Test(expected = ZipException.class)
+    public void testGetFilesFromZipNoZipFile() throws IOException {
+        final byte[] noZip = "public class Lift {}".getBytes(StandardCharsets.UTF_8);
+        ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(noZip));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testGetFilesFromZipEmpty() throws IOException {
+        ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(createZip()));
+    }
+
+    @Test(expected = ZipFileUtils.ZipLimitExceededException.class)
+    public void testGetFilesFromZipTooManyEntries() throws IOException {
+        final byte[] zip = createZip("A.java", "class A {}", "B.java", "class B {}", "C.java", "class C {}");
+        ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(zip), 2, 1024, 1024);
+    }
+
+    @Test(expected = ZipFileUtils.ZipLimitExceededException.class)
+    public void testGetFilesFromZipEntryTooLarge() throws IOException {
+        final byte[] zip = createZip("A.java", "class A {}", "B.java", "class B { int b; }");
+        ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(zip), 10, 12, 1024);
+    }
+
+    @Test(expected = ZipFileUtils.ZipLimitExceededException.class)
+    public void testGetFilesFromZipTotalTooLarge() throws IOException {
+        final byte[] zip = createZip("A.java", "class A {}", "B.java", "class B {}");
+        ZipFileUtils.getFilesFromZip(new ByteArrayInputStream(zip), 10, 1024, 15);
+    }
+}
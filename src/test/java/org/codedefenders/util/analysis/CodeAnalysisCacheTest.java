@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016-2019 Code Defenders contributors
+ *
+ * This file is part of Code Defenders.
+ *
+ * Code Defenders is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Code Defenders is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Code Defenders. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.codedefenders.util.analysis;
+
+import org.codedefenders.game.GameClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link CodeAnalysisCache} and the lazy code analysis of {@link GameClass}.
+ */
+public class CodeAnalysisCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testResultIsCachedUntilFileChanges() throws Exception {
+        final File javaFile = folder.newFile("Foo.java");
+        Files.write(javaFile.toPath(), "import java.util.List;\npublic class Foo {}".getBytes(StandardCharsets.UTF_8));
+
+        final AtomicInteger reads = new AtomicInteger();
+        final String path = javaFile.getAbsolutePath();
+
+        final CodeAnalysisResult first = CodeAnalysisCache.getCodeAnalysis("Foo", path, () -> read(javaFile, reads));
+        final CodeAnalysisResult second = CodeAnalysisCache.getCodeAnalysis("Foo", path, () -> read(javaFile, reads));
+        assertSame(first, second);
+        assertEquals(1, reads.get());
+
+        Files.write(javaFile.toPath(), "public class Foo { int x; }".getBytes(StandardCharsets.UTF_8));
+        assertTrue(javaFile.setLastModified(javaFile.lastModified() + 2000));
+
+        final CodeAnalysisResult third = CodeAnalysisCache.getCodeAnalysis("Foo", path, () -> read(javaFile, reads));
+        assertNotSame(first, third);
+        assertEquals(2, reads.get());
+        assertTrue(third.getAdditionalImports().isEmpty());
+    }
+
+    @Test
+    public void testGameClassDoesNotReadSourceOnConstruction() throws Exception {
+        final File javaFile = new File(folder.getRoot(), "Missing.java");
+
+        // Constructing must not touch the file, so a missing file is no problem until the analysis is needed.
+        final GameClass gameClass = new GameClass("Missing", "Missing", javaFile.getAbsolutePath(), "");
+        Files.write(javaFile.toPath(), "import java.util.List;\npublic class Missing {}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, gameClass.getAdditionalImports().size());
+    }
+
+    private static String read(File file, AtomicInteger reads) {
+        reads.incrementAndGet();
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}